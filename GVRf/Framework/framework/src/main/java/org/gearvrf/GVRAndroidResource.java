@@ -16,6 +16,7 @@
 package org.gearvrf;
 
 import android.content.Context;
+import android.content.res.AssetFileDescriptor;
 import android.content.res.Resources;
 import android.graphics.Bitmap;
 import android.util.TypedValue;
@@ -27,10 +28,13 @@ import org.gearvrf.utility.MarkingFileInputStream;
 
 import java.io.BufferedInputStream;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 
 /**
  * A class to minimize overload fan-out.
@@ -229,11 +233,22 @@ public class GVRAndroidResource {
      * </ul>
      * @return GVRAndroidResource.ResourceType giving type of resource
      */
-    ResourceType getResourceType()
+    public ResourceType getResourceType()
     {
         return resourceType;
     }
 
+    /**
+     * Tells whether the resource can be read again without going back to
+     * its source: a {@linkplain ResourceType#NETWORK network} resource
+     * without local caching is downloaded each time its stream is opened.
+     * @return true if the resource is a URL that is downloaded to a local file
+     */
+    public boolean isUrlLocalCacheEnabled()
+    {
+        return enableUrlLocalCache;
+    }
+
     /*
      * A {@link URLBufferedInputStream} that supports {@link
      * InputStream#mark(int)} and {@link InputStream#reset()}
@@ -403,6 +418,77 @@ public class GVRAndroidResource {
         }
     }
 
+    /**
+     * Map the resource into memory, instead of reading it through a stream.
+     *
+     * The returned buffer is read-only and direct: the file pages are only
+     * read when they are touched, and they are not counted against the Java
+     * heap. This is how large compressed textures are loaded.
+     *
+     * Only resources that are whole files on the device can be mapped: files,
+     * raw resources and assets that are stored uncompressed in the APK, and
+     * network resources with local caching enabled.
+     *
+     * @return A read-only direct buffer with the resource contents, or
+     *         {@code null} if the resource cannot be mapped; use
+     *         {@link #getStream()} then.
+     * @throws IOException
+     */
+    public synchronized ByteBuffer mapFile() throws IOException {
+        switch (resourceType) {
+        case ANDROID_ASSETS:
+            try {
+                return map(context.getResources().getAssets().openFd(assetPath));
+            } catch (FileNotFoundException e) {
+                // Compressed in the APK
+                return null;
+            }
+
+        case ANDROID_RESOURCE:
+            try {
+                return map(context.getResources().openRawResourceFd(resourceId));
+            } catch (Resources.NotFoundException e) {
+                return null;
+            }
+
+        case LINUX_FILESYSTEM:
+            return map(new File(filePath));
+
+        case NETWORK:
+            if (enableUrlLocalCache) {
+                File file = GVRAssetLoader.downloadFile(context, url.toString());
+                return (file != null) ? map(file) : null;
+            }
+            return null;
+
+        default:
+            return null;
+        }
+    }
+
+    private static ByteBuffer map(File file) throws IOException {
+        FileInputStream input = new FileInputStream(file);
+        try {
+            FileChannel channel = input.getChannel();
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        } finally {
+            input.close();
+        }
+    }
+
+    private static ByteBuffer map(AssetFileDescriptor descriptor) throws IOException {
+        if (descriptor == null) {
+            return null;
+        }
+        FileInputStream input = descriptor.createInputStream();
+        try {
+            return input.getChannel().map(FileChannel.MapMode.READ_ONLY,
+                    descriptor.getStartOffset(), descriptor.getLength());
+        } finally {
+            input.close();
+        }
+    }
+
     /**
      * Save the stream position, for later use with {@link #reset()}.
      * 
@@ -485,6 +571,52 @@ public class GVRAndroidResource {
         }
     }
 
+    /**
+     * Returns a string which identifies where the resource comes from,
+     * so that data derived from it can be cached across launches.
+     * Unlike {@link #getResourceFilename()} it includes the full path.
+     * 
+     * @return Identity of the resource, or {@code null} for network and
+     *         input stream resources, which cannot be identified reliably
+     */
+    public String getResourceIdentity() {
+        switch (resourceType) {
+        case ANDROID_ASSETS:
+            return "asset:" + assetPath;
+
+        case ANDROID_RESOURCE:
+            return "res:" + resourceFilePath;
+
+        case LINUX_FILESYSTEM:
+            return "file:" + filePath;
+
+        default:
+            return null;
+        }
+    }
+
+    /**
+     * Returns when the resource was last modified. Assets and resources
+     * change when the application is updated, so they report the time
+     * of the application package.
+     * 
+     * @return Modification time in milliseconds since the epoch, 0 if
+     *         unknown
+     */
+    public long getLastModified() {
+        switch (resourceType) {
+        case ANDROID_ASSETS:
+        case ANDROID_RESOURCE:
+            return new File(context.getApplicationInfo().sourceDir).lastModified();
+
+        case LINUX_FILESYSTEM:
+            return new File(filePath).lastModified();
+
+        default:
+            return 0;
+        }
+    }
+
     /*
      * Auto-generated hashCode() and equals(), for container support &c.
      * 
@@ -31,11 +31,13 @@ import org.gearvrf.scene_objects.GVRModelSceneObject;
 import org.gearvrf.utility.FileNameUtils;
 import org.gearvrf.utility.GVRByteArray;
 import org.gearvrf.utility.Log;
+import org.gearvrf.utility.LruCachePolicy;
 import org.gearvrf.utility.ResourceCache;
 import org.gearvrf.utility.ResourceCacheBase;
 import org.gearvrf.utility.ResourceReader;
 import org.gearvrf.utility.Threads;
 import org.gearvrf.x3d.ShaderSettings;
+import org.gearvrf.x3d.X3DDocument;
 import org.gearvrf.x3d.X3Dobject;
 import org.gearvrf.x3d.X3DparseLights;
 
@@ -48,10 +50,9 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.URL;
+import java.util.ArrayList;
 import java.util.EnumSet;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.Future;
 
@@ -82,7 +83,7 @@ public final class GVRAssetLoader {
      * called by GVRAssetLoader to get around the restriction that GVRContext
      * can only have a single listener for asset events.
      */
-    public static class AssetRequest implements IAssetEvents
+    public static class AssetRequest implements IAssetEvents, IAssetTimingEvents
     {
         protected final GVRContext        mContext;
         protected final GVRScene          mScene;
@@ -95,6 +96,9 @@ public final class GVRAssetLoader {
         protected boolean                 mReplaceScene = false;
         protected boolean                 mCacheEnabled = true;
         protected EnumSet<GVRImportSettings> mSettings = null;
+        protected long                    mParseTime = 0;
+        protected long                    mBuildTime = 0;
+        protected long                    mCommitTime = 0;
 
         /**
          * Request to load an asset.
@@ -165,6 +169,19 @@ public final class GVRAssetLoader {
             mSettings = settings;
         }
 
+        /**
+         * Record the time spent parsing the model file(s) and building
+         * the scene objects. They are reported by
+         * {@link #onModelTimings(GVRContext, GVRSceneObject, String, long, long, long)}.
+         * @param parseTime nanoseconds spent parsing
+         * @param buildTime nanoseconds spent building
+         */
+        public void setStageTimes(long parseTime, long buildTime)
+        {
+            mParseTime = parseTime;
+            mBuildTime = buildTime;
+        }
+
         public String getBaseName()
         {
         	String fname = mVolume.getFileName();
@@ -235,7 +252,7 @@ public final class GVRAssetLoader {
             GVRImage image;
 
             Log.d(TAG, "ASSET: loadEmbeddedTexture %s %d", request.TextureFile, mNumTextures);
-            Map<String, GVRImage> texCache = GVRAssetLoader.getEmbeddedTextureCache();
+            ResourceCache<GVRImage> texCache = GVRAssetLoader.getEmbeddedTextureCache();
             synchronized (mNumTextures)
             {
                 ++mNumTextures;
@@ -250,7 +267,7 @@ public final class GVRAssetLoader {
             }
             synchronized (texCache)
             {
-                image = texCache.get(request.TextureFile);
+                image = texCache.get(resource);
                 if (image != null)
                 {
                     Log.d(TAG, "ASSET: loadEmbeddedTexture found %s", resource.getResourceFilename());
@@ -274,7 +291,7 @@ public final class GVRAssetLoader {
                 bmaptex.setBitmap(bmap);
                 image = bmaptex;
                 Log.d(TAG, "ASSET: loadEmbeddedTexture saved %s", resource.getResourceFilename());
-                texCache.put(request.TextureFile, image);
+                texCache.put(resource, image);
                 bmapTex.setImage(image);
             }
             request.loaded(image, resource);
@@ -418,6 +435,57 @@ public final class GVRAssetLoader {
                                                  "onAssetLoaded", new Object[] { mContext, mModel, mFileName, errors });
         }
 
+        /**
+         * Called with the time spent in each stage of loading the model.
+         * @param context    GVRContext which loaded the model
+         * @param model      model that was loaded
+         * @param modelFile  filename of model loaded
+         * @param parseTime  nanoseconds spent parsing the model file(s)
+         * @param buildTime  nanoseconds spent building the scene objects
+         * @param commitTime nanoseconds spent adding the model to the scene
+         */
+        @Override
+        public void onModelTimings(GVRContext context, GVRSceneObject model, String modelFile,
+                                   long parseTime, long buildTime, long commitTime)
+        {
+            Log.d(TAG, "ASSET: %s parse %.2f ms, build %.2f ms, commit %.2f ms", modelFile,
+                  parseTime / 1e6f, buildTime / 1e6f, commitTime / 1e6f);
+            if (mUserHandler instanceof IAssetTimingEvents)
+            {
+                ((IAssetTimingEvents) mUserHandler).onModelTimings(context, model, modelFile,
+                                                                   parseTime, buildTime, commitTime);
+            }
+            mContext.getEventManager().sendEvent(mContext, IAssetTimingEvents.class,
+                                                 "onModelTimings", new Object[] { mContext, model, modelFile,
+                                                                                  parseTime, buildTime, commitTime });
+        }
+
+        /**
+         * Called with the time spent in each stage of building a model
+         * imported with Assimp.
+         * @param context      GVRContext which loaded the model
+         * @param model        model that was loaded
+         * @param modelFile    filename of model loaded
+         * @param convertTime  nanoseconds spent converting meshes and animation channels
+         * @param assembleTime nanoseconds spent assembling the scene graph
+         * @param threads      number of threads the conversion ran on
+         */
+        @Override
+        public void onImportTimings(GVRContext context, GVRSceneObject model, String modelFile,
+                                    long convertTime, long assembleTime, int threads)
+        {
+            Log.d(TAG, "ASSET: %s convert %.2f ms on %d threads, assemble %.2f ms", modelFile,
+                  convertTime / 1e6f, threads, assembleTime / 1e6f);
+            if (mUserHandler instanceof IAssetTimingEvents)
+            {
+                ((IAssetTimingEvents) mUserHandler).onImportTimings(context, model, modelFile,
+                                                                    convertTime, assembleTime, threads);
+            }
+            mContext.getEventManager().sendEvent(mContext, IAssetTimingEvents.class,
+                                                 "onImportTimings", new Object[] { mContext, model, modelFile,
+                                                                                   convertTime, assembleTime, threads });
+        }
+
         /**
          * Generate the onAssetLoaded event.
          * Add the model to the scene and start animations.
@@ -429,6 +497,7 @@ public final class GVRAssetLoader {
             {
                 if ((mScene != null))
                 {
+                    long commitStart = System.nanoTime();
                     if (mReplaceScene)
                     {
                         GVRSceneObject mainCam = mModel.getSceneObjectByName("MainCamera");
@@ -450,10 +519,29 @@ public final class GVRAssetLoader {
                      */
                     if (mModel.getParent() == null)
                     {
+                        if ((mSettings != null) && mSettings.contains(GVRImportSettings.INCREMENTAL_COMMIT))
+                        {
+                            mCommitTime += System.nanoTime() - commitStart;
+                            new IncrementalCommit(this, errors).start();
+                            return;
+                        }
                         Log.d(TAG, "ASSET: asset %s added to scene", mFileName);
                         mScene.addSceneObject(mModel);
                     }
+                    mCommitTime += System.nanoTime() - commitStart;
                 }
+            }
+            finishLoad(errors);
+        }
+
+        /**
+         * Start animations and raise the onModelTimings and
+         * onAssetLoaded events once the model is in the scene.
+         */
+        private void finishLoad(String errors)
+        {
+            if (mModel != null)
+            {
                 /*
                  * If the model has animations, start them now.
                  */
@@ -462,11 +550,91 @@ public final class GVRAssetLoader {
                 {
                     animator.start();
                 }
+                onModelTimings(mContext, mModel, mFileName, mParseTime, mBuildTime, mCommitTime);
             }
             onAssetLoaded(mContext, mModel, mFileName, errors);
         }
     }
 
+    /**
+     * Adds a loaded model to the scene over several frames.
+     * <p>
+     * The model is fully built when this starts: it creates no objects.
+     * The scene objects of the model are detached from their parents and
+     * then attached again in depth first order on the GL thread, as many
+     * per frame as fit in the commit budget. Each object is attached after
+     * its parent so the part of the model in the scene is always connected.
+     * This spreads the cost of the new meshes and materials (uploads and
+     * shader setup on their first frame) over several frames.
+     */
+    private static class IncrementalCommit implements GVRDrawFrameListener
+    {
+        private final AssetRequest mRequest;
+        private final String mErrors;
+        private final List<GVRSceneObject> mParents = new ArrayList<GVRSceneObject>();
+        private final List<GVRSceneObject> mChildren = new ArrayList<GVRSceneObject>();
+        private int mNext = 0;
+        private boolean mAddedRoot = false;
+
+        IncrementalCommit(AssetRequest request, String errors)
+        {
+            mRequest = request;
+            mErrors = errors;
+        }
+
+        void start()
+        {
+            long start = System.nanoTime();
+            collect(mRequest.mModel);
+            for (int i = mChildren.size() - 1; i >= 0; --i)
+            {
+                mParents.get(i).removeChildObject(mChildren.get(i));
+            }
+            mRequest.mCommitTime += System.nanoTime() - start;
+            mRequest.mContext.registerDrawFrameListener(this);
+        }
+
+        private void collect(GVRSceneObject parent)
+        {
+            for (GVRSceneObject child : parent.getChildren())
+            {
+                mParents.add(parent);
+                mChildren.add(child);
+                collect(child);
+            }
+        }
+
+        @Override
+        public void onDrawFrame(float frameTime)
+        {
+            long start = System.nanoTime();
+            long budget = (long) (mRequest.mContext.getAssetLoader().getCommitBudget() * 1e9f);
+
+            int added = 0;
+
+            if (!mAddedRoot)
+            {
+                mRequest.mScene.addSceneObject(mRequest.mModel);
+                mAddedRoot = true;
+                ++added;
+            }
+            while ((mNext < mChildren.size()) && ((added == 0) || (System.nanoTime() - start < budget)))
+            {
+                mParents.get(mNext).addChildObject(mChildren.get(mNext));
+                ++mNext;
+                ++added;
+            }
+            mRequest.mCommitTime += System.nanoTime() - start;
+
+            if (mNext >= mChildren.size())
+            {
+                Log.d(TAG, "ASSET: asset %s added to scene", mRequest.mFileName);
+                mRequest.mContext.unregisterDrawFrameListener(this);
+                mRequest.finishLoad(mErrors);
+            }
+        }
+    }
+
 
     /**
      * Texture load callback the generates asset events.
@@ -556,8 +724,75 @@ public final class GVRAssetLoader {
     }
 
 
-    protected static ResourceCache<GVRImage> mTextureCache = new ResourceCache<GVRImage>();
-    protected static HashMap<String, GVRImage> mEmbeddedCache = new HashMap<String, GVRImage>();
+    /**
+     * Default memory budget for the textures kept in the texture caches
+     * when nothing else uses them.
+     */
+    public static final long DEFAULT_TEXTURE_CACHE_SIZE = 32 * 1024 * 1024;
+
+    /**
+     * Default memory budget for the meshes kept in the mesh cache
+     * when nothing else uses them.
+     */
+    public static final long DEFAULT_MESH_CACHE_SIZE = 8 * 1024 * 1024;
+
+    private static final LruCachePolicy.SizeEstimator<GVRImage> sImageSizeEstimator =
+            new LruCachePolicy.SizeEstimator<GVRImage>()
+    {
+        @Override
+        public long sizeOf(GVRImage image)
+        {
+            return image.getDataSize();
+        }
+    };
+
+    /*
+     * Estimates the size of a mesh from its vertex count and the
+     * component counts in its vertex descriptor ("float3 a_position ...").
+     */
+    private static final LruCachePolicy.SizeEstimator<GVRMesh> sMeshSizeEstimator =
+            new LruCachePolicy.SizeEstimator<GVRMesh>()
+    {
+        @Override
+        public long sizeOf(GVRMesh mesh)
+        {
+            GVRVertexBuffer vertices = mesh.getVertexBuffer();
+            GVRIndexBuffer indices = mesh.getIndexBuffer();
+            long size = 0;
+
+            if (vertices != null)
+            {
+                String[] tokens = vertices.getDescriptor().trim().split("[\\s,]+");
+                int vertexSize = 0;
+
+                for (int i = 0; i < tokens.length; i += 2)
+                {
+                    String type = tokens[i];
+                    int n = 1;
+                    int digits = type.length();
+
+                    while ((digits > 0) && Character.isDigit(type.charAt(digits - 1)))
+                    {
+                        --digits;
+                    }
+                    if (digits < type.length())
+                    {
+                        n = Integer.parseInt(type.substring(digits));
+                    }
+                    vertexSize += type.startsWith("mat") ? n * n : n;
+                }
+                size += 4L * vertexSize * vertices.getVertexCount();
+            }
+            if (indices != null)
+            {
+                size += (long) indices.getIndexSize() * indices.getIndexCount();
+            }
+            return size;
+        }
+    };
+
+    protected static ResourceCache<GVRImage> mTextureCache = newTextureCache();
+    protected static ResourceCache<GVRImage> mEmbeddedCache = newTextureCache();
     protected static GVRBitmapTexture mDefaultImage = null;
 
     protected GVRContext mContext;
@@ -573,13 +808,21 @@ public final class GVRAssetLoader {
 
             @Override
             public void run() {
-                mTextureCache = new ResourceCache<GVRImage>();
-                mEmbeddedCache = new HashMap<String, GVRImage>();
+                mTextureCache = newTextureCache();
+                mEmbeddedCache = newTextureCache();
                 mDefaultImage = null;
             }
         });
     }
 
+    /**
+     * Default time spent each frame adding a model to the scene
+     * with {@link GVRImportSettings#INCREMENTAL_COMMIT}, in seconds.
+     */
+    public static final float DEFAULT_COMMIT_BUDGET = 0.002f;
+
+    private volatile float mCommitBudget = DEFAULT_COMMIT_BUDGET;
+
     /**
      * Construct an instance of the asset loader
      * @param context GVRContext to get asset load events
@@ -588,6 +831,57 @@ public final class GVRAssetLoader {
     {
         mContext = context;
         mDefaultTextureParameters = new GVRTextureParameters(context);
+        mMeshCache.setPolicy(new LruCachePolicy<GVRAndroidResource, GVRMesh>(DEFAULT_MESH_CACHE_SIZE, sMeshSizeEstimator));
+    }
+
+    /**
+     * Set how long, each frame, the GL thread may spend adding a model
+     * loaded with {@link GVRImportSettings#INCREMENTAL_COMMIT} to the scene.
+     * At least one scene object is added each frame.
+     * @param seconds time budget per frame, in seconds
+     */
+    public void setCommitBudget(float seconds)
+    {
+        mCommitBudget = seconds;
+    }
+
+    /**
+     * @return time budget per frame for adding a model to the scene, in seconds
+     * @see #setCommitBudget(float)
+     */
+    public float getCommitBudget()
+    {
+        return mCommitBudget;
+    }
+
+    private static ResourceCache<GVRImage> newTextureCache()
+    {
+        ResourceCache<GVRImage> cache = new ResourceCache<GVRImage>();
+        cache.setPolicy(new LruCachePolicy<GVRAndroidResource, GVRImage>(DEFAULT_TEXTURE_CACHE_SIZE, sImageSizeEstimator));
+        return cache;
+    }
+
+    /**
+     * Get the cache of textures loaded from files.
+     * Textures stay in the cache while they are used, and the most recently
+     * used ones are kept after that as allowed by the cache policy.
+     * The cache is shared by all asset loaders.
+     * @return texture cache
+     * @see ResourceCache#setPolicy(org.gearvrf.utility.ResourceCachePolicy)
+     */
+    public static ResourceCache<GVRImage> getTextureCache()
+    {
+        return mTextureCache;
+    }
+
+    /**
+     * Get the cache of meshes loaded by {@link #loadMesh(GVRAndroidResource)}.
+     * @return mesh cache
+     * @see ResourceCache#setPolicy(org.gearvrf.utility.ResourceCachePolicy)
+     */
+    public ResourceCache<GVRMesh> getMeshCache()
+    {
+        return mMeshCache;
     }
 
     /**
@@ -596,7 +890,7 @@ public final class GVRAssetLoader {
      * embedded textures.
      * @return embedded texture cache
      */
-    static Map<String, GVRImage> getEmbeddedTextureCache()
+    static ResourceCache<GVRImage> getEmbeddedTextureCache()
     {
         return mEmbeddedCache;
     }
@@ -750,6 +1044,50 @@ public final class GVRAssetLoader {
         return texture;
     }
 
+    /**
+     * Loads a texture progressively: a low resolution preview first, which
+     * is replaced in place by the full resolution image.
+     * <p>
+     * Use this for scenes with many textures, such as a wall of photos: each
+     * texture shows a preview - a bitmap decoded at a fraction of its size,
+     * or one of the smallest mip levels of a KTX file - long before all of
+     * the full resolution images have loaded. Full resolution loads are
+     * ordered by {@code priority} and then by the on-screen size set with
+     * {@link GVRAsynchronousResourceLoader#setProgressiveTextureScreenSize(GVRTexture, float)},
+     * and are limited by
+     * {@link GVRAsynchronousResourceLoader#setProgressiveTextureBudget(long)}.
+     * <p>
+     * A full resolution image counts against the budget until the texture is
+     * garbage collected. Call
+     * {@link GVRAsynchronousResourceLoader#releaseProgressiveTexture(GVRTexture)}
+     * when you stop using a texture to give its budget back right away.
+     *
+     * @param resource
+     *            Basically, a stream containing a texture file.
+     * @param callback
+     *            Notified when the full resolution image has loaded, or
+     *            could not be loaded; may be {@code null}.
+     * @param texparams
+     *            GVRTextureParameters object containing texture sampler
+     *            attributes, {@code null} for the defaults.
+     * @param priority
+     *            This request's priority.
+     * @return The texture, which has no image until its preview is loaded
+     */
+    public GVRTexture loadProgressiveTexture(GVRAndroidResource resource, TextureCallback callback,
+                                             GVRTextureParameters texparams, int priority)
+    {
+        if (texparams == null)
+        {
+            texparams = mDefaultTextureParameters;
+        }
+        GVRTexture texture = new GVRTexture(mContext, texparams);
+        TextureRequest request = new TextureRequest(resource, texture, callback);
+        GVRAsynchronousResourceLoader.loadProgressiveTexture(mContext, mTextureCache, texture,
+                request, resource, priority, GVRCompressedTexture.BALANCED);
+        return texture;
+    }
+
     /**
      * Loads a bitmap texture asynchronously with default priority and quality.
      *
@@ -1748,6 +2086,7 @@ public final class GVRAssetLoader {
 
         model.setName(filePath);
         GVRResourceVolume volume = request.getVolume();
+        long parseStart = System.nanoTime();
         try
         {
             assimpScene = Jassimp.importFileEx(FileNameUtils.getFilename(filePath),
@@ -1766,8 +2105,10 @@ public final class GVRAssetLoader {
             request.onModelError(mContext, errmsg, filePath);
             throw new IOException(errmsg);
         }
+        long buildStart = System.nanoTime();
         boolean startAnimations = request.getImportSettings().contains(GVRImportSettings.START_ANIMATIONS);
         jassimpAdapter.processScene(request, model, assimpScene, volume, startAnimations);
+        request.setStageTimes(buildStart - parseStart, System.nanoTime() - buildStart);
         request.onModelLoaded(mContext, model, filePath);
         return model;
     }
@@ -1786,25 +2127,21 @@ public final class GVRAssetLoader {
         try
         {
             ShaderSettings shaderSettings = new ShaderSettings(new GVRMaterial(mContext));
-            if (!X3Dobject.UNIVERSAL_LIGHTS)
-            {
-                X3DparseLights x3dParseLights = new X3DparseLights(mContext, root);
-                inputStream = resource.getStream();
-                if (inputStream == null)
-                {
-                    throw new FileNotFoundException(fileName + " not found");
-                }
-                Log.d(TAG, "Parse: " + fileName);
-                x3dParseLights.Parse(inputStream, shaderSettings);
-                inputStream.close();
-            }
             inputStream = resource.getStream();
             if (inputStream == null)
             {
               	throw new FileNotFoundException(fileName + " not found");
             }
-            x3dObject.Parse(inputStream, shaderSettings);
+            Log.d(TAG, "Parse: " + fileName);
+            X3DDocument document = x3dObject.parseDocument(inputStream);
             inputStream.close();
+            if (!X3Dobject.UNIVERSAL_LIGHTS)
+            {
+                X3DparseLights x3dParseLights = new X3DparseLights(mContext, root);
+                x3dParseLights.Parse(document, shaderSettings);
+            }
+            x3dObject.build(document, shaderSettings);
+            assetRequest.setStageTimes(x3dObject.getParseTime(), x3dObject.getBuildTime());
             assetRequest.onModelLoaded(mContext, root, fileName);
         }
         catch (Exception ex)
@@ -103,7 +103,7 @@ public class GVRBitmapTexture extends GVRImage
             throws IllegalArgumentException
     {
         super(gvrContext, NativeBitmapImage.constructor(ImageType.BITMAP.Value, GL_LUMINANCE));
-        NativeBitmapImage.updateFromMemory(getNative(), width, height, grayscaleData);
+        update(width, height, grayscaleData);
     }
 
     /**
@@ -125,6 +125,7 @@ public class GVRBitmapTexture extends GVRImage
     public void setBitmap(Bitmap bmap)
     {
         NativeBitmapImage.updateFromBitmap(getNative(), bmap, bmap.hasAlpha());
+        setDataSize(bmap.getWidth(), bmap.getHeight(), bmap.getByteCount());
     }
 
     /**
@@ -154,6 +155,7 @@ public class GVRBitmapTexture extends GVRImage
     public void setBuffer(final int width, final int height, final int format, final int type, final Buffer pixels)
     {
         NativeBitmapImage.updateFromBuffer(getNative(), 0, 0, width, height, format, type, pixels);
+        setDataSize(width, height, 4L * width * height);
     }
 
     /**
@@ -206,6 +208,7 @@ public class GVRBitmapTexture extends GVRImage
     public void update(int width, int height, byte[] grayscaleData)
     {
         NativeBitmapImage.updateFromMemory(getNative(), width, height, grayscaleData);
+        setDataSize(width, height, (long) width * height);
     }
 
     private static Bitmap loadBitmap(GVRContext gvrContext, String pngAssetFilename)
@@ -233,5 +236,6 @@ class NativeBitmapImage {
     static native void updateFromBitmap(long pointer, Bitmap bitmap, boolean hasAlpha);
     static native void updateFromBuffer(long pointer, int xoffset, int yoffset, int width, int height, int format, int type, Buffer pixels);
     static native void updateCompressed(long pointer, int width, int height, int imageSize, byte[] data, int levels, int[] offsets);
+    static native void updateCompressedBuffer(long pointer, int width, int height, Buffer data, int levels, int[] offsets, int[] sizes);
 
 }
\ No newline at end of file
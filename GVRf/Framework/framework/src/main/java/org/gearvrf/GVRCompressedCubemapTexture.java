@@ -42,6 +42,12 @@ public class GVRCompressedCubemapTexture extends GVRImage
         mHeight = height;
         mImageSize = imageSize;
         NativeCubemapImage.updateCompressed(getNative(), width, height, imageSize, data, dataOffsets);
+        long dataSize = 0;
+        for (byte[] face : data)
+        {
+            dataSize += face.length;
+        }
+        setDataSize(width, height, dataSize);
     }
 
     public void update(byte[][] data, int[] dataOffsets)
@@ -17,6 +17,8 @@ package org.gearvrf;
 
 import static android.opengl.GLES20.*;
 
+import java.nio.ByteBuffer;
+
 import org.gearvrf.utility.Log;
 
 /**
@@ -42,6 +44,7 @@ public class GVRCompressedTexture extends GVRImage
      */
     protected int mQuality;
     private byte[] mData;
+    private ByteBuffer mBuffer;
     private int mWidth;
     private int mHeight;
     private int mLevels;
@@ -67,6 +70,38 @@ public class GVRCompressedTexture extends GVRImage
         mHeight = height;
         mLevels = levels;
         mImageSize = imageSize;
+        setDataSize(width, height, (data != null) ? data.length : imageSize);
+    }
+
+    /**
+     * Create a compressed texture whose data is in a direct buffer, such as
+     * a memory-mapped file.
+     * <p>
+     * The mip-map levels are uploaded to the GPU straight from the buffer,
+     * without being copied to the Java heap. The buffer is kept until then.
+     * @param gvrContext    GVRContext to use for texture.
+     * @param width         pixel width of image.
+     * @param height        pixel height of image.
+     * @param imageSize     number of bytes in the first mip-map level.
+     * @param format        image format (GL_RGB, GL_RGBA, ...)
+     * @param data          direct buffer with the image data
+     * @param levels        number of mip-map levels
+     * @param quality       compression quality
+     */
+    public GVRCompressedTexture(GVRContext gvrContext, int width, int height, int imageSize, int format, ByteBuffer data, int levels, int quality)
+    {
+        super(gvrContext, NativeBitmapImage.constructor(ImageType.BITMAP.Value, format));
+        if (!data.isDirect())
+        {
+            throw new IllegalArgumentException("Compressed texture data must be in a direct buffer");
+        }
+        mQuality = GVRCompressedTexture.clamp(quality);
+        mBuffer = data;
+        mWidth = width;
+        mHeight = height;
+        mLevels = levels;
+        mImageSize = imageSize;
+        setDataSize(width, height, data.capacity());
     }
 
     /**
@@ -75,11 +110,38 @@ public class GVRCompressedTexture extends GVRImage
      */
     public void setDataOffsets(int[] offsets)
     {
+        if (mBuffer != null)
+        {
+            setDataOffsets(offsets, new int[] { mImageSize });
+            return;
+        }
         assert(mLevels == offsets.length);
         NativeBitmapImage.updateCompressed(getNative(), mWidth, mHeight, mImageSize, mData, mLevels, offsets);
         mData = null;
     }
 
+    /**
+     * Set the offsets and the sizes of the mip-map levels in the compressed
+     * data area.
+     * @param offsets array of offsets, from the start of the data
+     * @param sizes   array of level sizes in bytes
+     */
+    public void setDataOffsets(int[] offsets, int[] sizes)
+    {
+        assert(mLevels == offsets.length);
+        assert(mLevels == sizes.length);
+        if (mBuffer != null)
+        {
+            NativeBitmapImage.updateCompressedBuffer(getNative(), mWidth, mHeight, mBuffer, mLevels, offsets, sizes);
+            mBuffer = null;
+        }
+        else
+        {
+            NativeBitmapImage.updateCompressed(getNative(), mWidth, mHeight, sizes[0], mData, mLevels, offsets);
+            mData = null;
+        }
+    }
+
     /**
      * Get compression quality
      * @return compression quality
@@ -442,6 +442,9 @@ public abstract class GVRContext implements IEventReceiver {
      * made from the GL thread (aka the "GL context"). The callback queue is
      * processed after a frame has been rendered.
      *
+     * A callback is queued at most once: enqueuing a callback that is still
+     * waiting replaces its delay, and it runs once.
+     *
      * @param delayFrames
      *            Number of frames to delay the task. 0 means current frame.
      * @param runnable
@@ -450,6 +453,15 @@ public abstract class GVRContext implements IEventReceiver {
      */
     public abstract void runOnGlThreadPostRender(int delayFrames, Runnable runnable);
 
+    /**
+     * Returns the {@link GVRGlTaskQueue}.
+     *
+     * @return The queues of {@link #runOnGlThread(Runnable)} and
+     *         {@link #runOnGlThreadPostRender(int, Runnable)} tasks, which let
+     *         you set a per-frame budget and read the queue metrics.
+     */
+    public abstract GVRGlTaskQueue getGlTaskQueue();
+
     /**
      * Subscribes a {@link GVRDrawFrameListener}.
      * 
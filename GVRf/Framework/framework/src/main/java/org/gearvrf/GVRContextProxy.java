@@ -108,6 +108,10 @@ public final class GVRContextProxy extends GVRContext {
         mContext.get().runOnGlThreadPostRender(delayFrames, runnable);
     }
 
+    public GVRGlTaskQueue getGlTaskQueue() {
+        return mContext.get().getGlTaskQueue();
+    }
+
     public void registerDrawFrameListener(GVRDrawFrameListener frameListener) {
         mContext.get().registerDrawFrameListener(frameListener);
     }
@@ -59,6 +59,12 @@ public class GVRCubemapTexture extends GVRImage
     public void update(Bitmap[] bitmapArray)
     {
         NativeCubemapImage.update(getNative(), bitmapArray);
+        long dataSize = 0;
+        for (Bitmap bitmap : bitmapArray)
+        {
+            dataSize += bitmap.getByteCount();
+        }
+        setDataSize(bitmapArray[0].getWidth(), bitmapArray[0].getHeight(), dataSize);
     }
 
     /**
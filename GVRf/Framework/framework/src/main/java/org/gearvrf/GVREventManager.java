@@ -23,6 +23,7 @@ import java.util.Map;
 import java.util.TreeMap;
 import java.util.WeakHashMap;
 
+import org.gearvrf.debug.GVRMetrics;
 import org.gearvrf.script.GVRScriptFile;
 import org.gearvrf.script.IScriptable;
 
@@ -54,9 +55,15 @@ import org.gearvrf.script.IScriptable;
  * end
  * }
  * </pre>
+ *
+ * Events of the built-in groups ({@link IPickEvents}, {@link ISensorEvents},
+ * {@link IScriptEvents}, {@link ISceneEvents} and {@link IAssetEvents}) are
+ * delivered to Java handlers by direct calls. Events of other groups are
+ * delivered through reflection.
  */
 public class GVREventManager {
     private static final String TAG = GVREventManager.class.getSimpleName();
+    private static final GVRMetrics.Histogram sDispatchTime = GVRMetrics.histogram("events.dispatch");
     private GVRContext mGvrContext;
 
     // Cache for Java handler methods; keys *must* be weakly referenced
@@ -67,6 +74,202 @@ public class GVREventManager {
     protected static final int SEND_MASK_SCRIPTS = 0x4;
     protected static final int SEND_MASK_ALL = SEND_MASK_OBJECT | SEND_MASK_LISTENERS | SEND_MASK_SCRIPTS;
 
+    /*
+     * Calls one handler method of a built-in event interface directly,
+     * without reflection.
+     */
+    private static abstract class EventInvoker {
+        private final Class<?>[] mParameterTypes;
+
+        EventInvoker(Class<?>... parameterTypes) {
+            mParameterTypes = parameterTypes;
+        }
+
+        boolean matches(Object[] params) {
+            if (params.length != mParameterTypes.length) {
+                return false;
+            }
+            for (int i = 0; i < params.length; ++i) {
+                if (params[i] != null && !mParameterTypes[i].isInstance(params[i])) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        abstract void invoke(Object target, Object[] params) throws Throwable;
+    }
+
+    // Invokers for the built-in event interfaces. Filled in once by the
+    // static initializer and only read afterwards, so no lock is needed.
+    private static final Map<Class<? extends IEvents>, Map<String, EventInvoker>> sTypedInvokers =
+            new HashMap<Class<? extends IEvents>, Map<String, EventInvoker>>();
+
+    static {
+        addTypedInvoker(IPickEvents.class, "onPick", new EventInvoker(GVRPicker.class) {
+            @Override
+            void invoke(Object target, Object[] params) {
+                ((IPickEvents) target).onPick((GVRPicker) params[0]);
+            }
+        });
+        addTypedInvoker(IPickEvents.class, "onNoPick", new EventInvoker(GVRPicker.class) {
+            @Override
+            void invoke(Object target, Object[] params) {
+                ((IPickEvents) target).onNoPick((GVRPicker) params[0]);
+            }
+        });
+        addTypedInvoker(IPickEvents.class, "onEnter",
+                new EventInvoker(GVRSceneObject.class, GVRPicker.GVRPickedObject.class) {
+            @Override
+            void invoke(Object target, Object[] params) {
+                ((IPickEvents) target).onEnter((GVRSceneObject) params[0],
+                        (GVRPicker.GVRPickedObject) params[1]);
+            }
+        });
+        addTypedInvoker(IPickEvents.class, "onExit", new EventInvoker(GVRSceneObject.class) {
+            @Override
+            void invoke(Object target, Object[] params) {
+                ((IPickEvents) target).onExit((GVRSceneObject) params[0]);
+            }
+        });
+        addTypedInvoker(IPickEvents.class, "onInside",
+                new EventInvoker(GVRSceneObject.class, GVRPicker.GVRPickedObject.class) {
+            @Override
+            void invoke(Object target, Object[] params) {
+                ((IPickEvents) target).onInside((GVRSceneObject) params[0],
+                        (GVRPicker.GVRPickedObject) params[1]);
+            }
+        });
+
+        addTypedInvoker(ISensorEvents.class, "onSensorEvent", new EventInvoker(SensorEvent.class) {
+            @Override
+            void invoke(Object target, Object[] params) {
+                ((ISensorEvents) target).onSensorEvent((SensorEvent) params[0]);
+            }
+        });
+
+        addTypedInvoker(IScriptEvents.class, "onEarlyInit", new EventInvoker(GVRContext.class) {
+            @Override
+            void invoke(Object target, Object[] params) {
+                ((IScriptEvents) target).onEarlyInit((GVRContext) params[0]);
+            }
+        });
+        addTypedInvoker(IScriptEvents.class, "onInit", new EventInvoker(GVRContext.class) {
+            @Override
+            void invoke(Object target, Object[] params) throws Throwable {
+                ((IScriptEvents) target).onInit((GVRContext) params[0]);
+            }
+        });
+        addTypedInvoker(IScriptEvents.class, "onAfterInit", new EventInvoker() {
+            @Override
+            void invoke(Object target, Object[] params) {
+                ((IScriptEvents) target).onAfterInit();
+            }
+        });
+        addTypedInvoker(IScriptEvents.class, "onAttach", new EventInvoker(IScriptable.class) {
+            @Override
+            void invoke(Object target, Object[] params) {
+                ((IScriptEvents) target).onAttach((IScriptable) params[0]);
+            }
+        });
+        addTypedInvoker(IScriptEvents.class, "onDetach", new EventInvoker(IScriptable.class) {
+            @Override
+            void invoke(Object target, Object[] params) {
+                ((IScriptEvents) target).onDetach((IScriptable) params[0]);
+            }
+        });
+        addTypedInvoker(IScriptEvents.class, "onStep", new EventInvoker() {
+            @Override
+            void invoke(Object target, Object[] params) {
+                ((IScriptEvents) target).onStep();
+            }
+        });
+
+        addTypedInvoker(ISceneEvents.class, "onInit", new EventInvoker(GVRContext.class, GVRScene.class) {
+            @Override
+            void invoke(Object target, Object[] params) {
+                ((ISceneEvents) target).onInit((GVRContext) params[0], (GVRScene) params[1]);
+            }
+        });
+        addTypedInvoker(ISceneEvents.class, "onAfterInit", new EventInvoker() {
+            @Override
+            void invoke(Object target, Object[] params) {
+                ((ISceneEvents) target).onAfterInit();
+            }
+        });
+
+        addTypedInvoker(IAssetEvents.class, "onAssetLoaded",
+                new EventInvoker(GVRContext.class, GVRSceneObject.class, String.class, String.class) {
+            @Override
+            void invoke(Object target, Object[] params) {
+                ((IAssetEvents) target).onAssetLoaded((GVRContext) params[0],
+                        (GVRSceneObject) params[1], (String) params[2], (String) params[3]);
+            }
+        });
+        addTypedInvoker(IAssetEvents.class, "onModelLoaded",
+                new EventInvoker(GVRContext.class, GVRSceneObject.class, String.class) {
+            @Override
+            void invoke(Object target, Object[] params) {
+                ((IAssetEvents) target).onModelLoaded((GVRContext) params[0],
+                        (GVRSceneObject) params[1], (String) params[2]);
+            }
+        });
+        addTypedInvoker(IAssetEvents.class, "onTextureLoaded",
+                new EventInvoker(GVRContext.class, GVRTexture.class, String.class) {
+            @Override
+            void invoke(Object target, Object[] params) {
+                ((IAssetEvents) target).onTextureLoaded((GVRContext) params[0],
+                        (GVRTexture) params[1], (String) params[2]);
+            }
+        });
+        addTypedInvoker(IAssetEvents.class, "onModelError",
+                new EventInvoker(GVRContext.class, String.class, String.class) {
+            @Override
+            void invoke(Object target, Object[] params) {
+                ((IAssetEvents) target).onModelError((GVRContext) params[0],
+                        (String) params[1], (String) params[2]);
+            }
+        });
+        addTypedInvoker(IAssetEvents.class, "onTextureError",
+                new EventInvoker(GVRContext.class, String.class, String.class) {
+            @Override
+            void invoke(Object target, Object[] params) {
+                ((IAssetEvents) target).onTextureError((GVRContext) params[0],
+                        (String) params[1], (String) params[2]);
+            }
+        });
+        addTypedInvoker(IAssetTimingEvents.class, "onModelTimings",
+                new EventInvoker(GVRContext.class, GVRSceneObject.class, String.class,
+                        Long.class, Long.class, Long.class) {
+            @Override
+            void invoke(Object target, Object[] params) {
+                ((IAssetTimingEvents) target).onModelTimings((GVRContext) params[0],
+                        (GVRSceneObject) params[1], (String) params[2], (Long) params[3],
+                        (Long) params[4], (Long) params[5]);
+            }
+        });
+        addTypedInvoker(IAssetTimingEvents.class, "onImportTimings",
+                new EventInvoker(GVRContext.class, GVRSceneObject.class, String.class,
+                        Long.class, Long.class, Integer.class) {
+            @Override
+            void invoke(Object target, Object[] params) {
+                ((IAssetTimingEvents) target).onImportTimings((GVRContext) params[0],
+                        (GVRSceneObject) params[1], (String) params[2], (Long) params[3],
+                        (Long) params[4], (Integer) params[5]);
+            }
+        });
+    }
+
+    private static void addTypedInvoker(Class<? extends IEvents> eventsClass, String eventName,
+            EventInvoker invoker) {
+        Map<String, EventInvoker> invokers = sTypedInvokers.get(eventsClass);
+        if (invokers == null) {
+            invokers = new HashMap<String, EventInvoker>();
+            sTypedInvokers.put(eventsClass, invokers);
+        }
+        invokers.put(eventName, invoker);
+    }
+
     GVREventManager(GVRContext gvrContext) {
         mGvrContext = gvrContext;
         mHandlerMethodCache = new WeakHashMap<Object, Map<String, Method>>();
@@ -115,15 +318,37 @@ public class GVREventManager {
 
     protected boolean sendEventWithMaskParamArray(int sendMask, Object target, Class<? extends IEvents> eventsClass,
             String eventName, Object[] params) {
+        if (!GVRMetrics.isEnabled()) {
+            return deliverEvent(sendMask, target, eventsClass, eventName, params);
+        }
+        final long start = System.nanoTime();
+        try {
+            return deliverEvent(sendMask, target, eventsClass, eventName, params);
+        } finally {
+            sDispatchTime.record(System.nanoTime() - start);
+        }
+    }
+
+    private boolean deliverEvent(int sendMask, Object target, Class<? extends IEvents> eventsClass,
+            String eventName, Object[] params) {
         // Set to true if an event is handled.
         boolean handledSuccessful = false;
 
-        // Verify the event name and parameters (cached)
-        Method method = findHandlerMethod(target, eventsClass, eventName, params);
+        // Built-in events are called directly. Other events are verified
+        // against the interface and invoked through reflection (cached).
+        EventInvoker invoker = findTypedInvoker(eventsClass, eventName, params);
+        Method method = null;
+        if (invoker == null) {
+            method = findHandlerMethod(target, eventsClass, eventName, params);
+        }
         if ((sendMask & SEND_MASK_OBJECT) != 0) {
             // Invoke the method if the target implements the interface
             if (eventsClass.isInstance(target)) {
-                invokeMethod(target, method, params);
+                if (invoker != null) {
+                    invokeTyped(target, invoker, params);
+                } else {
+                    invokeMethod(target, method, params);
+                }
                 handledSuccessful = true;
             }
         }
@@ -141,6 +366,12 @@ public class GVREventManager {
                     if (!eventsClass.isInstance(listener) || receiver.getOwner() != target)
                         continue;
 
+                    if (invoker != null) {
+                        invokeTyped(listener, invoker, params);
+                        handledSuccessful = true;
+                        continue;
+                    }
+
                     Method listenerMethod = findHandlerMethod(listener, eventsClass, eventName, params);
                     if (listenerMethod != null) {
                         // This may throw RuntimeException if the handler does so.
@@ -161,6 +392,24 @@ public class GVREventManager {
         return handledSuccessful;
     }
 
+    /*
+     * Return the direct invoker for a built-in event, or null if the event
+     * is not built-in or the parameters don't match. Mismatched parameters
+     * are reported by findHandlerMethod.
+     */
+    private static EventInvoker findTypedInvoker(Class<? extends IEvents> eventsClass,
+            String eventName, Object[] params) {
+        Map<String, EventInvoker> invokers = sTypedInvokers.get(eventsClass);
+        if (invokers == null) {
+            return null;
+        }
+        EventInvoker invoker = invokers.get(eventName);
+        if (invoker == null || !invoker.matches(params)) {
+            return null;
+        }
+        return invoker;
+    }
+
     /*
      * Return the method in eventsClass by checking the signature.
      * RuntimeException is thrown if the event is not found in the eventsClass interface,
@@ -302,6 +551,18 @@ public class GVREventManager {
         return script.invokeFunction(eventName, params);
     }
 
+    private void invokeTyped(Object target, EventInvoker invoker, Object[] params) {
+        try {
+            invoker.invoke(target, params);
+        } catch (RuntimeException e) {
+            // pass the RuntimeException back to the application
+            throw e;
+        } catch (Throwable t) {
+            t.printStackTrace();
+            mGvrContext.logError(t.getMessage(), target);
+        }
+    }
+
     private void invokeMethod(Object target, Method method, Object[] params) {
         try {
             method.invoke(target, params);
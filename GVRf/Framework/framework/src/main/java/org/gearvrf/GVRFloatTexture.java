@@ -65,6 +65,7 @@ public class GVRFloatTexture extends GVRImage
     {
         super(gvrContext, NativeBitmapImage.constructor(ImageType.FLOAT_BITMAP.Value, GL_RG));
         NativeFloatTexture.update(getNative(), width, height, data);
+        setDataSize(width, height, 8L * width * height);
     }
 
     public GVRFloatTexture(GVRContext gvrContext)
@@ -106,7 +107,12 @@ public class GVRFloatTexture extends GVRImage
         {
             throw new IllegalArgumentException();
         }
-        return NativeFloatTexture.update(getNative(), width, height, data);
+        boolean updated = NativeFloatTexture.update(getNative(), width, height, data);
+        if (updated)
+        {
+            setDataSize(width, height, 8L * width * height);
+        }
+        return updated;
     }
 }
 
@@ -0,0 +1,345 @@
+/* Copyright 2016 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gearvrf;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.gearvrf.debug.GVRMetrics;
+import org.gearvrf.utility.Log;
+
+/**
+ * The queues of tasks that {@link GVRContext#runOnGlThread(Runnable)} and
+ * {@link GVRContext#runOnGlThreadPostRender(int, Runnable)} run on the GL
+ * thread.
+ *
+ * Any thread can add tasks without taking a lock; only the GL thread runs
+ * them. By default, all of the queued tasks run before the frame listeners of
+ * each frame. A burst of tasks (for example, the callbacks of many assets
+ * loading at once) can then make a frame late: you can
+ * {@linkplain #setFrameBudget(long, int) limit} the time or the number of tasks
+ * each frame runs, and the tasks left over run on the next frames, in order.
+ *
+ * Post-render tasks are kept in a ring of per-frame lists, so each frame only
+ * looks at the tasks that are due. A task is queued at most once: posting a
+ * task that is already waiting moves it to its new frame.
+ *
+ * The queue also keeps a few metrics - the queue depth and the time each
+ * frame spent running tasks - so you can see whether a budget is needed. They
+ * are also published in {@link GVRMetrics} as {@code frame.gl_tasks} and
+ * {@code gl_tasks.depth}.
+ */
+public final class GVRGlTaskQueue {
+    private static final String TAG = Log.tag(GVRGlTaskQueue.class);
+    private static final GVRMetrics.Histogram sDrainTime = GVRMetrics.histogram("frame.gl_tasks");
+    private static final GVRMetrics.Gauge sQueueDepth = GVRMetrics.gauge("gl_tasks.depth");
+
+    /* Power of two */
+    private static final int POST_RENDER_FRAMES = 64;
+
+    private final TaskList mTasks = new TaskList();
+    private final TaskList mNewPostRenderTasks = new TaskList();
+
+    /* Only touched on the GL thread */
+    @SuppressWarnings("unchecked")
+    private final ArrayList<Runnable>[] mPostRenderRing = new ArrayList[POST_RENDER_FRAMES];
+    private final ArrayList<Node> mPostRenderLater = new ArrayList<Node>();
+    /* The frame each waiting post-render task is due */
+    private final HashMap<Runnable, Long> mPostRenderDue = new HashMap<Runnable, Long>();
+    private int mPostRenderCount = 0;
+    private long mFrame = 0;
+
+    private volatile long mBudgetNanos = 0;
+    private volatile int mBudgetCount = 0;
+
+    private volatile long mLastDrainTime = 0;
+    private volatile long mMaxDrainTime = 0;
+    private volatile int mLastDrainCount = 0;
+
+    GVRGlTaskQueue() {
+        for (int i = 0; i < POST_RENDER_FRAMES; ++i) {
+            mPostRenderRing[i] = new ArrayList<Runnable>();
+        }
+    }
+
+    /**
+     * Limit the work {@link GVRContext#runOnGlThread(Runnable)} tasks can do
+     * in one frame.
+     *
+     * Each frame runs at least one queued task. A task is never interrupted:
+     * the time budget is checked between tasks.
+     *
+     * @param maxNanos
+     *            Stop running tasks once they have taken this long in the
+     *            current frame; 0 means no time limit.
+     * @param maxCount
+     *            Run at most this many tasks per frame; 0 means no limit.
+     */
+    public void setFrameBudget(long maxNanos, int maxCount) {
+        if (maxNanos < 0 || maxCount < 0) {
+            throw new IllegalArgumentException("budget must be >= 0");
+        }
+        mBudgetNanos = maxNanos;
+        mBudgetCount = maxCount;
+    }
+
+    /**
+     * @return The per-frame time budget, in nanoseconds; 0 means no limit.
+     */
+    public long getFrameBudgetNanos() {
+        return mBudgetNanos;
+    }
+
+    /**
+     * @return The per-frame task count budget; 0 means no limit.
+     */
+    public int getFrameBudgetCount() {
+        return mBudgetCount;
+    }
+
+    /**
+     * @return The number of tasks waiting to run on the GL thread
+     */
+    public int getQueueDepth() {
+        return mTasks.size();
+    }
+
+    /**
+     * @return The number of post-render tasks waiting to run
+     */
+    public int getPostRenderDepth() {
+        return mNewPostRenderTasks.size() + mPostRenderCount;
+    }
+
+    /**
+     * @return The time the last frame spent running tasks, in nanoseconds
+     */
+    public long getLastDrainTime() {
+        return mLastDrainTime;
+    }
+
+    /**
+     * @return The longest time a frame has spent running tasks, in
+     *         nanoseconds, since the last {@link #resetMetrics()}
+     */
+    public long getMaxDrainTime() {
+        return mMaxDrainTime;
+    }
+
+    /**
+     * @return The number of tasks the last frame ran
+     */
+    public int getLastDrainCount() {
+        return mLastDrainCount;
+    }
+
+    public void resetMetrics() {
+        mLastDrainTime = 0;
+        mMaxDrainTime = 0;
+        mLastDrainCount = 0;
+    }
+
+    void add(Runnable task) {
+        mTasks.add(task, 0);
+    }
+
+    void addPostRender(int delayFrames, Runnable task) {
+        mNewPostRenderTasks.add(task, delayFrames);
+    }
+
+    /**
+     * Run the queued tasks, within the frame budget. GL thread only.
+     */
+    void runTasks() {
+        run(mBudgetNanos, mBudgetCount);
+    }
+
+    /**
+     * Run all of the queued tasks, ignoring the frame budget. GL thread only.
+     */
+    void runAllTasks() {
+        run(0, 0);
+    }
+
+    /**
+     * Run this frame's post-render tasks. GL thread only.
+     */
+    void runPostRenderTasks() {
+        final long frame = mFrame++;
+
+        Node node;
+        while ((node = mNewPostRenderTasks.poll()) != null) {
+            final long dueFrame = frame + Math.max(node.mDelay, 0);
+            final Long previous = mPostRenderDue.put(node.mTask, dueFrame);
+            if (previous != null) {
+                // The latest post wins, as with the old map of delays
+                unschedulePostRender(previous, node.mTask);
+            }
+            if (node.mDelay < POST_RENDER_FRAMES) {
+                schedulePostRender(dueFrame, node.mTask);
+            } else {
+                node.mDelay = dueFrame;
+                mPostRenderLater.add(node);
+            }
+        }
+        if (!mPostRenderLater.isEmpty()) {
+            for (int i = mPostRenderLater.size() - 1; i >= 0; --i) {
+                node = mPostRenderLater.get(i);
+                if (node.mDelay - frame < POST_RENDER_FRAMES) {
+                    mPostRenderLater.remove(i);
+                    schedulePostRender(node.mDelay, node.mTask);
+                }
+            }
+        }
+
+        final ArrayList<Runnable> due = mPostRenderRing[(int) (frame & (POST_RENDER_FRAMES - 1))];
+        final int count = due.size();
+        for (int i = 0; i < count; ++i) {
+            mPostRenderDue.remove(due.get(i));
+        }
+        for (int i = 0; i < count; ++i) {
+            runTask(due.get(i));
+        }
+        due.clear();
+        mPostRenderCount -= count;
+    }
+
+    /**
+     * Drop all of the queued tasks.
+     */
+    void clear() {
+        mTasks.clear();
+        mNewPostRenderTasks.clear();
+        for (ArrayList<Runnable> tasks : mPostRenderRing) {
+            tasks.clear();
+        }
+        mPostRenderLater.clear();
+        mPostRenderDue.clear();
+        mPostRenderCount = 0;
+    }
+
+    private void schedulePostRender(long frame, Runnable task) {
+        mPostRenderRing[(int) (frame & (POST_RENDER_FRAMES - 1))].add(task);
+        ++mPostRenderCount;
+    }
+
+    /* Remove a waiting task, which is either in the ring or still later */
+    private void unschedulePostRender(long frame, Runnable task) {
+        if (mPostRenderRing[(int) (frame & (POST_RENDER_FRAMES - 1))].remove(task)) {
+            --mPostRenderCount;
+            return;
+        }
+        for (int i = mPostRenderLater.size() - 1; i >= 0; --i) {
+            if (mPostRenderLater.get(i).mTask.equals(task)) {
+                mPostRenderLater.remove(i);
+                return;
+            }
+        }
+    }
+
+    private void run(long budgetNanos, int budgetCount) {
+        final long start = System.nanoTime();
+        long elapsed = 0;
+        int count = 0;
+        Node node;
+        while ((node = mTasks.poll()) != null) {
+            runTask(node.mTask);
+            ++count;
+            elapsed = System.nanoTime() - start;
+            if ((budgetCount > 0 && count >= budgetCount)
+                    || (budgetNanos > 0 && elapsed >= budgetNanos)) {
+                break;
+            }
+        }
+
+        mLastDrainTime = elapsed;
+        mLastDrainCount = count;
+        if (elapsed > mMaxDrainTime) {
+            mMaxDrainTime = elapsed;
+        }
+        if (GVRMetrics.isEnabled()) {
+            sDrainTime.record(elapsed);
+            sQueueDepth.set(mTasks.size());
+        }
+    }
+
+    private static void runTask(Runnable task) {
+        try {
+            task.run();
+        } catch (final Exception exc) {
+            Log.e(TAG, "Runnable-on-GL %s threw %s", task, exc.toString());
+            exc.printStackTrace();
+        }
+    }
+
+    private static final class Node {
+        private final Runnable mTask;
+        private long mDelay;
+        private volatile Node mNext;
+
+        private Node(Runnable task, long delay) {
+            mTask = task;
+            mDelay = delay;
+        }
+    }
+
+    /**
+     * Multiple-producer, single-consumer linked queue.
+     *
+     * Producers swap themselves in as the tail and then link the previous
+     * tail to themselves; the consumer follows the links from a dummy head.
+     * A task whose producer has not linked it yet is picked up by the next
+     * poll.
+     */
+    private static final class TaskList {
+        private final AtomicReference<Node> mTail;
+        private final AtomicInteger mSize = new AtomicInteger();
+        private Node mHead;
+
+        private TaskList() {
+            mHead = new Node(null, 0);
+            mTail = new AtomicReference<Node>(mHead);
+        }
+
+        void add(Runnable task, long delay) {
+            Node node = new Node(task, delay);
+            mSize.incrementAndGet();
+            mTail.getAndSet(node).mNext = node;
+        }
+
+        Node poll() {
+            Node next = mHead.mNext;
+            if (next == null) {
+                return null;
+            }
+            // The node becomes the dummy head; only its link is used after this
+            mHead = next;
+            mSize.decrementAndGet();
+            return next;
+        }
+
+        int size() {
+            return Math.max(mSize.get(), 0);
+        }
+
+        void clear() {
+            while (poll() != null) {
+            }
+        }
+    }
+}
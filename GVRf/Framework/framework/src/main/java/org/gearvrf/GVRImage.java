@@ -51,6 +51,10 @@ public class GVRImage extends GVRHybridObject
 
     protected static final String TAG = "GVRImage";
 
+    private int mImageWidth = 0;
+    private int mImageHeight = 0;
+    private long mImageDataSize = 0;
+
     public String getFileName()
     {
         return NativeBitmapImage.getFileName(getNative());
@@ -60,4 +64,46 @@ public class GVRImage extends GVRHybridObject
     {
         NativeBitmapImage.setFileName(getNative(), fname);
     }
+
+    /**
+     * Get the width of the image data.
+     * @return width in pixels, 0 if the image has no data
+     */
+    public int getWidth()
+    {
+        return mImageWidth;
+    }
+
+    /**
+     * Get the height of the image data.
+     * @return height in pixels, 0 if the image has no data
+     */
+    public int getHeight()
+    {
+        return mImageHeight;
+    }
+
+    /**
+     * Get an estimate of the memory used by the image data.
+     * This is used to keep the texture caches within their budget.
+     * @return size in bytes, 0 if the image has no data
+     */
+    public long getDataSize()
+    {
+        return mImageDataSize;
+    }
+
+    /**
+     * Record the dimensions and size of new image data.
+     * Called by the subclasses when their data is updated.
+     * @param width     width in pixels
+     * @param height    height in pixels
+     * @param dataSize  size of the image data in bytes
+     */
+    protected void setDataSize(int width, int height, long dataSize)
+    {
+        mImageWidth = width;
+        mImageHeight = height;
+        mImageDataSize = dataSize;
+    }
 }
@@ -103,7 +103,24 @@ public enum GVRImportSettings {
     /**
      * Do not include textures and omit texture coordinates from meshes
      */
-    NO_TEXTURING(0x8000000);
+    NO_TEXTURING(0x8000000),
+
+    /**
+     * Add the model to the scene a few scene objects per frame, within a
+     * time budget, instead of all at once. The scene objects, meshes and
+     * materials are all created before the first one is added; only
+     * attaching them to the scene is spread over several frames.
+     * @see GVRAssetLoader#setCommitBudget(float)
+     */
+    INCREMENTAL_COMMIT(0x10000000),
+
+    /**
+     * Convert the meshes, bone weights and animation channels of the model
+     * on several threads. The scene graph is then assembled on the loading
+     * thread, in the same order as without this setting.
+     * @see IAssetTimingEvents#onImportTimings(GVRContext, GVRSceneObject, String, long, long, int)
+     */
+    PARALLEL_IMPORT(0x20000000);
 
     
     private int mValue;
@@ -17,6 +17,8 @@ import java.util.Hashtable;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 import static java.lang.Math.max;
 
 import org.gearvrf.animation.GVRAnimation;
@@ -60,6 +62,9 @@ class GVRJassimpAdapter {
     private AiScene mScene;
     private GVRContext mContext;
     private String mFileName;
+    private GVRMesh[] mMeshes;
+    private GVRAnimationChannel[][] mAnimChannels;
+    private static ForkJoinPool sImportPool = null;
     private static final int MAX_TEX_COORDS = JassimpConfig.MAX_NUMBER_TEXCOORDS;
     private static final int MAX_VERTEX_COLORS = JassimpConfig.MAX_NUMBER_COLORSETS;
 
@@ -86,19 +91,26 @@ class GVRJassimpAdapter {
     public GVRMesh createMesh(GVRContext ctx, AiMesh aiMesh, EnumSet<GVRImportSettings> settings)
     {
         String vertexDescriptor = "float3 a_position";
-        float[] verticesArray = null;
-        float[] tangentsArray = null;
-        float[] bitangentsArray = null;
-        float[] normalsArray = null;
         boolean doTexturing = !settings.contains(GVRImportSettings.NO_TEXTURING);
         boolean doLighting = !settings.contains(GVRImportSettings.NO_LIGHTING);
         boolean doAnimation = !settings.contains(GVRImportSettings.NO_ANIMATION);
+        /*
+         * The jassimp buffers are direct buffers in native memory.
+         * The attributes that can be copied straight from them are
+         * interleaved into the vertex buffer in one native pass.
+         */
+        List<String> attrNames = new ArrayList<String>();
+        List<FloatBuffer> attrData = new ArrayList<FloatBuffer>();
+        List<Integer> attrStrides = new ArrayList<Integer>();
+        boolean[] narrowTexCoords = null;
 
         // Vertices
         FloatBuffer verticesBuffer = aiMesh.getPositionBuffer();
-        if (verticesBuffer != null) {
-            verticesArray = new float[verticesBuffer.capacity()];
-            verticesBuffer.get(verticesArray, 0, verticesBuffer.capacity());
+        if (verticesBuffer != null)
+        {
+            attrNames.add("a_position");
+            attrData.add(verticesBuffer);
+            attrStrides.add(3);
         }
         // TexCoords
         if (doTexturing)
@@ -108,10 +120,27 @@ class GVRJassimpAdapter {
                 FloatBuffer fbuf = aiMesh.getTexCoordBuffer(texIndex);
                 if (fbuf != null)
                 {
-                    vertexDescriptor += " float2 a_texcoord";
+                    String name = "a_texcoord";
+                    int numComponents = aiMesh.getNumUVComponents(texIndex);
+
                     if (texIndex > 0)
                     {
-                        vertexDescriptor += texIndex;
+                        name += texIndex;
+                    }
+                    vertexDescriptor += " float2 " + name;
+                    if (numComponents >= 2)
+                    {
+                        attrNames.add(name);
+                        attrData.add(fbuf);
+                        attrStrides.add(numComponents);
+                    }
+                    else
+                    {
+                        if (narrowTexCoords == null)
+                        {
+                            narrowTexCoords = new boolean[MAX_TEX_COORDS];
+                        }
+                        narrowTexCoords[texIndex] = true;
                     }
                 }
             }
@@ -123,10 +152,12 @@ class GVRJassimpAdapter {
             if (normalsBuffer != null)
             {
                 vertexDescriptor += " float3 a_normal";
-                normalsArray = new float[normalsBuffer.capacity()];
-                normalsBuffer.get(normalsArray, 0, normalsBuffer.capacity());
+                attrNames.add("a_normal");
+                attrData.add(normalsBuffer);
+                attrStrides.add(3);
             }
         }
+        // Vertex Colors
         for(int c = 0; c < MAX_VERTEX_COLORS; c++)
         {
             FloatBuffer fbuf = aiMesh.getColorBuffer(c);
@@ -139,6 +170,9 @@ class GVRJassimpAdapter {
                     name += c;
                 }
                 vertexDescriptor += " float4 " + name;
+                attrNames.add(name);
+                attrData.add(fbuf);
+                attrStrides.add(4);
             }
         }
 
@@ -148,73 +182,38 @@ class GVRJassimpAdapter {
         }
         GVRMesh mesh = new GVRMesh(ctx, vertexDescriptor);
 
-        // Vertex Colors
-        for(int c = 0; c < MAX_VERTEX_COLORS; c++)
-        {
-            FloatBuffer fbuf = aiMesh.getColorBuffer(c);
-            if (fbuf != null)
-            {
-                FloatBuffer coords = FloatBuffer.allocate(aiMesh.getNumVertices() * 4);
-                FloatBuffer source = aiMesh.getColorBuffer(c);
-                String name = "a_color";
-
-                if (c > 0)
-                {
-                    name += c;
-                }
-                coords.put(source);
-                mesh.setFloatVec(name, coords);
-            }
-        }
-
         IntBuffer indices = aiMesh.getIndexBuffer();
         int len = indices.capacity();
         GVRIndexBuffer indexBuffer = new GVRIndexBuffer(ctx, 4, len);
 
+        // Direct buffer: copied to the index buffer with one memcpy
         indexBuffer.setIntVec(indices);
         mesh.setIndexBuffer(indexBuffer);
 
-        if (verticesArray != null)
-        {
-            mesh.setVertices(verticesArray);
-        }
-        if (normalsArray != null)
-        {
-            mesh.setNormals(normalsArray);
-        }
-        if (tangentsArray != null)
+        if (!attrNames.isEmpty())
         {
-            mesh.setFloatArray("a_tangent", tangentsArray);
-        }
-        if (bitangentsArray != null)
-        {
-            mesh.setFloatArray("a_bitangent", bitangentsArray);
+            int[] strides = new int[attrStrides.size()];
+            for (int i = 0; i < strides.length; ++i)
+            {
+                strides[i] = attrStrides.get(i);
+            }
+            mesh.getVertexBuffer().setFloatVecs(attrNames.toArray(new String[attrNames.size()]),
+                                                attrData.toArray(new FloatBuffer[attrData.size()]),
+                                                strides);
         }
-        // TexCords
-        if (doTexturing)
+        // 1D texture coordinates are padded with zeros
+        if (narrowTexCoords != null)
         {
             for (int texIndex = 0; texIndex < MAX_TEX_COORDS; texIndex++)
             {
-                FloatBuffer fbuf = aiMesh.getTexCoordBuffer(texIndex);
-                if (fbuf != null)
+                if (narrowTexCoords[texIndex])
                 {
-                    FloatBuffer coords = FloatBuffer.allocate(aiMesh.getNumVertices() * 2);
-                    if (aiMesh.getNumUVComponents(texIndex) == 2)
-                    {
-                        FloatBuffer coordsSource = aiMesh.getTexCoordBuffer(texIndex);
-                        coords.put(coordsSource);
-                    }
-                    else
+                    float[] coords = new float[aiMesh.getNumVertices() * 2];
+                    for (int i = 0; i < aiMesh.getNumVertices(); ++i)
                     {
-                        for (int i = 0; i < aiMesh.getNumVertices(); ++i)
-                        {
-                            float u = aiMesh.getTexCoordU(i, texIndex);
-                            float v = aiMesh.getTexCoordV(i, texIndex);
-                            coords.put(u);
-                            coords.put(v);
-                        }
+                        coords[i * 2] = aiMesh.getTexCoordU(i, texIndex);
                     }
-                    mesh.setTexCoords(coords.array(), texIndex);
+                    mesh.setTexCoords(coords, texIndex);
                 }
             }
         }
@@ -331,12 +330,21 @@ class GVRJassimpAdapter {
     }
 
     public GVRKeyFrameAnimation createAnimation(AiAnimation aiAnim, GVRSceneObject target) {
+        return createAnimation(aiAnim, target, null);
+    }
+
+    private GVRKeyFrameAnimation createAnimation(AiAnimation aiAnim, GVRSceneObject target,
+                                                 GVRAnimationChannel[] channels) {
         GVRKeyFrameAnimation anim = new GVRKeyFrameAnimation(aiAnim.getName(), target,
                 (float)aiAnim.getDuration(), (float)aiAnim.getTicksPerSecond());
+        List<AiNodeAnim> aiChannels = aiAnim.getChannels();
 
-        // Convert node anims
-        for (AiNodeAnim aiNodeAnim : aiAnim.getChannels()) {
-            GVRAnimationChannel channel = createAnimChannel(aiNodeAnim);
+        // Convert node anims, unless they have been converted already
+        for (int i = 0; i < aiChannels.size(); ++i) {
+            GVRAnimationChannel channel = (channels != null) ? channels[i] : null;
+            if (channel == null) {
+                channel = createAnimChannel(aiChannels.get(i));
+            }
             anim.addChannel(channel);
         }
 
@@ -346,31 +354,46 @@ class GVRJassimpAdapter {
     }
 
     private GVRAnimationChannel createAnimChannel(AiNodeAnim aiNodeAnim) {
-        GVRAnimationChannel node = new GVRAnimationChannel(aiNodeAnim.getNodeName(), aiNodeAnim.getNumPosKeys(),
-                aiNodeAnim.getNumRotKeys(),  aiNodeAnim.getNumScaleKeys(),
-                convertAnimationBehavior(aiNodeAnim.getPreState()),
-                convertAnimationBehavior(aiNodeAnim.getPostState()));
+        int numPosKeys = aiNodeAnim.getNumPosKeys();
+        int numRotKeys = aiNodeAnim.getNumRotKeys();
+        int numScaleKeys = aiNodeAnim.getNumScaleKeys();
+        float[] posTimes = new float[numPosKeys];
+        float[] positions = new float[numPosKeys * 3];
+        float[] rotTimes = new float[numRotKeys];
+        float[] rotations = new float[numRotKeys * 4];
+        float[] scaleTimes = new float[numScaleKeys];
+        float[] scales = new float[numScaleKeys * 3];
 
         // Pos keys
-        int i;
-        for (i = 0; i < aiNodeAnim.getNumPosKeys(); ++i) {
-            float[] pos = aiNodeAnim.getPosKeyVector(i, sWrapperProvider);
-            node.setPosKeyVector(i, (float)aiNodeAnim.getPosKeyTime(i), pos[0], pos[1], pos[2]);
+        int i, j;
+        for (i = 0, j = 0; i < numPosKeys; ++i) {
+            posTimes[i] = (float) aiNodeAnim.getPosKeyTime(i);
+            positions[j++] = aiNodeAnim.getPosKeyX(i);
+            positions[j++] = aiNodeAnim.getPosKeyY(i);
+            positions[j++] = aiNodeAnim.getPosKeyZ(i);
         }
 
         // Rot keys
-        for (i = 0; i < aiNodeAnim.getNumRotKeys(); ++i) {
-            Quaternionf rot = aiNodeAnim.getRotKeyQuaternion(i, sWrapperProvider);
-            node.setRotKeyQuaternion(i, (float)aiNodeAnim.getRotKeyTime(i), rot);
+        for (i = 0, j = 0; i < numRotKeys; ++i) {
+            rotTimes[i] = (float) aiNodeAnim.getRotKeyTime(i);
+            rotations[j++] = aiNodeAnim.getRotKeyX(i);
+            rotations[j++] = aiNodeAnim.getRotKeyY(i);
+            rotations[j++] = aiNodeAnim.getRotKeyZ(i);
+            rotations[j++] = aiNodeAnim.getRotKeyW(i);
         }
 
         // Scale keys
-        for (i = 0; i < aiNodeAnim.getNumScaleKeys(); ++i) {
-            float[] scale = aiNodeAnim.getScaleKeyVector(i, sWrapperProvider);
-            node.setScaleKeyVector(i, (float)aiNodeAnim.getScaleKeyTime(i), scale[0], scale[1], scale[2]);
+        for (i = 0, j = 0; i < numScaleKeys; ++i) {
+            scaleTimes[i] = (float) aiNodeAnim.getScaleKeyTime(i);
+            scales[j++] = aiNodeAnim.getScaleKeyX(i);
+            scales[j++] = aiNodeAnim.getScaleKeyY(i);
+            scales[j++] = aiNodeAnim.getScaleKeyZ(i);
         }
 
-        return node;
+        return new GVRAnimationChannel(aiNodeAnim.getNodeName(),
+                posTimes, positions, rotTimes, rotations, scaleTimes, scales,
+                convertAnimationBehavior(aiNodeAnim.getPreState()),
+                convertAnimationBehavior(aiNodeAnim.getPostState()));
     }
 
     private GVRAnimationBehavior convertAnimationBehavior(AiAnimBehavior behavior) {
@@ -428,6 +451,8 @@ class GVRJassimpAdapter {
             case FLIP_UV:
                 return AiPostProcessSteps.FLIP_UVS;
             case START_ANIMATIONS:
+            case INCREMENTAL_COMMIT:
+            case PARALLEL_IMPORT:
                 return null;
             case NO_ANIMATION:
             case NO_LIGHTING:
@@ -462,7 +487,12 @@ class GVRJassimpAdapter {
         {
             return;
         }
-        recurseAssimpNodes(request, model, scene.getSceneRoot(sWrapperProvider), lightList);
+        AiNode root = scene.getSceneRoot(sWrapperProvider);
+        long convertStart = System.nanoTime();
+        int threads = convertScene(root, settings);
+        long assembleStart = System.nanoTime();
+
+        recurseAssimpNodes(request, model, root, lightList);
         if (!settings.contains(GVRImportSettings.NO_ANIMATION))
         {
             List<AiAnimation> animations = scene.getAnimations();
@@ -470,9 +500,9 @@ class GVRJassimpAdapter {
             {
                 GVRAnimator animator = new GVRAnimator(mContext, startAnimations);
                 model.attachComponent(animator);
-                for (AiAnimation aiAnim : scene.getAnimations())
+                for (int a = 0; a < animations.size(); ++a)
                 {
-                    GVRAnimation animation = createAnimation(aiAnim, model);
+                    GVRAnimation animation = createAnimation(animations.get(a), model, mAnimChannels[a]);
                     GVRModelSceneObject modelRoot = null;
                     if (GVRModelSceneObject.class.isAssignableFrom(model.getClass()))
                     {
@@ -489,6 +519,178 @@ class GVRJassimpAdapter {
                 }
             }
         }
+        mMeshes = null;
+        mAnimChannels = null;
+        request.onImportTimings(mContext, model, mFileName, assembleStart - convertStart,
+                                System.nanoTime() - assembleStart, threads);
+    }
+
+    /**
+     * Convert the meshes the scene graph uses, with their bone weights,
+     * and the channels of the animations.
+     * <p>
+     * These conversions do not depend on each other or on the scene graph.
+     * With {@link GVRImportSettings#PARALLEL_IMPORT} they run on a
+     * fork-join pool. The results are kept by index, so the scene graph
+     * assembled from them is the same whatever order they ran in.
+     * @return number of threads the conversion ran on
+     */
+    private int convertScene(AiNode root, final EnumSet<GVRImportSettings> settings)
+    {
+        final List<AiMesh> aiMeshes = mScene.getMeshes();
+        final List<AiAnimation> aiAnims = settings.contains(GVRImportSettings.NO_ANIMATION)
+                ? new ArrayList<AiAnimation>() : mScene.getAnimations();
+        boolean[] used = new boolean[aiMeshes.size()];
+        int numMeshes = findMeshes(root, used);
+        int numChannels = 0;
+
+        mMeshes = new GVRMesh[aiMeshes.size()];
+        mAnimChannels = new GVRAnimationChannel[aiAnims.size()][];
+        for (int a = 0; a < aiAnims.size(); ++a)
+        {
+            mAnimChannels[a] = new GVRAnimationChannel[aiAnims.get(a).getNumChannels()];
+            numChannels += mAnimChannels[a].length;
+        }
+
+        /*
+         * Number the work items: the meshes first, then the
+         * channels of each animation in turn.
+         */
+        final int[] meshIndices = new int[numMeshes];
+        final int[] animIndices = new int[numChannels];
+        final int[] channelIndices = new int[numChannels];
+        for (int m = 0, i = 0; m < used.length; ++m)
+        {
+            if (used[m])
+            {
+                meshIndices[i++] = m;
+            }
+        }
+        for (int a = 0, i = 0; a < mAnimChannels.length; ++a)
+        {
+            for (int c = 0; c < mAnimChannels[a].length; ++c, ++i)
+            {
+                animIndices[i] = a;
+                channelIndices[i] = c;
+            }
+        }
+
+        IndexedTask task = new IndexedTask()
+        {
+            public void run(int i)
+            {
+                if (i < meshIndices.length)
+                {
+                    int m = meshIndices[i];
+                    mMeshes[m] = createMesh(mContext, aiMeshes.get(m), settings);
+                }
+                else
+                {
+                    i -= meshIndices.length;
+                    AiAnimation aiAnim = aiAnims.get(animIndices[i]);
+                    mAnimChannels[animIndices[i]][channelIndices[i]] =
+                        createAnimChannel(aiAnim.getChannels().get(channelIndices[i]));
+                }
+            }
+        };
+        int numTasks = numMeshes + numChannels;
+
+        if (settings.contains(GVRImportSettings.PARALLEL_IMPORT) && (numTasks > 1))
+        {
+            ForkJoinPool pool = getImportPool();
+            pool.invoke(new ForEachIndex(task, 0, numTasks));
+            return pool.getParallelism();
+        }
+        for (int i = 0; i < numTasks; ++i)
+        {
+            task.run(i);
+        }
+        return 1;
+    }
+
+    /**
+     * Mark the meshes used by a node and its descendants.
+     * @return number of meshes marked
+     */
+    private int findMeshes(AiNode node, boolean[] used)
+    {
+        int n = 0;
+        for (int i = 0; i < node.getNumMeshes(); ++i)
+        {
+            int m = node.getMeshes()[i];
+            if (!used[m])
+            {
+                used[m] = true;
+                ++n;
+            }
+        }
+        for (AiNode child : node.getChildren())
+        {
+            n += findMeshes(child, used);
+        }
+        return n;
+    }
+
+    /**
+     * Get the converted mesh for an Assimp mesh. A mesh used by more
+     * than one node is converted again for the other nodes.
+     */
+    private GVRMesh takeMesh(int meshIndex, EnumSet<GVRImportSettings> settings)
+    {
+        GVRMesh mesh = (mMeshes != null) ? mMeshes[meshIndex] : null;
+        if (mesh == null)
+        {
+            return createMesh(mContext, mScene.getMeshes().get(meshIndex), settings);
+        }
+        mMeshes[meshIndex] = null;
+        return mesh;
+    }
+
+    private static synchronized ForkJoinPool getImportPool()
+    {
+        if (sImportPool == null)
+        {
+            sImportPool = new ForkJoinPool();
+        }
+        return sImportPool;
+    }
+
+    private interface IndexedTask
+    {
+        void run(int index);
+    }
+
+    /**
+     * Runs a task for each index of a range, splitting the range
+     * in halves until each task runs on its own.
+     */
+    private static class ForEachIndex extends RecursiveAction
+    {
+        private final IndexedTask mTask;
+        private final int mBegin;
+        private final int mEnd;
+
+        ForEachIndex(IndexedTask task, int begin, int end)
+        {
+            mTask = task;
+            mBegin = begin;
+            mEnd = end;
+        }
+
+        @Override
+        protected void compute()
+        {
+            if (mEnd - mBegin <= 1)
+            {
+                if (mEnd > mBegin)
+                {
+                    mTask.run(mBegin);
+                }
+                return;
+            }
+            int mid = (mBegin + mEnd) >>> 1;
+            invokeAll(new ForEachIndex(mTask, mBegin, mid), new ForEachIndex(mTask, mid, mEnd));
+        }
     }
 
     private GVRSceneObject makeCamera()
@@ -531,14 +733,12 @@ class GVRJassimpAdapter {
             parentSceneObject.addChildObject(sceneObject);
         } else if (node.getNumMeshes() == 1) {
             // add the scene object to the scene graph
-            AiMesh aiMesh = mScene.getMeshes().get(node.getMeshes()[0]);
-            sceneObject = createSubSceneObject(request, parentSceneObject, node, aiMesh);
+            sceneObject = createSubSceneObject(request, parentSceneObject, node, node.getMeshes()[0]);
         } else {
             sceneObject = createSceneObject(mContext, node);
             parentSceneObject.addChildObject(sceneObject);
             for (int i = 0; i < node.getNumMeshes(); i++) {
-                AiMesh aiMesh = mScene.getMeshes().get(node.getMeshes()[i]);
-                GVRSceneObject childSceneObject = createSubSceneObject(request, sceneObject, node, aiMesh);
+                GVRSceneObject childSceneObject = createSubSceneObject(request, sceneObject, node, node.getMeshes()[i]);
             }
         }
 
@@ -588,8 +788,8 @@ class GVRJassimpAdapter {
      *            A reference to the AiNode for which we want to recurse all its
      *            children and meshes.
      *
-     * @param aiMesh
-     *            The assimp mesh
+     * @param meshIndex
+     *            Index of the assimp mesh in the scene
      **
      * @return The new {@link GVRSceneObject} with the input mesh for the node {@link node}
      *
@@ -600,10 +800,11 @@ class GVRJassimpAdapter {
             GVRAssetLoader.AssetRequest assetRequest,
             GVRSceneObject parent,
             AiNode node,
-            AiMesh aiMesh)
+            int meshIndex)
     {
         EnumSet<GVRImportSettings> settings = assetRequest.getImportSettings();
-        GVRMesh mesh = createMesh(mContext, aiMesh, settings);
+        AiMesh aiMesh = mScene.getMeshes().get(meshIndex);
+        GVRMesh mesh = takeMesh(meshIndex, settings);
         AiMaterial material = mScene.getMaterials().get(aiMesh.getMaterialIndex());
         final GVRMaterial meshMaterial = createMaterial(material, assetRequest.getImportSettings());
         GVRSceneObject sceneObject = createSceneObject(mContext, node);
@@ -15,6 +15,7 @@
 
 package org.gearvrf;
 
+import java.io.File;
 import java.util.HashMap;
 import java.util.Map;
 import java.lang.reflect.*;
@@ -25,12 +26,189 @@ import org.gearvrf.utility.Log;
 
 /**
  * Manages material shaders, for rendering scene objects.
- * 
+ *
  * Get the singleton from {@link GVRContext#getMaterialShaderManager()}.
+ * <p>
+ * Shader templates generate a shader variant for each combination of
+ * mesh attributes, material properties and lights they are used with. By
+ * default a variant is generated the first time it is needed, which can
+ * make that frame late. To avoid that, declare the variants a scene will
+ * need with {@link #precompile(GVRMaterial, String, GVRScene, boolean)} or
+ * {@link #precompile(GVRSceneObject, GVRScene)} while it is loading, and
+ * keep the generated sources between runs with
+ * {@link #setVariantCache(File)}.
  */
     public class GVRMaterialShaderManager  extends GVRShaderManager {
 
+    private volatile ShaderVariantCache mVariantCache = null;
+
     GVRMaterialShaderManager(GVRContext gvrContext) {
         super(gvrContext);
     }
+
+    /**
+     * Keep the shader sources generated by shader templates in a disk cache.
+     *
+     * Generating the sources of a variant is much of the cost of a new
+     * variant. With a cache, the sources are saved the first time a variant
+     * is generated, and read back the next time it is needed - usually in
+     * a later run. A variant is generated again if its template or its
+     * lights have changed.
+     *
+     * @param directory
+     *            Directory for the cache files, such as a subdirectory of
+     *            {@link android.content.Context#getCacheDir()}; {@code null}
+     *            disables the cache.
+     */
+    public void setVariantCache(File directory) {
+        mVariantCache = (directory != null) ? new ShaderVariantCache(directory) : null;
+    }
+
+    /**
+     * Delete the files of the shader variant cache, if there is one.
+     */
+    public void clearVariantCache() {
+        ShaderVariantCache cache = mVariantCache;
+        if (cache != null) {
+            cache.clear();
+        }
+    }
+
+    ShaderVariantCache getVariantCache() {
+        return mVariantCache;
+    }
+
+    /**
+     * Declare a shader variant that a scene will need, and make it now.
+     *
+     * The variant is the one the material's shader generates for meshes
+     * with the given vertex attributes, lit by the lights of the scene. The
+     * sources are generated on the calling thread, and the GPU program is
+     * built on the GL thread, before the variant is used to render.
+     *
+     * @param material
+     *            Material the variant is for. Its shader, and the uniforms
+     *            and textures it sets, select the variant.
+     * @param vertexDescriptor
+     *            Vertex attributes of the meshes, as returned by
+     *            {@link GVRVertexBuffer#getDescriptor()} (e.g.
+     *            "float3 a_position float2 a_texcoord float3 a_normal").
+     * @param scene
+     *            Scene whose lights the variant is for, {@code null} for no
+     *            lights.
+     * @param lightEnabled
+     *            Whether the variant is for render data with lighting
+     *            enabled.
+     * @return ID of the native shader, 0 if it could not be made
+     */
+    public int precompile(GVRMaterial material, String vertexDescriptor, GVRScene scene,
+                          boolean lightEnabled) {
+        final GVRContext context = getGVRContext();
+        final boolean isMultiview = context.getActivity().getAppSettings().isMultiviewSet();
+        return precompile(new VariantDeclaration(context, material, lightEnabled),
+                vertexDescriptor, scene, isMultiview);
+    }
+
+    /**
+     * Make the shader variants of all the render data in a hierarchy, such
+     * as a model that has just been loaded, before it is rendered.
+     *
+     * @param root
+     *            Root of the hierarchy
+     * @param scene
+     *            Scene whose lights the variants are for, {@code null} for no
+     *            lights.
+     * @see #precompile(GVRMaterial, String, GVRScene, boolean)
+     */
+    public void precompile(GVRSceneObject root, final GVRScene scene) {
+        final boolean isMultiview = getGVRContext().getActivity().getAppSettings().isMultiviewSet();
+        root.forAllComponents(new GVRSceneObject.ComponentVisitor() {
+            @Override
+            public boolean visit(GVRComponent comp) {
+                GVRRenderData rdata = (GVRRenderData) comp;
+                GVRMesh mesh = rdata.getMesh();
+                if (mesh == null) {
+                    return true;
+                }
+                String vertexDescriptor = mesh.getVertexBuffer().getDescriptor();
+                precompile(rdata, vertexDescriptor, scene, isMultiview);
+                for (int i = 1; i < rdata.getPassCount(); ++i) {
+                    precompile(rdata.getPass(i), vertexDescriptor, scene, isMultiview);
+                }
+                return true;
+            }
+        }, GVRRenderData.getComponentType());
+    }
+
+    private int precompile(IRenderable renderable, String vertexDescriptor, GVRScene scene,
+                           boolean isMultiview) {
+        final GVRContext context = getGVRContext();
+        GVRMaterial material = renderable.getMaterial();
+        GVRShader shader = (material != null) ? material.getShaderType().getTemplate(context) : null;
+        if (shader == null) {
+            return 0;
+        }
+        if (shader instanceof GVRShaderTemplate) {
+            return ((GVRShaderTemplate) shader).precompile(context, renderable, vertexDescriptor,
+                    scene, isMultiview);
+        }
+        int nativeShader = shader.bindShader(context, material, vertexDescriptor);
+        if (nativeShader > 0) {
+            compileOnGlThread(nativeShader, isMultiview);
+        }
+        return nativeShader;
+    }
+
+    /**
+     * Build the GPU program of a shader on the GL thread, ahead of its
+     * first use.
+     */
+    void compileOnGlThread(final int nativeShader, final boolean isMultiview) {
+        getGVRContext().runOnGlThread(new Runnable() {
+            @Override
+            public void run() {
+                compileShader(nativeShader, isMultiview);
+            }
+        });
+    }
+
+    /**
+     * A shader variant declared without render data: just a material and
+     * the lighting setting, which is all the shader templates look at.
+     */
+    private static class VariantDeclaration implements IRenderable {
+        private final GVRContext mContext;
+        private final GVRMaterial mMaterial;
+        private final boolean mLightEnabled;
+
+        VariantDeclaration(GVRContext context, GVRMaterial material, boolean lightEnabled) {
+            mContext = context;
+            mMaterial = material;
+            mLightEnabled = lightEnabled;
+        }
+
+        @Override
+        public GVRMaterial getMaterial() {
+            return mMaterial;
+        }
+
+        @Override
+        public GVRMesh getMesh() {
+            return null;
+        }
+
+        @Override
+        public boolean isLightEnabled() {
+            return mLightEnabled;
+        }
+
+        @Override
+        public void setShader(int shaderID, boolean isMultiview) {
+        }
+
+        @Override
+        public GVRContext getGVRContext() {
+            return mContext;
+        }
+    }
  }
@@ -0,0 +1,189 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gearvrf;
+
+/**
+ * Reusable storage for the results of a pick.
+ * <p/>
+ * The pick functions which take a GVRPickResultBuffer copy the
+ * collisions directly into its arrays instead of allocating a
+ * {@link GVRPicker.GVRPickedObject} for each hit. Once the buffer
+ * is large enough, picking with it does not allocate any Java memory.
+ * <p/>
+ * Hits are sorted by distance from the origin of the pick ray.
+ * If there are more hits than the buffer can hold, only the closest
+ * ones are kept and {@link #isOverflowed()} returns true.
+ * Call {@link #ensureCapacity(int)} with {@link #getTotalHitCount()}
+ * and pick again to get all of them.
+ * @see GVRPicker#pickObjects(GVRScene, GVRTransform, float, float, float, float, float, float, GVRPickResultBuffer)
+ * @see GVRPicker#pickClosest(GVRScene, GVRTransform, float, float, float, float, float, float, GVRPickResultBuffer)
+ */
+public class GVRPickResultBuffer
+{
+    /**
+     * Number of floats stored per hit: distance, hit location (3),
+     * barycentric coordinates (3), texture coordinates (2), normal (3).
+     */
+    static final int HIT_DATA_SIZE = 12;
+
+    long[] mColliders;
+    int[] mFaceIndices;
+    float[] mHitData;
+    private int mTotalHits = 0;
+
+    /**
+     * Construct a result buffer.
+     * @param capacity maximum number of hits to hold
+     */
+    public GVRPickResultBuffer(int capacity)
+    {
+        allocate(capacity);
+    }
+
+    private void allocate(int capacity)
+    {
+        mColliders = new long[capacity];
+        mFaceIndices = new int[capacity];
+        mHitData = new float[capacity * HIT_DATA_SIZE];
+    }
+
+    /**
+     * Get the maximum number of hits the buffer can hold.
+     */
+    public int getCapacity() { return mColliders.length; }
+
+    /**
+     * Make sure the buffer can hold at least the given number of hits.
+     * The current contents are discarded if the buffer is enlarged.
+     * @param capacity minimum number of hits to hold
+     */
+    public void ensureCapacity(int capacity)
+    {
+        if (capacity > mColliders.length)
+        {
+            allocate(capacity);
+            mTotalHits = 0;
+        }
+    }
+
+    /**
+     * Get the number of hits stored in the buffer.
+     */
+    public int getHitCount() { return Math.min(mTotalHits, mColliders.length); }
+
+    /**
+     * Get the number of hits from the last pick, which may
+     * be more than the buffer can hold.
+     */
+    public int getTotalHitCount() { return mTotalHits; }
+
+    /**
+     * Returns true if the last pick had more hits than
+     * the buffer can hold.
+     */
+    public boolean isOverflowed() { return mTotalHits > mColliders.length; }
+
+    /**
+     * Remove all the hits from the buffer.
+     */
+    public void clear() { mTotalHits = 0; }
+
+    void setTotalHitCount(int count) { mTotalHits = count; }
+
+    /**
+     * Get the collider hit.
+     * @param hit 0-based index of the hit
+     * @return {@link GVRCollider} hit or null if it has been destroyed
+     */
+    public GVRCollider getHitCollider(int hit)
+    {
+        return GVRCollider.lookup(mColliders[hit]);
+    }
+
+    /**
+     * Get the scene object which owns the collider hit.
+     * @param hit 0-based index of the hit
+     */
+    public GVRSceneObject getHitObject(int hit)
+    {
+        GVRCollider collider = getHitCollider(hit);
+        return (collider != null) ? collider.getOwnerObject() : null;
+    }
+
+    /**
+     * Get the distance of a hit from the origin of the pick ray.
+     * @param hit 0-based index of the hit
+     */
+    public float getHitDistance(int hit)
+    {
+        return mHitData[hit * HIT_DATA_SIZE];
+    }
+
+    /**
+     * Copy the hit location into an array.
+     * @param hit 0-based index of the hit
+     * @param location array to get the [x, y, z] hit location
+     */
+    public void getHitLocation(int hit, float[] location)
+    {
+        System.arraycopy(mHitData, hit * HIT_DATA_SIZE + 1, location, 0, 3);
+    }
+
+    /**
+     * Get the index of the face hit.
+     * This is only computed for a {@link GVRMeshCollider}
+     * with coordinate picking enabled.
+     * @param hit 0-based index of the hit
+     * @return face index or -1 if not computed
+     */
+    public int getFaceIndex(int hit)
+    {
+        return mFaceIndices[hit];
+    }
+
+    /**
+     * Copy the barycentric coordinates of the hit location into an array.
+     * These are only meaningful if {@link #getFaceIndex(int)} is not -1.
+     * @param hit 0-based index of the hit
+     * @param coords array to get the barycentric coordinates
+     */
+    public void getBarycentricCoords(int hit, float[] coords)
+    {
+        System.arraycopy(mHitData, hit * HIT_DATA_SIZE + 4, coords, 0, 3);
+    }
+
+    /**
+     * Copy the texture coordinates of the hit location into an array.
+     * These are only meaningful if {@link #getFaceIndex(int)} is not -1.
+     * @param hit 0-based index of the hit
+     * @param coords array to get the [u, v] texture coordinates
+     */
+    public void getTextureCoords(int hit, float[] coords)
+    {
+        System.arraycopy(mHitData, hit * HIT_DATA_SIZE + 7, coords, 0, 2);
+    }
+
+    /**
+     * Copy the surface normal at the hit location (in local coordinates) into an array.
+     * This is only meaningful if {@link #getFaceIndex(int)} is not -1.
+     * @param hit 0-based index of the hit
+     * @param coords array to get the [x, y, z] normal
+     */
+    public void getNormalCoords(int hit, float[] coords)
+    {
+        System.arraycopy(mHitData, hit * HIT_DATA_SIZE + 9, coords, 0, 3);
+    }
+}
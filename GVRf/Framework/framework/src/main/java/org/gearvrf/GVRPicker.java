@@ -23,6 +23,8 @@ import java.util.EnumSet;
 import java.util.List;
 import java.util.concurrent.locks.ReentrantLock;
 
+import org.gearvrf.debug.GVRMetrics;
+import org.gearvrf.debug.GVRTracer;
 import org.gearvrf.utility.Log;
 import org.joml.Matrix4f;
 import org.joml.Vector3f;
@@ -73,6 +75,7 @@ import org.joml.Vector3f;
  */
 public class GVRPicker extends GVRBehavior implements IEventReceiver {
     private static final String TAG = Log.tag(GVRPicker.class);
+    private static final GVRMetrics.Histogram sPickTime = GVRMetrics.histogram("frame.pick");
     static private long TYPE_PICKMANAGER = newComponentType(GVRPicker.class);
     private final Vector3f mRayOrigin = new Vector3f(0, 0, 0);
     private final Vector3f mRayDirection = new Vector3f(0, 0, -1);
@@ -83,6 +86,10 @@ public class GVRPicker extends GVRBehavior implements IEventReceiver {
     protected GVRCursorController mController = null;
     protected GVRPickedObject[] mPicked = null;
     protected boolean mPickClosest = true;
+    protected GVRPickResultBuffer mResultBuffer = null;
+    private final GVRPickedObject[][] mPooledHits = new GVRPickedObject[2][];
+    private final GVRPickedObject[][] mPooledPicks = new GVRPickedObject[2][];
+    private int mPoolIndex = 0;
     protected GVREventReceiver mListeners = null;
     protected EnumSet<EventOptions> mEventOptions = EnumSet.of(
             EventOptions.SEND_PICK_EVENTS,
@@ -466,6 +473,48 @@ public class GVRPicker extends GVRBehavior implements IEventReceiver {
         mPickClosest = flag;
     }
 
+    /**
+     * Query if the picker reuses its pick results.
+     * @return true if pick results are pooled, false if they are allocated every frame.
+     * @see #setPooledResults(boolean)
+     */
+    public boolean getPooledResults() { return mResultBuffer != null; }
+
+    /**
+     * Enable or disable reuse of pick results.
+     * <p/>
+     * By default, the picker allocates new {@link GVRPickedObject}
+     * instances for every hit every frame. When pooling is enabled,
+     * the hits are copied into a {@link GVRPickResultBuffer} and the
+     * picked objects are reused, so picking does not allocate once
+     * the pools have grown large enough.
+     * <p/>
+     * When pooling is enabled, the {@link GVRPickedObject} instances
+     * passed to listeners and returned by {@link #getPicked()} are
+     * only valid until the next frame after they are reported.
+     * Copy any data you need to keep. The array returned by
+     * {@link #getPicked()} may also contain null entries after the last hit.
+     * @param flag true to reuse pick results, false to allocate new ones.
+     * @see #getPooledResults()
+     * @see GVRPickResultBuffer
+     */
+    public void setPooledResults(boolean flag)
+    {
+        if (flag)
+        {
+            if (mResultBuffer == null)
+            {
+                mResultBuffer = new GVRPickResultBuffer(8);
+            }
+        }
+        else
+        {
+            mResultBuffer = null;
+            mPooledHits[0] = mPooledHits[1] = null;
+            mPooledPicks[0] = mPooledPicks[1] = null;
+        }
+    }
+
     /**
      * Called every frame if the picker is enabled
      * to generate pick events.
@@ -475,7 +524,15 @@ public class GVRPicker extends GVRBehavior implements IEventReceiver {
     {
         if (isEnabled() && (mScene != null))
         {
-            doPick();
+            GVRTracer.begin("GVRPicker");
+            try
+            {
+                doPick();
+            }
+            finally
+            {
+                GVRTracer.end("GVRPicker");
+            }
         }
     }
 
@@ -490,11 +547,16 @@ public class GVRPicker extends GVRBehavior implements IEventReceiver {
      */
     protected void doPick()
     {
+        final long start = System.nanoTime();
         GVRSceneObject owner = getOwnerObject();
         GVRTransform trans = (owner != null) ? owner.getTransform() : null;
         GVRPickedObject[] picked;
 
-        if (mPickClosest)
+        if (mResultBuffer != null)
+        {
+            picked = pickPooled(trans);
+        }
+        else if (mPickClosest)
         {
             GVRPickedObject closest = pickClosest(mScene, trans,
                 mRayOrigin.x, mRayOrigin.y, mRayOrigin.z,
@@ -514,9 +576,83 @@ public class GVRPicker extends GVRBehavior implements IEventReceiver {
                     mRayOrigin.x, mRayOrigin.y, mRayOrigin.z,
                     mRayDirection.x, mRayDirection.y, mRayDirection.z);
         }
+        if (GVRMetrics.isEnabled())
+        {
+            sPickTime.record(System.nanoTime() - start);
+        }
         generatePickEvents(picked);
     }
 
+    /**
+     * Picks into the result buffer and copies the hits
+     * into reusable {@link GVRPickedObject} instances.
+     * Two pools are alternated so that the hits from the
+     * previous frame are still intact when the pick events
+     * compare them with the current ones.
+     * @param trans transform establishing the coordinate system of the pick ray
+     * @return array of picked objects, null after the last hit
+     */
+    private GVRPickedObject[] pickPooled(GVRTransform trans)
+    {
+        GVRPickResultBuffer buffer = mResultBuffer;
+
+        fillResultBuffer(trans, buffer);
+        if (buffer.isOverflowed())
+        {
+            buffer.ensureCapacity(buffer.getTotalHitCount());
+            fillResultBuffer(trans, buffer);
+        }
+        int n = buffer.getHitCount();
+        GVRPickedObject[] hits = mPooledHits[mPoolIndex];
+        GVRPickedObject[] picked = mPooledPicks[mPoolIndex];
+
+        if ((hits == null) || (hits.length < n))
+        {
+            int size = Math.max(n, buffer.getCapacity());
+            hits = new GVRPickedObject[size];
+            picked = new GVRPickedObject[size];
+            for (int i = 0; i < size; ++i)
+            {
+                hits[i] = new GVRPickedObject();
+            }
+            mPooledHits[mPoolIndex] = hits;
+            mPooledPicks[mPoolIndex] = picked;
+        }
+        mPoolIndex ^= 1;
+        int j = 0;
+        for (int i = 0; i < n; ++i)
+        {
+            GVRCollider collider = buffer.getHitCollider(i);
+            if (collider != null)
+            {
+                hits[j].set(collider, buffer, i);
+                picked[j] = hits[j];
+                ++j;
+            }
+        }
+        while (j < picked.length)
+        {
+            picked[j++] = null;
+        }
+        return picked;
+    }
+
+    private void fillResultBuffer(GVRTransform trans, GVRPickResultBuffer buffer)
+    {
+        if (mPickClosest)
+        {
+            pickClosest(mScene, trans,
+                    mRayOrigin.x, mRayOrigin.y, mRayOrigin.z,
+                    mRayDirection.x, mRayDirection.y, mRayDirection.z, buffer);
+        }
+        else
+        {
+            pickObjects(mScene, trans,
+                    mRayOrigin.x, mRayOrigin.y, mRayOrigin.z,
+                    mRayDirection.x, mRayDirection.y, mRayDirection.z, buffer);
+        }
+    }
+
     /**
      * Scans the scene graph to collect picked items
      * and generates appropriate pick and touch events.
@@ -1175,6 +1311,142 @@ public class GVRPicker extends GVRBehavior implements IEventReceiver {
         }
     }
 
+    /**
+     * Casts a ray into the scene graph and copies the colliders
+     * it intersects into a reusable buffer.
+     * <p/>
+     * This works like {@link #pickObjects(GVRScene, GVRTransform, float, float, float, float, float, float)}
+     * but does not allocate a {@link GVRPickedObject} for each hit.
+     * If there are more hits than the buffer can hold, only the closest
+     * ones are copied. The return value is the total number of hits
+     * so the caller can enlarge the buffer and pick again.
+     *
+     * @param scene     The {@link GVRScene} with all the objects to be tested.
+     * @param trans     The {@link GVRTransform} establishing the coordinate system of the ray.
+     *                  If null, the ray is in the coordinate system of the main camera.
+     * @param ox        The x coordinate of the ray origin.
+     * @param oy        The y coordinate of the ray origin.
+     * @param oz        The z coordinate of the ray origin.
+     * @param dx        The x vector of the ray direction.
+     * @param dy        The y vector of the ray direction.
+     * @param dz        The z vector of the ray direction.
+     * @param result    {@link GVRPickResultBuffer} to get the hits, sorted by distance.
+     * @return total number of hits, which may exceed the capacity of the buffer.
+     * @see GVRPickResultBuffer
+     */
+    public static final int pickObjects(GVRScene scene, GVRTransform trans, float ox, float oy, float oz,
+                                        float dx, float dy, float dz, GVRPickResultBuffer result) {
+        return pickIntoBuffer(scene, trans, ox, oy, oz, dx, dy, dz, false, result);
+    }
+
+    /**
+     * Casts a ray into the scene graph and copies the closest
+     * collider it intersects into a reusable buffer.
+     * <p/>
+     * This works like {@link #pickClosest(GVRScene, GVRTransform, float, float, float, float, float, float)}
+     * but does not allocate a {@link GVRPickedObject}.
+     *
+     * @param scene     The {@link GVRScene} with all the objects to be tested.
+     * @param trans     The {@link GVRTransform} establishing the coordinate system of the ray.
+     *                  If null, the ray is in the coordinate system of the main camera.
+     * @param ox        The x coordinate of the ray origin.
+     * @param oy        The y coordinate of the ray origin.
+     * @param oz        The z coordinate of the ray origin.
+     * @param dx        The x vector of the ray direction.
+     * @param dy        The y vector of the ray direction.
+     * @param dz        The z vector of the ray direction.
+     * @param result    {@link GVRPickResultBuffer} to get the hit.
+     * @return 1 if an object was hit, 0 if not.
+     * @see GVRPickResultBuffer
+     */
+    public static final int pickClosest(GVRScene scene, GVRTransform trans, float ox, float oy, float oz,
+                                        float dx, float dy, float dz, GVRPickResultBuffer result) {
+        return pickIntoBuffer(scene, trans, ox, oy, oz, dx, dy, dz, true, result);
+    }
+
+    private static int pickIntoBuffer(GVRScene scene, GVRTransform trans, float ox, float oy, float oz,
+                                      float dx, float dy, float dz, boolean closest, GVRPickResultBuffer result) {
+        sFindObjectsLock.lock();
+        try {
+            long nativeTrans = (trans != null) ? trans.getNative() : 0L;
+            int count = NativePicker.pickObjectsIntoBuffer(scene.getNative(), nativeTrans,
+                    ox, oy, oz, dx, dy, dz, closest,
+                    result.mColliders, result.mFaceIndices, result.mHitData);
+            result.setTotalHitCount(count);
+            return count;
+        } finally {
+            sFindObjectsLock.unlock();
+        }
+    }
+
+    /**
+     * Casts several rays into the scene graph at once and returns
+     * the objects they intersect.
+     * <p/>
+     * This is more efficient than calling
+     * {@link #pickObjects(GVRScene, GVRTransform, float, float, float, float, float, float)}
+     * once per ray when there are several pickers (controllers, gaze, line of sight probes).
+     * The collider list is only locked and traversed once and the hits
+     * are returned in flat arrays instead of one {@link GVRPickedObject} per hit.
+     * <p/>
+     * Each ray is six consecutive floats in the input array: the origin
+     * {@code [ox, oy, oz]} followed by the direction {@code [dx, dy, dz]}.
+     * The rays are in the coordinate system of the input transform.
+     * <p>
+     * This method is thread safe because it guarantees that only
+     * one thread at a time is doing a ray cast into a particular scene graph.
+     *
+     * @param scene
+     *            The {@link GVRScene} with all the objects to be tested.
+     * @param trans
+     *            The {@link GVRTransform} establishing the coordinate system of the rays.
+     *            If this is null, the rays are in world coordinates.
+     * @param rays
+     *            Ray origins and directions, 6 floats per ray.
+     * @param rayCount
+     *            Number of rays to cast.
+     * @return a {@link GVRMultiPickResult} with the hits for all the rays,
+     *         grouped by ray and sorted by distance from the ray origin.
+     * @see GVRMultiPickResult
+     */
+    public static final GVRMultiPickResult pickObjects(GVRScene scene, GVRTransform trans, float[] rays, int rayCount)
+    {
+        if (rayCount < 0)
+        {
+            throw new IllegalArgumentException("rayCount must not be negative");
+        }
+        if (rayCount > rays.length / 6)
+        {
+            throw new IllegalArgumentException("rays array must have 6 floats per ray");
+        }
+        sFindObjectsLock.lock();
+        try {
+            long nativeTrans = (trans != null) ? trans.getNative() : 0L;
+            return NativePicker.pickObjectsMulti(scene.getNative(), nativeTrans, rays, rayCount);
+        } finally {
+            sFindObjectsLock.unlock();
+        }
+    }
+
+    /**
+     * Casts several rays in world coordinates into the scene graph
+     * and returns the objects they intersect.
+     *
+     * @param scene
+     *            The {@link GVRScene} with all the objects to be tested.
+     * @param rays
+     *            Ray origins and directions in world coordinates, 6 floats per ray.
+     * @param rayCount
+     *            Number of rays to cast.
+     * @return a {@link GVRMultiPickResult} with the hits for all the rays,
+     *         grouped by ray and sorted by distance from the ray origin.
+     * @see #pickObjects(GVRScene, GVRTransform, float[], int)
+     */
+    public static final GVRMultiPickResult pickObjects(GVRScene scene, float[] rays, int rayCount)
+    {
+        return pickObjects(scene, null, rays, rayCount);
+    }
+
     /**
      * Internal utility to help JNI add hit objects to the pick list.
      */
@@ -1220,18 +1492,19 @@ public class GVRPicker extends GVRBehavior implements IEventReceiver {
      * @see GVRPicker#pickObjects(GVRScene, float, float, float, float, float, float)
      */
     public static final class GVRPickedObject {
-        public final GVRSceneObject hitObject;
-        public final GVRCollider hitCollider;
+        public GVRSceneObject hitObject;
+        public GVRCollider hitCollider;
         public GVRPicker picker;
-        public final float[] hitLocation;
-        public final float hitDistance;
+        public float[] hitLocation;
+        public float hitDistance;
         public boolean touched;
         public MotionEvent motionEvent;
         public int collidableIndex;
-        public final int faceIndex;
-        public final float[] barycentricCoords;
-        public final float[] textureCoords;
-        public final float[] normalCoords;
+        public int faceIndex;
+        public float[] barycentricCoords;
+        public float[] textureCoords;
+        public float[] normalCoords;
+        private float[][] mMeshCoords = null;  // reused by set()
 
         /**
          * Creates a new instance of {@link GVRPickedObject}.
@@ -1286,6 +1559,60 @@ public class GVRPicker extends GVRBehavior implements IEventReceiver {
             this.motionEvent = null;
         }
 
+        /**
+         * Creates an empty instance to be filled in
+         * from a {@link GVRPickResultBuffer}.
+         * @see #set(GVRCollider, GVRPickResultBuffer, int)
+         */
+        GVRPickedObject() {
+            this.hitObject = null;
+            this.hitCollider = null;
+            this.hitLocation = new float[3];
+            this.hitDistance = -1;
+            this.faceIndex = -1;
+            this.barycentricCoords = null;
+            this.textureCoords = null;
+            this.normalCoords = null;
+            this.touched = false;
+            this.collidableIndex = -1;
+            this.motionEvent = null;
+        }
+
+        /**
+         * Copy a hit from a result buffer into this object,
+         * reusing its arrays.
+         * @param collider  collider hit
+         * @param buffer    {@link GVRPickResultBuffer} with the hit data
+         * @param hit       0-based index of the hit in the buffer
+         */
+        void set(GVRCollider collider, GVRPickResultBuffer buffer, int hit) {
+            hitCollider = collider;
+            hitObject = collider.getOwnerObject();
+            hitDistance = buffer.getHitDistance(hit);
+            buffer.getHitLocation(hit, hitLocation);
+            faceIndex = buffer.getFaceIndex(hit);
+            if (faceIndex >= 0) {
+                if (mMeshCoords == null) {
+                    mMeshCoords = new float[][] { new float[3], new float[2], new float[3] };
+                }
+                barycentricCoords = mMeshCoords[0];
+                textureCoords = mMeshCoords[1];
+                normalCoords = mMeshCoords[2];
+                buffer.getBarycentricCoords(hit, barycentricCoords);
+                buffer.getTextureCoords(hit, textureCoords);
+                buffer.getNormalCoords(hit, normalCoords);
+            }
+            else {
+                barycentricCoords = null;
+                textureCoords = null;
+                normalCoords = null;
+            }
+            picker = null;
+            touched = false;
+            collidableIndex = -1;
+            motionEvent = null;
+        }
+
         public GVRPickedObject(GVRSceneObject hitObject, float[] hitLocation) {
             this.hitObject = hitObject;
             this.hitLocation = hitLocation;
@@ -1397,6 +1724,117 @@ public class GVRPicker extends GVRBehavior implements IEventReceiver {
 
     }
 
+    /**
+     * The results of casting several rays into the scene with
+     * {@link GVRPicker#pickObjects(GVRScene, GVRTransform, float[], int)}.
+     * <p/>
+     * Hits are stored in flat arrays, grouped by the index of the
+     * ray which caused them and sorted by distance within each ray.
+     * Use {@link #getFirstHit(int)} and {@link #getHitCount(int)}
+     * to find the hits for a particular ray.
+     */
+    public static final class GVRMultiPickResult {
+        private final int mRayCount;
+        private final long[] mColliders;
+        private final int[] mRayIndices;
+        private final float[] mHitData;   // distance, x, y, z per hit
+
+        GVRMultiPickResult(int rayCount, long[] colliders, int[] rayIndices, float[] hitData)
+        {
+            mRayCount = rayCount;
+            mColliders = colliders;
+            mRayIndices = rayIndices;
+            mHitData = hitData;
+        }
+
+        /**
+         * Get the number of rays which were cast.
+         */
+        public int getRayCount() { return mRayCount; }
+
+        /**
+         * Get the total number of hits for all rays.
+         */
+        public int getHitCount() { return mColliders.length; }
+
+        /**
+         * Get the number of hits for a single ray.
+         * @param rayIndex 0-based index of the ray
+         */
+        public int getHitCount(int rayIndex)
+        {
+            int first = getFirstHit(rayIndex);
+            int last = first;
+            while ((last < mRayIndices.length) && (mRayIndices[last] == rayIndex))
+            {
+                ++last;
+            }
+            return last - first;
+        }
+
+        /**
+         * Get the index of the first (closest) hit for a ray.
+         * @param rayIndex 0-based index of the ray
+         * @return index of the first hit for the ray,
+         *         the returned index is not a hit of this ray
+         *         if {@link #getHitCount(int)} is zero.
+         */
+        public int getFirstHit(int rayIndex)
+        {
+            int index = Arrays.binarySearch(mRayIndices, rayIndex);
+            if (index < 0)
+            {
+                return -(index + 1);
+            }
+            while ((index > 0) && (mRayIndices[index - 1] == rayIndex))
+            {
+                --index;
+            }
+            return index;
+        }
+
+        /**
+         * Get the index of the ray which caused a hit.
+         * @param hit 0-based index of the hit
+         */
+        public int getRayIndex(int hit) { return mRayIndices[hit]; }
+
+        /**
+         * Get the collider hit.
+         * @param hit 0-based index of the hit
+         * @return {@link GVRCollider} hit or null if it has been destroyed
+         */
+        public GVRCollider getHitCollider(int hit) { return GVRCollider.lookup(mColliders[hit]); }
+
+        /**
+         * Get the scene object which owns the collider hit.
+         * @param hit 0-based index of the hit
+         */
+        public GVRSceneObject getHitObject(int hit)
+        {
+            GVRCollider collider = getHitCollider(hit);
+            return (collider != null) ? collider.getOwnerObject() : null;
+        }
+
+        /**
+         * Get the distance of a hit from the origin of its ray.
+         * @param hit 0-based index of the hit
+         */
+        public float getHitDistance(int hit) { return mHitData[hit * 4]; }
+
+        /**
+         * Copy the hit location into an array.
+         * @param hit 0-based index of the hit
+         * @param location array to get the [x, y, z] hit location
+         */
+        public void getHitLocation(int hit, float[] location)
+        {
+            location[0] = mHitData[hit * 4 + 1];
+            location[1] = mHitData[hit * 4 + 2];
+            location[2] = mHitData[hit * 4 + 3];
+        }
+    }
+
     static final ReentrantLock sFindObjectsLock = new ReentrantLock();
 }
 
@@ -1408,6 +1846,12 @@ final class NativePicker {
     static native GVRPicker.GVRPickedObject[] pickObjects(long scene, long transform, float ox, float oy, float oz,
                                                           float dx, float dy, float dz);
 
+    static native GVRPicker.GVRMultiPickResult pickObjectsMulti(long scene, long transform, float[] rays, int rayCount);
+
+    static native int pickObjectsIntoBuffer(long scene, long transform, float ox, float oy, float oz,
+                                            float dx, float dy, float dz, boolean closest,
+                                            long[] colliders, int[] faceIndices, float[] hitData);
+
     static native GVRPicker.GVRPickedObject[] pickBounds(long scene, List<GVRSceneObject> collidables);
 
     static native GVRPicker.GVRPickedObject pickSceneObject(long sceneObject, float ox, float oy, float oz,
@@ -278,6 +278,25 @@ public class GVRScene extends GVRHybridObject implements PrettyPrint, IScriptabl
         NativeScene.setPickVisible(getNative(), flag);
     }
 
+    /**
+     * Enable / disable the collider hierarchy used for picking.
+     * When enabled, picking against all colliders traverses a
+     * bounding volume hierarchy of the collider bounds instead of
+     * testing every collider in the scene against each ray.
+     * The hierarchy is updated when colliders move.
+     * It is only used when {@link #setPickVisible(boolean)} is disabled.
+     * This is disabled by default.
+     * <p>
+     * Colliders are bounded by the meshes they use. If you modify
+     * the vertices of a pickable mesh in place, detach and reattach
+     * its collider so its bounds are recomputed.
+     * @param flag true to use the collider hierarchy, false to test all colliders
+     * @see GVRPicker
+     */
+    public void setPickAccelerated(boolean flag) {
+        NativeScene.setPickAccelerated(getNative(), flag);
+    }
+
     /**
      * Sets the frustum culling for the {@link GVRScene}.
      */
@@ -292,6 +311,38 @@ public class GVRScene extends GVRHybridObject implements PrettyPrint, IScriptabl
         NativeScene.setOcclusionQuery(getNative(), flag);
     }
 
+    /**
+     * Enables or disables multithreaded frustum culling for the {@link GVRScene}.
+     * <p/>
+     * When enabled, the scene graph is flattened into an array
+     * each frame and large scenes are culled on several threads.
+     * The objects rendered are the same either way.
+     * Because every enabled object is flattened, this is
+     * worthwhile for scenes with thousands of objects where
+     * a large part of the scene is usually in view.
+     * @param flag true to cull on several threads, false to cull on the render thread
+     * @see #setFrustumCulling(boolean)
+     */
+    public void setParallelCulling(boolean flag) {
+        NativeScene.setParallelCulling(getNative(), flag);
+    }
+
+    /**
+     * Enables or disables frame coherent sorting of the render list.
+     * <p/>
+     * When enabled, each render list starts from the order it had
+     * in the previous frame and is only repaired where objects moved,
+     * which is much cheaper than a full sort when little changes
+     * between frames. Objects are still sorted by rendering order,
+     * then shader and material, with transparent objects drawn back
+     * to front. Render state other than the shader and material is
+     * not used to group objects in this mode.
+     * @param flag true to use coherent sorting, false to fully sort every frame
+     */
+    public void setCoherentSorting(boolean flag) {
+        NativeScene.setCoherentSorting(getNative(), flag);
+    }
+
     private GVRConsole mStatsConsole = null;
     private boolean mStatsEnabled = false;
     private boolean pendingStats = false;
@@ -673,6 +724,10 @@ class NativeScene {
 
     public static native void setOcclusionQuery(long scene, boolean flag);
 
+    static native void setParallelCulling(long scene, boolean flag);
+
+    static native void setCoherentSorting(long scene, boolean flag);
+
     static native void setMainCameraRig(long scene, long cameraRig);
 
     public static native void resetStats(long scene);
@@ -692,4 +747,6 @@ class NativeScene {
     static native void setMainScene(long scene);
     
     static native void setPickVisible(long scene, boolean flag);
+
+    static native void setPickAccelerated(long scene, boolean flag);
 }
@@ -394,6 +394,141 @@ public class GVRShaderData extends GVRHybridObject
         NativeShaderData.setIntVec(getNative(), key, val, val.length);
     }
 
+    /**
+     * Get the handle of a uniform, to set it without passing its name.
+     * <p>
+     * The setters that take a name copy it to native code and look it up
+     * every time. To update the same uniforms often, for example every
+     * frame, get their handles once and use the setters that take a handle.
+     * A handle is valid for all the materials with the same uniform
+     * descriptor, such as all the materials of one shader type.
+     *
+     * @param key name of the uniform
+     * @return handle of the uniform
+     * @throws IllegalArgumentException if key is not in uniform descriptor.
+     * @see #setUniforms(int[], float[])
+     */
+    public int getUniformHandle(String key)
+    {
+        checkKeyIsUniform(key);
+        int handle = NativeShaderData.getUniformHandle(getNative(), key);
+        if (handle < 0)
+        {
+            throw Exceptions.IllegalArgument("key " + key + " not in material");
+        }
+        return handle;
+    }
+
+    /**
+     * Bind a {@code float} to a shader uniform.
+     * @param handle    Handle of the uniform, from {@link #getUniformHandle(String)}
+     * @param value     New data
+     * @throws IllegalArgumentException if the handle is not valid for this material
+     *         or is for a uniform of another type.
+     */
+    public void setFloat(int handle, float value)
+    {
+        checkFloatNotNaNOrInfinity("value", value);
+        checkHandle(handle, NativeShaderData.setFloatAt(getNative(), handle, value));
+    }
+
+    /**
+     * Bind an {@code int} to a shader uniform.
+     * @param handle    Handle of the uniform, from {@link #getUniformHandle(String)}
+     * @param value     New data
+     * @throws IllegalArgumentException if the handle is not valid for this material
+     *         or is for a uniform of another type.
+     */
+    public void setInt(int handle, int value)
+    {
+        checkHandle(handle, NativeShaderData.setIntAt(getNative(), handle, value));
+    }
+
+    /**
+     * Set the value for a floating point vector of length 2.
+     * @param handle handle of the uniform, from {@link #getUniformHandle(String)}
+     * @throws IllegalArgumentException if the handle is not valid for this material
+     *         or is for a uniform of another type.
+     */
+    public void setVec2(int handle, float x, float y)
+    {
+        checkHandle(handle, NativeShaderData.setVec2At(getNative(), handle, x, y));
+    }
+
+    /**
+     * Set the value for a floating point vector of length 3.
+     * @param handle handle of the uniform, from {@link #getUniformHandle(String)}
+     * @throws IllegalArgumentException if the handle is not valid for this material
+     *         or is for a uniform of another type.
+     */
+    public void setVec3(int handle, float x, float y, float z)
+    {
+        checkHandle(handle, NativeShaderData.setVec3At(getNative(), handle, x, y, z));
+    }
+
+    /**
+     * Set the value for a floating point vector of length 4.
+     * @param handle handle of the uniform, from {@link #getUniformHandle(String)}
+     * @throws IllegalArgumentException if the handle is not valid for this material
+     *         or is for a uniform of another type.
+     */
+    public void setVec4(int handle, float x, float y, float z, float w)
+    {
+        checkHandle(handle, NativeShaderData.setVec4At(getNative(), handle, x, y, z, w));
+    }
+
+    /**
+     * Set the value for a floating point vector or matrix uniform.
+     * @param handle handle of the uniform, from {@link #getUniformHandle(String)}
+     * @param val floating point array with new data, no larger than the uniform.
+     * @throws IllegalArgumentException if the handle is not valid for this material,
+     *         is for a uniform of another type or the array is too large.
+     */
+    public void setFloatArray(int handle, float val[])
+    {
+        checkHandle(handle, NativeShaderData.setFloatVecAt(getNative(), handle, val, val.length));
+    }
+
+    /**
+     * Set the value for an integer vector uniform.
+     * @param handle handle of the uniform, from {@link #getUniformHandle(String)}
+     * @param val integer array with new data, no larger than the uniform.
+     * @throws IllegalArgumentException if the handle is not valid for this material,
+     *         is for a uniform of another type or the array is too large.
+     */
+    public void setIntArray(int handle, int val[])
+    {
+        checkHandle(handle, NativeShaderData.setIntVecAt(getNative(), handle, val, val.length));
+    }
+
+    /**
+     * Set several floating point uniforms with one call.
+     * <p>
+     * The values are packed one uniform after the other, each uniform
+     * taking as many values as it holds: one for a {@code float}, four
+     * for a {@code float4}, sixteen for a {@code mat4}.
+     *
+     * @param handles handles of the uniforms, from {@link #getUniformHandle(String)}
+     * @param values  new values of the uniforms
+     * @throws IllegalArgumentException if a handle is not valid for this material
+     *         or is for an integer uniform, or if there are too few values.
+     */
+    public void setUniforms(int[] handles, float[] values)
+    {
+        if (!NativeShaderData.setUniforms(getNative(), handles, values))
+        {
+            throw Exceptions.IllegalArgument("invalid uniform handles or values");
+        }
+    }
+
+    private void checkHandle(int handle, boolean set)
+    {
+        if (!set)
+        {
+            throw Exceptions.IllegalArgument("uniform handle " + handle + " not valid for material or value type");
+        }
+    }
+
     private void checkKeyIsTexture(String key)
     {
         checkStringNotNullOrEmpty("key", key);
@@ -519,4 +654,24 @@ class NativeShaderData {
             float y4, float z4, float w4);
 
     static native String makeShaderLayout(long shaderData);
+
+    static native int getUniformHandle(long shaderData, String key);
+
+    static native boolean setFloatAt(long shaderData, int handle, float value);
+
+    static native boolean setIntAt(long shaderData, int handle, int value);
+
+    static native boolean setVec2At(long shaderData, int handle, float x, float y);
+
+    static native boolean setVec3At(long shaderData, int handle, float x,
+            float y, float z);
+
+    static native boolean setVec4At(long shaderData, int handle, float x,
+            float y, float z, float w);
+
+    static native boolean setFloatVecAt(long shaderData, int handle, float[] val, int n);
+
+    static native boolean setIntVecAt(long shaderData, int handle, int[] val, int n);
+
+    static native boolean setUniforms(long shaderData, int[] handles, float[] values);
 }
\ No newline at end of file
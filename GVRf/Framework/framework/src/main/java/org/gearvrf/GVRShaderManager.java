@@ -91,6 +91,19 @@ public class GVRShaderManager extends GVRHybridObject
         return shaderId;
     }
 
+    /**
+     * Build the GPU program of a shader now, rather than the first time
+     * it is used to render. Must be called on the GL thread.
+     *
+     * @param nativeShader shader ID returned by {@link #addShader}
+     * @param isMultiview  true to build the multiview version
+     * @return true if the shader was built, false if it failed to compile
+     */
+    boolean compileShader(int nativeShader, boolean isMultiview)
+    {
+        return NativeShaderManager.compileShader(getNative(), nativeShader, isMultiview);
+    }
+
     void addShaderID(GVRShaderId shaderID)
     {
         getShaderType(shaderID.ID);
@@ -131,5 +144,6 @@ class NativeShaderManager {
                                 String vertexShader, String fragmentShader);
     static native void bindCalcMatrix(long shaderManager, int nativeShader, Class<? extends GVRShader> javaShaderClass);
     static native int getShader(long shaderManager, String signature);
+    static native boolean compileShader(long shaderManager, int nativeShader, boolean isMultiview);
     static native String makeLayout(String descriptor, String blockName, boolean useUBO);
 }
@@ -28,6 +28,7 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -171,24 +172,47 @@ public class GVRShaderTemplate extends GVRShader
      */
     protected String generateLightSignature(GVRLightBase[] lightlist)
     {
-        String sig = "";
-        HashMap<Class<? extends GVRLightBase>, Integer> lightCount = new HashMap<Class<? extends GVRLightBase>, Integer>();
+        if ((lightlist == null) || (lightlist.length == 0))
+            return "";
 
-        if (lightlist != null)
+        // A scene only uses a few light classes, so count them in arrays
+        Class<?>[] lightClasses = new Class<?>[lightlist.length];
+        int[] lightCounts = new int[lightlist.length];
+        int numClasses = 0;
+        for (GVRLightBase light : lightlist)
         {
-            for (GVRLightBase light : lightlist)
-            {
-                Integer n = lightCount.get(light.getClass());
+            Class<?> lightClass = light.getClass();
+            int i = 0;
+            while ((i < numClasses) && (lightClasses[i] != lightClass))
+                ++i;
+            if (i == numClasses)
+                lightClasses[numClasses++] = lightClass;
+            ++lightCounts[i];
+        }
 
-                if (n == null)
-                    lightCount.put(light.getClass(), 1);
-                else
-                    lightCount.put(light.getClass(), ++n);
+        // Sort by class name, so the signature is the same in every run
+        String[] names = new String[numClasses];
+        for (int i = 0; i < numClasses; ++i)
+        {
+            String name = lightClasses[i].getSimpleName();
+            int count = lightCounts[i];
+            int j = i;
+            while ((j > 0) && (names[j - 1].compareTo(name) > 0))
+            {
+                names[j] = names[j - 1];
+                lightCounts[j] = lightCounts[j - 1];
+                --j;
             }
-            for (Map.Entry<Class<? extends GVRLightBase>, Integer> entry : lightCount.entrySet())
-                sig += "$" + entry.getKey().getSimpleName() + entry.getValue().toString();
+            names[j] = name;
+            lightCounts[j] = count;
         }
-        return sig.trim();
+
+        StringBuilder sig = new StringBuilder();
+        for (int i = 0; i < numClasses; ++i)
+        {
+            sig.append('$').append(names[i]).append(lightCounts[i]);
+        }
+        return sig.toString();
     }
 
     /**
@@ -208,43 +232,43 @@ public class GVRShaderTemplate extends GVRShader
      */
     protected String generateVariantDefines(HashMap<String, Integer> definedNames, String vertexDesc, GVRShaderData material)
     {
-        String signature = getClass().getSimpleName();
+        StringBuilder signature = new StringBuilder(getClass().getSimpleName());
 
         for (String name : mShaderDefines)
         {
-            if (definedNames.containsKey(name))
+            Integer value = definedNames.get(name);
+            if (value != null)
             {
-                Integer value = definedNames.get(name);
                 if (value != 0)
                 {
-                    signature += "$" + name;
+                    signature.append('$').append(name);
                 }
                 continue;
             }
             if (material.hasUniform(name))
             {
                 definedNames.put(name, 1);
-                signature += "$" + name;
+                signature.append('$').append(name);
             }
             else if ((vertexDesc != null) && vertexDesc.contains(name))
             {
                 definedNames.put(name, 1);
-                if (!signature.contains(name))
-                    signature += "$" + name;
+                if (signature.indexOf(name) < 0)
+                    signature.append('$').append(name);
             }
             else if (material.getTexture(name) != null)
             {
                 definedNames.put(name, 1);
-                signature += "$" + name;
+                signature.append('$').append(name);
                 String attrname = material.getTexCoordAttr(name);
                 if (attrname == null)
                 {
                     attrname = "a_texcoord";
                 }
-                signature += "-" +"#"+ attrname+ "#";
+                signature.append("-#").append(attrname).append('#');
             }
         }
-        return signature;
+        return signature.toString();
     }
 
     protected void updateDescriptors(GVRShaderData material, String meshDesc,
@@ -435,7 +459,59 @@ public class GVRShaderTemplate extends GVRShader
      */
     public int bindShader(GVRContext context, IRenderable rdata, GVRScene scene, boolean isMultiview)
     {
-        GVRMesh mesh = rdata.getMesh();
+        String meshDesc = rdata.getMesh().getVertexBuffer().getDescriptor();
+        int nativeShader = getVariant(context, rdata, meshDesc, scene, isMultiview);
+
+        if (nativeShader > 0)
+        {
+            rdata.setShader(nativeShader, isMultiview);
+        }
+        return nativeShader;
+    }
+
+    /**
+     * Generate a shader variant ahead of time.
+     *
+     * {@link #bindShader(GVRContext, IRenderable, GVRScene, boolean) bindShader}
+     * generates the variant for a mesh, material and set of lights the first
+     * time they are seen together, and the GPU program is built the first time
+     * it is used to render: a new lit object can make a frame late.
+     * Calling this function while loading generates the variant immediately
+     * and builds its GPU program on the GL thread, so the first frame that uses
+     * it does not have to.
+     * <p>
+     * Unlike bindShader, the renderable's shader is not changed.
+     *
+     * @param context
+     *            GVRContext
+     * @param renderable
+     *            material and rendering options of the variant; the mesh is
+     *            not used
+     * @param meshDesc
+     *            vertex descriptor of the meshes the variant will render
+     *            (e.g. "float3 a_position float2 a_texcoord float3 a_normal")
+     * @param scene
+     *            scene whose lights the variant will use, null for no lights
+     * @param isMultiview
+     *            true to generate the multiview variant
+     * @return ID of the native shader, 0 if it could not be made
+     * @see GVRMaterialShaderManager#precompile(GVRMaterial, String, GVRScene, boolean)
+     */
+    public int precompile(GVRContext context, IRenderable renderable, String meshDesc,
+                          GVRScene scene, boolean isMultiview)
+    {
+        int nativeShader = getVariant(context, renderable, meshDesc, scene, isMultiview);
+
+        if (nativeShader > 0)
+        {
+            context.getMaterialShaderManager().compileOnGlThread(nativeShader, isMultiview);
+        }
+        return nativeShader;
+    }
+
+    private int getVariant(GVRContext context, IRenderable rdata, String meshDesc,
+                           GVRScene scene, boolean isMultiview)
+    {
         GVRShaderData material = rdata.getMaterial();
         GVRLightBase[] lightlist = (scene != null) ? scene.getLightList() : null;
         HashMap<String, Integer> variantDefines = getRenderDefines(rdata, scene);
@@ -445,7 +521,6 @@ public class GVRShaderTemplate extends GVRShader
         else
             variantDefines.put("MULTIVIEW", 0);
 
-        String meshDesc = mesh.getVertexBuffer().getDescriptor();
         String signature = generateVariantDefines(variantDefines, meshDesc, material);
         signature += generateLightSignature(lightlist);
         GVRMaterialShaderManager shaderManager = context.getMaterialShaderManager();
@@ -455,34 +530,104 @@ public class GVRShaderTemplate extends GVRShader
         {
             if (nativeShader == 0)
             {
-                Map<String, LightClass> lightClasses = scanLights(lightlist);
-
-                String vertexShaderSource = generateShaderVariant("Vertex", variantDefines,
-                                                                  lightlist, lightClasses, material);
-                String fragmentShaderSource = generateShaderVariant("Fragment", variantDefines,
-                                                                    lightlist, lightClasses, material);
-                StringBuilder uniformDescriptor = new StringBuilder();
-                StringBuilder textureDescriptor = new StringBuilder();
-                StringBuilder vertexDescriptor = new StringBuilder();
-                updateDescriptors(material, meshDesc, uniformDescriptor, textureDescriptor, vertexDescriptor);
-                nativeShader = shaderManager.addShader(signature, uniformDescriptor.toString(),
-                                                       textureDescriptor.toString(),
-                                                       vertexDescriptor.toString(),
-                                                       vertexShaderSource, fragmentShaderSource);
-                bindCalcMatrixMethod(shaderManager, nativeShader);
-                if (mWriteShadersToDisk)
-                {
-                    writeShader(context, "V-" + signature + ".glsl", vertexShaderSource);
-                    writeShader(context, "F-" + signature + ".glsl", fragmentShaderSource);
-                }
-                Log.e(TAG, "SHADER: generated shader #%d %s", nativeShader, signature);
+                nativeShader = addVariant(context, shaderManager, signature, material, meshDesc,
+                                          variantDefines, lightlist, false);
             }
-            if (nativeShader > 0)
+            return nativeShader;
+        }
+    }
+
+    /**
+     * Generate the sources of a shader variant, or get them from the
+     * variant cache, and add the shader to the shader manager.
+     * The caller must hold the shader manager lock.
+     */
+    private int addVariant(GVRContext context, GVRMaterialShaderManager shaderManager, String signature,
+                           GVRShaderData material, String meshDesc, HashMap<String, Integer> variantDefines,
+                           GVRLightBase[] lightlist, boolean useTemplateVertexDescriptor)
+    {
+        ShaderVariantCache cache = shaderManager.getVariantCache();
+        long fingerprint = 0;
+        String[] sources = null;
+        String vertexShaderSource;
+        String fragmentShaderSource;
+
+        if (cache != null)
+        {
+            fingerprint = getVariantFingerprint(lightlist);
+            sources = cache.get(signature, fingerprint);
+        }
+        if (sources != null)
+        {
+            vertexShaderSource = sources[0];
+            fragmentShaderSource = sources[1];
+            // generateShaderVariant selects the material layout as it goes
+            material.useGpuBuffer(fragmentShaderSource.contains("Material_ubo"));
+        }
+        else
+        {
+            Map<String, LightClass> lightClasses = scanLights(lightlist);
+
+            vertexShaderSource = generateShaderVariant("Vertex", variantDefines,
+                                                       lightlist, lightClasses, material);
+            fragmentShaderSource = generateShaderVariant("Fragment", variantDefines,
+                                                         lightlist, lightClasses, material);
+            if (cache != null)
             {
-                rdata.setShader(nativeShader, isMultiview);
+                cache.put(signature, fingerprint, vertexShaderSource, fragmentShaderSource);
             }
-            return nativeShader;
         }
+        StringBuilder uniformDescriptor = new StringBuilder();
+        StringBuilder textureDescriptor = new StringBuilder();
+        StringBuilder vertexDescriptor = new StringBuilder();
+        updateDescriptors(material, meshDesc, uniformDescriptor, textureDescriptor, vertexDescriptor);
+        int nativeShader = shaderManager.addShader(signature, uniformDescriptor.toString(),
+                                                   textureDescriptor.toString(),
+                                                   useTemplateVertexDescriptor ? mVertexDescriptor : vertexDescriptor.toString(),
+                                                   vertexShaderSource, fragmentShaderSource);
+        bindCalcMatrixMethod(shaderManager, nativeShader);
+        if (mWriteShadersToDisk)
+        {
+            writeShader(context, "V-" + signature + ".glsl", vertexShaderSource);
+            writeShader(context, "F-" + signature + ".glsl", fragmentShaderSource);
+        }
+        Log.e(TAG, "SHADER: generated shader #%d %s%s", nativeShader, signature, (sources != null) ? " (cached)" : "");
+        return nativeShader;
+    }
+
+    /**
+     * Hash of everything the variant sources are generated from, other than
+     * the signature: the template itself and the light shaders.
+     */
+    private long getVariantFingerprint(GVRLightBase[] lightlist)
+    {
+        long hash = ShaderVariantCache.HASH_SEED;
+
+        hash = ShaderVariantCache.hash(hash, getClass().getName());
+        hash = ShaderVariantCache.hash(hash, GVRVersion.CURRENT);
+        hash = ShaderVariantCache.hash(hash, mGLSLVersion.toString());
+        hash = ShaderVariantCache.hash(hash, (isVulkanInstance() ? "vulkan" : "gl") + mUseTransformBuffer);
+        hash = ShaderVariantCache.hash(hash, mUniformDescriptor);
+        hash = ShaderVariantCache.hash(hash, mTextureDescriptor);
+        hash = ShaderVariantCache.hash(hash, mVertexDescriptor);
+        for (Map.Entry<String, String> entry : new TreeMap<String, String>(mShaderSegments).entrySet())
+        {
+            hash = ShaderVariantCache.hash(hash, entry.getKey());
+            hash = ShaderVariantCache.hash(hash, entry.getValue());
+        }
+        if (lightlist != null)
+        {
+            for (GVRLightBase light : lightlist)
+            {
+                hash = ShaderVariantCache.hash(hash, light.getClass().getName());
+                hash = ShaderVariantCache.hash(hash, light.getLightID());
+                hash = ShaderVariantCache.hash(hash, light.getUniformDescriptor());
+                hash = ShaderVariantCache.hash(hash, light.getVertexDescriptor());
+                hash = ShaderVariantCache.hash(hash, light.getFragmentShaderSource());
+                hash = ShaderVariantCache.hash(hash, light.getVertexShaderSource());
+            }
+        }
+        return hash;
     }
 
 
@@ -508,25 +653,8 @@ public class GVRShaderTemplate extends GVRShader
         {
             if (nativeShader == 0)
             {
-                String vertexShaderSource =
-                        generateShaderVariant("Vertex", variantDefines, null, null, material);
-                String fragmentShaderSource =
-                        generateShaderVariant("Fragment", variantDefines, null, null, material);
-                StringBuilder uniformDescriptor = new StringBuilder();
-                StringBuilder textureDescriptor = new StringBuilder();
-                StringBuilder vertexDescriptor = new StringBuilder();
-
-                updateDescriptors(material, meshDesc, uniformDescriptor, textureDescriptor, vertexDescriptor);
-                nativeShader = shaderManager.addShader(signature, uniformDescriptor.toString(),
-                                                       textureDescriptor.toString(), mVertexDescriptor,
-                                                       vertexShaderSource, fragmentShaderSource);
-                bindCalcMatrixMethod(shaderManager, nativeShader);
-                if (mWriteShadersToDisk)
-                {
-                    writeShader(context, "V-" + signature + ".glsl", vertexShaderSource);
-                    writeShader(context, "F-" + signature + ".glsl", fragmentShaderSource);
-                }
-                Log.e(TAG, "SHADER: generated shader #%d %s", nativeShader, signature);
+                nativeShader = addVariant(context, shaderManager, signature, material, meshDesc,
+                                          variantDefines, null, true);
             }
             return nativeShader;
         }
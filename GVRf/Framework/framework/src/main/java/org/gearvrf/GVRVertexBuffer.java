@@ -437,6 +437,42 @@ public class GVRVertexBuffer extends GVRHybridObject implements PrettyPrint
         }
     }
 
+    /**
+     * Updates several float vertex attributes from direct float buffers.
+     * <p>
+     * The attributes are interleaved in native code in a single pass,
+     * straight from the buffers: nothing is copied into Java arrays.
+     * This is the fastest way to fill a vertex buffer from native data
+     * such as the buffers of an imported mesh.
+     * The vertex count is set from the first attribute if it has not
+     * been set yet. If one of the attributes cannot be updated, none is.
+     * @param attributeNames names of the attributes to update
+     * @param data direct float buffers containing the new values, one per attribute
+     * @param strides number of floats to the next vertex in each buffer,
+     *                0 if the buffer holds only the attribute
+     * @throws IllegalArgumentException if an attribute name is not in the descriptor,
+     *         a buffer is not direct or is too small
+     * @see #setFloatVec(String, FloatBuffer, int, int)
+     */
+    public void setFloatVecs(String[] attributeNames, FloatBuffer[] data, int[] strides)
+    {
+        if ((data.length != attributeNames.length) || (strides.length != attributeNames.length))
+        {
+            throw new IllegalArgumentException("Need one buffer and one stride per attribute");
+        }
+        for (int i = 0; i < data.length; ++i)
+        {
+            if (!data[i].isDirect())
+            {
+                throw new IllegalArgumentException("Buffer for attribute " + attributeNames[i] + " must be direct");
+            }
+        }
+        if (!NativeVertexBuffer.setFloatVecs(getNative(), attributeNames, data, strides))
+        {
+            throw new IllegalArgumentException("Attributes cannot be updated");
+        }
+    }
+
     /**
      * Updates a vertex attribute from an integer  buffer.
      * All of the entries of the input buffer are copied into
@@ -610,6 +646,8 @@ class NativeVertexBuffer {
 
     static native boolean setFloatArray(long vbuf, String name, float[] data, int stride, int offset);
 
+    static native boolean setFloatVecs(long vbuf, String[] names, FloatBuffer[] data, int[] strides);
+
     static native int  getAttributeSize(long vbuf, String name);
 
     static native int getBoundingVolume(long vbuf, float[] bv);
@@ -23,6 +23,8 @@ import org.gearvrf.animation.GVRAnimation;
 import org.gearvrf.animation.GVROnFinish;
 import org.gearvrf.animation.GVROpacityAnimation;
 import org.gearvrf.asynchronous.GVRAsynchronousResourceLoader;
+import org.gearvrf.debug.GVRMetrics;
+import org.gearvrf.debug.GVRTracer;
 import org.gearvrf.io.GVRInputManager;
 import org.gearvrf.script.GVRScriptManager;
 import org.gearvrf.utility.ImageUtils;
@@ -34,13 +36,8 @@ import org.gearvrf.utility.VrAppSettings.EyeBufferParams.DepthFormat;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 import java.util.Arrays;
-import java.util.HashMap;
-import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
-import java.util.Queue;
 import java.util.concurrent.CopyOnWriteArrayList;
-import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.locks.ReentrantLock;
 
 abstract class GVRViewManager extends GVRContext {
@@ -76,8 +73,7 @@ abstract class GVRViewManager extends GVRContext {
         mScriptManager.destroy();
 
         mFrameListeners.clear();
-        mRunnables.clear();
-        mRunnablesPostRender.clear();
+        mGlTasks.clear();
         super.onDestroy();
     }
 
@@ -85,6 +81,11 @@ abstract class GVRViewManager extends GVRContext {
         return mEventManager;
     }
 
+    @Override
+    public GVRGlTaskQueue getGlTaskQueue() {
+        return mGlTasks;
+    }
+
     public boolean dispatchKeyEvent(KeyEvent event) {
         return mInputManager.dispatchKeyEvent(event);
     }
@@ -239,30 +240,40 @@ abstract class GVRViewManager extends GVRContext {
     private long doMemoryManagementAndPerFrameCallbacks() {
         long currentTime = GVRTime.getCurrentTime();
         mFrameTime = (currentTime - mPreviousTimeNanos) / 1e9f;
+        final boolean metrics = GVRMetrics.isEnabled();
+        if (metrics && mPreviousTimeNanos != 0) {
+            sFrameTime.record(currentTime - mPreviousTimeNanos);
+        }
         mPreviousTimeNanos = currentTime;
 
         /*
          * Without the sensor data, can't draw a scene properly.
          */
         if (!(mSensoredScene == null || !mMainScene.equals(mSensoredScene))) {
-            Runnable runnable;
-            while ((runnable = mRunnables.poll()) != null) {
-                try {
-                    runnable.run();
-                } catch (final Exception exc) {
-                    Log.e(TAG, "Runnable-on-GL %s threw %s", runnable, exc.toString());
-                    exc.printStackTrace();
-                }
+            GVRTracer.begin("runOnGlThread tasks");
+            try {
+                mGlTasks.runTasks();
+            } finally {
+                GVRTracer.end("runOnGlThread tasks");
             }
 
-            final List<GVRDrawFrameListener> frameListeners = mFrameListeners;
-            for (GVRDrawFrameListener listener : frameListeners) {
-                try {
-                    listener.onDrawFrame(mFrameTime);
-                } catch (final Exception exc) {
-                    Log.e(TAG, "DrawFrameListener %s threw %s", listener, exc.toString());
-                    exc.printStackTrace();
+            GVRTracer.begin("drawFrameListeners");
+            try {
+                final long start = metrics ? System.nanoTime() : 0;
+                final List<GVRDrawFrameListener> frameListeners = mFrameListeners;
+                for (GVRDrawFrameListener listener : frameListeners) {
+                    try {
+                        listener.onDrawFrame(mFrameTime);
+                    } catch (final Exception exc) {
+                        Log.e(TAG, "DrawFrameListener %s threw %s", listener, exc.toString());
+                        exc.printStackTrace();
+                    }
+                }
+                if (metrics) {
+                    sListenersTime.record(System.nanoTime() - start);
                 }
+            } finally {
+                GVRTracer.end("drawFrameListeners");
             }
         }
 
@@ -313,17 +324,7 @@ abstract class GVRViewManager extends GVRContext {
             // execute pending runnables now so any necessary gl calls
             // are done before onInit().  As an example the request to
             // get the GL_MAX_TEXTURE_SIZE needs to be fulfilled.
-            synchronized (mRunnables) {
-                Runnable runnable = null;
-                while ((runnable = mRunnables.poll()) != null) {
-                    try {
-                        runnable.run();
-                    } catch (final Exception exc) {
-                        Log.e(TAG, "Runnable-on-GL %s threw %s", runnable, exc.toString());
-                        exc.printStackTrace();
-                    }
-                }
-            }
+            mGlTasks.runAllTasks();
 
             runOnTheFrameworkThread(new Runnable() {
                 @Override
@@ -437,11 +438,18 @@ abstract class GVRViewManager extends GVRContext {
 
             runOnTheFrameworkThread(new Runnable() {
                 public void run() {
+                    GVRTracer.begin("onStep");
+                    final long start = System.nanoTime();
                     try {
                         mMain.onStep();
                     } catch (final Exception exc) {
                         Log.e(TAG, "Exception from onStep: %s", exc.toString());
                         exc.printStackTrace();
+                    } finally {
+                        if (GVRMetrics.isEnabled()) {
+                            sStepTime.record(System.nanoTime() - start);
+                        }
+                        GVRTracer.end("onStep");
                     }
                 }
             });
@@ -477,45 +485,70 @@ abstract class GVRViewManager extends GVRContext {
         if (mGLThreadID == Thread.currentThread().getId()) {
             runnable.run();
         } else {
-            mRunnables.add(runnable);
+            mGlTasks.add(runnable);
         }
     }
 
     @Override
     public void runOnGlThreadPostRender(int delayFrames, Runnable runnable) {
-        synchronized (mRunnablesPostRender) {
-            mRunnablesPostRender.put(runnable, delayFrames);
-        }
+        mGlTasks.addPostRender(delayFrames, runnable);
     }
 
     protected void beforeDrawEyes() {
-        GVRNotifications.notifyBeforeStep();
-        mFrameHandler.beforeDrawEyes();
-
-        makeShadowMaps(mMainScene.getNative(), mRenderBundle.getMaterialShaderManager().getNative(),
-                mRenderBundle.getPostEffectRenderTextureA().getWidth(),
-                mRenderBundle.getPostEffectRenderTextureA().getHeight());
+        GVRTracer.begin("beforeDrawEyes");
+        try {
+            GVRNotifications.notifyBeforeStep();
+            mFrameHandler.beforeDrawEyes();
+
+            GVRTracer.begin("makeShadowMaps");
+            try {
+                final long start = System.nanoTime();
+                makeShadowMaps(mMainScene.getNative(), mRenderBundle.getMaterialShaderManager().getNative(),
+                        mRenderBundle.getPostEffectRenderTextureA().getWidth(),
+                        mRenderBundle.getPostEffectRenderTextureA().getHeight());
+                if (GVRMetrics.isEnabled()) {
+                    sShadowsTime.record(System.nanoTime() - start);
+                }
+            } finally {
+                GVRTracer.end("makeShadowMaps");
+            }
+        } finally {
+            GVRTracer.end("beforeDrawEyes");
+        }
     }
 
     protected void afterDrawEyes() {
-        // Execute post-rendering tasks (after drawing eyes, but
-        // before afterDrawEyes handlers)
-        synchronized (mRunnablesPostRender) {
-            for (Iterator<Map.Entry<Runnable, Integer>> it = mRunnablesPostRender.entrySet().iterator(); it
-                    .hasNext();) {
-                Map.Entry<Runnable, Integer> entry = it.next();
-                if (entry.getValue() <= 0) {
-                    entry.getKey().run();
-                    it.remove();
-                } else {
-                    entry.setValue(entry.getValue() - 1);
-                }
+        GVRTracer.begin("afterDrawEyes");
+        try {
+            // Execute post-rendering tasks (after drawing eyes, but
+            // before afterDrawEyes handlers)
+            final boolean metrics = GVRMetrics.isEnabled();
+            final long start = metrics ? System.nanoTime() : 0;
+            mGlTasks.runPostRenderTasks();
+            if (metrics) {
+                sPostRenderTime.record(System.nanoTime() - start);
+                recordRenderPhaseTimes();
             }
+
+            mFrameHandler.afterDrawEyes();
+            finalizeUnreachableObjects();
+            GVRNotifications.notifyAfterStep();
+        } finally {
+            GVRTracer.end("afterDrawEyes");
         }
+    }
 
-        mFrameHandler.afterDrawEyes();
-        finalizeUnreachableObjects();
-        GVRNotifications.notifyAfterStep();
+    /*
+     * Record the cull, sort and draw times the renderer accumulated over
+     * the frame's render targets.
+     */
+    private void recordRenderPhaseTimes() {
+        readRenderPhaseTimes(mRenderPhaseTimes);
+        if (mRenderPhaseTimes[2] != 0) {
+            sCullTime.record(mRenderPhaseTimes[0]);
+            sSortTime.record(mRenderPhaseTimes[1]);
+            sDrawTime.record(mRenderPhaseTimes[2]);
+        }
     }
 
     void cullAndRender(GVRRenderTarget renderTarget, GVRScene scene)
@@ -805,8 +838,7 @@ abstract class GVRViewManager extends GVRContext {
     protected FrameHandler mFrameHandler = firstFrame;
 
     protected List<GVRDrawFrameListener> mFrameListeners = new CopyOnWriteArrayList<GVRDrawFrameListener>();
-    protected final Queue<Runnable> mRunnables = new LinkedBlockingQueue<Runnable>();
-    protected final Map<Runnable, Integer> mRunnablesPostRender = new HashMap<Runnable, Integer>();
+    protected final GVRGlTaskQueue mGlTasks = new GVRGlTaskQueue();
 
     protected GVRScene mMainScene;
     protected GVRScene mPendingMainScene;
@@ -826,7 +858,18 @@ abstract class GVRViewManager extends GVRContext {
 
     protected native void makeShadowMaps(long scene, long shader_manager, int width, int height);
     protected native void cullAndRender(long render_target, long scene, long shader_manager, long postEffectRenderTextureA, long postEffectRenderTextureB);
+    private native static void readRenderPhaseTimes(long[] times);
     private native static void readRenderResultNative(Object readbackBuffer, long renderTarget, int eye, boolean useMultiview);
 
     private static final String TAG = "GVRViewManager";
+
+    private static final GVRMetrics.Histogram sFrameTime = GVRMetrics.histogram("frame.time");
+    private static final GVRMetrics.Histogram sListenersTime = GVRMetrics.histogram("frame.listeners");
+    private static final GVRMetrics.Histogram sStepTime = GVRMetrics.histogram("frame.step");
+    private static final GVRMetrics.Histogram sShadowsTime = GVRMetrics.histogram("frame.shadows");
+    private static final GVRMetrics.Histogram sCullTime = GVRMetrics.histogram("frame.cull");
+    private static final GVRMetrics.Histogram sSortTime = GVRMetrics.histogram("frame.sort");
+    private static final GVRMetrics.Histogram sDrawTime = GVRMetrics.histogram("frame.draw");
+    private static final GVRMetrics.Histogram sPostRenderTime = GVRMetrics.histogram("frame.post_render");
+    private final long[] mRenderPhaseTimes = new long[3];
 }
@@ -0,0 +1,56 @@
+/* Copyright 2016 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gearvrf;
+
+/**
+ * Optional interface for observing how long loading a model takes.
+ * The asset loader raises these events along with the {@link IAssetEvents},
+ * to the same listeners and handlers, if they implement this interface.
+ */
+public interface IAssetTimingEvents extends IEvents
+{
+    /**
+     * Called with the time spent in each stage of loading a model,
+     * just before {@link IAssetEvents#onAssetLoaded(GVRContext, GVRSceneObject, String, String)}.
+     * It is not called if the model did not load.
+     * @param context   GVRContext used to load the model
+     * @param model     root of the scene graph representing the model.
+     * @param filePath  File path or URL of the model.
+     * @param parseTime nanoseconds spent reading and parsing the model file(s).
+     * @param buildTime nanoseconds spent creating the scene objects, meshes and materials.
+     * @param commitTime nanoseconds spent adding the model to the scene
+     *                  (0 if it was not added to a scene).
+     */
+    public void onModelTimings(GVRContext context, GVRSceneObject model, String filePath,
+                               long parseTime, long buildTime, long commitTime);
+
+    /**
+     * Called with the time spent in each stage of building a model
+     * imported with Assimp, before {@link IAssetEvents#onModelLoaded(GVRContext, GVRSceneObject, String)}.
+     * Together these stages make the build time reported by
+     * {@link #onModelTimings(GVRContext, GVRSceneObject, String, long, long, long)}.
+     * @param context      GVRContext used to load the model
+     * @param model        root of the scene graph representing the model.
+     * @param filePath     File path or URL of the model.
+     * @param convertTime  nanoseconds spent converting the meshes, bone weights
+     *                     and animation channels.
+     * @param assembleTime nanoseconds spent creating the scene objects, materials,
+     *                     lights and animations.
+     * @param threads      number of threads the conversion ran on.
+     * @see GVRImportSettings#PARALLEL_IMPORT
+     */
+    public void onImportTimings(GVRContext context, GVRSceneObject model, String filePath,
+                                long convertTime, long assembleTime, int threads);
+}
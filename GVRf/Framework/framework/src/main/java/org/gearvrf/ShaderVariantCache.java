@@ -0,0 +1,247 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gearvrf;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.Charset;
+
+import org.gearvrf.utility.Log;
+import org.gearvrf.utility.Threads;
+
+/**
+ * Disk cache of the shader sources generated by {@link GVRShaderTemplate}.
+ *
+ * Each entry is a file holding the signature of a shader variant, a
+ * fingerprint of everything its sources are generated from (the template
+ * segments, the light shaders, the framework version) and the generated
+ * vertex and fragment shader sources. A variant whose template or lights
+ * have changed since it was cached has a different fingerprint, and is
+ * generated again.
+ *
+ * Entries are written on a background thread.
+ */
+class ShaderVariantCache
+{
+    private static final String TAG = Log.tag(ShaderVariantCache.class);
+
+    private static final int MAGIC = 0x47565253; // "GVRS"
+    private static final int VERSION = 1;
+    private static final String SUFFIX = ".svc";
+    private static final String TEMP_SUFFIX = ".tmp";
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    /* Start value of hash(long, String) */
+    static final long HASH_SEED = 0xcbf29ce484222325L;
+
+    private final File mDirectory;
+
+    /**
+     * @param directory directory to hold the cache files, created if needed
+     */
+    ShaderVariantCache(File directory)
+    {
+        mDirectory = directory;
+    }
+
+    File getDirectory()
+    {
+        return mDirectory;
+    }
+
+    /**
+     * Get the sources of a shader variant.
+     *
+     * @return The vertex and fragment shader sources, or {@code null} if the
+     *         variant is not in the cache
+     */
+    String[] get(String signature, long fingerprint)
+    {
+        File file = getFile(signature, fingerprint);
+        if (!file.exists())
+        {
+            return null;
+        }
+        DataInputStream stream = null;
+        try
+        {
+            stream = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+            if ((stream.readInt() != MAGIC) || (stream.readInt() != VERSION))
+            {
+                file.delete();
+                return null;
+            }
+            if ((stream.readLong() != fingerprint) || !signature.equals(readString(stream)))
+            {
+                // Hash collision with another variant
+                return null;
+            }
+            String vertexSource = readString(stream);
+            String fragmentSource = readString(stream);
+            return new String[] { vertexSource, fragmentSource };
+        }
+        catch (EOFException e)
+        {
+            Log.w(TAG, "Deleting truncated cache file %s", file);
+            file.delete();
+            return null;
+        }
+        catch (IOException e)
+        {
+            Log.w(TAG, "Cannot read %s: %s", file, e);
+            return null;
+        }
+        finally
+        {
+            close(stream);
+        }
+    }
+
+    /**
+     * Save the sources of a shader variant, on a background thread.
+     */
+    void put(final String signature, final long fingerprint,
+             final String vertexSource, final String fragmentSource)
+    {
+        Threads.spawnLow(new Runnable()
+        {
+            public void run()
+            {
+                write(signature, fingerprint, vertexSource, fragmentSource);
+            }
+        });
+    }
+
+    /**
+     * Delete all of the cache files.
+     */
+    void clear()
+    {
+        File[] files = mDirectory.listFiles();
+        if (files != null)
+        {
+            for (File file : files)
+            {
+                if (file.getName().endsWith(SUFFIX))
+                {
+                    file.delete();
+                }
+            }
+        }
+    }
+
+    private void write(String signature, long fingerprint,
+                       String vertexSource, String fragmentSource)
+    {
+        if (!mDirectory.isDirectory() && !mDirectory.mkdirs())
+        {
+            Log.w(TAG, "Cannot create cache directory %s", mDirectory);
+            return;
+        }
+        File file = getFile(signature, fingerprint);
+        File temp = new File(mDirectory, file.getName() + "." + Thread.currentThread().getId() + TEMP_SUFFIX);
+        DataOutputStream stream = null;
+        try
+        {
+            stream = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)));
+            stream.writeInt(MAGIC);
+            stream.writeInt(VERSION);
+            stream.writeLong(fingerprint);
+            writeString(stream, signature);
+            writeString(stream, vertexSource);
+            writeString(stream, fragmentSource);
+            stream.close();
+        }
+        catch (IOException e)
+        {
+            Log.w(TAG, "Cannot write %s: %s", temp, e);
+            close(stream);
+            temp.delete();
+            return;
+        }
+        if (!temp.renameTo(file))
+        {
+            temp.delete();
+        }
+    }
+
+    private File getFile(String signature, long fingerprint)
+    {
+        long hash = hash(HASH_SEED ^ fingerprint, signature);
+        return new File(mDirectory, String.format("%016x", hash) + SUFFIX);
+    }
+
+    /**
+     * Combine a string into a 64 bit FNV-1a hash.
+     */
+    static long hash(long hash, String s)
+    {
+        if (s == null)
+        {
+            return hash * 0x100000001b3L;
+        }
+        for (int i = 0; i < s.length(); ++i)
+        {
+            hash ^= s.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        // Separator, so that "ab" + "c" and "a" + "bc" differ
+        hash ^= 0xff;
+        hash *= 0x100000001b3L;
+        return hash;
+    }
+
+    private static String readString(DataInputStream stream) throws IOException
+    {
+        int length = stream.readInt();
+        if (length < 0)
+        {
+            throw new EOFException();
+        }
+        byte[] bytes = new byte[length];
+        stream.readFully(bytes);
+        return new String(bytes, UTF8);
+    }
+
+    private static void writeString(DataOutputStream stream, String s) throws IOException
+    {
+        byte[] bytes = s.getBytes(UTF8);
+        stream.writeInt(bytes.length);
+        stream.write(bytes);
+    }
+
+    private static void close(Closeable stream)
+    {
+        if (stream != null)
+        {
+            try
+            {
+                stream.close();
+            }
+            catch (IOException e)
+            {
+            }
+        }
+    }
+}
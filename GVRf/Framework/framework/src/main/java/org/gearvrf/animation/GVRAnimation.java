@@ -104,6 +104,7 @@ public abstract class GVRAnimation {
     private int mRepeatMode = GVRRepeatMode.ONCE;
     private int mRepeatCount = DEFAULT_REPEAT_COUNT;
     private GVROnFinish mOnFinish = null;
+    private int mUpdateTier = 0;
 
     /**
      * This is derived from {@link #mOnFinish}. Doing the {@code instanceof}
@@ -118,6 +119,9 @@ public abstract class GVRAnimation {
     
     private boolean isFinished = false;
 
+    // Position in the animation engine's schedule, -1 if not scheduled
+    int mEngineIndex = -1;
+
     /**
      * Base constructor.
      * 
@@ -246,6 +250,43 @@ public abstract class GVRAnimation {
         return this;
     }
 
+    /**
+     * Set the update tier.
+     * 
+     * Animations in tier 0 (the default) are stepped on every frame. Higher
+     * tiers are stepped less often, as set by
+     * {@link GVRAnimationEngine#setTierInterval(int, int)}, and may be
+     * deferred to a later frame when the engine's
+     * {@linkplain GVRAnimationEngine#setFrameBudget(float) frame budget} is
+     * used up. Skipped frames are not lost: the next step advances the
+     * animation by all of the time since the last one. Use the higher tiers
+     * for animations on distant or hidden objects.
+     * 
+     * @param tier
+     *            Update tier, from 0 to
+     *            {@link GVRAnimationEngine#NUM_UPDATE_TIERS} - 1
+     * @return {@code this}, so you can chain setProperty() calls.
+     * @throws IllegalArgumentException
+     *             If {@code tier} is out of range
+     */
+    public GVRAnimation setUpdateTier(int tier) {
+        if (tier < 0 || tier >= GVRAnimationEngine.NUM_UPDATE_TIERS) {
+            throw new IllegalArgumentException(tier
+                    + " is not a valid update tier");
+        }
+        mUpdateTier = tier;
+        return this;
+    }
+
+    /**
+     * Get the update tier.
+     * 
+     * @return The tier set by {@link #setUpdateTier(int)}
+     */
+    public int getUpdateTier() {
+        return mUpdateTier;
+    }
+
     /**
      * Set the on-finish callback.
      * 
@@ -471,4 +512,13 @@ public abstract class GVRAnimation {
      *            The start state is 0; the stop state is 1.
      */
     protected abstract void animate(GVRHybridObject target, float ratio);
+
+    /**
+     * Called by the animation engine, on the draw thread, when the animation
+     * stops running: when it finishes, or when it is
+     * {@linkplain GVRAnimationEngine#stop(GVRAnimation) stopped}. The default
+     * implementation does nothing.
+     */
+    protected void onStopped() {
+    }
 }
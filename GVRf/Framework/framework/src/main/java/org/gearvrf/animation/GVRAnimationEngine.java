@@ -15,12 +15,15 @@
 
 package org.gearvrf.animation;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
-import java.util.concurrent.CopyOnWriteArrayList;
 
 import org.gearvrf.GVRContext;
 import org.gearvrf.GVRDrawFrameListener;
 import org.gearvrf.GVRSceneObject;
+import org.gearvrf.debug.GVRMetrics;
+import org.gearvrf.debug.GVRTracer;
 
 /**
  * This class runs {@linkplain GVRAnimation animations}.
@@ -44,6 +47,12 @@ import org.gearvrf.GVRSceneObject;
  * {@linkplain GVROnRepeat callback,} which allows you to terminate the
  * animation before the next loop.
  * </ul>
+ * 
+ * <p>
+ * Animations can be put in {@linkplain GVRAnimation#setUpdateTier(int) update
+ * tiers} so that animations on distant or hidden objects are stepped less
+ * often, and the engine can be given a {@linkplain #setFrameBudget(float)
+ * frame budget} after which it defers stepping them to a later frame.
  */
 public class GVRAnimationEngine {
 
@@ -59,7 +68,42 @@ public class GVRAnimationEngine {
         });
     }
 
-    private final List<GVRAnimation> mAnimations = new CopyOnWriteArrayList<GVRAnimation>();
+    /**
+     * Number of {@linkplain GVRAnimation#setUpdateTier(int) update tiers.}
+     */
+    public static final int NUM_UPDATE_TIERS = 4;
+
+    // Frames since the last step of an animation which has not been stepped
+    private static final int FIRST_STEP = Integer.MAX_VALUE / 2;
+
+    private static final GVRMetrics.Histogram sStepTime = GVRMetrics.histogram("frame.animation");
+
+    /*
+     * Animations are kept in an array in the order they were started.
+     * Stopping an animation clears its slot, and the array is compacted
+     * while stepping, so removal never copies the array.
+     * The array is only used on the draw thread: start() and stop()
+     * queue their changes, which are applied at the start of a frame.
+     */
+    private GVRAnimation[] mAnimations = new GVRAnimation[16];
+    private float[] mPendingTime = new float[16];
+    private int[] mFramesSinceStep = new int[16];
+    private int mAnimationCount = 0;
+
+    private final Object mLock = new Object();
+    private List<GVRAnimation> mQueued = new ArrayList<GVRAnimation>();
+    private List<GVRAnimation> mApplying = new ArrayList<GVRAnimation>();
+    private List<Boolean> mQueuedStarts = new ArrayList<Boolean>();
+    private List<Boolean> mApplyingStarts = new ArrayList<Boolean>();
+
+    private final int[] mTierIntervals = { 1, 2, 4, 8 };
+    private volatile long mFrameBudgetNanos = 0;
+    private int mStaggerCount = 0;
+
+    private volatile int mSteppedCount = 0;
+    private volatile int mSkippedCount = 0;
+    private volatile int mDeferredCount = 0;
+
     private final GVRDrawFrameListener mOnDrawFrame = new DrawFrame();
 
     protected GVRAnimationEngine(GVRContext gvrContext) {
@@ -112,7 +156,7 @@ public class GVRAnimationEngine {
     public GVRAnimation start(GVRAnimation animation) {
         if (animation.getRepeatCount() != 0) {
             animation.reset();
-            mAnimations.add(animation);
+            queue(animation, true);
         }
         return animation;
     }
@@ -138,17 +182,215 @@ public class GVRAnimationEngine {
      *            an animation
      */
     public void stop(GVRAnimation animation) {
-        mAnimations.remove(animation);
+        queue(animation, false);
+    }
+
+    /**
+     * Set how often the animations in an update tier are stepped.
+     * 
+     * The default intervals are 1, 2, 4 and 8 frames for tiers 0 to 3.
+     * 
+     * @param tier
+     *            Update tier, from 0 to {@link #NUM_UPDATE_TIERS} - 1
+     * @param frames
+     *            Number of frames between steps, 1 to step every frame
+     */
+    public void setTierInterval(int tier, int frames) {
+        if (tier < 0 || tier >= NUM_UPDATE_TIERS) {
+            throw new IllegalArgumentException(tier
+                    + " is not a valid update tier");
+        }
+        if (frames < 1) {
+            throw new IllegalArgumentException("Tier interval must be at least 1 frame");
+        }
+        mTierIntervals[tier] = frames;
+    }
+
+    /**
+     * Get how often the animations in an update tier are stepped.
+     * 
+     * @param tier
+     *            Update tier, from 0 to {@link #NUM_UPDATE_TIERS} - 1
+     * @return Number of frames between steps
+     */
+    public int getTierInterval(int tier) {
+        return mTierIntervals[tier];
+    }
+
+    /**
+     * Limit the time spent stepping animations each frame.
+     * 
+     * Once the budget is used up, the remaining animations in tiers above 0
+     * are deferred to the next frame. Animations in tier 0 are always
+     * stepped.
+     * 
+     * @param seconds
+     *            Time budget per frame, 0 (the default) for no limit
+     */
+    public void setFrameBudget(float seconds) {
+        mFrameBudgetNanos = (long) (seconds * 1e9f);
+    }
+
+    /**
+     * @return The number of running animations.
+     */
+    public int getAnimationCount() {
+        return mAnimationCount;
+    }
+
+    /**
+     * @return The number of animations stepped in the last frame.
+     */
+    public int getSteppedCount() {
+        return mSteppedCount;
+    }
+
+    /**
+     * @return The number of running animations which were not stepped in the
+     *         last frame, either because of their update tier or because the
+     *         frame budget was used up.
+     */
+    public int getSkippedCount() {
+        return mSkippedCount;
+    }
+
+    /**
+     * @return The number of animations which were due in the last frame but
+     *         were deferred because the frame budget was used up. These are
+     *         included in {@link #getSkippedCount()}.
+     */
+    public int getDeferredCount() {
+        return mDeferredCount;
+    }
+
+    private void queue(GVRAnimation animation, boolean start) {
+        synchronized (mLock) {
+            mQueued.add(animation);
+            mQueuedStarts.add(start);
+        }
+    }
+
+    /*
+     * Apply the queued start() and stop() calls in the order they were made.
+     */
+    private void applyQueued() {
+        synchronized (mLock) {
+            if (mQueued.isEmpty()) {
+                return;
+            }
+            List<GVRAnimation> animations = mQueued;
+            List<Boolean> starts = mQueuedStarts;
+            mQueued = mApplying;
+            mQueuedStarts = mApplyingStarts;
+            mApplying = animations;
+            mApplyingStarts = starts;
+        }
+        for (int i = 0; i < mApplying.size(); ++i) {
+            GVRAnimation animation = mApplying.get(i);
+            int index = animation.mEngineIndex;
+            boolean scheduled = index >= 0 && index < mAnimationCount
+                    && mAnimations[index] == animation;
+
+            if (mApplyingStarts.get(i)) {
+                if (!scheduled) {
+                    add(animation);
+                }
+            } else if (scheduled) {
+                mAnimations[index] = null;
+                animation.mEngineIndex = -1;
+                animation.onStopped();
+            }
+        }
+        mApplying.clear();
+        mApplyingStarts.clear();
+    }
+
+    private void add(GVRAnimation animation) {
+        if (mAnimationCount == mAnimations.length) {
+            int capacity = mAnimationCount * 2;
+            mAnimations = Arrays.copyOf(mAnimations, capacity);
+            mPendingTime = Arrays.copyOf(mPendingTime, capacity);
+            mFramesSinceStep = Arrays.copyOf(mFramesSinceStep, capacity);
+        }
+        int index = mAnimationCount++;
+        mAnimations[index] = animation;
+        mPendingTime[index] = 0;
+        mFramesSinceStep[index] = FIRST_STEP;
+        animation.mEngineIndex = index;
+    }
+
+    private void step(float frameTime) {
+        applyQueued();
+
+        final long budget = mFrameBudgetNanos;
+        final long startTime = budget > 0 ? System.nanoTime() : 0;
+        boolean overBudget = false;
+        int stepped = 0;
+        int skipped = 0;
+        int deferred = 0;
+        int count = 0;
+
+        for (int i = 0; i < mAnimationCount; ++i) {
+            GVRAnimation animation = mAnimations[i];
+            if (animation == null) {
+                continue;
+            }
+            float time = mPendingTime[i] + frameTime;
+            int framesSinceStep = mFramesSinceStep[i] + 1;
+            boolean running = true;
+            int tier = animation.getUpdateTier();
+            int interval = mTierIntervals[tier];
+
+            if (tier == 0 || (framesSinceStep >= interval && !overBudget)) {
+                running = animation.onDrawFrame(time);
+                time = 0;
+                // Stagger the animations of a tier across frames
+                framesSinceStep = framesSinceStep > FIRST_STEP
+                        ? (mStaggerCount++ & 0xFFFF) % interval : 0;
+                ++stepped;
+                if (budget > 0 && tier != 0 && !overBudget) {
+                    overBudget = System.nanoTime() - startTime > budget;
+                }
+            } else {
+                if (framesSinceStep >= interval) {
+                    ++deferred;
+                }
+                ++skipped;
+            }
+
+            if (!running) {
+                animation.mEngineIndex = -1;
+                animation.onStopped();
+                continue;
+            }
+            mAnimations[count] = animation;
+            mPendingTime[count] = time;
+            mFramesSinceStep[count] = framesSinceStep;
+            animation.mEngineIndex = count++;
+        }
+        Arrays.fill(mAnimations, count, mAnimationCount, null);
+        mAnimationCount = count;
+
+        mSteppedCount = stepped;
+        mSkippedCount = skipped;
+        mDeferredCount = deferred;
     }
 
     private final class DrawFrame implements GVRDrawFrameListener {
 
         @Override
         public void onDrawFrame(float frameTime) {
-            for (GVRAnimation animation : mAnimations) {
-                if (animation.onDrawFrame(frameTime) == false) {
-                    mAnimations.remove(animation);
+            GVRTracer.begin("GVRAnimationEngine");
+            try {
+                if (GVRMetrics.isEnabled()) {
+                    final long start = System.nanoTime();
+                    step(frameTime);
+                    sStepTime.record(System.nanoTime() - start);
+                } else {
+                    step(frameTime);
                 }
+            } finally {
+                GVRTracer.end("GVRAnimationEngine");
             }
         }
     }
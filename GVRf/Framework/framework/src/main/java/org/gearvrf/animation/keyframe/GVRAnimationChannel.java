@@ -21,94 +21,67 @@ import org.joml.Vector3f;
  */
 public final class GVRAnimationChannel implements PrettyPrint {
     private static final String TAG = GVRAnimationChannel.class.getSimpleName();
-    protected static interface ValueInterpolator<T> {
-        T interpolate(T begin, T end, float factor);
-    }
-
-    protected static ValueInterpolator<Vector3f> sInterpolatorVector3f = new ValueInterpolator<Vector3f>() {
-        public Vector3f interpolate(Vector3f begin, Vector3f end, float factor) {
-            return new Vector3f().set(end).sub(begin).mul(factor).add(begin);
-        }
-    };
-
-    protected static ValueInterpolator<Quaternionf> sInterpolatorQuaternion = new ValueInterpolator<Quaternionf>() {
-        public Quaternionf interpolate(Quaternionf begin, Quaternionf end, float factor) {
-            return new Quaternionf().set(begin).slerp(end, factor);
-        }
-    };
-
-    protected class KeyFrameInterplator<T> {
-        GVRKeyFrame<T>[] keys;
-        ValueInterpolator<T> interpolator;
+    /**
+     * The keys for one property of the channel, stored as parallel arrays.
+     * Key i has time {@code times[i]} and its value is stored in
+     * {@code values[i * stride]} to {@code values[i * stride + stride - 1]}.
+     */
+    private static final class KeyTrack {
+        final float[] times;
+        final float[] values;
+        final int stride;
 
         private int lastKeyIndex;
 
-        KeyFrameInterplator(GVRKeyFrame<T>[] keys, ValueInterpolator<T> interpolator) {
-            this.keys = keys;
-            this.interpolator = interpolator;
+        KeyTrack(float[] times, float[] values, int stride) {
+            if (values.length < times.length * stride) {
+                throw new IllegalArgumentException("Animation channel needs " + stride
+                        + " values per key");
+            }
+            this.times = times;
+            this.values = values;
+            this.stride = stride;
             lastKeyIndex = -1;
         }
 
-        protected T interpolate(float time) {
-            int index = getKeyIndex(time);
-            int nextIndex = index + 1;
-
-            if (index != -1 && keys[index].getTime() <= time && time < keys[nextIndex].getTime()) {
-                // interpolate
-                float deltaTime = (float)(keys[nextIndex].getTime() - keys[index].getTime());
-                float factor = (float)((time - keys[index].getTime()) / deltaTime);
-
-                T start = keys[index].getValue();
-                T end = keys[nextIndex].getValue();
-
-                return interpolator.interpolate(start, end, factor);
-            } else {
-                // time is out of range of animation time frame
-                float firstFrameTime = keys[0].getTime();
-                float lastFrameTime = keys[keys.length - 1].getTime();
-                T firstFrameValue = keys[0].getValue();
-                T lastFrameValue = keys[keys.length - 1].getValue();
-
-                if (time <= firstFrameTime) {
-                    return firstFrameValue;
-                } else if (time >= lastFrameTime) {
-                    return lastFrameValue;
-                } else {
-                    // Shouldn't happen
-                    return lastFrameValue;
-                }
-            }
+        int size() {
+            return times.length;
         }
 
-        protected int getKeyIndex(float time) {
+        /**
+         * Gets the index of the key before the given time.
+         * @param time animation time
+         * @return index i with times[i] <= time < times[i + 1], -1 if none
+         */
+        int getKeyIndex(float time) {
             // Try cached key first
             if (lastKeyIndex != -1) {
-                if (keys[lastKeyIndex].getTime() <= time && time < keys[lastKeyIndex + 1].getTime()) {
+                if (times[lastKeyIndex] <= time && time < times[lastKeyIndex + 1]) {
                     return lastKeyIndex;
                 }
 
                 // Try neighboring keys
-                if (lastKeyIndex + 2 < keys.length &&
-                        keys[lastKeyIndex + 1].getTime() <= time && time < keys[lastKeyIndex + 2].getTime()) {
+                if (lastKeyIndex + 2 < times.length &&
+                        times[lastKeyIndex + 1] <= time && time < times[lastKeyIndex + 2]) {
                     return ++lastKeyIndex;
                 }
 
                 if (lastKeyIndex >= 1 &&
-                        keys[lastKeyIndex - 1].getTime() <= time && time < keys[lastKeyIndex].getTime()) {
+                        times[lastKeyIndex - 1] <= time && time < times[lastKeyIndex]) {
                     return --lastKeyIndex;
                 }
             }
 
             // Binary search for the interval
             // Each of the index i represents an interval I(i) = [time(i), time(i + 1)).
-            int low = 0, high = keys.length - 2;
+            int low = 0, high = times.length - 2;
             // invariant: I(low)...I(high) contains time if time can be found
             // post-condition: |high - low| <= 1, only need to check I(low) and I(low + 1)
             while (high - low > 1) {
                 int mid = (low + high) / 2;
-                if (time < keys[mid].getTime()) {
+                if (time < times[mid]) {
                     high = mid;
-                } else if (time >= keys[mid + 1].getTime()) {
+                } else if (time >= times[mid + 1]) {
                     low = mid + 1;
                 } else {
                     // time in I(mid) by definition
@@ -116,18 +89,29 @@ public final class GVRAnimationChannel implements PrettyPrint {
                 }
             }
 
-            if (keys[low].getTime() <= time && time < keys[low + 1].getTime()) {
+            if (times[low] <= time && time < times[low + 1]) {
                 return lastKeyIndex = low;
             }
 
-            if (low + 2 < keys.length &&
-                    keys[low + 1].getTime() <= time && time < keys[low + 2].getTime()) {
+            if (low + 2 < times.length &&
+                    times[low + 1] <= time && time < times[low + 2]) {
                 return lastKeyIndex = low + 1;
             }
 
             Log.v(TAG, "Warning: interpolation failed at time " + time);
             return lastKeyIndex = -1;
         }
+
+        /**
+         * Gets the offset of the value of the key to use
+         * when the time is outside of the animation.
+         */
+        int getClampedOffset(float time) {
+            if (time <= times[0]) {
+                return 0;
+            }
+            return (times.length - 1) * stride;
+        }
     }
 
     /**
@@ -143,17 +127,41 @@ public final class GVRAnimationChannel implements PrettyPrint {
     public GVRAnimationChannel(String nodeName, int numPosKeys, int numRotKeys, 
             int numScaleKeys, GVRAnimationBehavior preBehavior, GVRAnimationBehavior postBehavior) {
 
+        this(nodeName, new float[numPosKeys], new float[numPosKeys * 3],
+             new float[numRotKeys], new float[numRotKeys * 4],
+             new float[numScaleKeys], new float[numScaleKeys * 3],
+             preBehavior, postBehavior);
+    }
+
+    /**
+     * Constructs a channel from arrays of keys.
+     * <p>
+     * The arrays are used directly, not copied. The times of each
+     * kind of key must be in increasing order.
+     *
+     * @param nodeName name of corresponding scene graph node
+     * @param posTimes times of the position keys
+     * @param positions position keys, 3 floats (x, y, z) per key
+     * @param rotTimes times of the rotation keys
+     * @param rotations rotation keys as quaternions, 4 floats (x, y, z, w) per key
+     * @param scaleTimes times of the scaling keys
+     * @param scales scaling keys, 3 floats (x, y, z) per key
+     * @param preBehavior behavior before animation start
+     * @param postBehavior behavior after animation end
+     */
+    public GVRAnimationChannel(String nodeName,
+            float[] posTimes, float[] positions,
+            float[] rotTimes, float[] rotations,
+            float[] scaleTimes, float[] scales,
+            GVRAnimationBehavior preBehavior, GVRAnimationBehavior postBehavior) {
+
         m_nodeName = nodeName;
-        mPositionKeys = new GVRPositionKey[numPosKeys];
-        mRotationKeys = new GVRRotationKey[numRotKeys];
-        mScaleKeys = new GVRScaleKey[numScaleKeys];
+        mPositionKeys = new KeyTrack(posTimes, positions, 3);
+        mRotationKeys = new KeyTrack(rotTimes, rotations, 4);
+        mScaleKeys = new KeyTrack(scaleTimes, scales, 3);
         mPreState = preBehavior;
         mPostState = postBehavior;
 
-        mPositionInterpolator = new KeyFrameInterplator<Vector3f>(mPositionKeys, sInterpolatorVector3f);
-        mRotationInterpolator = new KeyFrameInterplator<Quaternionf>(mRotationKeys, sInterpolatorQuaternion);
-        mScaleInterpolator = new KeyFrameInterplator<Vector3f>(mScaleKeys, sInterpolatorVector3f);
-
         mCurrentTransform = new Matrix4f();
     }
 
@@ -176,7 +184,7 @@ public final class GVRAnimationChannel implements PrettyPrint {
      * @return the number of position keys
      */
     public int getNumPosKeys() {
-        return mPositionKeys.length;
+        return mPositionKeys.size();
     }
     
     /**
@@ -186,7 +194,7 @@ public final class GVRAnimationChannel implements PrettyPrint {
      * @return the time component
      */
     public double getPosKeyTime(int keyIndex) {
-        return mPositionKeys[keyIndex].getTime();
+        return mPositionKeys.times[keyIndex];
     }
 
     /**
@@ -197,11 +205,29 @@ public final class GVRAnimationChannel implements PrettyPrint {
      * @return the position as vector
      */
     public Vector3f getPosKeyVector(int keyIndex) {
-        return mPositionKeys[keyIndex].getValue();
+        return getPosKeyVector(keyIndex, new Vector3f());
+    }
+
+    /**
+     * Gets the position of a key without allocating.
+     *
+     * @param keyIndex the index of the position key
+     * @param pos vector to get the position
+     * @return pos
+     */
+    public Vector3f getPosKeyVector(int keyIndex, Vector3f pos) {
+        float[] values = mPositionKeys.values;
+        int i = keyIndex * 3;
+        return pos.set(values[i], values[i + 1], values[i + 2]);
     }
 
     public void setPosKeyVector(int keyIndex, float time, final float x, final float y, final float z) {
-        mPositionKeys[keyIndex] = new GVRPositionKey(time, x, y, z);
+        float[] values = mPositionKeys.values;
+        int i = keyIndex * 3;
+        mPositionKeys.times[keyIndex] = time;
+        values[i] = x;
+        values[i + 1] = y;
+        values[i + 2] = z;
     }
 
     /** 
@@ -210,7 +236,7 @@ public final class GVRAnimationChannel implements PrettyPrint {
      * @return the number of rotation keys
      */
     public int getNumRotKeys() {
-       return mRotationKeys.length;
+       return mRotationKeys.size();
     }
 
 
@@ -221,7 +247,7 @@ public final class GVRAnimationChannel implements PrettyPrint {
      * @return the time component
      */
     public double getRotKeyTime(int keyIndex) {
-        return mRotationKeys[keyIndex].getTime();
+        return mRotationKeys.times[keyIndex];
     }
 
 
@@ -234,11 +260,30 @@ public final class GVRAnimationChannel implements PrettyPrint {
      * @return the rotation as quaternion
      */
     public Quaternionf getRotKeyQuaternion(int keyIndex) {
-        return mRotationKeys[keyIndex].getValue();
-    } 
+        return getRotKeyQuaternion(keyIndex, new Quaternionf());
+    }
+
+    /**
+     * Gets the rotation of a key without allocating.
+     *
+     * @param keyIndex the index of the rotation key
+     * @param rot quaternion to get the rotation
+     * @return rot
+     */
+    public Quaternionf getRotKeyQuaternion(int keyIndex, Quaternionf rot) {
+        float[] values = mRotationKeys.values;
+        int i = keyIndex * 4;
+        return rot.set(values[i], values[i + 1], values[i + 2], values[i + 3]);
+    }
 
     public void setRotKeyQuaternion(int keyIndex, float time, Quaternionf rot) {
-        mRotationKeys[keyIndex] = new GVRRotationKey(time, rot.x, rot.y, rot.z, rot.w);
+        float[] values = mRotationKeys.values;
+        int i = keyIndex * 4;
+        mRotationKeys.times[keyIndex] = time;
+        values[i] = rot.x;
+        values[i + 1] = rot.y;
+        values[i + 2] = rot.z;
+        values[i + 3] = rot.w;
     }
 
     /** 
@@ -247,7 +292,7 @@ public final class GVRAnimationChannel implements PrettyPrint {
      * @return the number of scaling keys
      */
     public int getNumScaleKeys() {
-        return mScaleKeys.length;
+        return mScaleKeys.size();
     }
 
 
@@ -258,7 +303,7 @@ public final class GVRAnimationChannel implements PrettyPrint {
      * @return the time component
      */
     public double getScaleKeyTime(int keyIndex) {
-        return mRotationKeys[keyIndex].getTime();
+        return mScaleKeys.times[keyIndex];
     }
 
 
@@ -270,11 +315,29 @@ public final class GVRAnimationChannel implements PrettyPrint {
      * @return the scaling factor as vector
      */
     public Vector3f getScaleKeyVector(int keyIndex) {
-        return mScaleKeys[keyIndex].getValue();
+        return getScaleKeyVector(keyIndex, new Vector3f());
+    }
+
+    /**
+     * Gets the scaling factor of a key without allocating.
+     *
+     * @param keyIndex the index of the scale key
+     * @param scale vector to get the scaling factor
+     * @return scale
+     */
+    public Vector3f getScaleKeyVector(int keyIndex, Vector3f scale) {
+        float[] values = mScaleKeys.values;
+        int i = keyIndex * 3;
+        return scale.set(values[i], values[i + 1], values[i + 2]);
     }
 
     public void setScaleKeyVector(int keyIndex, float time, final float x, final float y, final float z) {
-        mScaleKeys[keyIndex] = new GVRScaleKey(time, x, y, z);
+        float[] values = mScaleKeys.values;
+        int i = keyIndex * 3;
+        mScaleKeys.times[keyIndex] = time;
+        values[i] = x;
+        values[i + 1] = y;
+        values[i + 2] = z;
     }
 
     /** 
@@ -308,55 +371,110 @@ public final class GVRAnimationChannel implements PrettyPrint {
      * 
      * @param animationTime The time in animation.
      * 
-     * @return The transform.
+     * @return The transform. The same matrix is returned by every call,
+     *         so its contents are only valid until the next call.
      */
     public Matrix4f animate(float animationTime) {
-        Vector3f scale = getScale(animationTime);
-        Vector3f pos = getPosition(animationTime);
-        Quaternionf rot = getRotation(animationTime);
+        return animate(animationTime, mCurrentTransform);
+    }
 
-        // Allocation-free
-        Matrix4f mat = mCurrentTransform.set(rot);
+    /**
+     * Computes the transform for a specific time in animation
+     * without allocating.
+     *
+     * @param animationTime The time in animation.
+     * @param mat matrix to get the transform
+     * @return mat
+     */
+    public Matrix4f animate(float animationTime, Matrix4f mat) {
+        Vector3f scale = getScale(animationTime, mTempScale);
+        Vector3f pos = getPosition(animationTime, mTempPosition);
+        Quaternionf rot = getRotation(animationTime, mTempRotation);
 
+        mat.set(rot);
         mat.scale(scale).setTranslation(pos);
 
         return mat;
     }
 
-    protected Vector3f getPosition(float time) {
-        Vector3f defaultPosition = new Vector3f();
-        
-        if (mPositionKeys.length == 0) {
-            return defaultPosition;
-        } else if (mPositionKeys.length == 1) {
-            return mPositionKeys[0].getValue();
-        }
+    /**
+     * Computes the position at a specific time in animation.
+     *
+     * @param time The time in animation.
+     * @param pos vector to get the position
+     * @return pos
+     */
+    public Vector3f getPosition(float time, Vector3f pos) {
+        return sampleVector(mPositionKeys, time, 0.0f, pos);
+    }
 
-        return mPositionInterpolator.interpolate(time);
+    /**
+     * Computes the scaling factor at a specific time in animation.
+     *
+     * @param time The time in animation.
+     * @param scale vector to get the scaling factor
+     * @return scale
+     */
+    public Vector3f getScale(float time, Vector3f scale) {
+        return sampleVector(mScaleKeys, time, 1.0f, scale);
     }
 
-    protected Vector3f getScale(float time) {
-        Vector3f defaultScale = new Vector3f(1f, 1f, 1f);
-        
-        if (mScaleKeys.length == 0) {
-            return defaultScale;
-        } else if (mScaleKeys.length == 1) {
-            return mScaleKeys[0].getValue();
+    /**
+     * Computes the rotation at a specific time in animation.
+     *
+     * @param time The time in animation.
+     * @param rot quaternion to get the rotation
+     * @return rot
+     */
+    public Quaternionf getRotation(float time, Quaternionf rot) {
+        KeyTrack track = mRotationKeys;
+        float[] values = track.values;
+
+        if (track.size() == 0) {
+            return rot.identity();
+        } else if (track.size() == 1) {
+            return rot.set(values[0], values[1], values[2], values[3]);
         }
 
-        return mScaleInterpolator.interpolate(time);
+        int index = track.getKeyIndex(time);
+        if (index == -1) {
+            int i = track.getClampedOffset(time);
+            return rot.set(values[i], values[i + 1], values[i + 2], values[i + 3]);
+        }
+        float factor = getFactor(track, index, time);
+        int i = index * 4;
+        int j = i + 4;
+
+        mTempSlerp.set(values[j], values[j + 1], values[j + 2], values[j + 3]);
+        return rot.set(values[i], values[i + 1], values[i + 2], values[i + 3]).slerp(mTempSlerp, factor);
     }
 
-    protected Quaternionf getRotation(float time) {
-        Quaternionf defaultRotation = new Quaternionf();
+    private static Vector3f sampleVector(KeyTrack track, float time, float defaultValue, Vector3f v) {
+        float[] values = track.values;
+
+        if (track.size() == 0) {
+            return v.set(defaultValue, defaultValue, defaultValue);
+        } else if (track.size() == 1) {
+            return v.set(values[0], values[1], values[2]);
+        }
 
-        if (mRotationKeys.length == 0) {
-            return defaultRotation;
-        } else if (mRotationKeys.length == 1) {
-            return mRotationKeys[0].getValue();
+        int index = track.getKeyIndex(time);
+        if (index == -1) {
+            int i = track.getClampedOffset(time);
+            return v.set(values[i], values[i + 1], values[i + 2]);
         }
+        float factor = getFactor(track, index, time);
+        int i = index * 3;
+        int j = i + 3;
 
-        return mRotationInterpolator.interpolate(time);
+        return v.set(values[i] + (values[j] - values[i]) * factor,
+                     values[i + 1] + (values[j + 1] - values[i + 1]) * factor,
+                     values[i + 2] + (values[j + 2] - values[i + 2]) * factor);
+    }
+
+    private static float getFactor(KeyTrack track, int index, float time) {
+        float startTime = track.times[index];
+        return (time - startTime) / (track.times[index + 1] - startTime);
     }
 
     @Override
@@ -364,9 +482,9 @@ public final class GVRAnimationChannel implements PrettyPrint {
         sb.append(Log.getSpaces(indent));
         sb.append(GVRAnimationChannel.class.getSimpleName());
         sb.append(" [nodeName=" + m_nodeName + ", positionKeys="
-                + mPositionKeys.length + ", rotationKeys="
-                + mRotationKeys.length + ", scaleKeys="
-                + mScaleKeys.length + ", m_preState=" + mPreState
+                + mPositionKeys.size() + ", rotationKeys="
+                + mRotationKeys.size() + ", scaleKeys="
+                + mScaleKeys.size() + ", m_preState=" + mPreState
                 + ", m_postState=" + mPostState + "]");
         sb.append(System.lineSeparator());
     }
@@ -383,16 +501,18 @@ public final class GVRAnimationChannel implements PrettyPrint {
      */
     private final String m_nodeName;
 
-    private final GVRPositionKey[] mPositionKeys;
-    private final GVRRotationKey[] mRotationKeys;
-    private final GVRScaleKey[] mScaleKeys;
-
-    private final KeyFrameInterplator<Vector3f> mPositionInterpolator;
-    private final KeyFrameInterplator<Quaternionf> mRotationInterpolator;
-    private final KeyFrameInterplator<Vector3f> mScaleInterpolator;
+    private final KeyTrack mPositionKeys;
+    private final KeyTrack mRotationKeys;
+    private final KeyTrack mScaleKeys;
 
     protected Matrix4f mCurrentTransform;
 
+    // Scratch values so sampling does not allocate
+    private final Vector3f mTempPosition = new Vector3f();
+    private final Vector3f mTempScale = new Vector3f();
+    private final Quaternionf mTempRotation = new Quaternionf();
+    private final Quaternionf mTempSlerp = new Quaternionf();
+
     /**
      * Pre-animation behavior.
      */
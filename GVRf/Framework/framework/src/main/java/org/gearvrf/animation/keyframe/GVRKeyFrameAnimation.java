@@ -22,8 +22,11 @@ public class GVRKeyFrameAnimation extends GVRAnimation implements PrettyPrint {
     protected GVRNodeAnimationController mNodeAnimationController;
     protected GVRSkinningController mSkinningController;
 
+    protected GVRSkinningPipeline mSkinningPipeline;
+
     protected GVRSceneObject mTarget;
     protected Matrix4f[] mTransforms;
+    private float mTransformsTime = Float.NaN;
 
     /**
      * Constructor.
@@ -61,12 +64,37 @@ public class GVRKeyFrameAnimation extends GVRAnimation implements PrettyPrint {
         mNodeAnimationController = new GVRNodeAnimationController(mTarget, this);
 
         mSkinningController = new GVRSkinningController(mTarget, this);
+        mSkinningController.setPipeline(mSkinningPipeline);
+        mTransformsTime = Float.NaN;
         mTransforms = new Matrix4f[mChannels.size()];
         for (int i = 0; i < mTransforms.length; ++i) {
             mTransforms[i] = new Matrix4f();
         }
     }
 
+    /**
+     * Evaluates the skeletal animation on the worker threads of a pipeline.
+     * Several animations can share one pipeline, and their skeletons are
+     * then evaluated in parallel. Must be called on the draw thread or
+     * before the animation is started.
+     *
+     * @param pipeline pipeline to use, null (the default) to evaluate
+     *                 the skeleton on the draw thread
+     */
+    public void setSkinningPipeline(GVRSkinningPipeline pipeline) {
+        mSkinningPipeline = pipeline;
+        if (mSkinningController != null) {
+            mSkinningController.setPipeline(pipeline);
+        }
+    }
+
+    /**
+     * @return the pipeline used to evaluate the skeleton, or null
+     */
+    public GVRSkinningPipeline getSkinningPipeline() {
+        return mSkinningPipeline;
+    }
+
     @Override
     public void prettyPrint(StringBuffer sb, int indent) {
         sb.append(Log.getSpaces(indent));
@@ -123,10 +151,22 @@ public class GVRKeyFrameAnimation extends GVRAnimation implements PrettyPrint {
         mSkinningController.animate(getDuration() * ratio);
     }
 
+    @Override
+    protected void onStopped() {
+        if (mSkinningController != null) {
+            mSkinningController.flushPipeline();
+        }
+    }
+
     protected Matrix4f[] getTransforms(float animationTime) {
+        // The node and skinning controllers both sample the same time
+        if (animationTime == mTransformsTime) {
+            return mTransforms;
+        }
+        mTransformsTime = animationTime;
         int i = 0;
         for (GVRAnimationChannel channel : mChannels) {
-            mTransforms[i++].set(channel.animate(animationTime));
+            channel.animate(animationTime, mTransforms[i++]);
         }
         return mTransforms;
     }
@@ -2,11 +2,14 @@ package org.gearvrf.animation.keyframe;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 
 import org.gearvrf.GVRBone;
 import org.gearvrf.GVRContext;
@@ -17,6 +20,11 @@ import org.joml.Matrix4f;
 
 /**
  * Controls skeletal animation (skinning). 
+ * <p>
+ * The animated part of the skeleton is flattened into arrays in depth
+ * first order, so each frame the bone matrices are computed with one
+ * pass over the arrays without allocating. The evaluation can run on
+ * the worker threads of a {@link GVRSkinningPipeline}.
  */
 public class GVRSkinningController extends GVRAnimationController {
     private static final String TAG = GVRSkinningController.class.getSimpleName();
@@ -28,6 +36,45 @@ public class GVRSkinningController extends GVRAnimationController {
     protected Map<String, SceneAnimNode> nodeByName;
     protected Map<GVRSceneObject, List<GVRBone>> boneMap;
 
+    /*
+     * Flattened skeleton. Nodes are in depth first order so a parent
+     * always comes before its children.
+     */
+    private GVRSceneObject[] nodeObjects;
+    private int[] parentIndex;
+    private int[] channelIds;
+    private Matrix4f[] localTransforms;
+    private Matrix4f[] globalTransforms;
+
+    /*
+     * Bones. A bone whose node is not animated has a constant
+     * global transform, which is premultiplied into its offset.
+     */
+    private GVRBone[] bones;
+    private int[] boneNode;
+    private int[] boneMesh;
+    private Matrix4f[] boneOffsets;
+
+    // Scene objects which own the skinned meshes
+    private GVRSceneObject[] meshObjects;
+    private Matrix4f[] meshModelMatrices;
+    private Matrix4f[] meshInverseMatrices;
+
+    // Double buffered bone palettes, 16 floats per bone
+    private final float[][] palettes = new float[2][];
+    private int frontPalette = 0;
+    private final float[] boneMatrix = new float[16];
+    private final Matrix4f tempMatrix = new Matrix4f();
+
+    private GVRSkinningPipeline pipeline;
+    private Future<?> pendingEvaluation;
+    private final Runnable evaluateTask = new Runnable() {
+        @Override
+        public void run() {
+            evaluate(palettes[1 - frontPalette]);
+        }
+    };
+
     protected class SceneAnimNode {
         GVRSceneObject sceneObject;
         SceneAnimNode parent;
@@ -61,6 +108,125 @@ public class GVRSkinningController extends GVRAnimationController {
 
         animRoot = createAnimationTree(sceneRoot, null);
         pruneTree(animRoot);
+        flatten();
+    }
+
+    /**
+     * Sets the pipeline used to evaluate the skeleton.
+     * Must be called on the draw thread.
+     *
+     * @param pipeline pipeline whose worker threads evaluate the skeleton,
+     *                 null to evaluate it on the draw thread
+     */
+    public void setPipeline(GVRSkinningPipeline pipeline) {
+        flushPipeline();
+        this.pipeline = pipeline;
+    }
+
+    /**
+     * Waits for the evaluation queued on the pipeline, if any, and
+     * uploads its bone matrices. Called on the draw thread when the
+     * animation stops, so the skeleton ends on the last pose evaluated.
+     */
+    void flushPipeline() {
+        if (finishEvaluation()) {
+            uploadPalette(palettes[frontPalette]);
+        }
+    }
+
+    /**
+     * @return the pipeline used to evaluate the skeleton, null if it is
+     *         evaluated on the draw thread
+     */
+    public GVRSkinningPipeline getPipeline() {
+        return pipeline;
+    }
+
+    /*
+     * Copy the pruned animation tree and the bones into arrays,
+     * resolving all of the lookups once.
+     */
+    private void flatten() {
+        List<SceneAnimNode> nodes = new ArrayList<SceneAnimNode>();
+        collectNodes(animRoot, nodes);
+
+        int numNodes = nodes.size();
+        Map<SceneAnimNode, Integer> nodeIndex = new IdentityHashMap<SceneAnimNode, Integer>();
+        nodeObjects = new GVRSceneObject[numNodes];
+        parentIndex = new int[numNodes];
+        channelIds = new int[numNodes];
+        localTransforms = new Matrix4f[numNodes];
+        globalTransforms = new Matrix4f[numNodes];
+        for (int i = 0; i < numNodes; ++i) {
+            SceneAnimNode node = nodes.get(i);
+            Integer parent = (node.parent != null) ? nodeIndex.get(node.parent) : null;
+
+            nodeIndex.put(node, i);
+            nodeObjects[i] = node.sceneObject;
+            parentIndex[i] = (parent != null) ? parent : -1;
+            channelIds[i] = node.channelId;
+            localTransforms[i] = new Matrix4f(node.localTransform);
+            globalTransforms[i] = new Matrix4f(node.globalTransform);
+        }
+
+        List<GVRBone> boneList = new ArrayList<GVRBone>();
+        List<Integer> boneNodeList = new ArrayList<Integer>();
+        List<Matrix4f> offsetList = new ArrayList<Matrix4f>();
+        for (Entry<GVRSceneObject, List<GVRBone>> ent : boneMap.entrySet()) {
+            SceneAnimNode node = nodeByName.get(ent.getKey().getName());
+            if (node == null) {
+                continue;
+            }
+            Integer index = nodeIndex.get(node);
+
+            for (GVRBone bone : ent.getValue()) {
+                Matrix4f offset = bone.getOffsetMatrix();
+                if (index == null) {
+                    node.globalTransform.mul(offset, offset);
+                }
+                boneList.add(bone);
+                boneNodeList.add((index != null) ? index : -1);
+                offsetList.add(offset);
+            }
+        }
+
+        int numBones = boneList.size();
+        Map<GVRSceneObject, Integer> meshIndex = new IdentityHashMap<GVRSceneObject, Integer>();
+        List<GVRSceneObject> meshList = new ArrayList<GVRSceneObject>();
+        bones = boneList.toArray(new GVRBone[numBones]);
+        boneOffsets = offsetList.toArray(new Matrix4f[numBones]);
+        boneNode = new int[numBones];
+        boneMesh = new int[numBones];
+        for (int b = 0; b < numBones; ++b) {
+            GVRSceneObject owner = bones[b].getSceneObject();
+            Integer mesh = meshIndex.get(owner);
+
+            if (mesh == null) {
+                mesh = meshList.size();
+                meshIndex.put(owner, mesh);
+                meshList.add(owner);
+            }
+            boneNode[b] = boneNodeList.get(b);
+            boneMesh[b] = mesh;
+        }
+
+        int numMeshes = meshList.size();
+        meshObjects = meshList.toArray(new GVRSceneObject[numMeshes]);
+        meshModelMatrices = new Matrix4f[numMeshes];
+        meshInverseMatrices = new Matrix4f[numMeshes];
+        for (int m = 0; m < numMeshes; ++m) {
+            meshModelMatrices[m] = new Matrix4f();
+            meshInverseMatrices[m] = new Matrix4f();
+        }
+        palettes[0] = new float[numBones * 16];
+        palettes[1] = new float[numBones * 16];
+    }
+
+    private void collectNodes(SceneAnimNode node, List<SceneAnimNode> nodes) {
+        nodes.add(node);
+        for (SceneAnimNode child : node.children) {
+            collectNodes(child, nodes);
+        }
     }
 
     protected SceneAnimNode createAnimationTree(GVRSceneObject node, SceneAnimNode parent) {
@@ -120,18 +286,125 @@ public class GVRSkinningController extends GVRAnimationController {
      */
     @Override
     protected void animateImpl(float animationTick) {
+        if (bones.length == 0) {
+            return;
+        }
         Matrix4f[] animationTransform = animation.getTransforms(animationTick);
 
-        updateTransforms(animRoot, new Matrix4f(), animationTransform);
+        if (pipeline != null) {
+            /*
+             * Upload the palette computed from the previous frame
+             * while the workers compute the next one.
+             */
+            boolean ready = finishEvaluation();
+
+            gatherInputs(animationTransform);
+            pendingEvaluation = pipeline.submit(evaluateTask);
+            if (pendingEvaluation != null) {
+                if (ready) {
+                    uploadPalette(palettes[frontPalette]);
+                }
+                return;
+            }
+        } else {
+            gatherInputs(animationTransform);
+        }
+        evaluate(palettes[frontPalette]);
+        uploadPalette(palettes[frontPalette]);
+    }
 
-        for (Entry<GVRSceneObject, List<GVRBone>> ent : boneMap.entrySet()) {
-            // Transform all bone splits (a bone can be split into multiple instances if they influence
-            // different meshes)
-            SceneAnimNode node = nodeByName.get(ent.getKey().getName());
-            for (GVRBone bone : ent.getValue()) {
-                updateBoneMatrices(bone, node);
+    /*
+     * Wait for the evaluation queued on the pipeline and make its
+     * palette the front one.
+     * Returns true if there was an evaluation and it completed.
+     */
+    private boolean finishEvaluation() {
+        if (pendingEvaluation == null) {
+            return false;
+        }
+        Future<?> pending = pendingEvaluation;
+        pendingEvaluation = null;
+        boolean interrupted = false;
+        try {
+            /*
+             * Keep waiting when interrupted: the worker reads the inputs
+             * the next gatherInputs() writes.
+             */
+            while (true) {
+                try {
+                    pending.get();
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        } catch (ExecutionException e) {
+            Log.e(TAG, "skeleton evaluation failed: %s", e.getCause());
+            return false;
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
             }
         }
+        frontPalette = 1 - frontPalette;
+        return true;
+    }
+
+    /*
+     * Read everything the evaluation needs from the scene graph.
+     * Runs on the draw thread.
+     */
+    private void gatherInputs(Matrix4f[] animationTransform) {
+        for (int i = 0; i < nodeObjects.length; ++i) {
+            int channelId = channelIds[i];
+
+            if (channelId != -1) {
+                localTransforms[i].set(animationTransform[channelId]);
+            } else {
+                // Default local transform
+                localTransforms[i].set(nodeObjects[i].getTransform().getLocalModelMatrix());
+            }
+        }
+        for (int m = 0; m < meshObjects.length; ++m) {
+            meshModelMatrices[m].set(meshObjects[m].getTransform().getModelMatrix());
+        }
+    }
+
+    /*
+     * Compute the global transform of each node and the final matrix of each bone.
+     * Only uses the arrays of this controller, so it can run on any thread.
+     */
+    private void evaluate(float[] palette) {
+        for (int i = 0; i < parentIndex.length; ++i) {
+            int parent = parentIndex[i];
+
+            if (parent < 0) {
+                globalTransforms[i].set(localTransforms[i]);
+            } else {
+                globalTransforms[parent].mul(localTransforms[i], globalTransforms[i]);
+            }
+        }
+        for (int m = 0; m < meshModelMatrices.length; ++m) {
+            meshModelMatrices[m].invert(meshInverseMatrices[m]);
+        }
+        for (int b = 0; b < bones.length; ++b) {
+            int node = boneNode[b];
+
+            if (node >= 0) {
+                globalTransforms[node].mul(boneOffsets[b], tempMatrix);
+            } else {
+                tempMatrix.set(boneOffsets[b]);
+            }
+            meshInverseMatrices[boneMesh[b]].mul(tempMatrix, tempMatrix);
+            tempMatrix.get(palette, b * 16);
+        }
+    }
+
+    private void uploadPalette(float[] palette) {
+        for (int b = 0; b < bones.length; ++b) {
+            System.arraycopy(palette, b * 16, boneMatrix, 0, 16);
+            bones[b].setFinalTransformMatrix(boneMatrix);
+        }
     }
 
     protected void updateTransforms(SceneAnimNode node, Matrix4f parentTransform, Matrix4f[] animationTransform) {
@@ -0,0 +1,99 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gearvrf.animation.keyframe;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A pool of worker threads which evaluate skeletal poses.
+ * <p>
+ * By default a {@link GVRSkinningController} computes the bone matrices
+ * of its skeleton on the draw thread. When a pipeline is set with
+ * {@link GVRKeyFrameAnimation#setSkinningPipeline(GVRSkinningPipeline)},
+ * the draw thread only gathers the animated local transforms and uploads
+ * the bone matrices; the skeleton hierarchy and bone palette are computed
+ * on the pipeline threads. All of the skeletons which share a pipeline are
+ * evaluated in parallel.
+ * <p>
+ * The bone palettes are double buffered: the palette uploaded in a frame
+ * is the one computed from the previous frame's animation time, so
+ * pipelined skinning lags the animation by one frame.
+ */
+public class GVRSkinningPipeline {
+    private static final int MAX_THREADS = 4;
+
+    private final ExecutorService mExecutor;
+    private final int mThreadCount;
+
+    /**
+     * Creates a pipeline with one thread per core, leaving a core free
+     * for the draw thread.
+     */
+    public GVRSkinningPipeline() {
+        this(Math.min(MAX_THREADS, Runtime.getRuntime().availableProcessors() - 1));
+    }
+
+    /**
+     * Creates a pipeline with a fixed number of threads.
+     *
+     * @param threadCount number of worker threads (at least 1 is used)
+     */
+    public GVRSkinningPipeline(int threadCount) {
+        mThreadCount = Math.max(1, threadCount);
+        mExecutor = Executors.newFixedThreadPool(mThreadCount, new ThreadFactory() {
+            private final AtomicInteger threadNumber = new AtomicInteger(1);
+
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, "gvrf-skinning-" + threadNumber.getAndIncrement());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+
+    /**
+     * @return the number of worker threads
+     */
+    public int getThreadCount() {
+        return mThreadCount;
+    }
+
+    /**
+     * Stops the worker threads. Skeletons which still use the pipeline
+     * are evaluated on the draw thread afterwards.
+     */
+    public void shutdown() {
+        mExecutor.shutdown();
+    }
+
+    /**
+     * Queues a skeleton evaluation.
+     * @return the pending evaluation, null if the pipeline has been shut down
+     */
+    Future<?> submit(Runnable task) {
+        try {
+            return mExecutor.submit(task);
+        } catch (RejectedExecutionException e) {
+            return null;
+        }
+    }
+}
@@ -21,6 +21,7 @@ import static android.opengl.GLES20.glGetError;
 import static android.opengl.GLES20.glGetIntegerv;
 import static org.gearvrf.utility.Threads.threadId;
 
+import java.io.File;
 import java.io.FileDescriptor;
 import java.io.FileInputStream;
 import java.io.IOException;
@@ -322,6 +323,27 @@ class AsyncBitmapTexture {
         }
     }
 
+    /*
+     * Disk cache of decoded bitmaps
+     */
+
+    private static volatile DecodedBitmapCache sDecodedCache = null;
+
+    /**
+     * Keep decoded bitmaps in a disk cache, so that later loads of the
+     * same resource skip the decode.
+     *
+     * @param directory
+     *            Directory for the cache files; {@code null} disables the
+     *            cache.
+     * @param maxSize
+     *            Size budget of the cache files, in bytes.
+     */
+    static void setDecodedCache(File directory, long maxSize) {
+        sDecodedCache = directory != null ? new DecodedBitmapCache(directory,
+                maxSize) : null;
+    }
+
     /*
      * Asynchronous loader
      */
@@ -345,7 +367,15 @@ class AsyncBitmapTexture {
 
         @Override
         protected Bitmap loadResource() throws IOException {
-            Bitmap bitmap;
+            DecodedBitmapCache cache = sDecodedCache;
+            String decodeParameters = glMaxTextureSize + "x" + glMaxTextureSize
+                    + "|" + maxImageSize;
+            Bitmap bitmap = cache != null ? cache.get(resource, decodeParameters) : null;
+            if (bitmap != null) {
+                resource.closeStream();
+                return bitmap;
+            }
+
             String resourceName = resource.getResourceFilename();
             if (resourceName.toLowerCase().endsWith("tga")) {
                 // decodeStream for sure do not support tga
@@ -356,6 +386,9 @@ class AsyncBitmapTexture {
             }
 
             resource.closeStream();
+            if (bitmap != null && cache != null) {
+                cache.put(resource, decodeParameters, bitmap);
+            }
             return bitmap;
         }
     }
@@ -798,6 +831,22 @@ class AsyncBitmapTexture {
         }
     }
 
+    /**
+     * Estimate the size of the bitmap that {@link AsyncLoadTextureResource}
+     * decodes from an image, the same way {@link #setInSampleSize} limits it.
+     *
+     * @return Bytes of ARGB_8888 pixels
+     */
+    static long estimateDecodedSize(int width, int height) {
+        int scaleWidth = scale(glMaxTextureSize, width);
+        int scaleHeight = scale(glMaxTextureSize, height);
+        int sampleSize = Integer.highestOneBit(Math.max(Math.min(scaleWidth, scaleHeight), 1));
+        while ((width / sampleSize) * (height / sampleSize) * 4 > maxImageSize) {
+            sampleSize *= 2;
+        }
+        return (long) (width / sampleSize) * (height / sampleSize) * 4;
+    }
+
     private static int scale(int requestedSize, int outSize) {
         if (requestedSize == 0) {
             // No request
@@ -105,13 +105,10 @@ class AsyncCompressedTexture {
             GVRCompressedTextureLoader loader = resource.getCompressedLoader();
             CompressedTexture compressedTexture = null;
             try {
-                compressedTexture = CompressedTexture
-                        .parse(resource.getStream(), false, loader);
+                compressedTexture = CompressedTexture.load(resource, loader);
                 Log.d("ASYNC", "parse compressed texture %s", resource);
             } catch (IOException e) {
                 e.printStackTrace();
-            } finally {
-                resource.closeStream();
             }
             return compressedTexture;
         }
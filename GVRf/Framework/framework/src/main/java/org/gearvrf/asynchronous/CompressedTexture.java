@@ -21,10 +21,12 @@ import java.nio.ByteBuffer;
 import java.util.Arrays;
 import java.util.List;
 
+import org.gearvrf.GVRAndroidResource;
 import org.gearvrf.GVRCompressedTexture;
 import org.gearvrf.GVRContext;
 import org.gearvrf.GVRTextureParameters;
 import org.gearvrf.asynchronous.GVRCompressedTextureLoader.Reader;
+import org.gearvrf.utility.Log;
 
 import android.opengl.GLES20;
 
@@ -44,6 +46,8 @@ import android.opengl.GLES20;
  */
 public class CompressedTexture {
 
+    private static final String TAG = Log.tag(CompressedTexture.class);
+
     // Field names from
     // https://www.khronos.org/opengles/sdk/docs/man/xhtml/glCompressedTexImage2D.xml
     /**
@@ -119,19 +123,43 @@ public class CompressedTexture {
     }
 
     GVRCompressedTexture toTexture(GVRContext gvrContext, int quality) {
-        GVRCompressedTexture tex = new GVRCompressedTexture(gvrContext, width,
-                height, imageSize, internalformat, getArray(), levels, quality);
+        GVRCompressedTexture tex;
+        if (data.isDirect()) {
+            tex = new GVRCompressedTexture(gvrContext, width, height,
+                    imageSize, internalformat, data, levels, quality);
+        } else {
+            tex = new GVRCompressedTexture(gvrContext, width, height,
+                    imageSize, internalformat, getArray(), levels, quality);
+        }
         tex.setDataOffsets(new int[] { dataOffset });
         return tex;
     }
 
+    /**
+     * Make a small, quick to upload version of the texture, from one of its
+     * smaller mipmap levels.
+     *
+     * @param maxSize
+     *            Largest width or height of the preview
+     * @return The preview, or {@code null} if the texture has no small
+     *         enough level
+     */
+    GVRCompressedTexture toPreviewTexture(GVRContext gvrContext, int quality,
+            int maxSize) {
+        return null;
+    }
+
+    /*
+     * Get the number of bytes of texture data.
+     */
+    int getDataSize() {
+        return data.limit() - dataOffset;
+    }
+
     // Texture parameters
     GVRCompressedTexture toTexture(GVRContext gvrContext, int quality,
             GVRTextureParameters textureParameters) {
-        GVRCompressedTexture tex = new GVRCompressedTexture(gvrContext, width,
-                height, imageSize, internalformat, getArray(), levels, quality);
-        tex.setDataOffsets(new int[] { dataOffset });
-        return tex;
+        return toTexture(gvrContext, quality);
     }
 
     /**
@@ -216,6 +244,29 @@ public class CompressedTexture {
         }
     }
 
+    /**
+     * Parse a compressed texture resource, from a memory-mapped file when
+     * the resource can be mapped, or else from its stream. The resource's
+     * stream is closed on exit.
+     */
+    static CompressedTexture load(GVRAndroidResource resource,
+            GVRCompressedTextureLoader loader) throws IOException {
+        try {
+            ByteBuffer mapped = null;
+            try {
+                mapped = resource.mapFile();
+            } catch (IOException e) {
+                Log.d(TAG, "cannot map %s: %s", resource, e);
+            }
+            if (mapped != null) {
+                return parse(mapped, loader);
+            }
+            return parse(resource.getStream(), false, loader);
+        } finally {
+            resource.closeStream();
+        }
+    }
+
     static CompressedTexture parse(InputStream stream, boolean closeStream,
             GVRCompressedTextureLoader loader) throws IOException {
         byte[] data;
@@ -230,6 +281,17 @@ public class CompressedTexture {
         return loader.parse(data, new Reader(data));
     }
 
+    /**
+     * Parse a texture file that is already in memory - usually a
+     * memory-mapped file, from {@link org.gearvrf.GVRAndroidResource#mapFile()}.
+     * A direct buffer is uploaded to the GPU without being copied to the Java
+     * heap.
+     */
+    static CompressedTexture parse(ByteBuffer data,
+            GVRCompressedTextureLoader loader) {
+        return loader.parse(data, new Reader(data));
+    }
+
     private static byte[] readBytes(InputStream stream, final int bytes)
             throws IOException {
         byte[] result = new byte[bytes], buffer = new byte[bytes];
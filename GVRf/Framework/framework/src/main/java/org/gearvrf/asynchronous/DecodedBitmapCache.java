@@ -0,0 +1,299 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gearvrf.asynchronous;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.Comparator;
+
+import org.gearvrf.GVRAndroidResource;
+import org.gearvrf.utility.Log;
+
+import android.graphics.Bitmap;
+import android.graphics.Bitmap.Config;
+
+/**
+ * Disk cache of decoded bitmaps.
+ *
+ * Each entry is a file holding a small header and the raw pixels of a
+ * decoded (and possibly downsampled) bitmap. Entries are keyed by the
+ * resource identity, its modification time and the decode parameters,
+ * so a changed file or a different texture size limit is a miss.
+ * Entries are read through a memory mapped file, so a hit costs one copy
+ * of the pixels instead of a decode.
+ *
+ * When the files take more than the size budget, the least recently
+ * used ones are deleted.
+ */
+class DecodedBitmapCache {
+    private static final String TAG = Log.tag(DecodedBitmapCache.class);
+
+    private static final int MAGIC = 0x47565242; // "GVRB"
+    private static final int VERSION = 1;
+    private static final String SUFFIX = ".bmc";
+    private static final String TEMP_SUFFIX = ".tmp";
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    /* Supported bitmap configurations, in file format order */
+    private static final Config[] CONFIGS = {
+            Config.ARGB_8888, Config.RGB_565, Config.ALPHA_8
+    };
+    private static final int[] BYTES_PER_PIXEL = { 4, 2, 1 };
+
+    /* Header before the key, and after it */
+    private static final int KEY_HEADER_SIZE = 3 * 4;
+    private static final int IMAGE_HEADER_SIZE = 4 * 4;
+
+    private final File mDirectory;
+    private final long mMaxSize;
+    private long mSize = -1;
+
+    /**
+     * @param directory directory to hold the cache files, created if needed
+     * @param maxSize   size budget of the cache files in bytes
+     */
+    DecodedBitmapCache(File directory, long maxSize) {
+        mDirectory = directory;
+        mMaxSize = maxSize;
+    }
+
+    File getDirectory() {
+        return mDirectory;
+    }
+
+    /**
+     * Get a decoded bitmap from the cache.
+     *
+     * @return The bitmap or {@code null} if it is not in the cache
+     */
+    Bitmap get(GVRAndroidResource resource, String decodeParameters) {
+        String key = getKey(resource, decodeParameters);
+        if (key == null) {
+            return null;
+        }
+        File file = getFile(key);
+        if (!file.exists()) {
+            return null;
+        }
+        RandomAccessFile raf = null;
+        try {
+            raf = new RandomAccessFile(file, "r");
+            FileChannel channel = raf.getChannel();
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            buffer.order(ByteOrder.nativeOrder());
+
+            if (buffer.remaining() < KEY_HEADER_SIZE
+                    || buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+                return discard(file);
+            }
+            int keyLength = buffer.getInt();
+            if (keyLength < 0 || keyLength > buffer.remaining() - IMAGE_HEADER_SIZE) {
+                return discard(file);
+            }
+            byte[] keyBytes = new byte[keyLength];
+            buffer.get(keyBytes);
+            if (!key.equals(new String(keyBytes, UTF8))) {
+                // Hash collision with another resource
+                return null;
+            }
+            int width = buffer.getInt();
+            int height = buffer.getInt();
+            int config = buffer.getInt();
+            boolean hasAlpha = buffer.getInt() != 0;
+            if (config < 0 || config >= CONFIGS.length || width <= 0 || height <= 0
+                    || (long) width * height * BYTES_PER_PIXEL[config] > buffer.remaining()) {
+                return discard(file);
+            }
+
+            Bitmap bitmap = Bitmap.createBitmap(width, height, CONFIGS[config]);
+            if (buffer.remaining() < bitmap.getByteCount()) {
+                bitmap.recycle();
+                return discard(file);
+            }
+            bitmap.copyPixelsFromBuffer(buffer);
+            bitmap.setHasAlpha(hasAlpha);
+            file.setLastModified(System.currentTimeMillis());
+            return bitmap;
+        } catch (IOException e) {
+            Log.w(TAG, "Cannot read %s: %s", file, e);
+            return null;
+        } catch (RuntimeException e) {
+            // Corrupt in some way we didn't check for: decode instead
+            Log.w(TAG, "Cannot read %s: %s", file, e);
+            return discard(file);
+        } finally {
+            close(raf);
+        }
+    }
+
+    /**
+     * Save a decoded bitmap in the cache.
+     */
+    void put(GVRAndroidResource resource, String decodeParameters, Bitmap bitmap) {
+        String key = getKey(resource, decodeParameters);
+        int config = Arrays.asList(CONFIGS).indexOf(bitmap.getConfig());
+        if (key == null || config < 0) {
+            return;
+        }
+        if (!mDirectory.isDirectory() && !mDirectory.mkdirs()) {
+            Log.w(TAG, "Cannot create cache directory %s", mDirectory);
+            return;
+        }
+        byte[] keyBytes = key.getBytes(UTF8);
+        long fileSize = KEY_HEADER_SIZE + keyBytes.length + IMAGE_HEADER_SIZE
+                + bitmap.getByteCount();
+        if (fileSize > mMaxSize) {
+            return;
+        }
+        File file = getFile(key);
+        File temp = new File(mDirectory, file.getName() + TEMP_SUFFIX);
+        RandomAccessFile raf = null;
+        try {
+            raf = new RandomAccessFile(temp, "rw");
+            FileChannel channel = raf.getChannel();
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, fileSize);
+            buffer.order(ByteOrder.nativeOrder());
+
+            buffer.putInt(MAGIC);
+            buffer.putInt(VERSION);
+            buffer.putInt(keyBytes.length);
+            buffer.put(keyBytes);
+            buffer.putInt(bitmap.getWidth());
+            buffer.putInt(bitmap.getHeight());
+            buffer.putInt(config);
+            buffer.putInt(bitmap.hasAlpha() ? 1 : 0);
+            bitmap.copyPixelsToBuffer(buffer);
+            buffer.force();
+        } catch (IOException e) {
+            Log.w(TAG, "Cannot write %s: %s", temp, e);
+            close(raf);
+            temp.delete();
+            return;
+        }
+        close(raf);
+
+        synchronized (this) {
+            long oldSize = file.length();
+            if (!temp.renameTo(file)) {
+                temp.delete();
+                return;
+            }
+            if (mSize >= 0) {
+                mSize += fileSize - oldSize;
+            }
+            trim();
+        }
+    }
+
+    /**
+     * Delete all of the cache files.
+     */
+    synchronized void clear() {
+        File[] files = mDirectory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        mSize = 0;
+    }
+
+    /*
+     * Delete the least recently used files until the cache is within budget.
+     */
+    private void trim() {
+        File[] files = mDirectory.listFiles();
+        if (files == null) {
+            return;
+        }
+        if (mSize < 0) {
+            mSize = 0;
+            for (File file : files) {
+                mSize += file.length();
+            }
+        }
+        if (mSize <= mMaxSize) {
+            return;
+        }
+        final long[] times = new long[files.length];
+        Integer[] order = new Integer[files.length];
+        for (int i = 0; i < files.length; ++i) {
+            times[i] = files[i].lastModified();
+            order[i] = i;
+        }
+        Arrays.sort(order, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer a, Integer b) {
+                return Long.compare(times[a], times[b]);
+            }
+        });
+        for (int i = 0; i < order.length && mSize > mMaxSize; ++i) {
+            File file = files[order[i]];
+            long length = file.length();
+            if (file.getName().endsWith(SUFFIX) && file.delete()) {
+                mSize -= length;
+            }
+        }
+    }
+
+    private Bitmap discard(File file) {
+        Log.w(TAG, "Deleting invalid cache file %s", file);
+        synchronized (this) {
+            long length = file.length();
+            if (file.delete() && mSize >= 0) {
+                mSize -= length;
+            }
+        }
+        return null;
+    }
+
+    private static String getKey(GVRAndroidResource resource, String decodeParameters) {
+        String identity = resource.getResourceIdentity();
+        if (identity == null) {
+            return null;
+        }
+        long lastModified = resource.getLastModified();
+        if (lastModified == 0) {
+            return null;
+        }
+        return identity + '|' + lastModified + '|' + decodeParameters;
+    }
+
+    private File getFile(String key) {
+        // 64 bit FNV-1a hash of the key
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < key.length(); ++i) {
+            hash ^= key.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return new File(mDirectory, String.format("%016x", hash) + SUFFIX);
+    }
+
+    private static void close(RandomAccessFile raf) {
+        if (raf != null) {
+            try {
+                raf.close();
+            } catch (IOException e) {
+            }
+        }
+    }
+}
@@ -15,6 +15,7 @@
 
 package org.gearvrf.asynchronous;
 
+import java.io.File;
 import java.io.FileDescriptor;
 import java.io.FileInputStream;
 import java.io.InputStream;
@@ -74,6 +75,29 @@ public class GVRAsynchronousResourceLoader {
         AsyncBitmapTexture.setup(gvrContext);
     }
 
+    /**
+     * Keep decoded bitmap textures in a disk cache.
+     *
+     * Decoding (and downsampling) a large image is usually the slowest part
+     * of loading a bitmap texture. With a cache, the decoded pixels are
+     * saved to a file the first time a texture is loaded, and later loads of
+     * the same resource - in this run or the next - read them back through a
+     * memory mapped file. Entries are keyed by the resource, its
+     * modification time and the texture size limits, so a changed file is
+     * decoded again. Only asset, resource and file textures are cached.
+     *
+     * @param directory
+     *            Directory for the cache files, such as a subdirectory of
+     *            {@link android.content.Context#getCacheDir()}; {@code null}
+     *            disables the cache.
+     * @param maxSize
+     *            Size budget of the cache files, in bytes. The least
+     *            recently used files are deleted to stay within it.
+     */
+    public static void setDecodedTextureCache(File directory, long maxSize) {
+        AsyncBitmapTexture.setDecodedCache(directory, maxSize);
+    }
+
     /**
      * Load a compressed texture asynchronously.
      * 
@@ -289,6 +313,101 @@ public class GVRAsynchronousResourceLoader {
         return tex;
     }
 
+    /**
+     * Load a (compressed or bitmapped) texture progressively.
+     *
+     * This is the implementation of
+     * {@link org.gearvrf.GVRAssetLoader#loadProgressiveTexture(GVRAndroidResource, TextureCallback, org.gearvrf.GVRTextureParameters, int)}
+     * - it will usually be more convenient to call that directly.
+     * <p>
+     * The texture first gets a small preview image: a bitmap decoded at a
+     * fraction of its size, or one of the smallest mip levels of a KTX
+     * file. The full resolution image replaces it when it has been loaded.
+     * Full resolution loads are ordered by {@code priority}, then by the
+     * {@linkplain #setProgressiveTextureScreenSize(GVRTexture, float)
+     * on-screen size} of the textures, and they only start while they fit
+     * in the {@linkplain #setProgressiveTextureBudget(long) texture memory
+     * budget}.
+     *
+     * @param gvrContext
+     *            The GVRF context
+     * @param textureCache
+     *            Texture cache - may be {@code null}. Only full resolution
+     *            images are cached.
+     * @param texture
+     *            The texture to load: it gets the preview and then the full
+     *            resolution image
+     * @param callback
+     *            Notified when the full resolution image has loaded, or
+     *            could not be loaded
+     * @param resource
+     *            A stream containing a texture file
+     * @param priority
+     *            A value {@literal >=} {@link GVRContext#LOWEST_PRIORITY} and
+     *            {@literal <=} {@link GVRContext#HIGHEST_PRIORITY}
+     * @param quality
+     *            The compressed texture quality
+     */
+    public static void loadProgressiveTexture(GVRContext gvrContext,
+            ResourceCache<GVRImage> textureCache, GVRTexture texture,
+            CancelableCallback<GVRImage> callback,
+            GVRAndroidResource resource, int priority, int quality) {
+        validatePriorityCallbackParameters(gvrContext, callback, resource,
+                priority);
+        ProgressiveTextureLoader.loadTexture(gvrContext, textureCache,
+                texture, callback, resource, priority, quality);
+    }
+
+    /**
+     * Limit the memory taken by the full resolution images of progressive
+     * textures. Textures that do not fit keep their preview image until
+     * others are {@linkplain #releaseProgressiveTexture(GVRTexture)
+     * released} or garbage collected, or the budget is raised. A texture
+     * larger than the whole budget is loaded when no other full resolution
+     * image is loaded.
+     *
+     * @param bytes
+     *            Texture memory budget, in bytes; 0 (the default) means no
+     *            limit.
+     */
+    public static void setProgressiveTextureBudget(long bytes) {
+        ProgressiveTextureLoader.setBudget(bytes);
+    }
+
+    /**
+     * @return The texture memory taken by the full resolution images of
+     *         progressive textures, in bytes
+     */
+    public static long getProgressiveTextureMemory() {
+        return ProgressiveTextureLoader.getUsed();
+    }
+
+    /**
+     * Tell the loader how large a progressive texture is on screen. Among
+     * requests with the same priority, larger textures get their full
+     * resolution image first.
+     *
+     * @param texture
+     *            A texture from
+     *            {@link #loadProgressiveTexture(GVRContext, ResourceCache, GVRTexture, CancelableCallback, GVRAndroidResource, int, int)}
+     * @param pixels
+     *            Screen area the texture covers, in pixels
+     */
+    public static void setProgressiveTextureScreenSize(GVRTexture texture,
+            float pixels) {
+        ProgressiveTextureLoader.setScreenSize(texture, pixels);
+    }
+
+    /**
+     * Stop tracking a progressive texture the app no longer uses: its full
+     * resolution image no longer counts against the budget, and it is not
+     * loaded if it has not started loading yet. Textures that are not
+     * released give their budget back when they are garbage collected.
+     */
+    public static void releaseProgressiveTexture(GVRTexture texture) {
+        ProgressiveTextureLoader.release(texture);
+    }
+
     /**
      * Load a cube map texture asynchronously.
      * 
@@ -115,6 +115,34 @@ public abstract class GVRCompressedTextureLoader {
      */
     public abstract CompressedTexture parse(byte[] data, Reader reader);
 
+    /**
+     * Parse the header of a texture file in a {@link ByteBuffer}, such as a
+     * memory-mapped file, and return a {@link CompressedTexture}.
+     *
+     * Loaders that override this method should use
+     * {@link #CompressedTexture(int, int, int, int, int, ByteBuffer, int, int)}
+     * so that a direct buffer is passed to the GPU without being copied. The
+     * default implementation copies the buffer to a {@code byte[]}, and calls
+     * {@link #parse(byte[], Reader)}.
+     *
+     * @param data
+     *            A compressed texture file's contents, from offset 0 to the
+     *            buffer's capacity
+     * @param reader
+     *            A data reader, pointing to the start of the buffer
+     * @return A {@code CompressedImage}
+     */
+    public CompressedTexture parse(ByteBuffer data, Reader reader) {
+        if (data.hasArray() && data.arrayOffset() == 0) {
+            return parse(data.array(), reader);
+        }
+        byte[] bytes = new byte[data.capacity()];
+        ByteBuffer source = data.duplicate();
+        source.clear();
+        source.get(bytes);
+        return parse(bytes, new Reader(bytes));
+    }
+
     /**
      * Provides external parsers access to the internal
      * {@code CompressedImage} constructor.
@@ -166,6 +194,30 @@ public abstract class GVRCompressedTextureLoader {
                 levels, buffer);
     }
 
+    /**
+     * Same as
+     * {@link #CompressedTexture(int, int, int, int, int, byte[], int, int)},
+     * for data in a {@link ByteBuffer}.
+     *
+     * @param data
+     *            The {@code ByteBuffer} passed to
+     *            {@link #parse(ByteBuffer, Reader)}
+     * @param dataOffset
+     *            Header length - offset of first byte of texture data, from
+     *            the start of the buffer
+     * @param dataBytes
+     *            Number of bytes of texture data
+     */
+    protected CompressedTexture CompressedTexture(int internalformat,
+            int width, int height, int imageSize, int levels, ByteBuffer data,
+            int dataOffset, int dataBytes) {
+        ByteBuffer buffer = data.duplicate();
+        buffer.limit(dataOffset + dataBytes);
+        buffer.position(dataOffset);
+        return new CompressedTexture(internalformat, width, height, imageSize,
+                levels, buffer);
+    }
+
     /**
      * Register a loader with the 'sniffer'.
      * 
@@ -215,19 +267,27 @@ public abstract class GVRCompressedTextureLoader {
 
     /** Utility class for reading big- and little-endian numbers from a header */
     protected static final class Reader {
-        private final byte[] data;
+        private final ByteBuffer data;
         // private final int length;
         private int readPointer;
 
         /** Wrap a Reader around a byte array */
         protected Reader(byte[] data) {
+            this(ByteBuffer.wrap(data));
+        }
+
+        /**
+         * Wrap a Reader around a buffer. Reads start at offset 0, and do not
+         * move the buffer's position.
+         */
+        protected Reader(ByteBuffer data) {
             this.data = data;
-            // this.length = data.length;
+            // this.length = data.capacity();
             this.readPointer = 0;
         }
 
         private byte read() {
-            return data[readPointer++];
+            return data.get(readPointer++);
         }
 
         protected static final int INTEGER_BYTES = Integer.SIZE / Byte.SIZE;
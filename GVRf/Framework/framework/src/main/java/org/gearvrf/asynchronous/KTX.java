@@ -65,6 +65,11 @@ class KTX extends GVRCompressedTextureLoader {
 
     @Override
     public CompressedTexture parse(byte[] data, Reader reader) {
+        return parse(ByteBuffer.wrap(data), reader);
+    }
+
+    @Override
+    public CompressedTexture parse(ByteBuffer data, Reader reader) {
         reader.skip(SIGNATURE.length * Reader.INTEGER_BYTES);
 
         int endianness = reader.readLE(Reader.INTEGER_BYTES);
@@ -125,8 +130,8 @@ class KTX extends GVRCompressedTextureLoader {
         int headerSize = (SIGNATURE.length + 13) * Reader.INTEGER_BYTES
                 + bytesOfKeyValueData;
 
-        ByteBuffer buffer = ByteBuffer.wrap(data, headerSize, data.length
-                - headerSize);
+        ByteBuffer buffer = data.duplicate();
+        buffer.position(headerSize);
         return new KtxCompressedTexture(
         /* glBaseInternalFormat */glInternalFormat, pixelWidth, pixelHeight,
                 numberOfMipmapLevels, buffer, littleEndian);
@@ -158,25 +163,73 @@ class KTX extends GVRCompressedTextureLoader {
             this.littleEndian = littleEndian;
         }
 
-        @Override
-        public GVRCompressedTexture toTexture(GVRContext gvrContext, int quality) {
-
-            ByteBuffer data = getData();
-            ByteOrder defaultOrder = data.order();
-            ByteOrder dataOrder = littleEndian ? ByteOrder.LITTLE_ENDIAN
-                    : ByteOrder.BIG_ENDIAN;
-            int[]   outOffsets = new int[levels];
+        /*
+         * Find the offset and the size of each mipmap level. Each level is
+         * prefixed with its size, and padded to a multiple of 4 bytes.
+         */
+        private void readLevels(int[] outOffsets, int[] outSizes) {
+            ByteBuffer data = getData().duplicate();
+            data.order(littleEndian ? ByteOrder.LITTLE_ENDIAN
+                    : ByteOrder.BIG_ENDIAN);
 
             for (int fileLevel = 0; fileLevel < levels; ++fileLevel)
             {
-                data.order(dataOrder);
                 int imageSize = data.getInt();
-                data.order(defaultOrder);
                 int imagePadding = (4 - (imageSize & 0x03)) & 0x03;
 
                 outOffsets[fileLevel] = data.position();
+                outSizes[fileLevel] = imageSize;
                 data.position(data.position() + imageSize + imagePadding);
             }
+        }
+
+        @Override
+        GVRCompressedTexture toPreviewTexture(GVRContext gvrContext,
+                int quality, int maxSize) {
+            if (levels <= 1) {
+                return null;
+            }
+            int level = 1;
+            while (level < levels - 1
+                    && Math.max(width >> level, height >> level) > maxSize) {
+                ++level;
+            }
+            int[] offsets = new int[levels];
+            int[] sizes = new int[levels];
+            readLevels(offsets, sizes);
+
+            ByteBuffer data = getData();
+            int previewWidth = Math.max(width >> level, 1);
+            int previewHeight = Math.max(height >> level, 1);
+            GVRCompressedTexture result;
+            if (data.isDirect()) {
+                result = new GVRCompressedTexture(gvrContext, previewWidth,
+                        previewHeight, sizes[level], internalformat, data, 1,
+                        quality);
+            } else {
+                result = new GVRCompressedTexture(gvrContext, previewWidth,
+                        previewHeight, sizes[level], internalformat,
+                        data.array(), 1, quality);
+            }
+            result.setDataOffsets(new int[] { offsets[level] },
+                    new int[] { sizes[level] });
+            return result;
+        }
+
+        @Override
+        public GVRCompressedTexture toTexture(GVRContext gvrContext, int quality) {
+
+            ByteBuffer data = getData();
+            int[]   outOffsets = new int[levels];
+            int[]   outSizes = new int[levels];
+            readLevels(outOffsets, outSizes);
+
+            if (data.isDirect()) {
+                GVRCompressedTexture result = new GVRCompressedTexture(gvrContext,
+                        width, height, outSizes[0], internalformat, data, levels, quality);
+                result.setDataOffsets(outOffsets, outSizes);
+                return result;
+            }
             GVRCompressedTexture result = new GVRCompressedTexture(gvrContext,
                     width, height, imageSize, internalformat, data.array(), levels, quality);
             result.setDataOffsets(outOffsets);
@@ -0,0 +1,369 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gearvrf.asynchronous;
+
+import static org.gearvrf.utility.Threads.VERBOSE_SCHEDULING;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.gearvrf.utility.Log;
+import org.gearvrf.utility.Threads;
+import org.gearvrf.utility.Threads.Cancelable;
+
+/**
+ * The threads that run the {@link Throttler}'s resource loads.
+ *
+ * <p>
+ * A load goes through two stages, each with its own workers. The IO stage
+ * {@linkplain Job#open() opens} the resource - which may mean waiting on
+ * flash or downloading a file - and the CPU stage {@linkplain Job#run()
+ * decodes} it. Many IO workers can wait at once without taking a core away
+ * from decoding, while the CPU stage never has more workers than the
+ * decode thread limit.
+ *
+ * <p>
+ * Each worker has its own queue, sorted by priority and, within a priority,
+ * newest first. A worker takes the job at the head of its own queue, unless
+ * another worker's queue has a higher priority job at its head: then it
+ * steals that one. Jobs thus run in numerical priority order, and jobs are
+ * queued without a global lock, so submitting a load never waits for the
+ * scheduler.
+ *
+ * <p>
+ * A job is dropped, instead of run, if it is no longer
+ * {@linkplain Cancelable#stillWanted() wanted} when a worker takes it.
+ *
+ * <p>
+ * Workers are {@link Threads#spawn(Runnable) thread pool} threads, which go
+ * back to the pool after a while without work.
+ */
+class LoaderPool {
+
+    private static final String TAG = Log.tag(LoaderPool.class);
+
+    /** Idle workers go back to the thread pool after this long */
+    private static final long IDLE_TIMEOUT_MS = 2000;
+
+    /**
+     * A resource load.
+     */
+    interface Job extends Cancelable {
+        /**
+         * IO stage: get the resource ready to decode, typically by opening
+         * its stream.
+         *
+         * @return {@code false} if the load failed, and the failure has been
+         *         reported; the job is then not {@link #run()}.
+         */
+        boolean open();
+
+        /**
+         * The larger the number, the higher the priority. The value must not
+         * change until {@link #updatePriority()} is called.
+         */
+        int getPriority();
+
+        /**
+         * Make {@link #getPriority()} return the job's current priority.
+         * Called by {@link LoaderPool#reschedule(Job)}.
+         */
+        void updatePriority();
+    }
+
+    private final Stage io;
+    private final Stage cpu;
+
+    /** Orders jobs of the same priority, newest first */
+    private static final AtomicLong sequence = new AtomicLong();
+
+    /**
+     * @param ioThreads
+     *            Maximum number of jobs opening resources at any one time
+     * @param cpuThreads
+     *            Maximum number of jobs decoding resources at any one time
+     */
+    LoaderPool(int ioThreads, int cpuThreads) {
+        io = new Stage("io", ioThreads) {
+            @Override
+            void execute(Job job) {
+                if (job.open()) {
+                    cpu.submit(job);
+                }
+            }
+        };
+        cpu = new Stage("cpu", cpuThreads) {
+            @Override
+            void execute(Job job) {
+                job.run();
+            }
+        };
+    }
+
+    /**
+     * Queue a new job.
+     */
+    void submit(Job job) {
+        io.submit(job);
+    }
+
+    /**
+     * Move a queued job to its current priority, so that it runs before the
+     * other queued jobs with that priority. Does nothing, besides updating
+     * the job's priority, if the job is running or has already run.
+     */
+    void reschedule(Job job) {
+        job.updatePriority();
+        if (!io.reschedule(job) && !cpu.reschedule(job)
+                && VERBOSE_SCHEDULING) {
+            Log.d(TAG,
+                    "reschedule() didn't find %s - it must be running (or have already run)",
+                    job);
+        }
+    }
+
+    /**
+     * A queued job, with the priority it was queued at.
+     */
+    private static final class Entry implements Comparable<Entry> {
+        final Job job;
+        final int priority;
+        final long order;
+
+        Entry(Job job) {
+            this.job = job;
+            this.priority = job.getPriority();
+            this.order = sequence.getAndIncrement();
+        }
+
+        /** Highest priority first, then newest first */
+        @Override
+        public int compareTo(Entry other) {
+            if (priority != other.priority) {
+                return priority > other.priority ? -1 : 1;
+            }
+            return order > other.order ? -1 : (order == other.order ? 0 : 1);
+        }
+    }
+
+    /**
+     * A set of workers, and their queues.
+     */
+    private static abstract class Stage {
+        private final String name;
+        private final int workerCount;
+        /** Sorted by {@link Entry#compareTo(Entry)}: the head runs first */
+        private final ConcurrentSkipListMap<Entry, Job>[] queues;
+        /** One permit per queued job */
+        private final Semaphore ready = new Semaphore(0);
+        private final AtomicBoolean[] running;
+        private final AtomicInteger waiting = new AtomicInteger();
+        private final AtomicInteger nextWorker = new AtomicInteger();
+
+        @SuppressWarnings("unchecked")
+        Stage(String name, int workerCount) {
+            this.name = name;
+            this.workerCount = workerCount;
+            queues = new ConcurrentSkipListMap[workerCount];
+            running = new AtomicBoolean[workerCount];
+            for (int worker = 0; worker < workerCount; ++worker) {
+                queues[worker] = new ConcurrentSkipListMap<Entry, Job>();
+                running[worker] = new AtomicBoolean();
+            }
+        }
+
+        /** Run a job this stage has taken */
+        abstract void execute(Job job);
+
+        void submit(Job job) {
+            int worker = (nextWorker.getAndIncrement() & Integer.MAX_VALUE)
+                    % workerCount;
+            insert(job, worker);
+            ready.release();
+            // More jobs than idle workers to take them
+            if (ready.availablePermits() > waiting.get()) {
+                startWorker(worker);
+            }
+        }
+
+        /**
+         * Requeue a queued job at its new priority, ahead of the other jobs
+         * with that priority.
+         *
+         * @return {@code false} if the job is not queued in this stage
+         */
+        boolean reschedule(Job job) {
+            for (int worker = 0; worker < workerCount; ++worker) {
+                for (Entry entry : queues[worker].keySet()) {
+                    if (entry.job == job) {
+                        if (queues[worker].remove(entry) == null) {
+                            // Taken while we looked at it
+                            return false;
+                        }
+                        // Same permit: the job never stopped being queued
+                        insert(job, worker);
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+
+        private void insert(Job job, int worker) {
+            queues[worker].put(new Entry(job), job);
+        }
+
+        /**
+         * Start a worker that is not running, trying {@code first} first.
+         */
+        private void startWorker(int first) {
+            for (int index = 0; index < workerCount; ++index) {
+                final int worker = (first + index) % workerCount;
+                if (running[worker].compareAndSet(false, true)) {
+                    if (VERBOSE_SCHEDULING) {
+                        Log.d(TAG, "Starting %s worker %d", name, worker);
+                    }
+                    Threads.spawn(new Runnable() {
+                        @Override
+                        public void run() {
+                            work(worker);
+                        }
+                    });
+                    return;
+                }
+            }
+        }
+
+        private void work(int worker) {
+            boolean stopped = false;
+            try {
+                runJobs(worker);
+                stopped = true;
+            } finally {
+                if (!stopped) {
+                    // An Error (or a throwing stillWanted()) killed this
+                    // thread: free its slot, so the stage keeps going
+                    Log.e(TAG, "%s worker %d died", name, worker);
+                    running[worker].set(false);
+                    if (ready.availablePermits() > 0) {
+                        startWorker(worker);
+                    }
+                }
+            }
+        }
+
+        /**
+         * Run jobs until there are none for {@link #IDLE_TIMEOUT_MS}, or
+         * the thread is interrupted. Clears {@code running[worker]}.
+         */
+        private void runJobs(int worker) {
+            while (true) {
+                Job job;
+                try {
+                    job = take(worker);
+                } catch (InterruptedException e) {
+                    // Leave the pool thread; a fresh worker takes over any
+                    // queued jobs
+                    Thread.currentThread().interrupt();
+                    running[worker].set(false);
+                    if (ready.availablePermits() > 0) {
+                        startWorker(worker);
+                    }
+                    return;
+                }
+                if (job == null) {
+                    running[worker].set(false);
+                    // A job may have been queued after we timed out, but
+                    // before we stopped running
+                    if (ready.availablePermits() > 0
+                            && running[worker].compareAndSet(false, true)) {
+                        continue;
+                    }
+                    return;
+                }
+                if (!job.stillWanted()) {
+                    if (VERBOSE_SCHEDULING) {
+                        Log.d(TAG, "Dropping %s: no longer wanted", job);
+                    }
+                    continue;
+                }
+                try {
+                    execute(job);
+                } catch (Exception e) {
+                    Log.e(TAG, "%s: %s", job, e);
+                }
+            }
+        }
+
+        /**
+         * Wait for a job, and take it.
+         *
+         * @return The job, or {@code null} if there was no work for
+         *         {@link #IDLE_TIMEOUT_MS}
+         */
+        private Job take(int worker) throws InterruptedException {
+            waiting.incrementAndGet();
+            try {
+                if (!ready.tryAcquire(IDLE_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+                    return null;
+                }
+            } finally {
+                waiting.decrementAndGet();
+            }
+            // The permit guarantees there is a job; we may still miss it
+            // while it is being rescheduled
+            while (true) {
+                Job job = poll(worker);
+                if (job != null) {
+                    return job;
+                }
+                Thread.yield();
+            }
+        }
+
+        /**
+         * Take the highest priority job from the heads of the queues,
+         * preferring this worker's own queue on a tie.
+         */
+        private Job poll(int worker) {
+            while (true) {
+                Map.Entry<Entry, Job> best = null;
+                int owner = -1;
+                for (int index = 0; index < workerCount; ++index) {
+                    int other = (worker + index) % workerCount;
+                    Map.Entry<Entry, Job> head = queues[other].firstEntry();
+                    if (head != null && (best == null
+                            || head.getKey().priority > best.getKey().priority)) {
+                        best = head;
+                        owner = other;
+                    }
+                }
+                if (best == null) {
+                    return null;
+                }
+                if (queues[owner].remove(best.getKey()) != null) {
+                    return best.getValue();
+                }
+                // Another worker took it first: look again
+            }
+        }
+    }
+}
@@ -0,0 +1,597 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gearvrf.asynchronous;
+
+import java.io.IOException;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.WeakHashMap;
+
+import org.gearvrf.GVRAndroidResource;
+import org.gearvrf.GVRAndroidResource.CancelableCallback;
+import org.gearvrf.GVRBitmapTexture;
+import org.gearvrf.GVRCompressedTexture;
+import org.gearvrf.GVRContext;
+import org.gearvrf.GVRImage;
+import org.gearvrf.GVRTexture;
+import org.gearvrf.asynchronous.GVRAsynchronousResourceLoader.CancelableCallbackWrapper;
+import org.gearvrf.utility.Log;
+import org.gearvrf.utility.ResourceCache;
+import org.gearvrf.utility.Threads;
+
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+
+/**
+ * Async resource loading: progressive textures.
+ *
+ * <p>
+ * A progressive texture gets a small preview image first - a bitmap decoded
+ * with a large {@code inSampleSize}, or one of the smallest levels of a KTX
+ * mipmap chain - and is then upgraded in place to its full resolution image.
+ *
+ * <p>
+ * Upgrades wait in a queue, ordered by the request priority and then by the
+ * on-screen size the app reports. An upgrade only starts while the full
+ * resolution images fit in the texture memory budget; the others stay at
+ * their preview resolution until the app releases some textures or raises
+ * the budget. Bitmap upgrades are then decoded by the {@link Throttler}, at
+ * the request priority, like any other texture load.
+ *
+ * <p>
+ * A loaded full resolution image counts against the budget until the app
+ * releases its texture or the texture is garbage collected. The loader only
+ * holds textures strongly while their upgrade is waiting or loading.
+ *
+ * <p>
+ * Previews are loaded on a small {@link LoaderPool} of their own, also at
+ * the request priority, so a burst of progressive textures can't start a
+ * thread per texture. Resources that would have to be downloaded again for
+ * each read get no preview.
+ */
+class ProgressiveTextureLoader {
+
+    private static final String TAG = Log.tag(ProgressiveTextureLoader.class);
+
+    /** Largest width or height of a preview */
+    static final int PREVIEW_SIZE = 64;
+
+    /** Threads reading, and decoding, previews */
+    private static final int PREVIEW_IO_THREADS = 1;
+    private static final int PREVIEW_DECODE_THREADS = 2;
+
+    private static final LoaderPool sPool = new LoaderPool(PREVIEW_IO_THREADS,
+            PREVIEW_DECODE_THREADS);
+
+    /** How long the reclaimer waits for a collected texture */
+    private static final long RECLAIM_TIMEOUT_MS = 2000;
+
+    /*
+     * Upgrade queue; all guarded by the class lock
+     */
+
+    private static final PriorityQueue<Upgrade> sWaiting = new PriorityQueue<Upgrade>();
+    /** Upgrades waiting or loading */
+    private static final Map<GVRTexture, Upgrade> sUpgrades = new HashMap<GVRTexture, Upgrade>();
+    /** Loaded textures, and the budget they use */
+    private static final Map<GVRTexture, Charge> sCharges = new WeakHashMap<GVRTexture, Charge>();
+    private static final ReferenceQueue<GVRTexture> sCollected = new ReferenceQueue<GVRTexture>();
+    private static boolean sReclaiming = false;
+    private static long sBudget = 0;
+    private static long sUsed = 0;
+    private static long sSequence = 0;
+
+    static {
+        GVRContext.addResetOnRestartHandler(new Runnable() {
+
+            @Override
+            public void run() {
+                synchronized (ProgressiveTextureLoader.class) {
+                    sWaiting.clear();
+                    sUpgrades.clear();
+                    for (Charge charge : sCharges.values()) {
+                        charge.bytes = 0;
+                    }
+                    sCharges.clear();
+                    sBudget = 0;
+                    sUsed = 0;
+                }
+            }
+        });
+    }
+
+    /*
+     * The API
+     */
+
+    static void loadTexture(final GVRContext gvrContext,
+            final ResourceCache<GVRImage> textureCache,
+            final GVRTexture texture,
+            final CancelableCallback<GVRImage> callback,
+            final GVRAndroidResource resource, final int priority,
+            final int quality) {
+        sPool.submit(new Task(priority, callback, resource) {
+            @Override
+            public void run() {
+                final GVRImage cached = textureCache == null ? null
+                        : textureCache.get(resource);
+                if (cached != null) {
+                    Log.v("ASSET", "Texture: %s loaded from cache", cached.getFileName());
+                    callback.loaded(cached, resource);
+                    return;
+                }
+                CancelableCallback<GVRImage> actualCallback = textureCache == null
+                        ? callback
+                        : textureCache.wrapCallback(callback);
+                Upgrade upgrade = new Upgrade(gvrContext, texture,
+                        actualCallback, resource, priority, quality);
+                try {
+                    upgrade.loadPreview();
+                } catch (Throwable t) {
+                    // The full resolution load reports any real error
+                    Log.w(TAG, "No preview for %s: %s", resource, t);
+                }
+                schedule(upgrade);
+            }
+        });
+    }
+
+    /**
+     * Limit the memory the full resolution images of progressive textures
+     * take.
+     *
+     * @param bytes
+     *            Budget in bytes; 0 means no limit.
+     */
+    static void setBudget(long bytes) {
+        if (bytes < 0) {
+            throw new IllegalArgumentException("budget must be >= 0");
+        }
+        synchronized (ProgressiveTextureLoader.class) {
+            sBudget = bytes;
+        }
+        startUpgrades();
+    }
+
+    static synchronized long getBudget() {
+        return sBudget;
+    }
+
+    /**
+     * @return The bytes of full resolution images loaded, or loading, for
+     *         progressive textures
+     */
+    static synchronized long getUsed() {
+        reclaim();
+        return sUsed;
+    }
+
+    /**
+     * Set the on-screen size of a progressive texture, which orders its
+     * upgrade among the requests with the same priority.
+     *
+     * @param pixels
+     *            Screen area the texture covers, in pixels
+     */
+    static void setScreenSize(GVRTexture texture, float pixels) {
+        synchronized (ProgressiveTextureLoader.class) {
+            Upgrade upgrade = sUpgrades.get(texture);
+            if (upgrade == null) {
+                return;
+            }
+            if (sWaiting.remove(upgrade)) {
+                upgrade.screenSize = pixels;
+                sWaiting.add(upgrade);
+            } else {
+                upgrade.screenSize = pixels;
+            }
+        }
+        startUpgrades();
+    }
+
+    /**
+     * Forget a progressive texture the app no longer uses. Its full
+     * resolution image no longer counts against the budget, and its upgrade
+     * is canceled if it has not started.
+     */
+    static void release(GVRTexture texture) {
+        synchronized (ProgressiveTextureLoader.class) {
+            Charge charge = sCharges.remove(texture);
+            if (charge != null) {
+                giveBack(charge);
+            }
+            Upgrade upgrade = sUpgrades.remove(texture);
+            if (upgrade != null) {
+                if (!sWaiting.remove(upgrade)) {
+                    sUsed -= upgrade.fullSize;
+                }
+                upgrade.compressed = null;
+            } else if (charge == null) {
+                return;
+            }
+        }
+        startUpgrades();
+    }
+
+    /*
+     * Scheduling
+     */
+
+    private static void schedule(Upgrade upgrade) {
+        synchronized (ProgressiveTextureLoader.class) {
+            upgrade.sequence = sSequence++;
+            sUpgrades.put(upgrade.texture, upgrade);
+            sWaiting.add(upgrade);
+        }
+        startUpgrades();
+    }
+
+    /**
+     * Start the waiting upgrades, in order, while they fit in the budget.
+     */
+    private static void startUpgrades() {
+        List<Upgrade> ready = new ArrayList<Upgrade>();
+        synchronized (ProgressiveTextureLoader.class) {
+            reclaim();
+            Upgrade next;
+            while ((next = sWaiting.peek()) != null) {
+                if (!next.callback.stillWanted(next.resource)) {
+                    sWaiting.poll();
+                    sUpgrades.remove(next.texture);
+                    continue;
+                }
+                // A texture larger than the whole budget still loads, alone
+                if (sBudget > 0 && sUsed > 0 && sUsed + next.fullSize > sBudget) {
+                    if (!sReclaiming && !sCharges.isEmpty()) {
+                        // Wait for the app to drop some loaded textures
+                        sReclaiming = true;
+                        Threads.spawn(new Runnable() {
+                            @Override
+                            public void run() {
+                                awaitCollected();
+                            }
+                        });
+                    }
+                    break;
+                }
+                sWaiting.poll();
+                sUsed += next.fullSize;
+                ready.add(next);
+            }
+        }
+        for (Upgrade upgrade : ready) {
+            upgrade.start();
+        }
+    }
+
+    /**
+     * Give back the budget of loaded textures that have been garbage
+     * collected. Call with the class lock held.
+     */
+    private static void reclaim() {
+        Reference<? extends GVRTexture> collected;
+        while ((collected = sCollected.poll()) != null) {
+            giveBack((Charge) collected);
+        }
+    }
+
+    private static void giveBack(Charge charge) {
+        sUsed -= charge.bytes;
+        charge.bytes = 0;
+    }
+
+    /**
+     * Start waiting upgrades as loaded textures are collected, until none
+     * are waiting for budget.
+     */
+    private static void awaitCollected() {
+        while (true) {
+            Reference<? extends GVRTexture> collected;
+            boolean interrupted = false;
+            try {
+                collected = sCollected.remove(RECLAIM_TIMEOUT_MS);
+            } catch (InterruptedException e) {
+                collected = null;
+                interrupted = true;
+            }
+            boolean done;
+            synchronized (ProgressiveTextureLoader.class) {
+                if (collected != null) {
+                    giveBack((Charge) collected);
+                }
+                done = interrupted || sWaiting.isEmpty() || sCharges.isEmpty();
+                if (done) {
+                    // startUpgrades() starts another reclaimer if needed
+                    sReclaiming = false;
+                }
+            }
+            if (collected != null) {
+                startUpgrades();
+            }
+            if (done) {
+                if (interrupted) {
+                    Thread.currentThread().interrupt();
+                }
+                return;
+            }
+        }
+    }
+
+    /**
+     * Move a loaded upgrade's budget to its texture, which the loader no
+     * longer holds.
+     */
+    private static void finished(Upgrade upgrade) {
+        synchronized (ProgressiveTextureLoader.class) {
+            if (sUpgrades.remove(upgrade.texture) == upgrade) {
+                sCharges.put(upgrade.texture,
+                        new Charge(upgrade.texture, upgrade.fullSize));
+            }
+        }
+    }
+
+    /**
+     * The budget a loaded texture uses, given back when the texture is
+     * released or collected.
+     */
+    private static class Charge extends WeakReference<GVRTexture> {
+        /** 0 once given back */
+        long bytes;
+
+        Charge(GVRTexture texture, long bytes) {
+            super(texture, sCollected);
+            this.bytes = bytes;
+        }
+    }
+
+    /**
+     * Give back the budget of a started upgrade that will not complete.
+     *
+     * @return {@code false} if the upgrade had already been forgotten
+     */
+    private static boolean forget(Upgrade upgrade) {
+        synchronized (ProgressiveTextureLoader.class) {
+            if (sUpgrades.remove(upgrade.texture) != upgrade) {
+                return false;
+            }
+            sUsed -= upgrade.fullSize;
+            return true;
+        }
+    }
+
+    /**
+     * @return {@code false} if reading the resource again would mean
+     *         downloading it again, or is not possible at all
+     */
+    private static boolean canReread(GVRAndroidResource resource) {
+        switch (resource.getResourceType()) {
+        case INPUT_STREAM:
+            return false;
+        case NETWORK:
+            return resource.isUrlLocalCacheEnabled();
+        default:
+            return true;
+        }
+    }
+
+    /**
+     * A job for {@link #sPool}.
+     */
+    private static abstract class Task implements LoaderPool.Job {
+        private final int priority;
+        private final CancelableCallback<GVRImage> callback;
+        private final GVRAndroidResource resource;
+
+        Task(int priority, CancelableCallback<GVRImage> callback,
+                GVRAndroidResource resource) {
+            this.priority = priority;
+            this.callback = callback;
+            this.resource = resource;
+        }
+
+        @Override
+        public boolean open() {
+            // The task reads its resource when it runs
+            return true;
+        }
+
+        @Override
+        public int getPriority() {
+            return priority;
+        }
+
+        @Override
+        public void updatePriority() {
+        }
+
+        @Override
+        public boolean stillWanted() {
+            return callback.stillWanted(resource);
+        }
+    }
+
+    /**
+     * One progressive texture: its preview, and the pending full resolution
+     * load.
+     */
+    private static class Upgrade implements CancelableCallback<GVRImage>,
+            Comparable<Upgrade> {
+        final GVRContext gvrContext;
+        final GVRTexture texture;
+        final CancelableCallback<GVRImage> callback;
+        final GVRAndroidResource resource;
+        final int priority;
+        final int quality;
+
+        /** Bytes of the full resolution image */
+        long fullSize = 0;
+        float screenSize = 0;
+        long sequence;
+        boolean isCompressed = false;
+        volatile CompressedTexture compressed = null;
+
+        Upgrade(GVRContext gvrContext, GVRTexture texture,
+                CancelableCallback<GVRImage> callback,
+                GVRAndroidResource resource, int priority, int quality) {
+            this.gvrContext = gvrContext;
+            this.texture = texture;
+            this.callback = callback;
+            this.resource = resource;
+            this.priority = priority;
+            this.quality = quality;
+        }
+
+        /**
+         * Give the texture its preview image, and size the full resolution
+         * image.
+         */
+        void loadPreview() throws IOException {
+            GVRCompressedTextureLoader loader = resource.getCompressedLoader();
+            isCompressed = loader != null;
+            if (!canReread(resource)) {
+                // The full resolution load reads it, once
+                return;
+            }
+            if (isCompressed) {
+                CompressedTexture data = CompressedTexture.load(resource, loader);
+                fullSize = data.getDataSize();
+                GVRCompressedTexture preview = data.toPreviewTexture(
+                        gvrContext, quality, PREVIEW_SIZE);
+                if (preview != null) {
+                    texture.loaded(preview, resource);
+                }
+                // Keep a mapped file for the upgrade, but don't hold a heap
+                // copy of the whole texture while it waits for the budget
+                if (data.getData().isDirect()) {
+                    compressed = data;
+                }
+                return;
+            }
+
+            BitmapFactory.Options options = new BitmapFactory.Options();
+            options.inJustDecodeBounds = true;
+            try {
+                BitmapFactory.decodeStream(resource.getStream(), null, options);
+            } finally {
+                resource.closeStream();
+            }
+            if (options.outWidth <= 0 || options.outHeight <= 0) {
+                return;
+            }
+            fullSize = AsyncBitmapTexture.estimateDecodedSize(
+                    options.outWidth, options.outHeight);
+            if (Math.max(options.outWidth, options.outHeight) <= PREVIEW_SIZE * 2) {
+                return;
+            }
+            Bitmap bitmap;
+            try {
+                bitmap = AsyncBitmapTexture.decodeStream(resource.getStream(),
+                        PREVIEW_SIZE, PREVIEW_SIZE, true, null, false);
+            } finally {
+                resource.closeStream();
+            }
+            if (bitmap != null) {
+                texture.loaded(new GVRBitmapTexture(gvrContext, bitmap), resource);
+            }
+        }
+
+        /**
+         * Load the full resolution image.
+         */
+        void start() {
+            final CompressedTexture data = compressed;
+            compressed = null;
+            if (data == null) {
+                if (isCompressed) {
+                    // Not kept from the preview: parse it again
+                    AsyncCompressedTexture.loadTexture(gvrContext,
+                            CancelableCallbackWrapper.wrap(GVRCompressedTexture.class, this),
+                            resource, priority);
+                } else {
+                    AsyncBitmapTexture.loadTexture(gvrContext,
+                            CancelableCallbackWrapper.wrap(GVRBitmapTexture.class, this),
+                            resource, priority);
+                }
+                return;
+            }
+            sPool.submit(new Task(priority, this, resource) {
+                @Override
+                public void run() {
+                    try {
+                        loaded(data.toTexture(gvrContext, quality), resource);
+                    } catch (Throwable t) {
+                        Upgrade.this.failed(t, resource);
+                    }
+                }
+            });
+        }
+
+        @Override
+        public void loaded(GVRImage image, GVRAndroidResource androidResource) {
+            finished(this);
+            callback.loaded(image, androidResource);
+        }
+
+        @Override
+        public void failed(Throwable t, GVRAndroidResource androidResource) {
+            if (forget(this)) {
+                startUpgrades();
+            }
+            callback.failed(t, androidResource);
+        }
+
+        /**
+         * Asked once the upgrade has started: a load that is no longer wanted
+         * is dropped without calling {@link #failed(Throwable, GVRAndroidResource)
+         * failed()}, so give back its budget here.
+         */
+        @Override
+        public boolean stillWanted(GVRAndroidResource androidResource) {
+            if (callback.stillWanted(androidResource)) {
+                return true;
+            }
+            if (forget(this)) {
+                // Not from the loader's thread, which may hold its locks
+                Threads.spawn(new Runnable() {
+                    @Override
+                    public void run() {
+                        startUpgrades();
+                    }
+                });
+            }
+            return false;
+        }
+
+        @Override
+        public int compareTo(Upgrade another) {
+            // Higher priority first, then larger on screen, then oldest
+            if (priority != another.priority) {
+                return priority > another.priority ? -1 : 1;
+            }
+            if (screenSize != another.screenSize) {
+                return screenSize > another.screenSize ? -1 : 1;
+            }
+            return sequence < another.sequence ? -1
+                    : (sequence > another.sequence ? 1 : 0);
+        }
+    }
+}
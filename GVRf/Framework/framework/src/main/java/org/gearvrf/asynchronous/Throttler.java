@@ -22,7 +22,6 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
-import java.util.PriorityQueue;
 import java.util.concurrent.ConcurrentHashMap;
 
 import org.gearvrf.GVRAndroidResource;
@@ -31,16 +30,14 @@ import org.gearvrf.GVRAndroidResource.CancelableCallback;
 import org.gearvrf.GVRContext;
 import org.gearvrf.GVRHybridObject;
 import org.gearvrf.GVRMesh;
+import org.gearvrf.debug.GVRTracer;
 import org.gearvrf.utility.Exceptions;
 import org.gearvrf.utility.Log;
 import org.gearvrf.utility.RuntimeAssertion;
 import org.gearvrf.utility.Threads;
 import org.gearvrf.utility.Threads.Cancelable;
-import org.gearvrf.utility.Threads.ThreadLimiter;
-import org.gearvrf.utility.Threads.ThreadPolicyProvider;
 
 import android.graphics.Bitmap;
-import android.util.SparseArray;
 
 /**
  * Asynchronous, heterogeneous resource loading with integrated thread
@@ -87,7 +84,15 @@ class Throttler implements Scheduler {
      * suspended.
      */
     private static final int DECODE_THREAD_LIMIT = Math.max(CORE_COUNT - 1, 1);
-    
+
+    /**
+     * Max threads opening resources at any one time.
+     *
+     * Opening a resource mostly waits - on flash, or on the network - so
+     * these threads don't count against {@link #DECODE_THREAD_LIMIT}.
+     */
+    private static final int IO_THREAD_LIMIT = 4;
+
     /*
      * Singleton
      */
@@ -180,28 +185,33 @@ class Throttler implements Scheduler {
         @Override
         public void run() {
             INTERMEDIATE async = null;
+            GVRTracer.begin("AsyncLoader");
             try {
-                async = loadResource(); // load resource, on background thread
-            } catch (Throwable t) {
-                t.printStackTrace();
-                async = null;
-                callback.failed(t, resource);
-            } finally {
-                if (async != null) {
-                    final INTERMEDIATE loadedResource = async;
-                    try {
-                        OUTPUT gvrfResource = converter.convert(gvrContext,
-                                loadedResource);
-                        Log.v("ASSET", "Texture: loaded resource %s", resource.getResourceFilename());
-                        callback.loaded(gvrfResource, resource);
-                    } catch (Throwable t) {
-                        // Catch converter errors
-                        callback.failed(t, resource);
+                try {
+                    async = loadResource(); // load resource, on background thread
+                } catch (Throwable t) {
+                    t.printStackTrace();
+                    async = null;
+                    callback.failed(t, resource);
+                } finally {
+                    if (async != null) {
+                        final INTERMEDIATE loadedResource = async;
+                        try {
+                            OUTPUT gvrfResource = converter.convert(gvrContext,
+                                    loadedResource);
+                            Log.v("ASSET", "Texture: loaded resource %s", resource.getResourceFilename());
+                            callback.loaded(gvrfResource, resource);
+                        } catch (Throwable t) {
+                            // Catch converter errors
+                            callback.failed(t, resource);
+                        }
+                    } else {
+                        // loadResource() returned null
+                        callback.failed(new Throwable("Not able to load resource"), resource);
                     }
-                } else {
-                    // loadResource() returned null
-                    callback.failed(new Throwable("Not able to load resource"), resource);
                 }
+            } finally {
+                GVRTracer.end("AsyncLoader");
             }
         }
 
@@ -281,11 +291,12 @@ class Throttler implements Scheduler {
             return AsyncManager.get().getFactories();
         }
 
-        private final ThreadLimiter<PriorityCancelable> deviceThreadLimiter = new ThreadLimiter<PriorityCancelable>(
-                DECODE_THREAD_LIMIT,
-                new PriorityCancelingLifoThreadPolicyProvider(),
-                /* Don't exceed DECODE_THREAD_LIMIT when a download gets wedged */
-                Integer.MAX_VALUE);
+        /*
+         * A wedged download only holds up an IO thread: we never exceed
+         * DECODE_THREAD_LIMIT
+         */
+        private final LoaderPool loaderPool = new LoaderPool(IO_THREAD_LIMIT,
+                DECODE_THREAD_LIMIT);
 
         <OUTPUT extends GVRHybridObject, INTER> void registerCallback(GVRContext gvrContext,
                 Class<OUTPUT> outClass,
@@ -305,8 +316,6 @@ class Throttler implements Scheduler {
                 }
             }
 
-            ThreadLimiter<PriorityCancelable> threadLimiter = deviceThreadLimiter;
-
             synchronized (pendingRequests) {
                 PendingRequest<OUTPUT, INTER> pending = (PendingRequest<OUTPUT, INTER>) pendingRequests
                         .get(request);
@@ -319,20 +328,12 @@ class Throttler implements Scheduler {
                         Log.d(TAG, "Thread %d: rescheduling %s for request %s",
                                 threadId(), pending, request);
                     }
-                    threadLimiter.reschedule(pending);
+                    loaderPool.reschedule(pending);
                 } else {
                     // There is no current request for this resource. Create a
                     // new PendingRequest, using a threadFactory to create the
-                    // appropriate AsyncLoader.
-                    try
-                    {
-                        request.openStream();
-                    }
-                    catch (Exception ex)
-                    {
-                        callback.failed(ex, request);
-                        return;
-                    }
+                    // appropriate AsyncLoader. The stream is opened on an IO
+                    // thread, not on the caller's.
                     pending = new PendingRequest<OUTPUT, INTER>(gvrContext,
                             request, callback, priority, outClass);
 
@@ -342,13 +343,13 @@ class Throttler implements Scheduler {
                         Log.d(TAG, "Thread %d: spawning %s for request %s",
                                 threadId(), pending, request);
                     }
-                    threadLimiter.spawn(pending);
+                    loaderPool.submit(pending);
                 }
             }
         }
 
         private class PendingRequest<OUTPUT extends GVRHybridObject, INTER> implements
-                CancelableCallback<OUTPUT>, PriorityCancelable {
+                CancelableCallback<OUTPUT>, LoaderPool.Job {
 
             private final String TAG = Log.tag(PendingRequest.class);
 
@@ -357,7 +358,7 @@ class Throttler implements Scheduler {
             private final GVRAndroidResource request;
             private final List<CancelableCallback<OUTPUT>> callbacks = new ArrayList<CancelableCallback<OUTPUT>>(1);
             private final Cancelable cancelable;
-            private int priority = EMPTY_LIST;
+            private volatile int priority = EMPTY_LIST;
             private int highestPriority = priority;
 
             public PendingRequest(GVRContext gvrContext,
@@ -502,7 +503,18 @@ class Throttler implements Scheduler {
                 return false;
             }
 
-            // PriorityCancelable
+            // LoaderPool.Job
+
+            @Override
+            public boolean open() {
+                try {
+                    request.openStream();
+                    return true;
+                } catch (Exception ex) {
+                    failed(ex, request);
+                    return false;
+                }
+            }
 
             @Override
             public void run() {
@@ -511,6 +523,12 @@ class Throttler implements Scheduler {
 
             @Override
             public boolean stillWanted() {
+                synchronized (pendingRequests) {
+                    return trimCallbacks();
+                }
+            }
+
+            private boolean trimCallbacks() {
                 List<CancelableCallback<OUTPUT>> canceled = new ArrayList<CancelableCallback<OUTPUT>>(
                         callbacks.size());
                 for (CancelableCallback<OUTPUT> callback : callbacks) {
@@ -533,6 +551,8 @@ class Throttler implements Scheduler {
                         throw new RuntimeAssertion("removed = %s, this = %s",
                                 removed, this);
                     }
+                    // Opened by open(), if we got that far
+                    request.closeStream();
                 }
 
                 return cancel != true;
@@ -550,142 +570,4 @@ class Throttler implements Scheduler {
             }
         }
     }
-
-    private interface PriorityCancelable extends Cancelable {
-
-        /**
-         * The value that {@link #getPriority()} returns may be random until
-         * {@link #updatePriority()} is called; once {@link #updatePriority()}
-         * has been called the value that {@link #getPriority()} returns should
-         * not change until {@link #updatePriority()} is called again.
-         * 
-         * This allows {@link ThreadPolicyProvider#reschedule(Cancelable)} to
-         * detect that a group's priority has changed because another request
-         * has been added.
-         */
-        void updatePriority();
-
-        /**
-         * Every request has a priority: the larger the number, the higher
-         * priority. That is, {@link Throttler#LOWEST_PRIORITY} is a negative
-         * number, while {@link Throttler#HIGHEST_PRIORITY} is a positive
-         * number.
-         */
-        int getPriority();
-    }
-
-    private static class PriorityGroup implements Comparable<PriorityGroup> {
-        private int priority;
-        final List<PriorityCancelable> content = new ArrayList<PriorityCancelable>();
-
-        public PriorityGroup(int priority) {
-            this.priority = priority;
-        }
-
-        @Override
-        public int compareTo(PriorityGroup another) {
-            // Reverse order: Integer.MAX_VALUE is a higher priority than
-            // Integer.MIN_VALUE
-            return another.priority - priority;
-        }
-    }
-
-    private static class PriorityCancelingLifoThreadPolicyProvider implements
-            ThreadPolicyProvider<PriorityCancelable> {
-
-        private final PriorityQueue<PriorityGroup> queue = new PriorityQueue<PriorityGroup>();
-        private final SparseArray<PriorityGroup> groups = new SparseArray<PriorityGroup>();
-
-        private void addGroup(int priority, PriorityGroup newGroup) {
-            queue.add(newGroup);
-            groups.put(priority, newGroup);
-        }
-
-        private void removeGroup(PriorityGroup group) {
-            queue.remove(group);
-            groups.delete(group.priority);
-        }
-
-        @Override
-        public void put(PriorityCancelable procedure) {
-            int priority = procedure.getPriority();
-
-            PriorityGroup group = groups.get(priority);
-            if (group != null) {
-                group.content.add(procedure);
-                return;
-            }
-
-            PriorityGroup newGroup = new PriorityGroup(priority);
-            newGroup.content.add(procedure);
-            addGroup(priority, newGroup);
-        }
-
-        @Override
-        public boolean isEmpty() {
-            while (queue.size() > 0) {
-                PriorityGroup first = queue.peek();
-
-                List<Cancelable> cancel = new ArrayList<Cancelable>();
-                for (Cancelable cancelable : first.content) {
-                    // Find cancelable requests
-                    if (cancelable.stillWanted() != true) {
-                        cancel.add(cancelable);
-                    }
-                }
-                first.content.removeAll(cancel);
-
-                if (first.content.size() > 0) {
-                    return false;
-                }
-
-                // remove empty group
-                removeGroup(first);
-            }
-
-            return true;
-        }
-
-        @Override
-        public Runnable get() {
-            PriorityGroup first = queue.peek();
-            if (first == null) {
-                return null;
-            }
-
-            List<PriorityCancelable> content = first.content;
-            Cancelable threadProc = content.remove(content.size() - 1);
-            if (content.isEmpty()) {
-                removeGroup(first);
-            }
-            return threadProc;
-        }
-
-        @Override
-        public void reschedule(PriorityCancelable threadProc) {
-            int priority = threadProc.getPriority();
-            threadProc.updatePriority();
-            int newPriority = threadProc.getPriority();
-
-            PriorityGroup group = groups.get(priority);
-            if (group != null) {
-                if (group.content.remove(threadProc)) {
-                    if (priority == newPriority) {
-
-                        group.content.add(threadProc);
-                    } else {
-                        put(threadProc);
-                    }
-                    if (group.content.isEmpty()) {
-                        removeGroup(group);
-                    }
-                } else if (VERBOSE_SCHEDULING) {
-                    Log.d(TAG,
-                            "reschedule() didn't find %s - it must be running (or have already run)",
-                            threadProc);
-                }
-                return;
-            }
-        }
-    }
 }
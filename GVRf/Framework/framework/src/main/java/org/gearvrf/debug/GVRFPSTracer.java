@@ -15,19 +15,19 @@
 
 package org.gearvrf.debug;
 
-import java.util.LinkedList;
-import java.util.List;
-import java.util.ListIterator;
-
 import org.gearvrf.GVRTime;
 
 /**
  * FPS tracer with smoothing. It accumulates frames in latest T seconds, and compute the frames per second in this
  * time window.
+ *
+ * The frame times are kept in a ring buffer, which only grows if the frame rate goes up.
  */
 public class GVRFPSTracer {
     protected GVRStatsLine.GVRStandardColumn<Float> mStatColumn;
-    protected List<Long> mTimestamps;
+    protected long[] mTimestamps;
+    protected int mFirst;
+    protected int mCount;
 
     private static int BUFFER_SECONDS = 3;
 
@@ -37,7 +37,7 @@ public class GVRFPSTracer {
      */
     public GVRFPSTracer(String name) {
         mStatColumn = new GVRStatsLine.GVRStandardColumn<Float>(name);
-        mTimestamps = new LinkedList<Long>();
+        mTimestamps = new long[BUFFER_SECONDS * 64];
     }
 
     /**
@@ -54,17 +54,22 @@ public class GVRFPSTracer {
     public synchronized void tick() {
         long currentTime = GVRTime.getMilliTime();
         long cutoffTime = currentTime - BUFFER_SECONDS * 1000;
-        ListIterator<Long> it = mTimestamps.listIterator();
-        while (it.hasNext()) {
-            Long timestamp = it.next();
-            if (timestamp < cutoffTime) {
-                it.remove();
-            } else {
-                break;
-            }
+        while (mCount > 0 && mTimestamps[mFirst] < cutoffTime) {
+            mFirst = (mFirst + 1) % mTimestamps.length;
+            --mCount;
         }
 
-        mTimestamps.add(currentTime);
-        mStatColumn.addValue(((float)mTimestamps.size()) / BUFFER_SECONDS);
+        if (mCount == mTimestamps.length) {
+            // Unwrap into a larger ring
+            long[] timestamps = new long[mCount * 2];
+            int tail = mCount - mFirst;
+            System.arraycopy(mTimestamps, mFirst, timestamps, 0, tail);
+            System.arraycopy(mTimestamps, 0, timestamps, tail, mFirst);
+            mTimestamps = timestamps;
+            mFirst = 0;
+        }
+        mTimestamps[(mFirst + mCount) % mTimestamps.length] = currentTime;
+        ++mCount;
+        mStatColumn.addValue(((float)mCount) / BUFFER_SECONDS);
     }
 }
@@ -0,0 +1,402 @@
+/* Copyright 2016 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gearvrf.debug;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Process-wide registry of named metrics: counters, gauges and latency
+ * histograms.
+ *
+ * Recording a value is lock-free and does not allocate, so the metrics can be
+ * updated every frame from the GL thread. Look a metric up once, keep the
+ * reference, and update it as often as needed:
+ *
+ * <pre>
+ * private static final GVRMetrics.Histogram sCullTime = GVRMetrics.histogram("frame.cull");
+ * ...
+ * sCullTime.record(System.nanoTime() - start);
+ * </pre>
+ *
+ * The framework records the phases of each frame under the names starting
+ * with {@code "frame."}. You can read the metrics with {@link #dump()} or
+ * {@link #dumpJson()}, or with the {@code metrics} and {@code metrics-json}
+ * commands of the {@link DebugServer debug shell.}
+ */
+public final class GVRMetrics {
+    private static final ConcurrentMap<String, Counter> sCounters = new ConcurrentHashMap<String, Counter>();
+    private static final ConcurrentMap<String, Gauge> sGauges = new ConcurrentHashMap<String, Gauge>();
+    private static final ConcurrentMap<String, Histogram> sHistograms = new ConcurrentHashMap<String, Histogram>();
+
+    private static volatile boolean sEnabled = true;
+
+    private GVRMetrics() {
+    }
+
+    /**
+     * Enable or disable the framework's own instrumentation.
+     *
+     * Metrics can still be updated directly while this is off.
+     */
+    public static void setEnabled(boolean enabled) {
+        sEnabled = enabled;
+    }
+
+    public static boolean isEnabled() {
+        return sEnabled;
+    }
+
+    /**
+     * Get a counter, creating it if needed.
+     */
+    public static Counter counter(String name) {
+        Counter metric = sCounters.get(name);
+        if (metric == null) {
+            Counter created = new Counter(name);
+            metric = sCounters.putIfAbsent(name, created);
+            if (metric == null) {
+                metric = created;
+            }
+        }
+        return metric;
+    }
+
+    /**
+     * Get a gauge, creating it if needed.
+     */
+    public static Gauge gauge(String name) {
+        Gauge metric = sGauges.get(name);
+        if (metric == null) {
+            Gauge created = new Gauge(name);
+            metric = sGauges.putIfAbsent(name, created);
+            if (metric == null) {
+                metric = created;
+            }
+        }
+        return metric;
+    }
+
+    /**
+     * Get a latency histogram, creating it if needed.
+     */
+    public static Histogram histogram(String name) {
+        Histogram metric = sHistograms.get(name);
+        if (metric == null) {
+            Histogram created = new Histogram(name);
+            metric = sHistograms.putIfAbsent(name, created);
+            if (metric == null) {
+                metric = created;
+            }
+        }
+        return metric;
+    }
+
+    /**
+     * Reset all counters and histograms. Gauges keep their value.
+     */
+    public static void reset() {
+        for (Counter counter : sCounters.values()) {
+            counter.reset();
+        }
+        for (Histogram histogram : sHistograms.values()) {
+            histogram.reset();
+        }
+    }
+
+    /**
+     * A count of events, that only goes up until it is reset.
+     */
+    public static final class Counter {
+        private final String mName;
+        private final AtomicLong mValue = new AtomicLong();
+
+        private Counter(String name) {
+            mName = name;
+        }
+
+        public String getName() {
+            return mName;
+        }
+
+        public void increment() {
+            mValue.incrementAndGet();
+        }
+
+        public void add(long delta) {
+            mValue.addAndGet(delta);
+        }
+
+        public long get() {
+            return mValue.get();
+        }
+
+        public void reset() {
+            mValue.set(0);
+        }
+    }
+
+    /**
+     * The current value of something, such as a queue depth.
+     */
+    public static final class Gauge {
+        private final String mName;
+        private volatile long mValue;
+
+        private Gauge(String name) {
+            mName = name;
+        }
+
+        public String getName() {
+            return mName;
+        }
+
+        public void set(long value) {
+            mValue = value;
+        }
+
+        public long get() {
+            return mValue;
+        }
+    }
+
+    /**
+     * Distribution of durations, in nanoseconds.
+     *
+     * The buckets are fixed powers of two, from under 1 microsecond (2^10
+     * nanoseconds) to over 1 second (2^30 nanoseconds), so percentiles are
+     * accurate to within a factor of two. The count, sum and maximum are
+     * exact.
+     */
+    public static final class Histogram {
+        private static final int FIRST_BUCKET_SHIFT = 10;
+        private static final int BUCKET_COUNT = 22;
+
+        private final String mName;
+        private final AtomicLongArray mBuckets = new AtomicLongArray(BUCKET_COUNT);
+        private final AtomicLong mCount = new AtomicLong();
+        private final AtomicLong mSum = new AtomicLong();
+        private final AtomicLong mMax = new AtomicLong();
+
+        private Histogram(String name) {
+            mName = name;
+        }
+
+        public String getName() {
+            return mName;
+        }
+
+        /**
+         * Record a duration.
+         *
+         * @param nanos
+         *            Duration in nanoseconds; negative values count as 0.
+         */
+        public void record(long nanos) {
+            if (nanos < 0) {
+                nanos = 0;
+            }
+            mBuckets.incrementAndGet(bucketOf(nanos));
+            mCount.incrementAndGet();
+            mSum.addAndGet(nanos);
+
+            long max = mMax.get();
+            while (nanos > max && !mMax.compareAndSet(max, nanos)) {
+                max = mMax.get();
+            }
+        }
+
+        public long getCount() {
+            return mCount.get();
+        }
+
+        public long getSum() {
+            return mSum.get();
+        }
+
+        public long getMax() {
+            return mMax.get();
+        }
+
+        public long getMean() {
+            long count = mCount.get();
+            return count > 0 ? mSum.get() / count : 0;
+        }
+
+        /**
+         * Estimate a percentile.
+         *
+         * @param percent
+         *            0 to 100
+         * @return The upper bound, in nanoseconds, of the bucket holding the
+         *         percentile; 0 if nothing has been recorded.
+         */
+        public long getPercentile(double percent) {
+            long[] buckets = new long[BUCKET_COUNT];
+            long count = 0;
+            for (int i = 0; i < BUCKET_COUNT; ++i) {
+                buckets[i] = mBuckets.get(i);
+                count += buckets[i];
+            }
+            if (count == 0) {
+                return 0;
+            }
+            long rank = (long) Math.ceil(count * Math.min(Math.max(percent, 0), 100) / 100);
+            long seen = 0;
+            for (int i = 0; i < BUCKET_COUNT - 1; ++i) {
+                seen += buckets[i];
+                if (seen >= Math.max(rank, 1)) {
+                    return Math.min(upperBound(i), mMax.get());
+                }
+            }
+            return mMax.get();
+        }
+
+        /**
+         * @return The number of values recorded in each bucket.
+         */
+        public long[] getBucketCounts() {
+            long[] buckets = new long[BUCKET_COUNT];
+            for (int i = 0; i < BUCKET_COUNT; ++i) {
+                buckets[i] = mBuckets.get(i);
+            }
+            return buckets;
+        }
+
+        /**
+         * @return The exclusive upper bound of a bucket, in nanoseconds; the
+         *         last bucket has no upper bound.
+         */
+        public static long upperBound(int bucket) {
+            return bucket < BUCKET_COUNT - 1 ? 1L << (FIRST_BUCKET_SHIFT + bucket) : Long.MAX_VALUE;
+        }
+
+        public void reset() {
+            for (int i = 0; i < BUCKET_COUNT; ++i) {
+                mBuckets.set(i, 0);
+            }
+            mCount.set(0);
+            mSum.set(0);
+            mMax.set(0);
+        }
+
+        private static int bucketOf(long nanos) {
+            int bits = 64 - Long.numberOfLeadingZeros(nanos);
+            return Math.min(Math.max(bits - FIRST_BUCKET_SHIFT, 0), BUCKET_COUNT - 1);
+        }
+    }
+
+    /**
+     * @return A human readable listing of all the metrics, sorted by name;
+     *         durations are in milliseconds.
+     */
+    public static String dump() {
+        StringBuilder sb = new StringBuilder();
+        for (Counter counter : sorted(sCounters).values()) {
+            sb.append(String.format("%s: %d", counter.getName(), counter.get()));
+            sb.append(System.lineSeparator());
+        }
+        for (Gauge gauge : sorted(sGauges).values()) {
+            sb.append(String.format("%s: %d", gauge.getName(), gauge.get()));
+            sb.append(System.lineSeparator());
+        }
+        for (Histogram histogram : sorted(sHistograms).values()) {
+            sb.append(String.format("%s: n=%d mean=%.3fms p50=%.3fms p90=%.3fms p99=%.3fms max=%.3fms",
+                    histogram.getName(), histogram.getCount(),
+                    toMillis(histogram.getMean()), toMillis(histogram.getPercentile(50)),
+                    toMillis(histogram.getPercentile(90)), toMillis(histogram.getPercentile(99)),
+                    toMillis(histogram.getMax())));
+            sb.append(System.lineSeparator());
+        }
+        return sb.toString();
+    }
+
+    /**
+     * @return All the metrics, as a JSON object with {@code "counters"},
+     *         {@code "gauges"} and {@code "histograms"} members. Durations are
+     *         in nanoseconds; {@code "buckets"} lists the count of each
+     *         histogram bucket, whose upper bounds are 2^10, 2^11 ...
+     *         nanoseconds.
+     */
+    public static String dumpJson() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("{\"counters\":{");
+        boolean first = true;
+        for (Counter counter : sorted(sCounters).values()) {
+            first = appendName(sb, counter.getName(), first);
+            sb.append(counter.get());
+        }
+        sb.append("},\"gauges\":{");
+        first = true;
+        for (Gauge gauge : sorted(sGauges).values()) {
+            first = appendName(sb, gauge.getName(), first);
+            sb.append(gauge.get());
+        }
+        sb.append("},\"histograms\":{");
+        first = true;
+        for (Histogram histogram : sorted(sHistograms).values()) {
+            first = appendName(sb, histogram.getName(), first);
+            sb.append("{\"count\":").append(histogram.getCount());
+            sb.append(",\"sum\":").append(histogram.getSum());
+            sb.append(",\"max\":").append(histogram.getMax());
+            sb.append(",\"p50\":").append(histogram.getPercentile(50));
+            sb.append(",\"p90\":").append(histogram.getPercentile(90));
+            sb.append(",\"p99\":").append(histogram.getPercentile(99));
+            sb.append(",\"buckets\":[");
+            long[] buckets = histogram.getBucketCounts();
+            for (int i = 0; i < buckets.length; ++i) {
+                if (i > 0) {
+                    sb.append(',');
+                }
+                sb.append(buckets[i]);
+            }
+            sb.append("]}");
+        }
+        sb.append("}}");
+        return sb.toString();
+    }
+
+    private static <T> Map<String, T> sorted(Map<String, T> metrics) {
+        return new TreeMap<String, T>(metrics);
+    }
+
+    private static boolean appendName(StringBuilder sb, String name, boolean first) {
+        if (!first) {
+            sb.append(',');
+        }
+        sb.append('"');
+        for (int i = 0; i < name.length(); ++i) {
+            char c = name.charAt(i);
+            if (c == '"' || c == '\\') {
+                sb.append('\\').append(c);
+            } else if (c < 0x20) {
+                sb.append(String.format("\\u%04x", (int) c));
+            } else {
+                sb.append(c);
+            }
+        }
+        sb.append("\":");
+        return false;
+    }
+
+    private static double toMillis(long nanos) {
+        return nanos / 1e6;
+    }
+}
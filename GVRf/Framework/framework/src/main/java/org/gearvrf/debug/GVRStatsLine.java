@@ -20,7 +20,6 @@ import java.util.ArrayList;
 import java.util.List;
 
 import org.gearvrf.GVRTime;
-import org.gearvrf.debug.Stats.DescriptiveResult;
 import org.gearvrf.utility.Log;
 
 /**
@@ -219,12 +218,18 @@ public class GVRStatsLine {
      * This class represents a simple statistic column. It prints a summary of the data collected
      * during a period. If the data size is 1, it prints the value itself. If the data size is > 1,
      * it prints the mean, the count and the standard deviation.
+     *
+     * The column keeps running sums rather than the values themselves, so adding a value
+     * does not allocate. For lock-free metrics that are shared between threads, see
+     * {@link GVRMetrics}.
      */
     public static class GVRStandardColumn<T extends Number> extends GVRColumnBase<T> {
         protected static String sDefaultDecimalFormat = "0.##";
         protected DecimalFormat mDecimalFormat = new DecimalFormat(sDefaultDecimalFormat);
 
-        protected List<T> mData = new ArrayList<T>();
+        protected int mCount;
+        protected double mSum;
+        protected double mSumOfSquares;
 
         /**
          * Constructor.
@@ -238,12 +243,12 @@ public class GVRStatsLine {
         @Override
         public synchronized void reset() {
             super.reset();
-            mData.clear();
+            clear();
         }
 
         @Override
         protected synchronized void onStartLine() {
-            mData.clear();
+            clear();
         }
 
         @Override
@@ -252,26 +257,36 @@ public class GVRStatsLine {
                 return;
             }
 
-            mData.add(value);
+            double v = value.doubleValue();
+            mCount += 1;
+            mSum += v;
+            mSumOfSquares += v * v;
         }
 
         @Override
         public synchronized Object getStat() {
-            switch (mData.size()) {
+            switch (mCount) {
                 case 0:
                     return "n/a";
                 case 1: {
-                    return formatDecimal(mData.get(0).doubleValue());
+                    return formatDecimal(mSum);
                 }
                 default: {
-                    DescriptiveResult res = Stats.computeDescriptive(mData);
+                    double mean = mSum / mCount;
+                    double variance = (mSumOfSquares - mSum * mean) / (mCount - 1);
                     return String.format("%s (n=%d, sd=%s)",
-                                         formatDecimal(res.mean), mData.size(),
-                                         formatDecimal(res.stdev));
+                                         formatDecimal(mean), mCount,
+                                         formatDecimal(Math.sqrt(Math.max(variance, 0))));
                 }
             }
         }
 
+        private void clear() {
+            mCount = 0;
+            mSum = 0;
+            mSumOfSquares = 0;
+        }
+
         protected String formatDecimal(double value) {
             return mDecimalFormat.format(value);
         }
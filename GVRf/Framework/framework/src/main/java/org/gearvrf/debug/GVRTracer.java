@@ -0,0 +1,192 @@
+/* Copyright 2016 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gearvrf.debug;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import android.os.Process;
+
+/**
+ * Records where the time of each frame goes, as nested spans on each thread.
+ *
+ * The framework marks the phases of a frame - the frame handlers, the
+ * animation engine, picking, the background loaders and, in native code,
+ * culling, sorting and drawing - with {@link #begin(String)} and
+ * {@link #end(String)} calls. You can add your own spans the same way:
+ *
+ * <pre>
+ * GVRTracer.begin("updateHud");
+ * try {
+ *     ...
+ * } finally {
+ *     GVRTracer.end("updateHud");
+ * }
+ * </pre>
+ *
+ * Events go into fixed-size ring buffers (one for Java, one for native code),
+ * so a long trace keeps the most recent events. {@link #exportChromeTrace()}
+ * returns them in the Chrome trace event format, which you can load in
+ * {@code chrome://tracing}; the {@link DebugServer debug shell} has
+ * {@code trace-start}, {@code trace-stop} and {@code trace-dump} commands.
+ *
+ * Tracing is off by default. While it is off, a span costs a volatile read,
+ * and the buffers are not even allocated.
+ */
+public final class GVRTracer {
+    private static final int CAPACITY = 1 << 16; // power of two
+    private static final byte BEGIN = 'B';
+    private static final byte END = 'E';
+
+    private static volatile boolean sEnabled = false;
+    private static volatile Buffer sBuffer = null;
+
+    private GVRTracer() {
+    }
+
+    private static final class Buffer {
+        final AtomicLong mNext = new AtomicLong();
+        final String[] mNames = new String[CAPACITY];
+        final long[] mTimes = new long[CAPACITY];
+        final int[] mThreads = new int[CAPACITY];
+        final byte[] mPhases = new byte[CAPACITY];
+    }
+
+    /**
+     * Start or stop tracing, in both Java and native code.
+     */
+    public static synchronized void setEnabled(boolean enabled) {
+        if (enabled && sBuffer == null) {
+            sBuffer = new Buffer();
+        }
+        NativeTracer.setEnabled(enabled);
+        sEnabled = enabled;
+    }
+
+    public static boolean isEnabled() {
+        return sEnabled;
+    }
+
+    /**
+     * Begin a span on the current thread.
+     *
+     * @param name
+     *            Span name; use a constant, as only the reference is kept.
+     */
+    public static void begin(String name) {
+        if (sEnabled) {
+            record(BEGIN, name);
+        }
+    }
+
+    /**
+     * End the current thread's span with this name.
+     */
+    public static void end(String name) {
+        if (sEnabled) {
+            record(END, name);
+        }
+    }
+
+    /**
+     * Drop the recorded events.
+     */
+    public static synchronized void clear() {
+        if (sBuffer != null) {
+            sBuffer = new Buffer();
+        }
+        NativeTracer.clear();
+    }
+
+    /**
+     * Export the recorded events, from Java and native code.
+     *
+     * The events are read while they may still be written: stop tracing first
+     * for a consistent trace.
+     *
+     * @return A Chrome trace event JSON object
+     */
+    public static String exportChromeTrace() {
+        final int pid = Process.myPid();
+        StringBuilder sb = new StringBuilder();
+        sb.append("{\"traceEvents\":[");
+        boolean first = true;
+
+        final Buffer buffer = sBuffer;
+        if (buffer != null) {
+            long next = buffer.mNext.get();
+            long count = Math.min(next, CAPACITY);
+            for (long i = next - count; i < next; ++i) {
+                int slot = (int) (i & (CAPACITY - 1));
+                String name = buffer.mNames[slot];
+                if (name == null) {
+                    continue;
+                }
+                if (!first) {
+                    sb.append(',');
+                }
+                first = false;
+                sb.append("{\"name\":\"");
+                appendEscaped(sb, name);
+                long time = buffer.mTimes[slot];
+                sb.append("\",\"cat\":\"java\",\"ph\":\"").append((char) buffer.mPhases[slot]);
+                sb.append("\",\"ts\":").append(time / 1000).append('.');
+                sb.append(String.format("%03d", time % 1000));
+                sb.append(",\"pid\":").append(pid);
+                sb.append(",\"tid\":").append(buffer.mThreads[slot]).append('}');
+            }
+        }
+
+        String nativeEvents = NativeTracer.exportEvents(pid);
+        if (nativeEvents != null && nativeEvents.length() > 0) {
+            if (!first) {
+                sb.append(',');
+            }
+            sb.append(nativeEvents);
+        }
+        sb.append("],\"displayTimeUnit\":\"ms\"}");
+        return sb.toString();
+    }
+
+    private static void record(byte phase, String name) {
+        final Buffer buffer = sBuffer;
+        if (buffer == null) {
+            return;
+        }
+        int slot = (int) (buffer.mNext.getAndIncrement() & (CAPACITY - 1));
+        buffer.mTimes[slot] = System.nanoTime();
+        buffer.mThreads[slot] = Process.myTid();
+        buffer.mPhases[slot] = phase;
+        buffer.mNames[slot] = name;
+    }
+
+    private static void appendEscaped(StringBuilder sb, String name) {
+        for (int i = 0; i < name.length(); ++i) {
+            char c = name.charAt(i);
+            if (c == '"' || c == '\\') {
+                sb.append('\\');
+            }
+            sb.append(c < 0x20 ? ' ' : c);
+        }
+    }
+}
+
+class NativeTracer {
+    static native void setEnabled(boolean enabled);
+
+    static native String exportEvents(int pid);
+
+    static native void clear();
+}
@@ -70,6 +70,37 @@ public class ShellCommandHandler implements ShellDependent {
         return GVRVersion.CURRENT;
     }
 
+    @Command(description = "Show the frame and event metrics")
+    public String metrics() {
+        return GVRMetrics.dump();
+    }
+
+    @Command(description = "Show the metrics as JSON")
+    public String metricsJson() {
+        return GVRMetrics.dumpJson();
+    }
+
+    @Command(description = "Reset the metrics")
+    public void metricsReset() {
+        GVRMetrics.reset();
+    }
+
+    @Command(description = "Clear the trace and start tracing")
+    public void traceStart() {
+        GVRTracer.clear();
+        GVRTracer.setEnabled(true);
+    }
+
+    @Command(description = "Stop tracing")
+    public void traceStop() {
+        GVRTracer.setEnabled(false);
+    }
+
+    @Command(description = "Show the trace as Chrome trace event JSON")
+    public String traceDump() {
+        return GVRTracer.exportChromeTrace();
+    }
+
     @Command
     public Object help() {
         return mHelpHandler.help();
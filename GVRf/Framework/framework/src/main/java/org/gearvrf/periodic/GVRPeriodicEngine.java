@@ -15,10 +15,11 @@
 
 package org.gearvrf.periodic;
 
-import java.util.PriorityQueue;
+import java.util.ArrayList;
 
 import org.gearvrf.GVRContext;
 import org.gearvrf.GVRDrawFrameListener;
+import org.gearvrf.utility.Log;
 
 /**
  * Schedule {@linkplain Runnable runnables} to run on the GL thread at a future
@@ -54,23 +55,32 @@ import org.gearvrf.GVRDrawFrameListener;
  * something like a notification.
  * 
  * <p>
- * The engine maintains a priority queue of events, which it checks in a
- * {@linkplain GVRDrawFrameListener frame listener}; events run as
- * {@linkplain GVRContext#runOnGlThread(Runnable) run-once events.} Every frame,
- * GVRF runs any run-once events; then any frame listeners (including
- * animations); then your {@linkplain org.gearvrf.GVRMain#onStep() method;} and
- * then it renders the scene. This means that any periodic events that run on a
- * given frame will run before any animations. It also means that there is
- * always a one frame delay between the time an event is dequeued and the time
- * it actually runs. Scheduling an event from a point in the render pipeline
- * after the periodic engine will add an additional one frame delay. (The
- * periodic engine may run before the animation engine or after it - try not to
- * write code that depends on one running before the other.) Running at 60 fps,
+ * The engine keeps events in a {@linkplain TimingWheel timing wheel,} with
+ * nanosecond times, which it advances in a {@linkplain GVRDrawFrameListener
+ * frame listener}; the events that are due run in a single pass on the GL
+ * thread. Scheduling and canceling an event take constant time, so the engine
+ * can handle many thousands of events, and the times do not lose precision as
+ * the device uptime grows.
+ *
+ * <p>
+ * The periodic engine's frame listener runs with the other frame listeners
+ * (including the animation engine), after the run-once events and before
+ * your {@linkplain org.gearvrf.GVRMain#onStep() onStep() method.} It runs
+ * every event that is due in the frame it becomes due, in order of due
+ * time (to the wheel's tick, and except after a long pause), so an event
+ * runs at most one frame late. Events it runs may
+ * schedule or cancel others: an event canceled by an earlier one in the
+ * same pass does not run, and an event scheduled to be due already runs on
+ * the next frame. An event that throws is logged, and the others still
+ * run. (The periodic engine may run before the animation engine or after
+ * it - try not to write code that depends on one running before the
+ * other.) Running at 60 fps,
  * each frame is normally 17 milliseconds apart, unless you add too many
  * callbacks or put too much code into your {@code onStep()}; Android garbage
  * collection can introduce additional delays.
  */
 public class GVRPeriodicEngine {
+    private static final String TAG = Log.tag(GVRPeriodicEngine.class);
     private static GVRPeriodicEngine sInstance = null;
 
     static {
@@ -85,10 +95,13 @@ public class GVRPeriodicEngine {
 
     private final GVRContext mContext;
     private final DrawFrameListener mDrawFrameListener = new DrawFrameListener();
-    private final PriorityQueue<EventImplementation> mQueue = new PriorityQueue<EventImplementation>();
+    private final TimingWheel<Event> mWheel = new TimingWheel<Event>();
+    private final ArrayList<Event> mDueEvents = new ArrayList<Event>();
+    private final long mEpoch;
 
     protected GVRPeriodicEngine(GVRContext context) {
         mContext = context;
+        mEpoch = System.nanoTime();
         context.registerDrawFrameListener(mDrawFrameListener);
     }
 
@@ -328,40 +341,57 @@ public class GVRPeriodicEngine {
         void runEvery(float delay, float period, KeepRunning callback);
     }
 
-    private interface EventImplementation extends PeriodicEvent,
-            Comparable<EventImplementation>, Runnable {
-        float getScheduledTime();
-    }
-
     /**
      * The periodic engine's time base.
      * 
-     * Unit is seconds.
+     * Unit is nanoseconds, since the engine was created.
      */
-    private static float now() {
-        return System.nanoTime() / 1e9f;
+    private long now() {
+        return System.nanoTime() - mEpoch;
+    }
+
+    private static long toNanos(float seconds) {
+        return (long) (seconds * 1e9d);
     }
 
     private class DrawFrameListener implements GVRDrawFrameListener {
 
         @Override
         public void onDrawFrame(float frameTime) {
-            float now = GVRPeriodicEngine.now();
-            synchronized (mQueue) {
-                for (EventImplementation //
-                first = mQueue.peek(); //
-                first != null && first.getScheduledTime() <= now; //
-                first = mQueue.peek() //
-                ) {
-
-                    mContext.runOnGlThread(mQueue.poll());
+            final ArrayList<Event> due = mDueEvents;
+            synchronized (mWheel) {
+                mWheel.advance(now(), due);
+                for (int i = 0; i < due.size(); ++i) {
+                    due.get(i).mDue = true;
+                }
+            }
 
+            try {
+                for (int i = 0; i < due.size(); ++i) {
+                    Event event = due.get(i);
+                    synchronized (mWheel) {
+                        // Skip events canceled or rescheduled by earlier ones
+                        if (event.mDue != true) {
+                            continue;
+                        }
+                        event.mDue = false;
+                    }
+                    // One failing task must not starve the rest of the frame
+                    try {
+                        event.run();
+                    } catch (Exception e) {
+                        Log.e(TAG, "periodic event threw %s", e);
+                        e.printStackTrace();
+                    }
                 }
+            } finally {
+                due.clear();
             }
         }
     }
 
-    private class Event implements EventImplementation {
+    private class Event extends TimingWheel.Entry implements PeriodicEvent,
+            Runnable {
 
         /*
          * Task, and run-count
@@ -387,25 +417,32 @@ public class GVRPeriodicEngine {
          */
         private boolean mCanceled = false;
 
+        /**
+         * Set when the event has been taken off the wheel to run in this
+         * frame's pass.
+         */
+        private boolean mDue = false;
+
         private void lockedEnqueue() {
             if (mCanceled != true) {
-                mQueue.add(this);
+                mWheel.add(this, mScheduledTime);
             }
         }
 
         private void lockedDequeue() {
-            mQueue.remove(this);
+            mWheel.remove(this);
+            mDue = false;
         }
 
         private void enqueue() {
-            synchronized (mQueue) {
+            synchronized (mWheel) {
                 lockedEnqueue();
             }
         }
 
         @SuppressWarnings("unused")
         private void dequeue() {
-            synchronized (mQueue) {
+            synchronized (mWheel) {
                 lockedDequeue();
             }
         }
@@ -413,39 +450,42 @@ public class GVRPeriodicEngine {
         /*
          * Scheduling fields.
          * 
-         * A run-once event has an mPeriod == UNSCHEDULED.
+         * Times are nanoseconds on the engine's time base. A run-once event
+         * has an mPeriod == UNSCHEDULED_TIME. A repeating event's mTimeBase is
+         * the time of its first execution, so that later executions stay on
+         * the period grid instead of drifting by a frame each time.
          * 
          * We allow the user to change the scheduling at any time. To assure
          * consistency, neither constructors nor the rescheduling methods set
          * these fields directly: both go through setDelay() or setRepeat().
          */
 
-        private float mTimeBase;
-        private float mScheduledTime;
-        private float mPeriod;
+        private long mTimeBase;
+        private long mScheduledTime = UNSCHEDULED_TIME;
+        private long mPeriod;
         private KeepRunning mCallback;
 
         private void setDelay(float delay) {
-            mTimeBase = now();
-            schedule(mTimeBase + delay);
-            mPeriod = UNSCHEDULED;
+            mTimeBase = now() + toNanos(delay);
+            schedule(mTimeBase);
+            mPeriod = UNSCHEDULED_TIME;
             mCallback = null;
         }
 
         private void setRepeat(float delay, float period, KeepRunning callback) {
-            mTimeBase = now();
-            schedule(mTimeBase + delay);
-            mPeriod = period;
+            mTimeBase = now() + toNanos(delay);
+            schedule(mTimeBase);
+            mPeriod = Math.max(toNanos(period), 1);
             mCallback = callback;
         }
 
-        private void schedule(float time) {
+        private void schedule(long time) {
             mScheduledTime = time;
             mCanceled = false;
         }
 
         private void deschedule() {
-            mScheduledTime = UNSCHEDULED;
+            mScheduledTime = UNSCHEDULED_TIME;
         }
 
         private void reschedule() {
@@ -454,31 +494,25 @@ public class GVRPeriodicEngine {
                     return; // Do NOT reschedule
                 }
 
-                float next = mTimeBase + (((now() - mTimeBase) / mPeriod) + 1)
-                        * mPeriod;
+                long elapsed = Math.max(now() - mTimeBase, 0);
+                long next = mTimeBase + (elapsed / mPeriod + 1) * mPeriod;
                 schedule(next);
                 enqueue();
             }
         }
 
         private boolean enqueued() {
-            synchronized (mQueue) {
-                for (EventImplementation event : mQueue) {
-                    if (this == event) {
-                        return true;
-                    }
-                }
+            synchronized (mWheel) {
+                return mWheel.contains(this) || mDue;
             }
-            // else
-            return false;
         }
 
         private boolean scheduled() {
-            return mScheduledTime != UNSCHEDULED;
+            return mScheduledTime != UNSCHEDULED_TIME;
         }
 
         private boolean repeats() {
-            return mPeriod != UNSCHEDULED;
+            return mPeriod != UNSCHEDULED_TIME;
         }
 
         /*
@@ -511,12 +545,12 @@ public class GVRPeriodicEngine {
 
         @Override
         public float getCurrentWait() {
-            return scheduled() ? mScheduledTime - now() : UNSCHEDULED;
+            return scheduled() ? (mScheduledTime - now()) / 1e9f : UNSCHEDULED;
         }
 
         @Override
         public void cancel() {
-            synchronized (mQueue) {
+            synchronized (mWheel) {
                 deschedule();
                 lockedDequeue();
                 mCanceled = true;
@@ -527,7 +561,7 @@ public class GVRPeriodicEngine {
         public void runAfter(float delay) {
             validateDelay(delay);
 
-            synchronized (mQueue) {
+            synchronized (mWheel) {
                 lockedDequeue();
                 setDelay(delay);
                 lockedEnqueue();
@@ -550,32 +584,13 @@ public class GVRPeriodicEngine {
             validateDelay(delay);
             validatePeriod(period);
 
-            synchronized (mQueue) {
+            synchronized (mWheel) {
                 lockedDequeue();
                 setRepeat(delay, period, callback);
                 lockedEnqueue();
             }
         }
 
-        /*
-         * EventImplementation
-         */
-
-        @Override
-        public float getScheduledTime() {
-            return mScheduledTime;
-        }
-
-        /*
-         * Comparable<EventImplementation>
-         */
-
-        @Override
-        public int compareTo(EventImplementation other) {
-            final float delta = getScheduledTime() - other.getScheduledTime();
-            return delta < 0 ? -1 : (delta == 0 ? 0 : 1);
-        }
-
         /*
          * Runnable
          */
@@ -583,24 +598,30 @@ public class GVRPeriodicEngine {
         @Override
         public void run() {
             mRunning = true;
-            mTask.run();
-            mRunning = false;
-            mRunCount += 1;
-
-            /*
-             * Normally, the event will NOT be enqueued at this point. But, if
-             * the event has rescheduled itself (using the PeriodicEvent
-             * returned when it was created) then it WILL be enqueued, and we
-             * shouldn't re-enqueue it.
-             */
-            if (enqueued() != true) {
-                deschedule();
-                reschedule();
+            try {
+                mTask.run();
+            } finally {
+                mRunning = false;
+                mRunCount += 1;
+
+                /*
+                 * Normally, the event will NOT be enqueued at this point. But,
+                 * if the event has rescheduled itself (using the PeriodicEvent
+                 * returned when it was created) then it WILL be enqueued, and
+                 * we shouldn't re-enqueue it. A task that throws still counts
+                 * as a run, and keeps its schedule.
+                 */
+                if (enqueued() != true) {
+                    deschedule();
+                    reschedule();
+                }
             }
         }
 
     }
 
+    private static final long UNSCHEDULED_TIME = Long.MIN_VALUE;
+
     private static class RunFor implements KeepRunning {
 
         private final int mTrigger;
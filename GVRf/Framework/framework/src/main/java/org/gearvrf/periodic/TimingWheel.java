@@ -0,0 +1,230 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gearvrf.periodic;
+
+import java.util.List;
+
+/**
+ * Hierarchical timing wheel: the time base of the {@link GVRPeriodicEngine}.
+ *
+ * Times are {@code long} nanoseconds, rounded up to ticks of about a
+ * millisecond. There are four wheels of 256 slots: the first holds the
+ * entries due in the next 256 ticks, and each higher wheel holds 256 times
+ * the span of the one below, for a total of about 50 days. Entries further
+ * out than that wait in the last slot of the top wheel. As time advances,
+ * the slots of the higher wheels are cascaded down into the lower ones.
+ *
+ * Each slot is an intrusive doubly-linked list, so {@link #add(Entry, long)}
+ * and {@link #remove(Entry)} are O(1) and do not allocate.
+ *
+ * Not thread safe: the caller must hold a lock.
+ */
+final class TimingWheel<E extends TimingWheel.Entry> {
+
+    /**
+     * Base class of the scheduled objects; holds the links.
+     */
+    static class Entry {
+        long mTick;
+        int mSlot = -1;
+        Entry mPrevious;
+        Entry mNext;
+    }
+
+    private static final int TICK_SHIFT = 20; // 1.048576 ms
+    private static final int WHEEL_BITS = 8;
+    private static final int WHEEL_SLOTS = 1 << WHEEL_BITS;
+    private static final int SLOT_MASK = WHEEL_SLOTS - 1;
+    private static final int WHEELS = 4;
+    private static final long MAX_DELTA = (1L << (WHEEL_BITS * WHEELS)) - 1;
+
+    private final Entry[] mSlots = new Entry[WHEELS * WHEEL_SLOTS];
+    private long mCurrentTick = 0;
+    private int mSize = 0;
+
+    /**
+     * Schedule an entry, replacing any previous schedule.
+     *
+     * @param entry
+     *            Entry to schedule.
+     * @param time
+     *            Nanoseconds, on the same (non-negative) time base as
+     *            {@link #advance(long, List)}. Times that have already passed
+     *            are due on the next advance.
+     */
+    void add(E entry, long time) {
+        remove(entry);
+
+        long tick = (time + (1L << TICK_SHIFT) - 1) >> TICK_SHIFT;
+        if (tick <= mCurrentTick) {
+            tick = mCurrentTick + 1;
+        }
+        entry.mTick = tick;
+        insert(entry);
+        ++mSize;
+    }
+
+    /**
+     * Unschedule an entry.
+     *
+     * @return {@code true} if the entry was scheduled
+     */
+    boolean remove(E entry) {
+        if (entry.mSlot < 0) {
+            return false;
+        }
+        if (entry.mPrevious != null) {
+            entry.mPrevious.mNext = entry.mNext;
+        } else {
+            mSlots[entry.mSlot] = entry.mNext;
+        }
+        if (entry.mNext != null) {
+            entry.mNext.mPrevious = entry.mPrevious;
+        }
+        entry.mPrevious = entry.mNext = null;
+        entry.mSlot = -1;
+        --mSize;
+        return true;
+    }
+
+    boolean contains(E entry) {
+        return entry.mSlot >= 0;
+    }
+
+    int size() {
+        return mSize;
+    }
+
+    /**
+     * Advance the wheel to {@code now}, removing the due entries.
+     *
+     * @param now
+     *            Nanoseconds
+     * @param due
+     *            Receives the entries that are due: in tick order, except
+     *            after a long pause.
+     */
+    @SuppressWarnings("unchecked")
+    void advance(long now, List<E> due) {
+        final long target = now >> TICK_SHIFT;
+        if (target <= mCurrentTick) {
+            return;
+        }
+        if (mSize == 0) {
+            mCurrentTick = target;
+            return;
+        }
+        if (target - mCurrentTick > WHEEL_SLOTS) {
+            // Stepping through a long pause would cost more than a rebuild
+            rebuild(target, due);
+            return;
+        }
+
+        while (mCurrentTick < target && mSize > 0) {
+            final long tick = ++mCurrentTick;
+
+            // Top down, so that entries cascade all the way to this tick
+            for (int wheel = WHEELS - 1; wheel > 0; --wheel) {
+                final int shift = WHEEL_BITS * wheel;
+                if ((tick & ((1L << shift) - 1)) == 0) {
+                    cascade(wheel * WHEEL_SLOTS
+                            + (int) ((tick >> shift) & SLOT_MASK));
+                }
+            }
+
+            final int slot = (int) (tick & SLOT_MASK);
+            Entry entry = mSlots[slot];
+            mSlots[slot] = null;
+            while (entry != null) {
+                Entry next = entry.mNext;
+                clearLinks(entry);
+                --mSize;
+                due.add((E) entry);
+                entry = next;
+            }
+        }
+        mCurrentTick = target;
+    }
+
+    private void insert(Entry entry) {
+        long delta = entry.mTick - mCurrentTick;
+        long slotTick = entry.mTick;
+        if (delta > MAX_DELTA) {
+            // Parked in the top wheel; re-inserted when it cascades
+            delta = MAX_DELTA;
+            slotTick = mCurrentTick + MAX_DELTA;
+        }
+
+        int wheel = 0;
+        while (delta >= (1L << (WHEEL_BITS * (wheel + 1)))) {
+            ++wheel;
+        }
+        final int slot = wheel * WHEEL_SLOTS
+                + (int) ((slotTick >> (WHEEL_BITS * wheel)) & SLOT_MASK);
+
+        entry.mSlot = slot;
+        entry.mPrevious = null;
+        entry.mNext = mSlots[slot];
+        if (entry.mNext != null) {
+            entry.mNext.mPrevious = entry;
+        }
+        mSlots[slot] = entry;
+    }
+
+    private void cascade(int slot) {
+        Entry entry = mSlots[slot];
+        mSlots[slot] = null;
+        while (entry != null) {
+            Entry next = entry.mNext;
+            insert(entry);
+            entry = next;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void rebuild(long target, List<E> due) {
+        // Chain every entry into one list, through mNext
+        Entry all = null;
+        for (int slot = 0; slot < mSlots.length; ++slot) {
+            Entry entry = mSlots[slot];
+            mSlots[slot] = null;
+            while (entry != null) {
+                Entry next = entry.mNext;
+                entry.mNext = all;
+                all = entry;
+                entry = next;
+            }
+        }
+
+        mCurrentTick = target;
+        while (all != null) {
+            Entry next = all.mNext;
+            if (all.mTick <= target) {
+                clearLinks(all);
+                --mSize;
+                due.add((E) all);
+            } else {
+                insert(all);
+            }
+            all = next;
+        }
+    }
+
+    private static void clearLinks(Entry entry) {
+        entry.mPrevious = entry.mNext = null;
+        entry.mSlot = -1;
+    }
+}
@@ -25,6 +25,9 @@ import java.util.Set;
 import java.util.TreeMap;
 
 import javax.script.Bindings;
+import javax.script.Compilable;
+import javax.script.CompiledScript;
+import javax.script.Invocable;
 import javax.script.ScriptContext;
 import javax.script.ScriptEngine;
 import javax.script.ScriptException;
@@ -66,6 +69,9 @@ public abstract class GVRScriptFile {
 
     private Bindings localBindings = null;
 
+    // Call functions through Invocable or compiled statements when the
+    // engine supports it
+    private volatile boolean mDirectInvocation = true;
 
     static {
         // Generate parameter names, arg0, arg1, ...
@@ -78,6 +84,9 @@ public abstract class GVRScriptFile {
     // Cache for function invocation statements
     protected final Map<String, String> mInvokeStatementCache;
 
+    // Cache for compiled function invocation statements
+    private final Map<String, CompiledScript> mCompiledStatementCache;
+
     /**
      * Constructor.
      *
@@ -92,6 +101,7 @@ public abstract class GVRScriptFile {
         mGvrContext = gvrContext;
         mLanguage = language;
         mInvokeStatementCache = new TreeMap<String, String>();
+        mCompiledStatementCache = new TreeMap<String, CompiledScript>();
 
         // Get an engine because some impl. requires a new engine to
         // enforce context
@@ -145,6 +155,32 @@ public abstract class GVRScriptFile {
 
     public String getLastError() { return mLastError; }
 
+    /**
+     * Sets how {@link #invokeFunction(String, Object[])} calls script functions.
+     *
+     * When direct invocation is enabled (the default), functions are
+     * called through the engine's {@link Invocable} interface with
+     * positional arguments. Engines which are only {@link Compilable} run
+     * a call statement which is compiled once per function. Otherwise, and
+     * when direct invocation is disabled, the call statement is evaluated
+     * as text on each call. Either way, the arguments are also set as
+     * {@code arg0}, {@code arg1}, ... in the engine bindings for the
+     * duration of the call, for scripts that read them as globals.
+     *
+     * @param enable {@code true} to call functions directly.
+     */
+    public void setDirectInvocation(boolean enable) {
+        mDirectInvocation = enable;
+    }
+
+    /**
+     * Returns whether functions are called directly.
+     * @see #setDirectInvocation(boolean)
+     */
+    public boolean isDirectInvocation() {
+        return mDirectInvocation;
+    }
+
     /**
      * Invokes the script.
      *
@@ -179,8 +215,6 @@ public abstract class GVRScriptFile {
             return false;
         }
 
-        String statement = getInvokeStatementCached(funcName, params);
-
         synchronized (mEngineLock) {
             localBindings = mLocalEngine.getBindings(ScriptContext.ENGINE_SCOPE);
             if (localBindings == null) {
@@ -189,10 +223,30 @@ public abstract class GVRScriptFile {
             }
         }
 
+        // Scripts may read the arguments as globals, even when they are
+        // also passed to the function (see X3D's GearVRinitJavaScript)
         fillBindings(localBindings, params);
 
+        if (mDirectInvocation && (mLocalEngine instanceof Invocable)) {
+            try {
+                return invokeFunctionDirect(funcName, params);
+            } finally {
+                removeBindings(localBindings, params);
+            }
+        }
+
+        String statement = getInvokeStatementCached(funcName, params);
+
         try {
-            mLocalEngine.eval(statement);
+            CompiledScript compiled = null;
+            if (mDirectInvocation && (mLocalEngine instanceof Compilable)) {
+                compiled = getCompiledStatementCached(funcName, statement);
+            }
+            if (compiled != null) {
+                compiled.eval(localBindings);
+            } else {
+                mLocalEngine.eval(statement);
+            }
         } catch (ScriptException e) {
             // The function is either undefined or throws, avoid invoking it later
             addBadFunction(funcName);
@@ -205,6 +259,24 @@ public abstract class GVRScriptFile {
         return true;
     }
 
+    private boolean invokeFunctionDirect(String funcName, Object[] params) {
+        try {
+            ((Invocable) mLocalEngine).invokeFunction(funcName, params);
+        } catch (ScriptException e) {
+            // The function throws, avoid invoking it later
+            addBadFunction(funcName);
+            mLastError = e.getMessage();
+            return false;
+        } catch (NoSuchMethodException e) {
+            // The function is undefined, avoid invoking it later
+            addBadFunction(funcName);
+            mLastError = e.getMessage();
+            return false;
+        }
+
+        return true;
+    }
+
     /**
      * Access to values modified during invoking of Script file
      * Enables X3D to get values script modifies..
@@ -299,5 +371,25 @@ public abstract class GVRScriptFile {
         }
     }
 
+    /*
+     * Returns null if the statement cannot be compiled, so that it is
+     * evaluated as text and the error is reported as usual.
+     */
+    private CompiledScript getCompiledStatementCached(String eventName, String statement) {
+        synchronized (mCompiledStatementCache) {
+            CompiledScript compiled = mCompiledStatementCache.get(eventName);
+            if (compiled == null) {
+                try {
+                    compiled = ((Compilable) mLocalEngine).compile(statement);
+                } catch (ScriptException e) {
+                    return null;
+                }
+                mCompiledStatementCache.put(eventName, compiled);
+            }
+
+            return compiled;
+        }
+    }
+
     protected abstract String getInvokeStatement(String eventName, Object[] params);
 }
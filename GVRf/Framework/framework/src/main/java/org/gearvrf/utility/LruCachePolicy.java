@@ -0,0 +1,194 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gearvrf.utility;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Keeps the most recently used resources in memory, up to a size budget.
+ *
+ * The size of each resource is estimated once, when it is retained, and
+ * is at least {@link #MIN_ENTRY_SIZE}. When the total goes over the budget
+ * the least recently used resources are released. A resource larger than
+ * the whole budget is not kept.
+ *
+ * It can be used as the policy of a {@link ResourceCacheBase} or on its
+ * own as a bounded cache. As a policy, a lookup in the cache which finds a
+ * resource the policy holds counts as a hit, and a resource which the
+ * policy did not hold - a new one, or one found only because something
+ * else still used it - counts as a miss.
+ */
+public class LruCachePolicy<K, V> implements ResourceCachePolicy<K, V> {
+    private static final String TAG = Log.tag(LruCachePolicy.class);
+
+    /**
+     * Smallest size charged for a resource, so that resources whose size
+     * cannot be estimated still count against the budget.
+     */
+    public static final long MIN_ENTRY_SIZE = 1024;
+
+    /**
+     * Estimates the memory used by a resource.
+     */
+    public interface SizeEstimator<V> {
+        /**
+         * @param resource the resource
+         * @return estimated size in bytes
+         */
+        long sizeOf(V resource);
+    }
+
+    private static class Entry<V> {
+        final V resource;
+        final long size;
+
+        Entry(V resource, long size) {
+            this.resource = resource;
+            this.size = size;
+        }
+    }
+
+    private final SizeEstimator<? super V> estimator;
+    // Access ordered, so iteration starts with the least recently used
+    private final LinkedHashMap<K, Entry<V>> entries = new LinkedHashMap<K, Entry<V>>(16, 0.75f, true);
+    private long maxSize;
+    private long size = 0;
+
+    private long hitCount = 0;
+    private long missCount = 0;
+    private long evictionCount = 0;
+
+    /**
+     * @param maxSize   size budget in bytes
+     * @param estimator estimates the size of each resource
+     */
+    public LruCachePolicy(long maxSize, SizeEstimator<? super V> estimator) {
+        Assert.checkNotNull("estimator", estimator);
+        this.maxSize = maxSize;
+        this.estimator = estimator;
+    }
+
+    @Override
+    public synchronized void retain(K key, V resource) {
+        Entry<V> entry = entries.get(key);
+        if (entry != null && entry.resource == resource) {
+            ++hitCount;
+            return;
+        }
+        ++missCount;
+        if (entry != null) {
+            size -= entry.size;
+        }
+        long resourceSize = Math.max(MIN_ENTRY_SIZE, estimator.sizeOf(resource));
+        if (resourceSize > maxSize) {
+            entries.remove(key);
+            return;
+        }
+        entries.put(key, new Entry<V>(resource, resourceSize));
+        size += resourceSize;
+        trimToSize(maxSize);
+    }
+
+    @Override
+    public synchronized void release(K key) {
+        Entry<V> entry = entries.remove(key);
+        if (entry != null) {
+            size -= entry.size;
+        }
+    }
+
+    @Override
+    public synchronized void clear() {
+        entries.clear();
+        size = 0;
+    }
+
+    /**
+     * Get a resource held by the policy and mark it as recently used.
+     * @param key key of the resource
+     * @return the resource, or {@code null}
+     */
+    public synchronized V get(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null) {
+            ++missCount;
+            return null;
+        }
+        ++hitCount;
+        return entry.resource;
+    }
+
+    /**
+     * Change the size budget, releasing resources if needed.
+     * @param maxSize size budget in bytes
+     */
+    public synchronized void setMaxSize(long maxSize) {
+        this.maxSize = maxSize;
+        trimToSize(maxSize);
+    }
+
+    /** @return the size budget in bytes */
+    public synchronized long getMaxSize() {
+        return maxSize;
+    }
+
+    /** @return the estimated size of the resources held, in bytes */
+    public synchronized long getSize() {
+        return size;
+    }
+
+    /** @return the number of resources held */
+    public synchronized int getCount() {
+        return entries.size();
+    }
+
+    /**
+     * @return the number of {@link #get(Object)} calls, and of
+     *         {@link #retain(Object, Object) retain()} calls for a resource
+     *         already held, which found a resource
+     */
+    public synchronized long getHitCount() {
+        return hitCount;
+    }
+
+    /**
+     * @return the number of {@link #get(Object)} calls, and of
+     *         {@link #retain(Object, Object) retain()} calls for a resource
+     *         not held, which did not find a resource
+     */
+    public synchronized long getMissCount() {
+        return missCount;
+    }
+
+    /** @return the number of resources released to stay within the budget */
+    public synchronized long getEvictionCount() {
+        return evictionCount;
+    }
+
+    private void trimToSize(long maxSize) {
+        Iterator<Map.Entry<K, Entry<V>>> iter = entries.entrySet().iterator();
+        while (size > maxSize && iter.hasNext()) {
+            Map.Entry<K, Entry<V>> eldest = iter.next();
+            Log.d(TAG, "evict %s from cache", eldest.getKey());
+
+            size -= eldest.getValue().size;
+            iter.remove();
+            ++evictionCount;
+        }
+    }
+}
@@ -36,7 +36,7 @@ import org.gearvrf.GVRImage;
  * 
  * @since 2.0.2
  */
-public class ResourceCache<T extends GVRHybridObject> extends ResourceCacheBase {
+public class ResourceCache<T extends GVRHybridObject> extends ResourceCacheBase<T> {
     private static final String TAG = Log.tag(ResourceCache.class);
 
     /** Save a weak reference to the resource */
@@ -48,7 +48,7 @@ public class ResourceCache<T extends GVRHybridObject> extends ResourceCacheBase
 
     /** Get the cached resource, or {@code null} */
     public T get(GVRAndroidResource androidResource) {
-        return (T) super.get(androidResource);
+        return super.get(androidResource);
     }
 
     /**
@@ -20,12 +20,14 @@ import org.gearvrf.GVRAndroidResource;
 import java.lang.ref.WeakReference;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Basic cache-by-resource-description.
  *
  * Keeps system from reloading resources, so long as a previous copy is still in
- * memory.
+ * memory. A {@link ResourceCachePolicy} can be set to keep some resources in
+ * memory even when nothing else uses them.
  *
  * @since 2.0.2
  */
@@ -34,12 +36,19 @@ public class ResourceCacheBase<T> {
 
     private final Map<GVRAndroidResource, WeakReference<T>> cache //
             = new ConcurrentHashMap<GVRAndroidResource, WeakReference<T>>();
+    private volatile ResourceCachePolicy<GVRAndroidResource, ? super T> policy = null;
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
 
     /** Save a weak reference to the resource */
     public void put(GVRAndroidResource androidResource, T resource) {
         Log.d(TAG, "put resource %s to cache", androidResource);
 
         cache.put(androidResource, new WeakReference<T>(resource));
+        ResourceCachePolicy<GVRAndroidResource, ? super T> policy = this.policy;
+        if (policy != null) {
+            policy.retain(androidResource, resource);
+        }
     }
 
     /** Get the cached resource, or {@code null} */
@@ -48,17 +57,62 @@ public class ResourceCacheBase<T> {
         if (reference == null) {
             // Not in map
             // Log.d(TAG, "get(%s) returning %s", androidResource, null);
+            missCount.incrementAndGet();
             return null;
         }
         T cached = reference.get();
         if (cached == null) {
             // In map, but not in memory
             cache.remove(androidResource);
+            missCount.incrementAndGet();
         } else {
             // No one will ever read this stream
             androidResource.closeStream();
+            hitCount.incrementAndGet();
+            ResourceCachePolicy<GVRAndroidResource, ? super T> policy = this.policy;
+            if (policy != null) {
+                policy.retain(androidResource, cached);
+            }
         }
         // Log.d(TAG, "get(%s) returning %s", androidResource, cached);
         return cached;
     }
+
+    /**
+     * Set the policy which decides which resources stay in memory.
+     * Resources already in the cache are not given to the new policy.
+     * @param policy policy to use, {@code null} to only keep resources
+     *               while something else uses them
+     */
+    public void setPolicy(ResourceCachePolicy<GVRAndroidResource, ? super T> policy) {
+        ResourceCachePolicy<GVRAndroidResource, ? super T> oldPolicy = this.policy;
+        this.policy = policy;
+        if (oldPolicy != null && oldPolicy != policy) {
+            oldPolicy.clear();
+        }
+    }
+
+    /** @return the policy which decides which resources stay in memory, or {@code null} */
+    public ResourceCachePolicy<GVRAndroidResource, ? super T> getPolicy() {
+        return policy;
+    }
+
+    /** Remove all resources from the cache */
+    public void clear() {
+        cache.clear();
+        ResourceCachePolicy<GVRAndroidResource, ? super T> policy = this.policy;
+        if (policy != null) {
+            policy.clear();
+        }
+    }
+
+    /** @return the number of {@link #get(GVRAndroidResource)} calls which found a resource */
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    /** @return the number of {@link #get(GVRAndroidResource)} calls which did not find a resource */
+    public long getMissCount() {
+        return missCount.get();
+    }
 }
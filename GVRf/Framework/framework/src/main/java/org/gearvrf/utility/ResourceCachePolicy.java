@@ -0,0 +1,46 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gearvrf.utility;
+
+/**
+ * Decides which cached resources are kept in memory.
+ *
+ * A {@link ResourceCacheBase} only holds weak references, so a cached
+ * resource is lost as soon as nothing else uses it. A policy can hold
+ * strong references to some of the resources so that they are still
+ * there when they are asked for again.
+ *
+ * @see LruCachePolicy
+ */
+public interface ResourceCachePolicy<K, V> {
+    /**
+     * Called when a resource is put in the cache or found in it.
+     * @param key       key of the resource
+     * @param resource  the resource
+     */
+    void retain(K key, V resource);
+
+    /**
+     * Stop holding a resource.
+     * @param key key of the resource
+     */
+    void release(K key);
+
+    /**
+     * Stop holding all resources.
+     */
+    void clear();
+}
@@ -0,0 +1,273 @@
+/* Copyright 2016 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gearvrf.x3d;
+
+import java.util.Arrays;
+
+/**
+ * Parses the numeric arrays of X3D attributes (MFFloat, MFInt32, MFVec3f
+ * and so on) such as {@code point}, {@code coordIndex} or {@code keyValue}.
+ * <p>
+ * The attribute characters are scanned directly into growable
+ * {@code float[]} and {@code int[]} buffers, without tokens, strings
+ * or boxed values. Numbers may be separated by white space or commas
+ * and may have an exponent, as 3DS Max writes them. Words are skipped.
+ * <p>
+ * The buffers are reused by the next parse, so the results must be
+ * consumed first. The parser is not thread safe; each X3D file being
+ * parsed needs its own instance.
+ */
+class NumberParser
+{
+    private static final int MAX_MANTISSA_DIGITS = 18;
+    private static final double[] POWERS_OF_TEN = new double[23];
+
+    static
+    {
+        // Powers of ten up to 1e22 are exact in a double
+        double p = 1;
+        for (int i = 0; i < POWERS_OF_TEN.length; ++i)
+        {
+            POWERS_OF_TEN[i] = p;
+            p *= 10;
+        }
+    }
+
+    private char[]  mChars = new char[1024];
+    private int     mLength;
+    private int     mPos;
+    private double  mValue;
+
+    private float[] mFloats = new float[256];
+    private int[]   mInts = new int[256];
+
+    /**
+     * Parses all of the numbers in a string as floats.
+     * @param numberString attribute value
+     * @return number of values, which are in {@link #getFloats()}
+     */
+    int parseFloats(String numberString)
+    {
+        begin(numberString);
+        float[] values = mFloats;
+        int count = 0;
+        while (nextNumber())
+        {
+            if (count == values.length)
+            {
+                values = Arrays.copyOf(values, count * 2);
+            }
+            values[count++] = (float) mValue;
+        }
+        mFloats = values;
+        return count;
+    }
+
+    /**
+     * Parses all of the numbers in a string as ints.
+     * @param numberString attribute value
+     * @param skipValue a value to leave out of the result, such as the
+     *                  -1 which ends the faces of an {@code IndexedFaceSet}
+     * @return number of values, which are in {@link #getInts()}
+     */
+    int parseInts(String numberString, int skipValue)
+    {
+        begin(numberString);
+        int[] values = mInts;
+        int count = 0;
+        while (nextNumber())
+        {
+            int v = (int) mValue;
+            if (v == skipValue)
+            {
+                continue;
+            }
+            if (count == values.length)
+            {
+                values = Arrays.copyOf(values, count * 2);
+            }
+            values[count++] = v;
+        }
+        mInts = values;
+        return count;
+    }
+
+    /**
+     * @return the values of the last {@link #parseFloats(String)}
+     */
+    float[] getFloats()
+    {
+        return mFloats;
+    }
+
+    /**
+     * @return the values of the last {@link #parseInts(String, int)}
+     */
+    int[] getInts()
+    {
+        return mInts;
+    }
+
+    private void begin(String numberString)
+    {
+        mLength = numberString.length();
+        if (mLength > mChars.length)
+        {
+            mChars = new char[Math.max(mLength, mChars.length * 2)];
+        }
+        numberString.getChars(0, mLength, mChars, 0);
+        mPos = 0;
+    }
+
+    /*
+     * Scans the next number into mValue, skipping separators and words.
+     * Returns false at the end of the string.
+     */
+    private boolean nextNumber()
+    {
+        final char[] c = mChars;
+        final int n = mLength;
+        int i = mPos;
+
+        while (i < n)
+        {
+            char ch = c[i];
+            if (isDigit(ch) || (ch == '-') || (ch == '+') || (ch == '.'))
+            {
+                boolean negative = (ch == '-');
+                if ((ch == '-') || (ch == '+'))
+                {
+                    ++i;
+                }
+                long mantissa = 0;
+                int digits = 0;
+                int exponent = 0;
+                boolean hasDigits = false;
+
+                while ((i < n) && isDigit(c[i]))
+                {
+                    if (digits < MAX_MANTISSA_DIGITS)
+                    {
+                        mantissa = mantissa * 10 + (c[i] - '0');
+                        if (mantissa != 0)
+                        {
+                            ++digits;
+                        }
+                    }
+                    else
+                    {
+                        ++exponent;
+                    }
+                    hasDigits = true;
+                    ++i;
+                }
+                if ((i < n) && (c[i] == '.'))
+                {
+                    ++i;
+                    while ((i < n) && isDigit(c[i]))
+                    {
+                        if (digits < MAX_MANTISSA_DIGITS)
+                        {
+                            mantissa = mantissa * 10 + (c[i] - '0');
+                            if (mantissa != 0)
+                            {
+                                ++digits;
+                            }
+                            --exponent;
+                        }
+                        hasDigits = true;
+                        ++i;
+                    }
+                }
+                if (!hasDigits)
+                {
+                    // A lone sign or dot
+                    continue;
+                }
+                if ((i < n) && ((c[i] == 'e') || (c[i] == 'E')))
+                {
+                    int j = i + 1;
+                    boolean negativeExponent = false;
+                    if ((j < n) && ((c[j] == '-') || (c[j] == '+')))
+                    {
+                        negativeExponent = (c[j] == '-');
+                        ++j;
+                    }
+                    if ((j < n) && isDigit(c[j]))
+                    {
+                        int e = 0;
+                        while ((j < n) && isDigit(c[j]))
+                        {
+                            if (e < 10000)
+                            {
+                                e = e * 10 + (c[j] - '0');
+                            }
+                            ++j;
+                        }
+                        exponent += negativeExponent ? -e : e;
+                        i = j;
+                    }
+                }
+
+                double value = mantissa;
+                if ((exponent > 0) && (mantissa != 0))
+                {
+                    value *= powerOfTen(exponent);
+                }
+                else if (exponent < 0)
+                {
+                    value /= powerOfTen(-exponent);
+                }
+                mValue = negative ? -value : value;
+                mPos = i;
+                return true;
+            }
+            else if (Character.isLetter(ch))
+            {
+                // Skip words such as "true" or "NaN"
+                while ((i < n) && !isSeparator(c[i]))
+                {
+                    ++i;
+                }
+            }
+            else
+            {
+                ++i;
+            }
+        }
+        mPos = n;
+        return false;
+    }
+
+    private static double powerOfTen(int exponent)
+    {
+        if (exponent < POWERS_OF_TEN.length)
+        {
+            return POWERS_OF_TEN[exponent];
+        }
+        return Math.pow(10, exponent);
+    }
+
+    private static boolean isDigit(char ch)
+    {
+        return (ch >= '0') && (ch <= '9');
+    }
+
+    private static boolean isSeparator(char ch)
+    {
+        return (ch == ',') || Character.isWhitespace(ch);
+    }
+}
@@ -0,0 +1,171 @@
+/* Copyright 2016 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gearvrf.x3d;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.parsers.SAXParserFactory;
+
+import org.xml.sax.Attributes;
+import org.xml.sax.SAXException;
+import org.xml.sax.helpers.AttributesImpl;
+import org.xml.sax.helpers.DefaultHandler;
+
+/**
+ * The parsed form of an X3D file.
+ * <p>
+ * Parsing the XML (reading the file, tokenizing elements and attributes)
+ * does not create any GearVRf objects, so it can be done on any thread,
+ * ahead of building the scene. The document keeps the elements, their
+ * attributes and character data in order; building the scene replays
+ * them into the X3D handlers. It is a record of the XML, not a scene
+ * description: all the scene objects are created by the build.
+ *
+ * @see X3Dobject#parseDocument(InputStream)
+ * @see X3Dobject#build(X3DDocument, ShaderSettings)
+ */
+public final class X3DDocument
+{
+    private static final byte START_ELEMENT = 0;
+    private static final byte END_ELEMENT = 1;
+    private static final byte CHARACTERS = 2;
+
+    private static class Element
+    {
+        final String uri;
+        final String localName;
+        final String qName;
+        final Attributes attributes;
+
+        Element(String uri, String localName, String qName, Attributes attributes)
+        {
+            this.uri = uri;
+            this.localName = localName;
+            this.qName = qName;
+            this.attributes = attributes;
+        }
+    }
+
+    private byte[]   mTypes = new byte[256];
+    private Object[] mItems = new Object[256];
+    private int      mCount = 0;
+    private int      mElementCount = 0;
+
+    private X3DDocument() { }
+
+    /**
+     * Parses an X3D file.
+     *
+     * @param inputStream X3D file contents; the stream is not closed.
+     * @return the parsed document
+     * @throws IOException if the stream cannot be read or is not valid XML
+     */
+    static X3DDocument parse(InputStream inputStream) throws IOException
+    {
+        final X3DDocument document = new X3DDocument();
+        try
+        {
+            SAXParserFactory factory = SAXParserFactory.newInstance();
+            factory.newSAXParser().parse(inputStream, new DefaultHandler()
+            {
+                @Override
+                public void startElement(String uri, String localName, String qName,
+                                         Attributes attributes)
+                {
+                    document.add(START_ELEMENT, new Element(uri, localName, qName,
+                            new AttributesImpl(attributes)));
+                    ++document.mElementCount;
+                }
+
+                @Override
+                public void endElement(String uri, String localName, String qName)
+                {
+                    document.add(END_ELEMENT, new Element(uri, localName, qName, null));
+                }
+
+                @Override
+                public void characters(char[] ch, int start, int length)
+                {
+                    document.add(CHARACTERS, Arrays.copyOfRange(ch, start, start + length));
+                }
+            });
+        }
+        catch (SAXException e)
+        {
+            throw new IOException("X3D/XML parsing error: " + e.getMessage(), e);
+        }
+        catch (ParserConfigurationException e)
+        {
+            throw new IOException("X3D/XML parser error: " + e.getMessage(), e);
+        }
+        return document;
+    }
+
+    /**
+     * @return number of elements in the document
+     */
+    public int getElementCount()
+    {
+        return mElementCount;
+    }
+
+    /**
+     * Delivers the document to a SAX handler, as the parser would.
+     */
+    void replay(DefaultHandler handler) throws SAXException
+    {
+        handler.startDocument();
+        for (int i = 0; i < mCount; ++i)
+        {
+            switch (mTypes[i])
+            {
+                case START_ELEMENT:
+                {
+                    Element e = (Element) mItems[i];
+                    handler.startElement(e.uri, e.localName, e.qName, e.attributes);
+                    break;
+                }
+                case END_ELEMENT:
+                {
+                    Element e = (Element) mItems[i];
+                    handler.endElement(e.uri, e.localName, e.qName);
+                    break;
+                }
+                default:
+                {
+                    char[] chars = (char[]) mItems[i];
+                    handler.characters(chars, 0, chars.length);
+                    break;
+                }
+            }
+        }
+        handler.endDocument();
+    }
+
+    private void add(byte type, Object item)
+    {
+        if (mCount == mTypes.length)
+        {
+            mTypes = Arrays.copyOf(mTypes, mCount * 2);
+            mItems = Arrays.copyOf(mItems, mCount * 2);
+        }
+        mTypes[mCount] = type;
+        mItems[mCount++] = item;
+    }
+}
@@ -36,9 +36,6 @@ import java.util.List;
 import java.util.Map;
 import java.util.Vector;
 
-import javax.xml.parsers.SAXParser;
-import javax.xml.parsers.SAXParserFactory;
-
 import org.gearvrf.script.GVRJavascriptScriptFile;
 import org.gearvrf.script.javascript.GVRJavascriptV8File;
 import org.xml.sax.Attributes;
@@ -172,6 +169,20 @@ public class X3Dobject {
                 }
                 mCurSize += entry.length;
             }
+
+            void add(float[] src, int count)
+            {
+                if (mData == null)
+                {
+                    mData = new float[Math.max(mMinSize, count)];
+                }
+                else if (mCurSize + count > mData.length)
+                {
+                    mData = Arrays.copyOf(mData, Math.max(mCurSize + count, (mCurSize * 3) / 2));
+                }
+                System.arraycopy(src, 0, mData, mCurSize, count);
+                mCurSize += count;
+            }
         };
 
         static class IntArray
@@ -219,6 +230,20 @@ public class X3Dobject {
                 }
                 mData[mCurSize++] = v;
             }
+
+            void add(int[] src, int count)
+            {
+                if (mData == null)
+                {
+                    mData = new int[Math.max(mMinSize, count)];
+                }
+                else if (mCurSize + count > mData.length)
+                {
+                    mData = Arrays.copyOf(mData, Math.max(mCurSize + count, (mCurSize * 3) / 2));
+                }
+                System.arraycopy(src, 0, mData, mCurSize, count);
+                mCurSize += count;
+            }
         };
 
         private IntArray mPositionIndices = new IntArray(64);
@@ -266,6 +291,14 @@ public class X3Dobject {
             mPositionIndices.add(index);
         }
 
+        /*
+         * Add the first count entries of an array of X3D position indices.
+         */
+        void addPositionIndices(int[] indices, int count)
+        {
+            mPositionIndices.add(indices, count);
+        }
+
         /*
          * Add a new X3D normal index to use in later generating vertex buffer.
          * These indices are the same as those in the X3D file.
@@ -275,6 +308,14 @@ public class X3Dobject {
             mNormalIndices.add(index);
         }
 
+        /*
+         * Add the first count entries of an array of X3D normal indices.
+         */
+        void addNormalIndices(int[] indices, int count)
+        {
+            mNormalIndices.add(indices, count);
+        }
+
         /*
          * Add a new X3D texture coordinate index to use in later generating the vertex buffer.
          * These indices are the same as those in the X3D file.
@@ -284,6 +325,14 @@ public class X3Dobject {
             mTexcoordIndices.add(index);
         }
 
+        /*
+         * Add the first count entries of an array of X3D texture coordinate indices.
+         */
+        void addTexcoordIndices(int[] indices, int count)
+        {
+            mTexcoordIndices.add(indices, count);
+        }
+
         /*
          * Add a position to the input vertex storage array.
          * These positions are the same as in the X3D file
@@ -297,6 +346,15 @@ public class X3Dobject {
             mInputPositions.add(pos);
         }
 
+        /*
+         * Add the first count floats of an array of positions (x, y, z)
+         * to the input vertex storage array.
+         */
+        void addInputPositions(float[] pos, int count)
+        {
+            mInputPositions.add(pos, count);
+        }
+
         /*
          * Add a normal to the input vertex storage array.
          * These normals are the same as in the X3D file
@@ -310,6 +368,15 @@ public class X3Dobject {
             mInputNormals.add(norm);
         }
 
+        /*
+         * Add the first count floats of an array of normals (x, y, z)
+         * to the input vertex storage array.
+         */
+        void addInputNormals(float[] norm, int count)
+        {
+            mInputNormals.add(norm, count);
+        }
+
         /*
          * Add a texture coordinate to the input vertex storage array.
          * These texture coordinates are the same as in the X3D file
@@ -323,6 +390,15 @@ public class X3Dobject {
             mInputTexCoords.add(tc);
         }
 
+        /*
+         * Add the first count floats of an array of texture coordinates (u, v)
+         * to the input vertex storage array.
+         */
+        void addInputTexcoords(float[] tc, int count)
+        {
+            mInputTexCoords.add(tc, count);
+        }
+
         /*
          * Generates normals for the output vertices by computing
          * face normals and averaging them.
@@ -619,7 +695,6 @@ public class X3Dobject {
     private final static int interpolatorKeyComponent = 7;
     private final static int interpolatorKeyValueComponent = 8;
     private final static int LODComponent = 9;
-    private final static int elevationGridHeight = 10;
     private boolean reorganizeVerts = false;
 
     private static final float CUBE_WIDTH = 20.0f; // used for cube maps
@@ -676,13 +751,17 @@ public class X3Dobject {
 
     private Vector<Key> keys = new Vector<Key>();
     private Vector<KeyValue> keyValues = new Vector<KeyValue>();
-    private Vector<Float> floatArray = new Vector<Float>();
 
     private Vector<TimeSensor> timeSensors = new Vector<TimeSensor>();
     private Vector<Interpolator> interpolators = new Vector<Interpolator>();
 
     private Vector<InlineObject> inlineObjects = new Vector<InlineObject>();
     private MeshCreator meshCreator = null;
+    private NumberParser numberParser = new NumberParser();
+
+    // Stage timings, in nanoseconds
+    private long parseTime = 0;
+    private long buildTime = 0;
 
     /**
      * public list of <Viewpoints> since camera position can be
@@ -975,98 +1054,47 @@ public class X3Dobject {
 
         private void parseNumbersString(String numberString, int componentType,
                                         int componentCount) {
-            StringReader sr = new StringReader(numberString);
-            StreamTokenizer st = new StreamTokenizer(sr);
-            st.parseNumbers();
-            int tokenType;
-            short componentShort[] = new short[componentCount];
-            float componentFloat[] = new float[componentCount];
-            try {
-                int index = 0;
-                while ((tokenType = st.nextToken()) != StreamTokenizer.TT_EOF) {
-                    if (tokenType == StreamTokenizer.TT_NUMBER) {
-
-                        // first componentType's parse for short values
-                        // (integers) and will have no exponents
-
-                        if (componentType == X3Dobject.indexedFaceSetComponent) {
-                            if ((int) st.nval != -1) {
-                                meshCreator.addPositionIndex((int) st.nval);
-                                index++;
-                                if (index == componentCount) {
-                                    index = 0;
-                                }
-                            }
-                        } else if (componentType == X3Dobject.textureIndexComponent) {
-                            if ((int) st.nval != -1) {
-                                meshCreator.addTexcoordIndex((int) st.nval);
-                                index++;
-                                if (index == componentCount) {
-                                    index = 0;
-                                }
-                            }
-                        } else if (componentType == X3Dobject.normalIndexComponent) {
-                            if ((int) st.nval != -1) {
-                                meshCreator.addNormalIndex((int) st.nval);
-                                index++;
-                                if (index == componentCount) {
-                                    index = 0;
-                                }
-                            }
-                        }
-
-                        // The rest of these will be parsing floats that could
-                        // have 'e' exponent value.  3DSMax will export X3D/VRML
-                        // with the 'e' exponent
-                        //TODO: check for 'e' exponent values.
-
-                        else if (componentType == X3Dobject.verticesComponent) {
-                            componentFloat[index] = (float) (st.nval);
-                            index++;
-                            if (index == componentCount) {
-                                    meshCreator.addInputPosition(componentFloat);
-                                index = 0;
-                            }
-                        } else if (componentType == X3Dobject.textureCoordComponent) {
-                            componentFloat[index] = (float) st.nval;
-                            index++;
-                            if (index == componentCount) {
-                                    meshCreator.addInputTexcoord(componentFloat);
-                                index = 0;
-                            }
-                        } else if (componentType == X3Dobject.normalsComponent) {
-                            componentFloat[index] = (float) st.nval;
-                            index++;
-                            if (index == componentCount) {
-                                    meshCreator.addInputNormal(componentFloat);
-                                index = 0;
-                            }
-                        } else if (componentType == X3Dobject.interpolatorKeyComponent) {
-                            componentFloat[index] = (float) st.nval;
-                            index++;
-                            if (index == componentCount) {
-                                AddKeys(componentFloat[0]);
-                                index = 0;
-                            }
-                        } else if (componentType == X3Dobject.interpolatorKeyValueComponent) {
-                            componentFloat[index] = (float) st.nval;
-                            index++;
-                            if (index == componentCount) {
-                                AddKeyValues(componentFloat);
-                                index = 0;
-                            }
-                        } else if (componentType == X3Dobject.LODComponent) {
-                            componentFloat[index] = (float) st.nval;
-                            AddKeys(componentFloat[0]);
-                        } else if (componentType == X3Dobject.elevationGridHeight) {
-                            floatArray.add(new Float((float) st.nval));
-                        }
+            // Indices are integers; the -1 which ends each face is dropped
+            if (componentType == X3Dobject.indexedFaceSetComponent) {
+                int count = numberParser.parseInts(numberString, -1);
+                meshCreator.addPositionIndices(numberParser.getInts(), count);
+                return;
+            } else if (componentType == X3Dobject.textureIndexComponent) {
+                int count = numberParser.parseInts(numberString, -1);
+                meshCreator.addTexcoordIndices(numberParser.getInts(), count);
+                return;
+            } else if (componentType == X3Dobject.normalIndexComponent) {
+                int count = numberParser.parseInts(numberString, -1);
+                meshCreator.addNormalIndices(numberParser.getInts(), count);
+                return;
+            }
 
-                    } // end if token = number
-                } // end while loop
-            } // end try statement
-            catch (IOException e) {
-                Log.e(TAG, "Error: parseNumbersString - " + e);
+            // The rest of these are floats, possibly with an 'e' exponent
+            // as 3DSMax exports them. An incomplete last tuple is ignored.
+            int count = numberParser.parseFloats(numberString);
+            float[] values = numberParser.getFloats();
+            count -= count % componentCount;
+
+            if (componentType == X3Dobject.verticesComponent) {
+                meshCreator.addInputPositions(values, count);
+            } else if (componentType == X3Dobject.textureCoordComponent) {
+                meshCreator.addInputTexcoords(values, count);
+            } else if (componentType == X3Dobject.normalsComponent) {
+                meshCreator.addInputNormals(values, count);
+            } else if (componentType == X3Dobject.interpolatorKeyComponent) {
+                for (int i = 0; i < count; i += componentCount) {
+                    AddKeys(values[i]);
+                }
+            } else if (componentType == X3Dobject.interpolatorKeyValueComponent) {
+                float componentFloat[] = new float[componentCount];
+                for (int i = 0; i < count; i += componentCount) {
+                    System.arraycopy(values, i, componentFloat, 0, componentCount);
+                    AddKeyValues(componentFloat);
+                }
+            } else if (componentType == X3Dobject.LODComponent) {
+                for (int i = 0; i < count; ++i) {
+                    AddKeys(values[i]);
+                }
             }
         } // parseNumbersString
 
@@ -3128,13 +3156,17 @@ public class X3Dobject {
                     }
                     attributeValue = attributes.getValue("height");
                     if (attributeValue != null) {
-                        parseNumbersString(attributeValue, X3Dobject.elevationGridHeight,
-                                xDimension * zDimension);
-                        height = new float[(xDimension + 1) * (zDimension + 1)];
-                        for (int i = 0; i < height.length; i++) {
-                            height[i] = floatArray.get(i);
+                        int heightCount = numberParser.parseFloats(attributeValue);
+                        int heightsExpected = (xDimension + 1) * (zDimension + 1);
+                        if (heightCount < heightsExpected) {
+                            Log.e(TAG, "ElevationGrid " + name + " has " + heightCount
+                                    + " heights, expected " + heightsExpected);
                         }
-                        floatArray.clear();
+                        // Missing heights are 0; the parser buffer holds stale
+                        // values past heightCount
+                        height = new float[heightsExpected];
+                        System.arraycopy(numberParser.getFloats(), 0, height, 0,
+                                Math.min(heightCount, heightsExpected));
                     }
 
                     if (height != null) {
@@ -3870,15 +3902,60 @@ public class X3Dobject {
 
     } // end UserHandler
 
+    /**
+     * Parses and builds an X3D file in one step.
+     * Errors are logged.
+     *
+     * @see #parseDocument(InputStream)
+     * @see #build(X3DDocument, ShaderSettings)
+     */
     public void Parse(InputStream inputStream, ShaderSettings shaderSettings) {
+        try {
+            build(parseDocument(inputStream), shaderSettings);
+        } catch (Exception exception) {
+            Log.e(TAG, "X3D/XML Parsing Exception = " + exception);
+        }
+
+    } // end Parse
+
+    /**
+     * Parse stage: reads and parses the XML of an X3D file.
+     * No GearVRf objects are created so this can run on any thread,
+     * ahead of {@link #build(X3DDocument, ShaderSettings)}.
+     *
+     * @param inputStream X3D file contents; the stream is not closed.
+     * @return the parsed document
+     * @throws IOException if the file cannot be read or is not valid XML
+     */
+    public X3DDocument parseDocument(InputStream inputStream) throws IOException {
+        long start = System.nanoTime();
+        try {
+            return X3DDocument.parse(inputStream);
+        } finally {
+            parseTime += System.nanoTime() - start;
+        }
+    }
+
+    /**
+     * Build stage: creates the scene objects, meshes, materials,
+     * animations and so on for a parsed X3D file and its Inline files
+     * under the root scene object. Errors are logged.
+     * <p>
+     * The document is replayed into the X3D handler, which creates the
+     * GearVRf objects as it goes: this stage runs on the loader thread,
+     * like {@link #Parse(InputStream, ShaderSettings)} always has.
+     *
+     * @param document       the parsed X3D file
+     * @param shaderSettings material settings
+     */
+    public void build(X3DDocument document, ShaderSettings shaderSettings) {
+        long start = System.nanoTime();
+        long inlineParseTime = parseTime;
         try {
             this.shaderSettings = shaderSettings;
 
-            // Parse the initial X3D file
-            SAXParserFactory factory = SAXParserFactory.newInstance();
-            SAXParser saxParser = factory.newSAXParser();
             UserHandler userhandler = new UserHandler();
-            saxParser.parse(inputStream, userhandler);
+            document.replay(userhandler);
 
             // parse the Inline files
             if (inlineObjects.size() != 0) {
@@ -3894,9 +3971,10 @@ public class X3Dobject {
                                 inlineSubdirectory = urls[j].substring(0, urls[j].lastIndexOf('/')+1);
                             }
                             gvrAndroidResource = new GVRAndroidResource(gvrContext, urls[j]);
-                            inputStream = gvrAndroidResource.getStream();
+                            InputStream inputStream = gvrAndroidResource.getStream();
+                            X3DDocument inlineDocument = parseDocument(inputStream);
                             currentSceneObject = inlineObject.getInlineGVRSceneObject();
-                            saxParser.parse(inputStream, userhandler);
+                            inlineDocument.replay(userhandler);
                         } catch (FileNotFoundException e) {
                             Log.e(TAG,
                                     "Inline file reading: File Not Found: url " + urls[j] + ", Exception "
@@ -3913,8 +3991,25 @@ public class X3Dobject {
                 }
             }
         } catch (Exception exception) {
-            Log.e(TAG, "X3D/XML Parsing Exception = " + exception);
+            Log.e(TAG, "X3D Build Exception = " + exception);
+        } finally {
+            // Inline files are parsed during the build; count them as parsing
+            inlineParseTime = parseTime - inlineParseTime;
+            buildTime += System.nanoTime() - start - inlineParseTime;
         }
+    } // end build
 
-    } // end Parse
+    /**
+     * @return total time spent parsing XML, in nanoseconds
+     */
+    public long getParseTime() {
+        return parseTime;
+    }
+
+    /**
+     * @return total time spent building scene objects, in nanoseconds
+     */
+    public long getBuildTime() {
+        return buildTime;
+    }
 }
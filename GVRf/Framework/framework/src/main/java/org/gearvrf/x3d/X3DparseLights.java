@@ -73,6 +73,24 @@ public class X3DparseLights
     }
   } // end Parse
 
+  /**
+   * Finds the lights in an X3D file which has already been parsed.
+   * @see X3Dobject#parseDocument(InputStream)
+   */
+  public void Parse(X3DDocument document, ShaderSettings shaderSettings)
+  {
+    try
+    {
+      this.shaderSettings = shaderSettings;
+      UserHandler userhandler = new UserHandler();
+      document.replay(userhandler);
+    }
+    catch (Exception e)
+    {
+      e.printStackTrace();
+    }
+  } // end Parse
+
   class UserHandler extends DefaultHandler
   {
     String attributeValue = null;
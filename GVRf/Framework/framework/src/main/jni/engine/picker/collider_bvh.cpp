@@ -0,0 +1,397 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/***************************************************************************
+ * Bounding volume hierarchy over the world space bounds of colliders.
+ ***************************************************************************/
+
+#include "collider_bvh.h"
+
+#include <algorithm>
+#include "objects/components/collider.h"
+
+namespace gvr {
+
+/*
+ * Leaf boxes are enlarged by this fraction of their size
+ * (plus a small constant) so that small movements do not
+ * force the collider to be reinserted.
+ */
+static const float LEAF_MARGIN_SCALE = 0.1f;
+static const float LEAF_MARGIN_MIN = 0.01f;
+
+ColliderBVH::ColliderBVH() :
+        root_(NULL_NODE),
+        free_list_(NULL_NODE)
+{ }
+
+void ColliderBVH::clear()
+{
+    nodes_.clear();
+    leaves_.clear();
+    unbounded_.clear();
+    root_ = NULL_NODE;
+    free_list_ = NULL_NODE;
+    std::lock_guard<std::mutex> lock(dirty_mutex_);
+    dirty_.clear();
+}
+
+int ColliderBVH::allocateNode()
+{
+    int index;
+
+    if (free_list_ != NULL_NODE)
+    {
+        index = free_list_;
+        free_list_ = nodes_[index].parent;
+    }
+    else
+    {
+        index = nodes_.size();
+        nodes_.push_back(Node());
+    }
+    Node& node = nodes_[index];
+    node.parent = NULL_NODE;
+    node.left = NULL_NODE;
+    node.right = NULL_NODE;
+    node.collider = NULL;
+    return index;
+}
+
+void ColliderBVH::freeNode(int index)
+{
+    Node& node = nodes_[index];
+    node.collider = NULL;
+    node.left = NULL_NODE;
+    node.right = NULL_NODE;
+    node.parent = free_list_;
+    free_list_ = index;
+}
+
+/*
+ * Add a collider to the hierarchy.
+ * Colliders without finite bounds are tested against every ray.
+ */
+void ColliderBVH::insert(Collider* collider)
+{
+    if (leaves_.find(collider) != leaves_.end())
+    {
+        return;
+    }
+    glm::vec3 minCorner;
+    glm::vec3 maxCorner;
+
+    if (!computeBounds(collider, minCorner, maxCorner))
+    {
+        leaves_[collider] = NULL_NODE;
+        unbounded_.push_back(collider);
+        return;
+    }
+    glm::vec3 margin(leafMargin(minCorner, maxCorner));
+    int leaf = allocateNode();
+    Node& node = nodes_[leaf];
+    node.minCorner = minCorner - margin;
+    node.maxCorner = maxCorner + margin;
+    node.collider = collider;
+    leaves_[collider] = leaf;
+    insertLeaf(leaf);
+}
+
+void ColliderBVH::remove(Collider* collider)
+{
+    auto it = leaves_.find(collider);
+
+    if (it == leaves_.end())
+    {
+        return;
+    }
+    int leaf = it->second;
+    leaves_.erase(it);
+    if (leaf == NULL_NODE)
+    {
+        unbounded_.erase(std::remove(unbounded_.begin(), unbounded_.end(), collider),
+                         unbounded_.end());
+    }
+    else
+    {
+        removeLeaf(leaf);
+        freeNode(leaf);
+    }
+    std::lock_guard<std::mutex> lock(dirty_mutex_);
+    dirty_.erase(collider);
+}
+
+void ColliderBVH::markDirty(Collider* collider)
+{
+    std::lock_guard<std::mutex> lock(dirty_mutex_);
+    dirty_.insert(collider);
+}
+
+void ColliderBVH::refit()
+{
+    {
+        std::lock_guard<std::mutex> lock(dirty_mutex_);
+        if (dirty_.empty())
+        {
+            return;
+        }
+        refit_list_.assign(dirty_.begin(), dirty_.end());
+        dirty_.clear();
+    }
+    for (auto it = refit_list_.begin(); it != refit_list_.end(); ++it)
+    {
+        reinsert(*it);
+    }
+    refit_list_.clear();
+}
+
+/*
+ * Update the leaf of a collider whose bounds may have changed.
+ * The leaf is only moved if the new bounds no longer fit
+ * inside of the enlarged leaf box.
+ */
+void ColliderBVH::reinsert(Collider* collider)
+{
+    auto it = leaves_.find(collider);
+
+    if (it == leaves_.end())
+    {
+        return;
+    }
+    int leaf = it->second;
+    glm::vec3 minCorner;
+    glm::vec3 maxCorner;
+    bool bounded = computeBounds(collider, minCorner, maxCorner);
+
+    if (leaf == NULL_NODE)
+    {
+        if (bounded)
+        {
+            unbounded_.erase(std::remove(unbounded_.begin(), unbounded_.end(), collider),
+                             unbounded_.end());
+            leaves_.erase(it);
+            insert(collider);
+        }
+        return;
+    }
+    if (!bounded)
+    {
+        removeLeaf(leaf);
+        freeNode(leaf);
+        it->second = NULL_NODE;
+        unbounded_.push_back(collider);
+        return;
+    }
+    Node& node = nodes_[leaf];
+    glm::vec3 margin(leafMargin(minCorner, maxCorner));
+
+    /*
+     * The leaf box is kept if it still contains the tight bounds
+     * and has not grown too large (the object shrank or stopped
+     * after moving a long way).
+     */
+    if (glm::all(glm::lessThanEqual(node.minCorner, minCorner)) &&
+        glm::all(glm::greaterThanEqual(node.maxCorner, maxCorner)) &&
+        glm::all(glm::greaterThanEqual(node.minCorner, minCorner - 4.0f * margin)) &&
+        glm::all(glm::lessThanEqual(node.maxCorner, maxCorner + 4.0f * margin)))
+    {
+        return;
+    }
+    removeLeaf(leaf);
+    node.minCorner = minCorner - margin;
+    node.maxCorner = maxCorner + margin;
+    insertLeaf(leaf);
+}
+
+/*
+ * Get the world bounds of a collider.
+ * @returns false if the collider does not have finite bounds.
+ */
+bool ColliderBVH::computeBounds(Collider* collider, glm::vec3& minCorner, glm::vec3& maxCorner)
+{
+    if (!collider->getWorldBounds(minCorner, maxCorner))
+    {
+        return false;
+    }
+    if (!glm::all(glm::lessThanEqual(minCorner, maxCorner)) ||
+        glm::any(glm::isinf(minCorner)) || glm::any(glm::isinf(maxCorner)))
+    {
+        return false;
+    }
+    return true;
+}
+
+glm::vec3 ColliderBVH::leafMargin(const glm::vec3& minCorner, const glm::vec3& maxCorner)
+{
+    return (maxCorner - minCorner) * LEAF_MARGIN_SCALE + LEAF_MARGIN_MIN;
+}
+
+float ColliderBVH::surfaceArea(const glm::vec3& minCorner, const glm::vec3& maxCorner)
+{
+    glm::vec3 d(maxCorner - minCorner);
+    return 2.0f * (d.x * d.y + d.y * d.z + d.z * d.x);
+}
+
+/*
+ * Insert a leaf node into the tree.
+ * The sibling is chosen by descending from the root and picking
+ * the child which causes the least increase in surface area.
+ */
+void ColliderBVH::insertLeaf(int leaf)
+{
+    if (root_ == NULL_NODE)
+    {
+        root_ = leaf;
+        nodes_[leaf].parent = NULL_NODE;
+        return;
+    }
+    glm::vec3 leafMin(nodes_[leaf].minCorner);
+    glm::vec3 leafMax(nodes_[leaf].maxCorner);
+    int index = root_;
+
+    while (!nodes_[index].isLeaf())
+    {
+        const Node& node = nodes_[index];
+        const Node& left = nodes_[node.left];
+        const Node& right = nodes_[node.right];
+        float area = surfaceArea(node.minCorner, node.maxCorner);
+        float combinedArea = surfaceArea(glm::min(node.minCorner, leafMin),
+                                         glm::max(node.maxCorner, leafMax));
+        float cost = 2.0f * combinedArea;
+        float inheritanceCost = 2.0f * (combinedArea - area);
+        float costLeft = surfaceArea(glm::min(left.minCorner, leafMin),
+                                     glm::max(left.maxCorner, leafMax)) + inheritanceCost;
+        float costRight = surfaceArea(glm::min(right.minCorner, leafMin),
+                                      glm::max(right.maxCorner, leafMax)) + inheritanceCost;
+
+        if (!left.isLeaf())
+        {
+            costLeft -= surfaceArea(left.minCorner, left.maxCorner);
+        }
+        if (!right.isLeaf())
+        {
+            costRight -= surfaceArea(right.minCorner, right.maxCorner);
+        }
+        if ((cost < costLeft) && (cost < costRight))
+        {
+            break;
+        }
+        index = (costLeft < costRight) ? node.left : node.right;
+    }
+
+    int sibling = index;
+    int oldParent = nodes_[sibling].parent;
+    int newParent = allocateNode();
+    Node& parent = nodes_[newParent];
+
+    parent.parent = oldParent;
+    parent.minCorner = glm::min(nodes_[sibling].minCorner, leafMin);
+    parent.maxCorner = glm::max(nodes_[sibling].maxCorner, leafMax);
+    parent.left = sibling;
+    parent.right = leaf;
+    nodes_[sibling].parent = newParent;
+    nodes_[leaf].parent = newParent;
+    if (oldParent == NULL_NODE)
+    {
+        root_ = newParent;
+    }
+    else
+    {
+        if (nodes_[oldParent].left == sibling)
+        {
+            nodes_[oldParent].left = newParent;
+        }
+        else
+        {
+            nodes_[oldParent].right = newParent;
+        }
+        refitAncestors(oldParent);
+    }
+}
+
+/*
+ * Remove a leaf node from the tree.
+ * The leaf node itself is not freed.
+ */
+void ColliderBVH::removeLeaf(int leaf)
+{
+    if (leaf == root_)
+    {
+        root_ = NULL_NODE;
+        return;
+    }
+    int parent = nodes_[leaf].parent;
+    int grandParent = nodes_[parent].parent;
+    int sibling = (nodes_[parent].left == leaf) ? nodes_[parent].right : nodes_[parent].left;
+
+    if (grandParent == NULL_NODE)
+    {
+        root_ = sibling;
+        nodes_[sibling].parent = NULL_NODE;
+    }
+    else
+    {
+        if (nodes_[grandParent].left == parent)
+        {
+            nodes_[grandParent].left = sibling;
+        }
+        else
+        {
+            nodes_[grandParent].right = sibling;
+        }
+        nodes_[sibling].parent = grandParent;
+        refitAncestors(grandParent);
+    }
+    freeNode(parent);
+    nodes_[leaf].parent = NULL_NODE;
+}
+
+void ColliderBVH::refitAncestors(int index)
+{
+    while (index != NULL_NODE)
+    {
+        Node& node = nodes_[index];
+        const Node& left = nodes_[node.left];
+        const Node& right = nodes_[node.right];
+
+        node.minCorner = glm::min(left.minCorner, right.minCorner);
+        node.maxCorner = glm::max(left.maxCorner, right.maxCorner);
+        index = node.parent;
+    }
+}
+
+/*
+ * Slab test of a ray against an axis aligned box.
+ * @returns distance along the ray where it enters the box
+ *          (0 if the ray starts inside) or -1 if it misses.
+ */
+float ColliderBVH::intersectBox(const glm::vec3& rayStart, const glm::vec3& invDir,
+                                const glm::vec3& minCorner, const glm::vec3& maxCorner)
+{
+    glm::vec3 t1((minCorner - rayStart) * invDir);
+    glm::vec3 t2((maxCorner - rayStart) * invDir);
+    glm::vec3 tsmall(glm::min(t1, t2));
+    glm::vec3 tbig(glm::max(t1, t2));
+    float tmin = std::max(std::max(tsmall.x, tsmall.y), tsmall.z);
+    float tmax = std::min(std::min(tbig.x, tbig.y), tbig.z);
+
+    if ((tmax < 0) || (tmin > tmax))
+    {
+        return -1.0f;
+    }
+    return (tmin < 0) ? 0.0f : tmin;
+}
+
+}
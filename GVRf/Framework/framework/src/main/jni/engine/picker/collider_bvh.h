@@ -0,0 +1,193 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+/***************************************************************************
+ * Bounding volume hierarchy over the world space bounds of colliders.
+ ***************************************************************************/
+
+#ifndef COLLIDER_BVH_H_
+#define COLLIDER_BVH_H_
+
+#include <limits>
+#include <mutex>
+#include <unordered_map>
+#include <unordered_set>
+#include <vector>
+#include "glm/glm.hpp"
+
+namespace gvr {
+class Collider;
+
+/*
+ * Dynamic AABB tree of colliders used to accelerate ray picking.
+ *
+ * Each collider is a leaf whose box is the collider's world bounds
+ * enlarged by a small margin. Colliders which move are marked dirty
+ * (usually from a transform change) and are only reinserted on the
+ * next refit() if they have left their enlarged box, so static and
+ * slowly moving objects cost nothing per frame.
+ *
+ * Colliders which cannot provide finite bounds are kept in a separate
+ * list and tested against every ray.
+ *
+ * Except for markDirty, which may be called from any thread, the
+ * tree must be accessed under the scene's collider lock.
+ */
+class ColliderBVH {
+public:
+    ColliderBVH();
+    ~ColliderBVH() { }
+
+    void clear();
+    void insert(Collider* collider);
+    void remove(Collider* collider);
+
+    /*
+     * Note that the bounds of a collider may have changed.
+     * The tree is updated on the next call to refit.
+     */
+    void markDirty(Collider* collider);
+
+    /*
+     * Recompute the bounds of all dirty colliders and
+     * reinsert those which moved outside of their leaf box.
+     */
+    void refit();
+
+    int getColliderCount() const {
+        return leaves_.size();
+    }
+
+    /*
+     * Visit every collider whose bounds the input ray passes through.
+     * Nodes are visited front to back and subtrees which start
+     * farther away than maxDistance are skipped. The visitor may
+     * decrease maxDistance to prune the rest of the traversal.
+     *
+     * @param rayStart      origin of the ray in world coordinates
+     * @param rayDir        normalized direction of the ray in world coordinates
+     * @param maxDistance   farthest distance along the ray to consider
+     * @param visit         called with each candidate Collider*
+     */
+    template <class Visitor>
+    void raycast(const glm::vec3& rayStart, const glm::vec3& rayDir,
+                 float& maxDistance, Visitor visit);
+
+private:
+    struct Node {
+        glm::vec3   minCorner;
+        glm::vec3   maxCorner;
+        int         parent;
+        int         left;
+        int         right;
+        Collider*   collider;
+
+        bool isLeaf() const { return left < 0; }
+    };
+
+    ColliderBVH(const ColliderBVH& bvh) = delete;
+    ColliderBVH(ColliderBVH&& bvh) = delete;
+    ColliderBVH& operator=(const ColliderBVH& bvh) = delete;
+    ColliderBVH& operator=(ColliderBVH&& bvh) = delete;
+
+    int  allocateNode();
+    void freeNode(int index);
+    void insertLeaf(int leaf);
+    void removeLeaf(int leaf);
+    void refitAncestors(int index);
+    void reinsert(Collider* collider);
+    bool computeBounds(Collider* collider, glm::vec3& minCorner, glm::vec3& maxCorner);
+    static glm::vec3 leafMargin(const glm::vec3& minCorner, const glm::vec3& maxCorner);
+    static float intersectBox(const glm::vec3& rayStart, const glm::vec3& invDir,
+                              const glm::vec3& minCorner, const glm::vec3& maxCorner);
+    static bool inRange(float t, float maxDistance) {
+        return (t >= 0) && (t <= maxDistance);
+    }
+    static float surfaceArea(const glm::vec3& minCorner, const glm::vec3& maxCorner);
+
+private:
+    static const int NULL_NODE = -1;
+
+    std::vector<Node>   nodes_;
+    int                 root_;
+    int                 free_list_;
+    std::unordered_map<Collider*, int> leaves_;     // leaf index or NULL_NODE if unbounded
+    std::vector<Collider*> unbounded_;
+    std::vector<int>    stack_;
+    std::mutex          dirty_mutex_;
+    std::unordered_set<Collider*> dirty_;
+    std::vector<Collider*> refit_list_;
+};
+
+template <class Visitor>
+void ColliderBVH::raycast(const glm::vec3& rayStart, const glm::vec3& rayDir,
+                          float& maxDistance, Visitor visit)
+{
+    for (auto it = unbounded_.begin(); it != unbounded_.end(); ++it)
+    {
+        visit(*it);
+    }
+    if (root_ == NULL_NODE)
+    {
+        return;
+    }
+    glm::vec3 invDir(1.0f / rayDir.x, 1.0f / rayDir.y, 1.0f / rayDir.z);
+
+    stack_.clear();
+    stack_.push_back(root_);
+    while (!stack_.empty())
+    {
+        int index = stack_.back();
+        const Node& node = nodes_[index];
+
+        stack_.pop_back();
+        if (!inRange(intersectBox(rayStart, invDir, node.minCorner, node.maxCorner), maxDistance))
+        {
+            continue;
+        }
+        if (node.isLeaf())
+        {
+            visit(node.collider);
+            continue;
+        }
+        /*
+         * Push the farther child first so the nearer one
+         * is visited first and can shrink maxDistance.
+         */
+        float tleft = intersectBox(rayStart, invDir, nodes_[node.left].minCorner, nodes_[node.left].maxCorner);
+        float tright = intersectBox(rayStart, invDir, nodes_[node.right].minCorner, nodes_[node.right].maxCorner);
+        int nearChild = node.left;
+        int farChild = node.right;
+
+        if (inRange(tright, tleft) || !inRange(tleft, maxDistance))
+        {
+            std::swap(nearChild, farChild);
+            std::swap(tleft, tright);
+        }
+        if (inRange(tright, maxDistance))
+        {
+            stack_.push_back(farChild);
+        }
+        if (inRange(tleft, maxDistance))
+        {
+            stack_.push_back(nearChild);
+        }
+    }
+}
+
+}
+
+#endif
@@ -40,19 +40,25 @@ void Picker::pickScene(Scene* scene, std::vector<ColliderData>& picklist, Transf
                        float ox, float oy, float oz, float dx, float dy, float dz) {
     glm::vec3 ray_start(ox, oy, oz);
     glm::vec3 ray_dir(dx, dy, dz);
-    const std::vector<Component*>& colliders = scene->lockColliders();
     const glm::mat4& model_matrix = t->getModelMatrix();
 
     Collider::transformRay(model_matrix, ray_start, ray_dir);
-    for (auto it = colliders.begin(); it != colliders.end(); ++it) {
-        Collider* collider = static_cast<Collider*>(*it);
-        SceneObject* owner = collider->owner_object();
-        if (collider->enabled() && (owner != NULL) && owner->enabled()) {
-            ColliderData data = collider->isHit(ray_start, ray_dir);
-            if ((collider->pick_distance() > 0) && (collider->pick_distance() < data.Distance)) {
-                data.IsHit = false;
+    ColliderBVH* bvh = scene->lockColliderHierarchy();
+    if (bvh != NULL) {
+        float maxDistance = std::numeric_limits<float>::infinity();
+        bvh->raycast(ray_start, ray_dir, maxDistance,
+                     [&picklist, &ray_start, &ray_dir](Collider* collider) {
+            ColliderData data;
+            if (hitCollider(collider, ray_start, ray_dir, data)) {
+                picklist.push_back(data);
             }
-            if (data.IsHit) {
+        });
+    } else {
+        const std::vector<Component*>& colliders = scene->getLockedColliders();
+        for (auto it = colliders.begin(); it != colliders.end(); ++it) {
+            Collider* collider = static_cast<Collider*>(*it);
+            ColliderData data;
+            if (hitCollider(collider, ray_start, ray_dir, data)) {
                 picklist.push_back(data);
             }
         }
@@ -61,6 +67,74 @@ void Picker::pickScene(Scene* scene, std::vector<ColliderData>& picklist, Transf
     scene->unlockColliders();
 }
 
+/*
+ * Intersects all the colliders in the scene with a set of rays
+ * and returns the list of collisions.
+ * Each ray is 6 floats (origin followed by direction) in the
+ * coordinate system of the input transform, or in world
+ * coordinates if the transform is NULL.
+ * The collider list is locked once for all the rays and each
+ * collider is tested against all the rays before moving on.
+ * The index of the ray that hit is returned as the CollidableIndex
+ * field of the ColliderData. Collisions are sorted by ray index
+ * and then by distance.
+ */
+void Picker::pickSceneMulti(Scene* scene, std::vector<ColliderData>& picklist, Transform* t,
+                            const float* rays, int rayCount) {
+    std::vector<glm::vec3> ray_starts(rayCount);
+    std::vector<glm::vec3> ray_dirs(rayCount);
+
+    if (t != NULL) {
+        glm::mat4 model_matrix = t->getModelMatrix();
+        for (int r = 0; r < rayCount; ++r) {
+            const float* ray = rays + r * 6;
+            ray_starts[r] = glm::vec3(ray[0], ray[1], ray[2]);
+            ray_dirs[r] = glm::vec3(ray[3], ray[4], ray[5]);
+            Collider::transformRay(model_matrix, ray_starts[r], ray_dirs[r]);
+        }
+    } else {
+        for (int r = 0; r < rayCount; ++r) {
+            const float* ray = rays + r * 6;
+            ray_starts[r] = glm::vec3(ray[0], ray[1], ray[2]);
+            ray_dirs[r] = glm::normalize(glm::vec3(ray[3], ray[4], ray[5]));
+        }
+    }
+    ColliderBVH* bvh = scene->lockColliderHierarchy();
+    if (bvh != NULL) {
+        for (int r = 0; r < rayCount; ++r) {
+            const glm::vec3& ray_start = ray_starts[r];
+            const glm::vec3& ray_dir = ray_dirs[r];
+            float maxDistance = std::numeric_limits<float>::infinity();
+            bvh->raycast(ray_start, ray_dir, maxDistance,
+                         [&picklist, &ray_start, &ray_dir, r](Collider* collider) {
+                ColliderData data;
+                if (hitCollider(collider, ray_start, ray_dir, data)) {
+                    data.CollidableIndex = r;
+                    picklist.push_back(data);
+                }
+            });
+        }
+    } else {
+        const std::vector<Component*>& colliders = scene->getLockedColliders();
+        for (auto it = colliders.begin(); it != colliders.end(); ++it) {
+            Collider* collider = static_cast<Collider*>(*it);
+            SceneObject* owner = collider->owner_object();
+            if (!collider->enabled() || (owner == NULL) || !owner->enabled()) {
+                continue;
+            }
+            for (int r = 0; r < rayCount; ++r) {
+                ColliderData data;
+                if (hitCollider(collider, ray_starts[r], ray_dirs[r], data)) {
+                    data.CollidableIndex = r;
+                    picklist.push_back(data);
+                }
+            }
+        }
+    }
+    scene->unlockColliders();
+    std::sort(picklist.begin(), picklist.end(), compareColliderDataByIndex);
+}
+
 /*
  * Intersects all the colliders in the scene with the input ray
  * and returns the one closest to the camera.
@@ -73,23 +147,37 @@ void Picker::pickClosest(Scene* scene,
 {
     glm::vec3 ray_start(ox, oy, oz);
     glm::vec3 ray_dir(dx, dy, dz);
-    const std::vector<Component*>& colliders = scene->lockColliders();
     const glm::mat4& model_matrix = t->getModelMatrix();
 
     closest.Distance = std::numeric_limits<float>::infinity();
     Collider::transformRay(model_matrix, ray_start, ray_dir);
-    for (auto it = colliders.begin(); it != colliders.end(); ++it)
+    ColliderBVH* bvh = scene->lockColliderHierarchy();
+    if (bvh != NULL)
     {
-        Collider* collider = reinterpret_cast<Collider*>(*it);
-        SceneObject* owner = collider->owner_object();
-        if (collider->enabled() && (owner != NULL) && owner->enabled())
+        /*
+         * Collider hit distances are not always in world units
+         * (mesh colliders report them in mesh coordinates)
+         * so the traversal is not pruned by the closest hit.
+         */
+        float maxDistance = std::numeric_limits<float>::infinity();
+        bvh->raycast(ray_start, ray_dir, maxDistance,
+                     [&closest, &ray_start, &ray_dir](Collider* collider)
         {
-            ColliderData data = collider->isHit(ray_start, ray_dir);
-            if ((collider->pick_distance() > 0) && (collider->pick_distance() < data.Distance))
+            ColliderData data;
+            if (hitCollider(collider, ray_start, ray_dir, data) && (data.Distance < closest.Distance))
             {
-                data.IsHit = false;
+                closest = data;
             }
-            if (data.IsHit && (data.Distance < closest.Distance))
+        });
+    }
+    else
+    {
+        const std::vector<Component*>& colliders = scene->getLockedColliders();
+        for (auto it = colliders.begin(); it != colliders.end(); ++it)
+        {
+            Collider* collider = static_cast<Collider*>(*it);
+            ColliderData data;
+            if (hitCollider(collider, ray_start, ray_dir, data) && (data.Distance < closest.Distance))
             {
                 closest = data;
             }
@@ -98,6 +186,29 @@ void Picker::pickClosest(Scene* scene,
     scene->unlockColliders();
 }
 
+/*
+ * Hit test a single collider against a ray in world coordinates.
+ * Disabled colliders and hits beyond the collider's pick distance
+ * are ignored.
+ * @returns true if the collider was hit
+ */
+bool Picker::hitCollider(Collider* collider,
+                         const glm::vec3& ray_start, const glm::vec3& ray_dir,
+                         ColliderData& data)
+{
+    SceneObject* owner = collider->owner_object();
+    if (!collider->enabled() || (owner == NULL) || !owner->enabled())
+    {
+        return false;
+    }
+    data = collider->isHit(ray_start, ray_dir);
+    if ((collider->pick_distance() > 0) && (collider->pick_distance() < data.Distance))
+    {
+        data.IsHit = false;
+    }
+    return data.IsHit;
+}
+
 /*
  * Intersects all the colliders in the scene with the set of
  * input scene objects (collidables) and returns the list of collisions.
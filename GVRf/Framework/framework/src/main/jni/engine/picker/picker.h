@@ -46,6 +46,10 @@ public:
             Transform* t,
             float ox, float oy, float oz,
             float dx, float dy, float dz);
+    static void pickSceneMulti(
+            Scene* scene, std::vector<ColliderData>& pickList,
+            Transform* t,
+            const float* rays, int rayCount);
     static void pickClosest(
             Scene* scene,
             ColliderData& closest,
@@ -64,6 +68,11 @@ public:
     static glm::vec3 pickSceneObjectAgainstBoundingBox(
             const SceneObject* scene_object, float ox, float oy, float oz,
             float dx, float dy, float dz);
+
+private:
+    static bool hitCollider(Collider* collider,
+            const glm::vec3& ray_start, const glm::vec3& ray_dir,
+            ColliderData& data);
 };
 
 }
@@ -46,6 +46,14 @@ extern "C" {
     Java_org_gearvrf_NativePicker_pickObjects(JNIEnv * env,
             jobject obj, jlong jscene, jlong jtransform, jfloat ox, jfloat oy, jfloat oz, jfloat dx,
             jfloat dy, jfloat dz);
+    JNIEXPORT jint JNICALL
+    Java_org_gearvrf_NativePicker_pickObjectsIntoBuffer(JNIEnv * env,
+            jobject obj, jlong jscene, jlong jtransform,
+            jfloat ox, jfloat oy, jfloat oz, jfloat dx, jfloat dy, jfloat dz,
+            jboolean closest, jlongArray jcolliders, jintArray jfaceIndices, jfloatArray jhitData);
+    JNIEXPORT jobject JNICALL
+    Java_org_gearvrf_NativePicker_pickObjectsMulti(JNIEnv * env,
+            jobject obj, jlong jscene, jlong jtransform, jfloatArray jrays, jint rayCount);
     JNIEXPORT jobject JNICALL
     Java_org_gearvrf_NativePicker_pickSceneObject(JNIEnv * env,
             jobject obj, jlong jscene_object, jfloat ox, jfloat oy, jfloat oz,
@@ -134,6 +142,131 @@ Java_org_gearvrf_NativePicker_pickObjects(JNIEnv * env,
     return pickList;
 }
 
+/*
+ * Picks the scene and copies the results into the arrays of a
+ * GVRPickResultBuffer instead of allocating Java objects.
+ * Only as many hits as fit in the arrays are copied.
+ * Returns the total number of hits.
+ */
+JNIEXPORT jint JNICALL
+Java_org_gearvrf_NativePicker_pickObjectsIntoBuffer(JNIEnv * env,
+        jobject obj, jlong jscene, jlong jtransform,
+        jfloat ox, jfloat oy, jfloat oz, jfloat dx, jfloat dy, jfloat dz,
+        jboolean closest, jlongArray jcolliders, jintArray jfaceIndices, jfloatArray jhitData)
+{
+    const int HIT_DATA_SIZE = 12;
+    Scene* scene = reinterpret_cast<Scene*>(jscene);
+    Transform* t = reinterpret_cast<Transform*>(jtransform);
+    std::vector<ColliderData> colliders;
+
+    if (t == NULL)
+    {
+        t = scene->main_camera_rig()->getHeadTransform();
+    }
+    if (closest)
+    {
+        ColliderData data;
+        Picker::pickClosest(scene, data, t, ox, oy, oz, dx, dy, dz);
+        if (data.IsHit)
+        {
+            colliders.push_back(data);
+        }
+    }
+    else
+    {
+        Picker::pickScene(scene, colliders, t, ox, oy, oz, dx, dy, dz);
+    }
+
+    int capacity = env->GetArrayLength(jcolliders);
+    int size = colliders.size();
+    int n = (size < capacity) ? size : capacity;
+    if (n == 0)
+    {
+        return size;
+    }
+    jlong* colliderPtrs = static_cast<jlong*>(env->GetPrimitiveArrayCritical(jcolliders, 0));
+    jint* faceIndices = static_cast<jint*>(env->GetPrimitiveArrayCritical(jfaceIndices, 0));
+    jfloat* hitData = static_cast<jfloat*>(env->GetPrimitiveArrayCritical(jhitData, 0));
+
+    for (int i = 0; i < n; ++i)
+    {
+        const ColliderData& data = colliders[i];
+        MeshCollider* meshCollider = (MeshCollider *) data.ColliderHit;
+        bool meshCoords = meshCollider &&
+                          (meshCollider->shape_type() == COLLIDER_SHAPE_MESH) &&
+                          meshCollider->pickCoordinatesEnabled();
+        jfloat* hit = hitData + i * HIT_DATA_SIZE;
+
+        colliderPtrs[i] = reinterpret_cast<jlong>(data.ColliderHit);
+        faceIndices[i] = meshCoords ? data.FaceIndex : -1;
+        hit[0] = data.Distance;
+        hit[1] = data.HitPosition.x;
+        hit[2] = data.HitPosition.y;
+        hit[3] = data.HitPosition.z;
+        hit[4] = data.BarycentricCoordinates.x;
+        hit[5] = data.BarycentricCoordinates.y;
+        hit[6] = data.BarycentricCoordinates.z;
+        hit[7] = data.TextureCoordinates.x;
+        hit[8] = data.TextureCoordinates.y;
+        hit[9] = data.NormalCoordinates.x;
+        hit[10] = data.NormalCoordinates.y;
+        hit[11] = data.NormalCoordinates.z;
+    }
+    env->ReleasePrimitiveArrayCritical(jhitData, hitData, 0);
+    env->ReleasePrimitiveArrayCritical(jfaceIndices, faceIndices, 0);
+    env->ReleasePrimitiveArrayCritical(jcolliders, colliderPtrs, 0);
+    return size;
+}
+
+/*
+ * Picks the scene with several rays at once.
+ * The results are returned in flat arrays inside a single
+ * GVRMultiPickResult instead of one GVRPickedObject per hit.
+ */
+JNIEXPORT jobject JNICALL
+Java_org_gearvrf_NativePicker_pickObjectsMulti(JNIEnv * env,
+        jobject obj, jlong jscene, jlong jtransform, jfloatArray jrays, jint rayCount)
+{
+    Scene* scene = reinterpret_cast<Scene*>(jscene);
+    Transform* t = reinterpret_cast<Transform*>(jtransform);
+    std::vector<ColliderData> colliders;
+    jfloat* rays = env->GetFloatArrayElements(jrays, 0);
+
+    Picker::pickSceneMulti(scene, colliders, t, rays, rayCount);
+    env->ReleaseFloatArrayElements(jrays, rays, JNI_ABORT);
+
+    int size = colliders.size();
+    jlongArray jcolliders = env->NewLongArray(size);
+    jintArray jrayIndices = env->NewIntArray(size);
+    jfloatArray jhitData = env->NewFloatArray(size * 4);
+    jlong* colliderPtrs = env->GetLongArrayElements(jcolliders, 0);
+    jint* rayIndices = env->GetIntArrayElements(jrayIndices, 0);
+    jfloat* hitData = env->GetFloatArrayElements(jhitData, 0);
+
+    for (int i = 0; i < size; ++i)
+    {
+        const ColliderData& data = colliders[i];
+        colliderPtrs[i] = reinterpret_cast<jlong>(data.ColliderHit);
+        rayIndices[i] = data.CollidableIndex;
+        hitData[i * 4] = data.Distance;
+        hitData[i * 4 + 1] = data.HitPosition.x;
+        hitData[i * 4 + 2] = data.HitPosition.y;
+        hitData[i * 4 + 3] = data.HitPosition.z;
+    }
+    env->ReleaseLongArrayElements(jcolliders, colliderPtrs, 0);
+    env->ReleaseIntArrayElements(jrayIndices, rayIndices, 0);
+    env->ReleaseFloatArrayElements(jhitData, hitData, 0);
+
+    jclass resultClass = env->FindClass("org/gearvrf/GVRPicker$GVRMultiPickResult");
+    jmethodID ctor = env->GetMethodID(resultClass, "<init>", "(I[J[I[F)V");
+    jobject result = env->NewObject(resultClass, ctor, rayCount, jcolliders, jrayIndices, jhitData);
+    env->DeleteLocalRef(resultClass);
+    env->DeleteLocalRef(jcolliders);
+    env->DeleteLocalRef(jrayIndices);
+    env->DeleteLocalRef(jhitData);
+    return result;
+}
+
 JNIEXPORT jobject JNICALL
 Java_org_gearvrf_NativePicker_pickClosest(JNIEnv * env,
                                           jobject obj, jlong jscene, jlong jtransform,
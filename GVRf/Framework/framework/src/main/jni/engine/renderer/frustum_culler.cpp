@@ -0,0 +1,417 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/***************************************************************************
+ * Flattened, multithreaded view frustum culling.
+ ***************************************************************************/
+
+#include "frustum_culler.h"
+
+#include <algorithm>
+#include "objects/scene_object.h"
+#include "objects/components/render_data.h"
+
+namespace gvr {
+
+/*
+ * Scenes smaller than this are culled on the calling thread.
+ * Subtrees are never split into tasks smaller than MIN_GRAIN nodes.
+ */
+static const int PARALLEL_THRESHOLD = 512;
+static const int MIN_GRAIN = 128;
+static const int MAX_WORKERS = 3;
+
+enum {
+    OUTSIDE, INTERSECT, INSIDE
+};
+
+FrustumCuller::FrustumCuller(int thread_count) :
+        grain_(0),
+        next_task_(0),
+        busy_workers_(0),
+        generation_(0),
+        stop_(false)
+{
+    if (thread_count < 0)
+    {
+        thread_count = std::thread::hardware_concurrency() - 1;
+        thread_count = std::min(std::max(thread_count, 0), MAX_WORKERS);
+    }
+    for (int i = 0; i < thread_count; ++i)
+    {
+        workers_.push_back(std::thread(&FrustumCuller::workerLoop, this));
+    }
+}
+
+FrustumCuller::~FrustumCuller()
+{
+    {
+        std::lock_guard<std::mutex> lock(mutex_);
+        stop_ = true;
+    }
+    work_cv_.notify_all();
+    for (auto it = workers_.begin(); it != workers_.end(); ++it)
+    {
+        it->join();
+    }
+}
+
+void FrustumCuller::cull(SceneObject* root, const glm::vec3& camera_position,
+                         const float frustum[6][4], bool need_cull,
+                         std::vector<SceneObject*>& scene_objects)
+{
+    camera_position_ = camera_position;
+    for (int p = 0; p < 6; ++p)
+    {
+        for (int i = 0; i < 4; ++i)
+        {
+            frustum_[p][i] = frustum[p][i];
+        }
+    }
+    nodes_.clear();
+    items_.clear();
+    tasks_.clear();
+    flatten(root);
+    if (nodes_.empty())
+    {
+        return;
+    }
+    int numNodes = nodes_.size();
+    if (workers_.empty() || (numNodes < PARALLEL_THRESHOLD))
+    {
+        cullSubtree(0, need_cull, 0, scene_objects);
+        return;
+    }
+
+    /*
+     * Aim for several tasks per thread so that uneven
+     * subtrees still keep all of the threads busy.
+     */
+    grain_ = std::max(MIN_GRAIN, numNodes / (4 * (int) (workers_.size() + 1)));
+    split(0, need_cull, 0);
+    if (task_results_.size() < tasks_.size())
+    {
+        task_results_.resize(tasks_.size());
+    }
+    runTasks();
+
+    for (auto it = items_.begin(); it != items_.end(); ++it)
+    {
+        if (it->task < 0)
+        {
+            scene_objects.push_back(nodes_[it->node].object);
+        }
+        else
+        {
+            const std::vector<SceneObject*>& visible = task_results_[it->task];
+            scene_objects.insert(scene_objects.end(), visible.begin(), visible.end());
+        }
+    }
+}
+
+/*
+ * Append an enabled scene object and its enabled descendants
+ * to the node array in depth first order.
+ */
+void FrustumCuller::flatten(SceneObject* object)
+{
+    if (!object->enabled())
+    {
+        return;
+    }
+    int index = nodes_.size();
+    const BoundingVolume& bv = object->getBoundingVolume();
+    const BoundingVolume& meshBV = object->getMeshBoundingVolume();
+    RenderData* rdata = object->render_data();
+    int numChildren = object->getChildrenCount();
+
+    nodes_.push_back(CullNode());
+    CullNode& node = nodes_.back();
+    node.min_corner = bv.min_corner();
+    node.max_corner = bv.max_corner();
+    node.mesh_min_corner = meshBV.min_corner();
+    node.mesh_max_corner = meshBV.max_corner();
+    node.center = bv.center();
+    node.object = object;
+    node.render_data = rdata;
+    node.visible = object->visible();
+    node.drawable = (rdata != NULL) && (rdata->pass(0)->material() != NULL);
+    node.has_children = numChildren > 0;
+    for (int i = 0; i < numChildren; ++i)
+    {
+        flatten(object->getChildByIndex(i));
+    }
+    nodes_[index].end = nodes_.size();
+}
+
+/*
+ * Cull the top of the hierarchy on the calling thread until
+ * the remaining subtrees are small enough to become tasks.
+ * The items are recorded in depth first order so the task
+ * results can be merged in the same order as a serial cull.
+ */
+void FrustumCuller::split(int index, bool need_cull, int plane_mask)
+{
+    const CullNode& node = nodes_[index];
+
+    if (node.end - index <= grain_)
+    {
+        CullItem item = { index, (int) tasks_.size(), need_cull, plane_mask };
+        tasks_.push_back(items_.size());
+        items_.push_back(item);
+        return;
+    }
+    bool visible;
+    if (!cullNode(node, need_cull, plane_mask, visible))
+    {
+        return;
+    }
+    if (visible)
+    {
+        CullItem item = { index, -1, need_cull, plane_mask };
+        items_.push_back(item);
+    }
+    for (int child = index + 1; child < node.end; child = nodes_[child].end)
+    {
+        split(child, need_cull, plane_mask);
+    }
+}
+
+/*
+ * Cull a single node the same way Renderer::frustum_cull
+ * and SceneObject::frustumCull do.
+ * @param node          node to cull
+ * @param need_cull     true if the node must be tested, set to false
+ *                      if its descendants are completely inside the frustum
+ * @param plane_mask    frustum planes to skip, updated for the descendants
+ * @param visible       set to true if the node should be rendered
+ * @returns false if the node and all of its descendants are culled out
+ */
+bool FrustumCuller::cullNode(const CullNode& node, bool& need_cull, int& plane_mask, bool& visible)
+{
+    setCameraDistance(node);
+    visible = false;
+    if (!need_cull)
+    {
+        node.object->setCullStatus(false);
+        visible = true;
+        return true;
+    }
+    if (!node.visible)
+    {
+        node.object->setCullStatus(true);
+        return false;
+    }
+    int checkResult = checkAABBVsFrustum(node.min_corner, node.max_corner, plane_mask);
+
+    if (checkResult == OUTSIDE)
+    {
+        node.object->setCullStatus(true);
+        return false;
+    }
+    if (checkResult == INSIDE)
+    {
+        node.object->setCullStatus(false);
+        need_cull = false;
+        visible = true;
+        return true;
+    }
+    if (!node.drawable)
+    {
+        return true;
+    }
+    if (node.has_children)
+    {
+        int tempMask = plane_mask;
+        checkResult = checkAABBVsFrustum(node.mesh_min_corner, node.mesh_max_corner, tempMask);
+    }
+    if (checkResult != OUTSIDE)
+    {
+        node.object->setCullStatus(false);
+        visible = true;
+    }
+    return true;
+}
+
+void FrustumCuller::cullSubtree(int index, bool need_cull, int plane_mask,
+                                std::vector<SceneObject*>& visible_objects)
+{
+    const CullNode& node = nodes_[index];
+    bool visible;
+
+    if (!need_cull)
+    {
+        acceptRange(index, node.end, visible_objects);
+        return;
+    }
+
+    if (!cullNode(node, need_cull, plane_mask, visible))
+    {
+        return;
+    }
+    if (visible)
+    {
+        visible_objects.push_back(node.object);
+    }
+    if (!need_cull)
+    {
+        acceptRange(index + 1, node.end, visible_objects);
+        return;
+    }
+    for (int child = index + 1; child < node.end; child = nodes_[child].end)
+    {
+        cullSubtree(child, need_cull, plane_mask, visible_objects);
+    }
+}
+
+/*
+ * Accept a range of nodes without testing them.
+ * Because the nodes are in depth first order, a node and all
+ * of its descendants are always a contiguous range.
+ */
+void FrustumCuller::acceptRange(int begin, int end, std::vector<SceneObject*>& visible_objects)
+{
+    for (int i = begin; i < end; ++i)
+    {
+        const CullNode& node = nodes_[i];
+        setCameraDistance(node);
+        node.object->setCullStatus(false);
+        visible_objects.push_back(node.object);
+    }
+}
+
+/*
+ * The camera distance is only used to sort transparent objects.
+ * Computing it here from the flattened bounds avoids creating
+ * a closure per object per frame.
+ */
+void FrustumCuller::setCameraDistance(const CullNode& node)
+{
+    if (node.render_data != NULL)
+    {
+        glm::vec3 difference(node.center - camera_position_);
+        node.render_data->set_camera_distance(glm::dot(difference, difference));
+    }
+}
+
+/*
+ * Same test as SceneObject::checkAABBVsFrustumOpt: planes already
+ * known to contain the whole box are skipped and planes which
+ * contain it now are added to plane_mask.
+ */
+int FrustumCuller::checkAABBVsFrustum(const glm::vec3& min_corner, const glm::vec3& max_corner,
+                                      int& plane_mask) const
+{
+    bool isCompleteInside = true;
+
+    for (int p = 0; p < 6; p++)
+    {
+        if ((plane_mask >> p) & 1)
+        {
+            continue;
+        }
+        const float* plane = frustum_[p];
+        int count = 0;
+
+        for (int corner = 0; corner < 8; ++corner)
+        {
+            float x = (corner & 1) ? max_corner.x : min_corner.x;
+            float y = (corner & 2) ? max_corner.y : min_corner.y;
+            float z = (corner & 4) ? max_corner.z : min_corner.z;
+
+            if (plane[0] * x + plane[1] * y + plane[2] * z + plane[3] > 0)
+            {
+                count++;
+            }
+        }
+        if (count == 0)
+        {
+            return OUTSIDE;
+        }
+        if (count < 8)
+        {
+            isCompleteInside = false;
+        }
+        else
+        {
+            plane_mask = plane_mask | (1 << p);
+        }
+    }
+    return isCompleteInside ? INSIDE : INTERSECT;
+}
+
+/*
+ * Run all of the tasks on the worker threads and the calling
+ * thread and wait until they are finished.
+ */
+void FrustumCuller::runTasks()
+{
+    next_task_ = 0;
+    {
+        std::lock_guard<std::mutex> lock(mutex_);
+        ++generation_;
+        busy_workers_ = workers_.size();
+    }
+    work_cv_.notify_all();
+    while (runNextTask())
+    {
+    }
+    std::unique_lock<std::mutex> lock(mutex_);
+    done_cv_.wait(lock, [this] { return busy_workers_ == 0; });
+}
+
+bool FrustumCuller::runNextTask()
+{
+    int t = next_task_.fetch_add(1);
+
+    if (t >= (int) tasks_.size())
+    {
+        return false;
+    }
+    const CullItem& item = items_[tasks_[t]];
+    std::vector<SceneObject*>& visible = task_results_[t];
+
+    visible.clear();
+    cullSubtree(item.node, item.need_cull, item.plane_mask, visible);
+    return true;
+}
+
+void FrustumCuller::workerLoop()
+{
+    unsigned int generation = 0;
+
+    while (true)
+    {
+        {
+            std::unique_lock<std::mutex> lock(mutex_);
+            work_cv_.wait(lock, [this, generation] { return stop_ || (generation_ != generation); });
+            if (stop_)
+            {
+                return;
+            }
+            generation = generation_;
+        }
+        while (runNextTask())
+        {
+        }
+        {
+            std::lock_guard<std::mutex> lock(mutex_);
+            --busy_workers_;
+        }
+        done_cv_.notify_one();
+    }
+}
+
+}
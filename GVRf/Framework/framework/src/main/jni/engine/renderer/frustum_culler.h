@@ -0,0 +1,140 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+/***************************************************************************
+ * Flattened, multithreaded view frustum culling.
+ ***************************************************************************/
+
+#ifndef FRUSTUM_CULLER_H_
+#define FRUSTUM_CULLER_H_
+
+#include <atomic>
+#include <condition_variable>
+#include <mutex>
+#include <thread>
+#include <vector>
+#include "glm/glm.hpp"
+
+namespace gvr {
+class SceneObject;
+class RenderData;
+
+/*
+ * Culls a scene graph against a view frustum using a flattened
+ * copy of the hierarchy.
+ *
+ * Each frame the enabled part of the scene graph is copied into
+ * an array in depth first order. Every entry holds the world space
+ * bounds of the object and the index one past its last descendant,
+ * so a whole subtree can be skipped or accepted without touching
+ * the scene objects.
+ *
+ * The array is then split into subtrees which are culled by a small
+ * pool of worker threads. The visible objects from each subtree are
+ * merged in depth first order, so the result is the same as the
+ * serial traversal in Renderer::frustum_cull regardless of how
+ * the work was scheduled.
+ *
+ * Only the flattening step touches the scene graph structure
+ * and it runs on the calling thread. A FrustumCuller must only
+ * be used from one thread at a time.
+ */
+class FrustumCuller {
+public:
+    explicit FrustumCuller(int thread_count = -1);
+    ~FrustumCuller();
+
+    /*
+     * Collect the objects in a scene graph which are inside a view frustum.
+     * @param root              root of the scene graph to cull
+     * @param camera_position   world position of the camera, used for sorting transparent objects
+     * @param frustum           frustum planes from Renderer::build_frustum
+     * @param need_cull         true to cull against the frustum, false to accept every enabled object
+     * @param scene_objects     gets the visible scene objects
+     */
+    void cull(SceneObject* root, const glm::vec3& camera_position,
+              const float frustum[6][4], bool need_cull,
+              std::vector<SceneObject*>& scene_objects);
+
+    int getThreadCount() const {
+        return workers_.size();
+    }
+
+private:
+    struct CullNode {
+        glm::vec3       min_corner;         // hierarchical bounds (object and descendants)
+        glm::vec3       max_corner;
+        glm::vec3       mesh_min_corner;    // bounds of the object's own mesh
+        glm::vec3       mesh_max_corner;
+        glm::vec3       center;
+        SceneObject*    object;
+        RenderData*     render_data;
+        int             end;                // one past the last descendant
+        bool            visible;
+        bool            drawable;
+        bool            has_children;
+    };
+
+    /*
+     * An entry in the merged visible list. It is either a node
+     * which was culled on the calling thread (task < 0) or the
+     * results of a subtree culled by a worker.
+     */
+    struct CullItem {
+        int     node;
+        int     task;
+        bool    need_cull;
+        int     plane_mask;
+    };
+
+    FrustumCuller(const FrustumCuller& culler) = delete;
+    FrustumCuller(FrustumCuller&& culler) = delete;
+    FrustumCuller& operator=(const FrustumCuller& culler) = delete;
+    FrustumCuller& operator=(FrustumCuller&& culler) = delete;
+
+    void flatten(SceneObject* object);
+    void split(int index, bool need_cull, int plane_mask);
+    bool cullNode(const CullNode& node, bool& need_cull, int& plane_mask, bool& visible);
+    void cullSubtree(int index, bool need_cull, int plane_mask, std::vector<SceneObject*>& visible);
+    void acceptRange(int begin, int end, std::vector<SceneObject*>& visible);
+    void runTasks();
+    bool runNextTask();
+    void workerLoop();
+    void setCameraDistance(const CullNode& node);
+    int  checkAABBVsFrustum(const glm::vec3& min_corner, const glm::vec3& max_corner,
+                            int& plane_mask) const;
+
+private:
+    std::vector<CullNode>   nodes_;
+    std::vector<CullItem>   items_;
+    std::vector<int>        tasks_;
+    std::vector<std::vector<SceneObject*>> task_results_;
+    int                     grain_;
+    glm::vec3               camera_position_;
+    float                   frustum_[6][4];
+
+    std::vector<std::thread> workers_;
+    std::mutex              mutex_;
+    std::condition_variable work_cv_;
+    std::condition_variable done_cv_;
+    std::atomic<int>        next_task_;
+    int                     busy_workers_;
+    unsigned int            generation_;
+    bool                    stop_;
+};
+
+}
+#endif
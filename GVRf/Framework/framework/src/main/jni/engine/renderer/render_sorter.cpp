@@ -0,0 +1,211 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/***************************************************************************
+ * Frame coherent sorting of render lists.
+ ***************************************************************************/
+
+#include "render_sorter.h"
+
+#include <algorithm>
+#include <string.h>
+#include "objects/components/render_data.h"
+#include "util/gvr_tracer.h"
+
+namespace gvr {
+
+RenderSorter::RenderSorter() { }
+
+/*
+ * The bit pattern of a non-negative float increases with its value,
+ * so it can be used directly (or truncated) as an integer sort key.
+ */
+static uint32_t distanceBits(float distance)
+{
+    uint32_t bits;
+
+    if (!(distance > 0.0f))
+    {
+        return 0;
+    }
+    memcpy(&bits, &distance, sizeof(bits));
+    return bits;
+}
+
+uint64_t RenderSorter::makeKey(RenderData* render_data)
+{
+    int order = render_data->rendering_order() + 32768;
+    uint64_t key = (uint64_t) std::min(std::max(order, 0), 0xFFFF) << 48;
+    uint32_t distance = distanceBits(render_data->camera_distance());
+
+    // transparent objects are sorted back to front
+    if ((render_data->rendering_order() >= RenderData::Transparent) &&
+        (render_data->rendering_order() < RenderData::Overlay))
+    {
+        return key | ((uint64_t) ~distance << 16);
+    }
+    int shader = render_data->get_shader(0);
+    uintptr_t material = reinterpret_cast<uintptr_t>(render_data->material(0));
+
+    material = (material >> 4) ^ (material >> 20);
+    key |= (uint64_t) std::min(std::max(shader, 0), 0xFFF) << 36;
+    key |= (uint64_t) (material & 0xFFFF) << 20;
+    key |= distance >> 11;      // 8 bits of exponent, 12 bits of mantissa
+    return key;
+}
+
+void RenderSorter::sort(std::vector<RenderData*>& render_list)
+{
+    TRACE_SCOPE("RenderSorter::sort");
+    int n = render_list.size();
+    int seeded = n;
+
+    entries_.resize(n);
+    if ((render_list == previous_input_) && (previous_order_.size() == n))
+    {
+        /*
+         * Same objects as the last frame (the usual case for a static scene):
+         * start from last frame's sorted order.
+         */
+        for (int i = 0; i < n; ++i)
+        {
+            int index = previous_order_[i];
+            SortEntry& entry = entries_[i];
+
+            entry.render_data = render_list[index];
+            entry.key = makeKey(entry.render_data);
+            entry.index = index;
+        }
+    }
+    else
+    {
+        seeded = seedFromPreviousOrder(render_list);
+    }
+    /*
+     * Repair the entries which were in last frame's list.
+     * Entries which are new this frame are sorted separately
+     * and merged in, so adding a few objects stays cheap.
+     */
+    if (!insertionSort(seeded, 2 * n + 32))
+    {
+        fullSort(0, n);
+    }
+    else if (seeded < n)
+    {
+        fullSort(seeded, n);
+        std::inplace_merge(entries_.begin(), entries_.begin() + seeded, entries_.end(),
+                           compareKeys);
+    }
+    previous_input_.assign(render_list.begin(), render_list.end());
+    previous_order_.resize(n);
+    for (int i = 0; i < n; ++i)
+    {
+        render_list[i] = entries_[i].render_data;
+        previous_order_[i] = entries_[i].index;
+    }
+}
+
+/*
+ * Fill in the entries in the order the objects had at the end of
+ * the previous sort. Objects which were not in the previous list
+ * are put after all of the others.
+ * @returns number of entries which were in the previous list.
+ */
+int RenderSorter::seedFromPreviousOrder(const std::vector<RenderData*>& render_list)
+{
+    int n = render_list.size();
+    int prevCount = previous_order_.size();
+    int seeded = 0;
+    int added = 0;
+
+    previous_rank_.clear();
+    for (int r = 0; r < prevCount; ++r)
+    {
+        previous_rank_[previous_input_[previous_order_[r]]] = r;
+    }
+    rank_buckets_.assign(prevCount, -1);
+    new_order_.clear();
+    for (int i = 0; i < n; ++i)
+    {
+        auto it = previous_rank_.find(render_list[i]);
+
+        if ((it != previous_rank_.end()) && (rank_buckets_[it->second] < 0))
+        {
+            rank_buckets_[it->second] = i;
+            ++seeded;
+        }
+        else
+        {
+            new_order_.push_back(i);
+        }
+    }
+    for (int r = 0, e = 0; r < prevCount; ++r)
+    {
+        int index = rank_buckets_[r];
+
+        if (index >= 0)
+        {
+            SortEntry& entry = entries_[e++];
+            entry.render_data = render_list[index];
+            entry.key = makeKey(entry.render_data);
+            entry.index = index;
+        }
+    }
+    for (auto it = new_order_.begin(); it != new_order_.end(); ++it)
+    {
+        SortEntry& entry = entries_[seeded + added++];
+        entry.render_data = render_list[*it];
+        entry.key = makeKey(entry.render_data);
+        entry.index = *it;
+    }
+    return seeded;
+}
+
+/*
+ * Insertion sort of the first entries which gives up after
+ * moving too many entries.
+ * @returns true if the entries were sorted, false if it gave up.
+ */
+bool RenderSorter::insertionSort(int end, int maxMoves)
+{
+    int moves = 0;
+
+    for (int i = 1; i < end; ++i)
+    {
+        SortEntry entry = entries_[i];
+        int j = i;
+
+        while ((j > 0) && compareKeys(entry, entries_[j - 1]))
+        {
+            entries_[j] = entries_[j - 1];
+            --j;
+            if (++moves > maxMoves)
+            {
+                entries_[j] = entry;
+                return false;
+            }
+        }
+        entries_[j] = entry;
+    }
+    return true;
+}
+
+void RenderSorter::fullSort(int begin, int end)
+{
+    std::stable_sort(entries_.begin() + begin, entries_.begin() + end,
+                     compareKeys);
+}
+
+}
@@ -0,0 +1,96 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+/***************************************************************************
+ * Frame coherent sorting of render lists.
+ ***************************************************************************/
+
+#ifndef RENDER_SORTER_H_
+#define RENDER_SORTER_H_
+
+#include <stdint.h>
+#include <unordered_map>
+#include <vector>
+
+namespace gvr {
+class RenderData;
+
+/*
+ * Sorts a render list using packed 64 bit keys and the
+ * order of the list from the previous frame.
+ *
+ * Each RenderData gets a key which packs (from most significant):
+ *  - rendering order (16 bits)
+ *  - shader (12 bits)
+ *  - material (16 bits)
+ *  - camera distance, front to back (20 bits)
+ * Transparent objects use the camera distance back to front
+ * in place of the shader, material and distance fields.
+ * Unlike compareRenderDataByOrderShaderDistance, the pass count,
+ * cull face and render state hash are not part of the key and
+ * materials are grouped by a hash of their address.
+ *
+ * The list is first put in the sorted order of the previous frame,
+ * with objects which were not there appended at the end, and then
+ * repaired with an insertion sort. When little has changed this is
+ * close to linear. If the repair moves too many elements the list
+ * is sorted from scratch instead.
+ *
+ * A RenderSorter keeps state from one call to the next so each
+ * render list should have its own sorter.
+ */
+class RenderSorter {
+public:
+    RenderSorter();
+    ~RenderSorter() { }
+
+    void sort(std::vector<RenderData*>& render_list);
+
+    /*
+     * Compute the sort key for a RenderData.
+     */
+    static uint64_t makeKey(RenderData* render_data);
+
+private:
+    struct SortEntry {
+        uint64_t    key;
+        RenderData* render_data;
+        int         index;          // position in the unsorted input
+    };
+
+    RenderSorter(const RenderSorter& sorter) = delete;
+    RenderSorter(RenderSorter&& sorter) = delete;
+    RenderSorter& operator=(const RenderSorter& sorter) = delete;
+    RenderSorter& operator=(RenderSorter&& sorter) = delete;
+
+    static bool compareKeys(const SortEntry& a, const SortEntry& b) {
+        return a.key < b.key;
+    }
+    int  seedFromPreviousOrder(const std::vector<RenderData*>& render_list);
+    bool insertionSort(int end, int maxMoves);
+    void fullSort(int begin, int end);
+
+private:
+    std::vector<SortEntry>  entries_;
+    std::vector<RenderData*> previous_input_;
+    std::vector<int>        previous_order_;    // input index of each sorted entry
+    std::vector<int>        new_order_;
+    std::unordered_map<RenderData*, int> previous_rank_;
+    std::vector<int>        rank_buckets_;
+};
+
+}
+#endif
@@ -20,6 +20,7 @@
 #include <contrib/glm/gtc/type_ptr.hpp>
 #include "renderer.h"
 #include "objects/scene.h"
+#include "util/gvr_tracer.h"
 
 #define MAX_INDICES 500
 #define BATCH_SIZE 60
@@ -37,7 +38,8 @@ void Renderer::initializeStats() {
 Renderer::Renderer() : numberDrawCalls(0),
                        numberTriangles(0),
                        numLights(0),
-                       batch_manager(nullptr), mLeftRenderTarget{nullptr, nullptr, nullptr},
+                       batch_manager(nullptr), frustum_culler_(nullptr),
+                       mLeftRenderTarget{nullptr, nullptr, nullptr},
                        mRightRenderTarget{nullptr, nullptr, nullptr},
                        mMultiviewRenderTarget{nullptr, nullptr, nullptr}{
     if(do_batching && !gRenderer->isVulkanInstance()) {
@@ -106,6 +108,7 @@ void Renderer::frustum_cull(glm::vec3 camera_position, SceneObject *object,
 }
 
 void Renderer::state_sort(std::vector<RenderData*>* render_data_vector) {
+    TRACE_SCOPE("state_sort");
     // The current implementation of sorting is based on
     // 1. rendering order first to maintain specified order
     // 2. shader type second to minimize the gl cost of switching shader
@@ -155,6 +158,7 @@ bool isRenderPassEqual(RenderData* rdata1, RenderData* rdata2){
 void Renderer::cullFromCamera(Scene *scene, Camera* camera,
         ShaderManager* shader_manager, std::vector<RenderData*>* render_data_vector, bool is_multiview)
 {
+    TRACE_SCOPE("cullFromCamera");
     std::vector<SceneObject*> scene_objects;
 
     render_data_vector->clear();
@@ -184,7 +188,14 @@ void Renderer::cullFromCamera(Scene *scene, Camera* camera,
         LOGD("FRUSTUM: start frustum culling for root %s\n", object->name().c_str());
     }
     //    frustum_cull(camera->owner_object()->transform()->position(), object, frustum, scene_objects, scene->get_frustum_culling(), 0);
-    frustum_cull(campos, object, frustum, scene_objects, scene->get_frustum_culling(), 0);
+    if (scene->get_parallel_culling()) {
+        if (frustum_culler_ == nullptr) {
+            frustum_culler_ = new FrustumCuller();
+        }
+        frustum_culler_->cull(object, campos, frustum, scene->get_frustum_culling(), scene_objects);
+    } else {
+        frustum_cull(campos, object, frustum, scene_objects, scene->get_frustum_culling(), 0);
+    }
     if (DEBUG_RENDERER) {
         LOGD("FRUSTUM: end frustum culling for root %s\n", object->name().c_str());
     }
@@ -317,6 +328,7 @@ void Renderer::build_frustum(float frustum[6][4], const float *vp_matrix) {
 void Renderer::renderRenderData(RenderState& rstate, RenderData* render_data) {
     if (!(rstate.render_mask & render_data->render_mask()))
         return;
+    TRACE_SCOPE("renderRenderData");
     // Set the states
     setRenderStates(render_data, rstate);
     if (render_data->mesh() != 0) {
@@ -31,6 +31,7 @@
 #include "objects/bounding_volume.h"
 #include "shaders/shader_manager.h"
 #include "batch_manager.h"
+#include "frustum_culler.h"
 
 typedef unsigned long Long;
 
@@ -121,6 +122,22 @@ public:
     int incrementDrawCalls(){
         return ++numberDrawCalls;
     }
+    /*
+     * Time spent in each phase of rendering, in nanoseconds, accumulated
+     * until read by getPhaseTimes.
+     */
+    enum Phase {
+        CULL_PHASE, SORT_PHASE, DRAW_PHASE, PHASE_COUNT
+    };
+    void addPhaseTime(Phase phase, long long nanos) {
+        phaseTimes_[phase] += nanos;
+    }
+    void getPhaseTimes(long long times[PHASE_COUNT]) {
+        for (int i = 0; i < PHASE_COUNT; ++i) {
+            times[i] = phaseTimes_[i];
+            phaseTimes_[i] = 0;
+        }
+    }
     static Renderer* getInstance(std::string type =  " ");
     static void resetInstance(){
         //@todo fix for vulkan
@@ -211,6 +228,7 @@ private:
     Renderer& operator=(const Renderer& render_engine) = delete;
     Renderer& operator=(Renderer&& render_engine) = delete;
     BatchManager* batch_manager;
+    FrustumCuller* frustum_culler_;
     static Renderer* instance;
 
 protected:
@@ -219,6 +237,8 @@ protected:
         if(batch_manager)
             delete batch_manager;
         batch_manager = NULL;
+        delete frustum_culler_;
+        frustum_culler_ = NULL;
     }
 
     virtual void renderMesh(RenderState& rstate, RenderData* render_data) = 0;
@@ -230,6 +250,7 @@ protected:
 
     int numberDrawCalls;
     int numberTriangles;
+    long long phaseTimes_[PHASE_COUNT] = { 0, 0, 0 };
     bool useStencilBuffer_ = false;
 public:
     virtual void state_sort(std::vector<RenderData*>* render_data_vector) ;
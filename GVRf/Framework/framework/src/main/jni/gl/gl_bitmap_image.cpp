@@ -79,6 +79,29 @@ void GLBitmapImage::updateFromBuffer(JNIEnv *env, int target, jobject pixels)
     glTexSubImage2D(target, 0, mXOffset, mYOffset, mWidth, mHeight, mFormat, mType, directPtr);
 }
 
+/*
+ * Upload each mipmap level of a compressed texture straight from a
+ * direct buffer, such as a memory-mapped file, without a Java copy.
+ */
+void GLBitmapImage::updateFromCompressedBuffer(JNIEnv *env, int target, jobject buffer)
+{
+    const char* data = static_cast<const char*>(env->GetDirectBufferAddress(buffer));
+    if (data == NULL)
+    {
+        LOGE("BitmapImage::updateFromCompressedBuffer buffer is not direct");
+        return;
+    }
+    for (int level = 0; level < mLevels; ++level)
+    {
+        int width = mWidth >> level;
+        int height = mHeight >> level;
+        if (width < 1) width = 1;
+        if (height < 1) height = 1;
+        glCompressedTexImage2D(target, level, mFormat, width, height, 0,
+                               getLevelSize(level), data + getDataOffset(level));
+    }
+}
+
 void GLBitmapImage::update(int texid)
 {
     if (mJava == NULL)
@@ -141,7 +164,11 @@ void GLBitmapImage::updateFromBitmap(int texid)
         LOGE("BitmapImage::updateFromBitmap bitmap is null");
         return;
     }
-    if (mIsBuffer)
+    if (mIsBuffer && mIsCompressed)
+    {
+        updateFromCompressedBuffer(env, mGLTarget, mBitmap);
+    }
+    else if (mIsBuffer)
     {
         updateFromBuffer(env, mGLTarget, mBitmap);
     } else {
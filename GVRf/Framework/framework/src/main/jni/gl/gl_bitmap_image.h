@@ -64,6 +64,7 @@ namespace gvr {
 
     private:
         void updateFromBuffer(JNIEnv *env, int target, jobject bitmap);
+        void updateFromCompressedBuffer(JNIEnv *env, int target, jobject buffer);
     };
 
 }
@@ -68,6 +68,24 @@ namespace gvr {
         return data;
     }
 
+    /*
+     * Compute the world space box enclosing the collision box.
+     */
+    bool BoxCollider::getWorldBounds(glm::vec3& minCorner, glm::vec3& maxCorner)
+    {
+        SceneObject* owner = owner_object();
+        Transform* t = (owner != NULL) ? owner->transform() : NULL;
+
+        if (t == NULL)
+        {
+            minCorner = -half_extents_;
+            maxCorner = half_extents_;
+            return owner != NULL;
+        }
+        transformBounds(t->getModelMatrix(), -half_extents_, half_extents_, minCorner, maxCorner);
+        return true;
+    }
+
     /*
      * Determine if the sphere hits the collider.
      * @param sphere array with sphere center and radius
@@ -39,6 +39,7 @@ public:
 
     void set_half_extents(float x, float y, float z) {
         half_extents_ = glm::vec3(x, y, z);
+        onBoundsChanged();
     }
 
     glm::vec3 get_half_extents() {
@@ -47,6 +48,7 @@ public:
 
     ColliderData isHit(const float sphere[]);
     ColliderData isHit(const glm::vec3& rayStart, const glm::vec3& rayDir);
+    bool getWorldBounds(glm::vec3& minCorner, glm::vec3& maxCorner);
     ColliderData isHit(const glm::mat4& model_matrix, const glm::vec3& half_extents, const glm::vec3& rayStart, const glm::vec3& rayDir);
     static ColliderData isHit(const glm::vec3& center, const glm::vec3& half_extents, const float sphere[]);
 
@@ -47,12 +47,48 @@ namespace gvr
 
     void Collider::onAddedToScene(Scene *scene)
     {
+        scene_ = scene;
         scene->addCollider(this);
     }
 
     void Collider::onRemovedFromScene(Scene *scene)
     {
         scene->removeCollider(this);
+        scene_ = NULL;
+    }
+
+    void Collider::onBoundsChanged()
+    {
+        Scene* scene = scene_;
+        if (scene != NULL)
+        {
+            scene->markColliderDirty(this);
+        }
+    }
+
+/*
+ * Transform an axis aligned box in model coordinates into a
+ * box in world coordinates which encloses it.
+ * @param model_matrix 4x4 matrix to transform model into world coordinates
+ * @param localMin minimum corner of box in model coordinates
+ * @param localMax maximum corner of box in model coordinates
+ * @param minCorner gets minimum corner of box in world coordinates
+ * @param maxCorner gets maximum corner of box in world coordinates
+ */
+    void Collider::transformBounds(const glm::mat4& model_matrix,
+                                   const glm::vec3& localMin, const glm::vec3& localMax,
+                                   glm::vec3& minCorner, glm::vec3& maxCorner)
+    {
+        glm::vec3 center((localMin + localMax) * 0.5f);
+        glm::vec3 extent((localMax - localMin) * 0.5f);
+        glm::mat3 absMatrix(glm::abs(glm::vec3(model_matrix[0])),
+                            glm::abs(glm::vec3(model_matrix[1])),
+                            glm::abs(glm::vec3(model_matrix[2])));
+        glm::vec3 newCenter(model_matrix * glm::vec4(center, 1.0f));
+        glm::vec3 newExtent(absMatrix * extent);
+
+        minCorner = newCenter - newExtent;
+        maxCorner = newCenter + newExtent;
     }
 
 /*
@@ -59,8 +59,8 @@ public:
  */
 class Collider: public Component {
 public:
-    Collider() : Component(Collider::getComponentType()), pick_distance_(0) {}
-    explicit Collider(long long type) : Component(type), pick_distance_(0) {}
+    Collider() : Component(Collider::getComponentType()), pick_distance_(0), scene_(NULL) {}
+    explicit Collider(long long type) : Component(type), pick_distance_(0), scene_(NULL) {}
 
     virtual ~Collider() {}
 
@@ -89,6 +89,28 @@ public:
      */
     virtual ColliderData isHit(const float sphere[]) = 0;
 
+    /*
+     * Compute a world space box which encloses the collider.
+     *
+     * The box is used by the scene's collider hierarchy to skip
+     * colliders which cannot be hit by a ray. It must be
+     * conservative (contain all the collision geometry).
+     *
+     * @param minCorner     gets the minimum corner of the box
+     * @param maxCorner     gets the maximum corner of the box
+     *
+     * @returns false if the collider cannot be bounded
+     */
+    virtual bool getWorldBounds(glm::vec3& minCorner, glm::vec3& maxCorner) {
+        return false;
+    }
+
+    /*
+     * Called when the world bounds of the collider may have changed
+     * (the transform of its owner or its collision geometry changed).
+     */
+    void onBoundsChanged();
+
     virtual long shape_type() {
         return COLLIDER_SHAPE_UNKNOWN;
     }
@@ -108,9 +130,13 @@ public:
     virtual void onAddedToScene(Scene* scene);
     virtual void onRemovedFromScene(Scene* scene);
     static void transformSphere(const glm::mat4& model_matrix, float* sphere);
+    static void transformBounds(const glm::mat4& model_matrix,
+                                const glm::vec3& localMin, const glm::vec3& localMax,
+                                glm::vec3& minCorner, glm::vec3& maxCorner);
 
 protected:
     float pick_distance_;
+    Scene* scene_;
 
     Collider(const Collider& collider) = delete;
     Collider(Collider&& collider) = delete;
@@ -164,5 +190,12 @@ inline bool compareColliderData(ColliderData i, ColliderData j) {
     return i.Distance < j.Distance;
 }
 
+inline bool compareColliderDataByIndex(const ColliderData& i, const ColliderData& j) {
+    if (i.CollidableIndex != j.CollidableIndex) {
+        return i.CollidableIndex < j.CollidableIndex;
+    }
+    return i.Distance < j.Distance;
+}
+
 }
 #endif
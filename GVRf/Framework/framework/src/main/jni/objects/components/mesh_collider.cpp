@@ -112,6 +112,37 @@ namespace gvr
         return data;
     }
 
+/*
+ * Compute the world space box enclosing the collision mesh.
+ * The collider's own mesh is used if it has one, otherwise
+ * the mesh of the owner's render data.
+ */
+    bool MeshCollider::getWorldBounds(glm::vec3& minCorner, glm::vec3& maxCorner)
+    {
+        Mesh* mesh = mesh_;
+        SceneObject* owner = owner_object();
+        Transform* t = (owner != NULL) ? owner->transform() : NULL;
+
+        if (t == NULL)
+        {
+            return false;
+        }
+        RenderData* rd = owner->render_data();
+        if ((mesh == NULL) && (rd != NULL))
+        {
+            mesh = rd->mesh();
+        }
+        if (mesh == NULL)
+        {
+            return false;
+        }
+        const BoundingVolume& bounds = mesh->getBoundingVolume();
+        transformBounds(t->getModelMatrix(),
+                        bounds.min_corner(), bounds.max_corner(),
+                        minCorner, maxCorner);
+        return true;
+    }
+
 /*
  * Hit test the bounding sphere of the mesh against the input sphere.
  *
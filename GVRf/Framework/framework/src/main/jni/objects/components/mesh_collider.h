@@ -46,6 +46,7 @@ public:
 
     void set_mesh(Mesh* mesh) {
         mesh_ = mesh;
+        onBoundsChanged();
     }
 
     bool pickCoordinatesEnabled(){
@@ -54,6 +55,7 @@ public:
 
     ColliderData isHit(const float sphere[]);
     ColliderData isHit(const glm::vec3& rayStart, const glm::vec3& rayDir);
+    bool getWorldBounds(glm::vec3& minCorner, glm::vec3& maxCorner);
     static ColliderData isHit(const BoundingVolume& bounds, const glm::vec3& rayStart, const glm::vec3& rayDir);
     static ColliderData isHit(const BoundingVolume& bounds, const float sphere[]);
     static ColliderData isHit(const Mesh& mesh, const float sphere[]);
@@ -18,6 +18,7 @@
 
 #include "util/jni_utils.h"
 #include "objects/scene.h"
+#include "objects/components/collider.h"
 #include "shaders/shader.h"
 
 namespace gvr {
@@ -55,6 +56,14 @@ void RenderData::set_mesh(Mesh* mesh)
     {
         mesh_ = mesh;
         markDirty();
+        if (owner_object_)
+        {
+            Collider* collider = static_cast<Collider*>(owner_object_->getComponent(Collider::getComponentType()));
+            if (collider)
+            {
+                collider->onBoundsChanged();
+            }
+        }
     }
 }
 
@@ -380,6 +380,11 @@ public:
     int             get_shader(bool useMultiview =false, int pass =0) const { return render_pass_list_[pass]->get_shader(useMultiview); }
     const std::string&     getHashCode();
     void            setCameraDistanceLambda(std::function<float()> func);
+    void            set_camera_distance(float distance)
+    {
+        camera_distance_ = distance;
+        cameraDistanceLambda_ = nullptr;
+    }
 
     void setStencilFunc(int func, int ref, int mask);
 
@@ -16,6 +16,8 @@
 #include "render_target.h"
 #include "component.inl"
 #include "objects/textures/render_texture.h"
+#include "objects/scene.h"
+#include "util/gvr_time.h"
 namespace gvr {
 
 /**
@@ -33,7 +35,8 @@ namespace gvr {
  */
 RenderTarget::RenderTarget(RenderTexture* tex, bool is_multiview)
 : Component(RenderTarget::getComponentType()),mNextRenderTarget(nullptr),
-  mRenderTexture(tex),mRenderDataVector(std::make_shared< std::vector<RenderData*>>())
+  mRenderTexture(tex),mRenderDataVector(std::make_shared< std::vector<RenderData*>>()),
+  mRenderSorter(std::make_shared<RenderSorter>())
 {
     mRenderState.shadow_map = false;
     mRenderState.material_override = NULL;
@@ -58,7 +61,8 @@ void RenderTarget::endRendering(Renderer *renderer) {
     mRenderTexture->endRendering(renderer);
 }
 RenderTarget::RenderTarget(Scene* scene)
-: Component(RenderTarget::getComponentType()), mNextRenderTarget(nullptr), mRenderTexture(nullptr),mRenderDataVector(std::make_shared< std::vector<RenderData*>>()){
+: Component(RenderTarget::getComponentType()), mNextRenderTarget(nullptr), mRenderTexture(nullptr),mRenderDataVector(std::make_shared< std::vector<RenderData*>>()),
+  mRenderSorter(std::make_shared<RenderSorter>()){
     mRenderState.shadow_map = false;
     mRenderState.material_override = NULL;
     mRenderState.is_multiview = false;
@@ -67,7 +71,8 @@ RenderTarget::RenderTarget(Scene* scene)
 }
 RenderTarget::RenderTarget(RenderTexture* tex, const RenderTarget* source)
         : Component(RenderTarget::getComponentType()),mNextRenderTarget(nullptr),
-          mRenderTexture(tex), mRenderDataVector(source->mRenderDataVector)
+          mRenderTexture(tex), mRenderDataVector(source->mRenderDataVector),
+          mRenderSorter(source->mRenderSorter)
 {
     mRenderState.shadow_map = false;
     mRenderState.material_override = NULL;
@@ -80,7 +85,8 @@ RenderTarget::RenderTarget(RenderTexture* tex, const RenderTarget* source)
  */
 RenderTarget::RenderTarget()
 :   Component(RenderTarget::getComponentType()),
-    mRenderTexture(nullptr),mNextRenderTarget(nullptr), mRenderDataVector(std::make_shared< std::vector<RenderData*>>())
+    mRenderTexture(nullptr),mNextRenderTarget(nullptr), mRenderDataVector(std::make_shared< std::vector<RenderData*>>()),
+    mRenderSorter(std::make_shared<RenderSorter>())
 {
     mRenderState.is_multiview = false;
     mRenderState.shadow_map = false;
@@ -88,8 +94,16 @@ RenderTarget::RenderTarget()
 }
  void RenderTarget::cullFromCamera(Scene* scene, Camera* camera, Renderer* renderer, ShaderManager* shader_manager){
 
+     long long start = getNanoTime();
      renderer->cullFromCamera(scene, camera,shader_manager, mRenderDataVector.get(),mRenderState.is_multiview);
-     renderer->state_sort(mRenderDataVector.get());
+     long long culled = getNanoTime();
+     if (scene->get_coherent_sorting()) {
+         mRenderSorter->sort(*mRenderDataVector);
+     } else {
+         renderer->state_sort(mRenderDataVector.get());
+     }
+     renderer->addPhaseTime(Renderer::CULL_PHASE, culled - start);
+     renderer->addPhaseTime(Renderer::SORT_PHASE, getNanoTime() - culled);
 }
 
 
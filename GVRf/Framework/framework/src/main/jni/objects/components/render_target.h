@@ -22,6 +22,7 @@
 #include "component.h"
 #include "camera.h"
 #include "engine/renderer/renderer.h"
+#include "engine/renderer/render_sorter.h"
 
 
 namespace gvr {
@@ -77,6 +78,7 @@ protected:
     RenderState     mRenderState;
     RenderTexture*  mRenderTexture;
     std::shared_ptr<std::vector<RenderData*>> mRenderDataVector;
+    std::shared_ptr<RenderSorter> mRenderSorter;
 };
 
 }
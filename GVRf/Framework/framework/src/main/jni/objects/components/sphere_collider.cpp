@@ -81,6 +81,46 @@ ColliderData SphereCollider::isHit(const glm::vec3& rayStart, const glm::vec3& r
     return data;
 }
 
+/*
+ * Compute the world space box enclosing the collision sphere.
+ * The sphere center and radius are determined the same way
+ * as they are for the ray hit test.
+ */
+bool SphereCollider::getWorldBounds(glm::vec3& minCorner, glm::vec3& maxCorner)
+{
+    glm::vec3    sphCenter(0, 0, 0);
+    float        radius = radius_;
+    SceneObject* owner = owner_object();
+
+    if (owner == NULL)
+    {
+        return false;
+    }
+    RenderData* rd = owner->render_data();
+    Transform* t = owner->transform();
+    if ((rd != NULL) && (rd->mesh() != NULL))
+    {
+        const BoundingVolume& meshbv = rd->mesh()->getBoundingVolume();
+        sphCenter = meshbv.center();
+        if (radius <= 0)
+        {
+            radius = meshbv.radius();
+        }
+    }
+    if (radius <= 0)
+    {
+        radius = 1;
+    }
+    if (t == NULL)
+    {
+        minCorner = sphCenter - radius;
+        maxCorner = sphCenter + radius;
+        return true;
+    }
+    transformBounds(t->getModelMatrix(), sphCenter - radius, sphCenter + radius, minCorner, maxCorner);
+    return true;
+}
+
 /*
  * Determine if the input sphere hits the sphere collider.
  * @param sphere  float array with center and radius of sphere
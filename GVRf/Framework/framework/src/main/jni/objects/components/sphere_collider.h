@@ -43,6 +43,7 @@ public:
     void set_radius(float r)
     {
         radius_ = r;
+        onBoundsChanged();
     }
 
     float get_radius()
@@ -52,6 +53,7 @@ public:
 
     ColliderData isHit(const glm::vec3& rayStart, const glm::vec3& rayDir);
     ColliderData isHit(const float sphere[]);
+    bool getWorldBounds(glm::vec3& minCorner, glm::vec3& maxCorner);
 
     static ColliderData isHit(Mesh& mesh, const glm::mat4& model_matrix, const glm::vec3& rayStart, const glm::vec3& rayDir);
     static ColliderData isHit(const glm::mat4& model_matrix, const glm::vec3& center, float radius, const glm::vec3& rayStart, const glm::vec3& rayDir);
@@ -126,6 +126,27 @@ namespace gvr {
         const DataEntry* find(const char* name) const;
         DataEntry* find(const char* name);
 
+        /**
+         * Get the index of the named entry, to access it
+         * without looking up its name again. The index is the
+         * same for every descriptor made from the same string.
+         * @param name name of entry to find.
+         * @return 0-based index of the entry or -1 if not found
+         */
+        int getIndex(const char* name) const
+        {
+            return (name != nullptr) ? findName(name) : -1;
+        }
+
+        /**
+         * Get an entry from its index.
+         * @return entry or NULL if the index is out of range
+         */
+        const DataEntry* getEntry(int index) const
+        {
+            return ((index >= 0) && (static_cast<size_t>(index) < mLayout.size())) ? &mLayout[index] : nullptr;
+        }
+
         /*
          * Get the number of bytes occupied by the named entry.
          * For vertex arrays, it is the number of bytes occupied
@@ -36,7 +36,10 @@ Scene::Scene() :
         frustum_flag_(false),
         dirtyFlag_(0),
         occlusion_flag_(false),
-        pick_visible_(true)
+        parallel_cull_flag_(false),
+        coherent_sort_flag_(false),
+        pick_visible_(true),
+        pick_accelerated_(false)
 
 { }
 
@@ -104,6 +107,7 @@ void Scene::clearAllColliders() {
     lockColliders();
     allColliders.clear();
     visibleColliders.clear();
+    collider_bvh_.clear();
     unlockColliders();
 }
 
@@ -121,6 +125,9 @@ void Scene::addCollider(Collider* collider) {
     if (it == allColliders.end()) {
         lockColliders();
         allColliders.push_back(collider);
+        if (pick_accelerated_) {
+            collider_bvh_.insert(collider);
+        }
         unlockColliders();
     }
 }
@@ -130,10 +137,25 @@ void Scene::removeCollider(Collider* collider) {
     if (it != allColliders.end()) {
         lockColliders();
         allColliders.erase(it);
+        collider_bvh_.remove(collider);
         unlockColliders();
     }
 }
 
+void Scene::setPickAccelerated(bool flag) {
+    lockColliders();
+    if (flag != pick_accelerated_) {
+        collider_bvh_.clear();
+        if (flag) {
+            for (auto it = allColliders.begin(); it != allColliders.end(); ++it) {
+                collider_bvh_.insert(static_cast<Collider*>(*it));
+            }
+        }
+        pick_accelerated_ = flag;
+    }
+    unlockColliders();
+}
+
 /**
  * Called when the main scene is first presented for render.
  */
@@ -30,6 +30,7 @@
 #include "components/camera_rig.h"
 #include "engine/renderer/renderer.h"
 #include "objects/light.h"
+#include "engine/picker/collider_bvh.h"
 
 
 namespace gvr {
@@ -60,6 +61,12 @@ public:
     void set_occlusion_culling( bool occlusion_flag){ occlusion_flag_ = occlusion_flag; }
     bool get_occlusion_culling(){ return occlusion_flag_; }
 
+    void set_parallel_culling( bool parallel_flag){ parallel_cull_flag_ = parallel_flag; }
+    bool get_parallel_culling(){ return parallel_cull_flag_; }
+
+    void set_coherent_sorting( bool coherent_flag){ coherent_sort_flag_ = coherent_flag; }
+    bool get_coherent_sorting(){ return coherent_sort_flag_; }
+
     /*
      * Adds a new light to the scene.
      * Return true if light was added, false if already there or too many lights.
@@ -118,6 +125,30 @@ public:
      */
     bool getPickVisible() const { return pick_visible_; }
 
+    /*
+     * If set to true, picking against all colliders uses a
+     * bounding volume hierarchy of the collider world bounds
+     * instead of testing every collider against every ray.
+     * The hierarchy is refit as collider transforms change.
+     * It is not used when only visible objects are pickable.
+     */
+    void setPickAccelerated(bool flag);
+
+    /*
+     * Returns true if picking uses the collider hierarchy.
+     */
+    bool getPickAccelerated() const { return pick_accelerated_; }
+
+    /*
+     * Called when the world bounds of a collider in this scene
+     * may have changed. May be called from any thread.
+     */
+    void markColliderDirty(Collider* collider) {
+        if (pick_accelerated_) {
+            collider_bvh_.markDirty(collider);
+        }
+    }
+
     /*
      * Add a collider to the internal collider list.
      * This list is used to optimize picking by only
@@ -159,6 +190,31 @@ public:
         return pick_visible_ ? visibleColliders : allColliders;
     }
 
+    /*
+     * Lock the collider list and get the collider hierarchy,
+     * refit to the current collider bounds.
+     * Returns NULL (with the lock still held) if picking
+     * does not use the hierarchy.
+     * You should call unlockColliders after you are done.
+     */
+    ColliderBVH* lockColliderHierarchy() {
+        collider_mutex_.lock();
+        if (pick_visible_ || !pick_accelerated_) {
+            return NULL;
+        }
+        collider_bvh_.refit();
+        return &collider_bvh_;
+    }
+
+    /*
+     * Get the current collider list without locking it.
+     * Only call this while the collider list is locked
+     * (after lockColliderHierarchy returns NULL).
+     */
+    const std::vector<Component*> getLockedColliders() const {
+        return pick_visible_ ? visibleColliders : allColliders;
+    }
+
     /*
      * Unlock the collider list.
      * Don't call this unless you have called lockColliders first.
@@ -203,8 +259,12 @@ private:
     int dirtyFlag_;
     bool frustum_flag_;
     bool occlusion_flag_;
+    bool parallel_cull_flag_;
+    bool coherent_sort_flag_;
     bool pick_visible_;
+    bool pick_accelerated_;
     std::mutex collider_mutex_;
+    ColliderBVH collider_bvh_;
     std::vector<Light*> lightList;
     std::vector<Component*> allColliders;
     std::vector<Component*> visibleColliders;
@@ -51,8 +51,17 @@ extern "C" {
     Java_org_gearvrf_NativeScene_setPickVisible(JNIEnv * env,
             jobject obj, jlong jscene, jboolean flag);
     JNIEXPORT void JNICALL
+    Java_org_gearvrf_NativeScene_setPickAccelerated(JNIEnv * env,
+            jobject obj, jlong jscene, jboolean flag);
+    JNIEXPORT void JNICALL
     Java_org_gearvrf_NativeScene_setOcclusionQuery(JNIEnv * env,
             jobject obj, jlong jscene, jboolean flag);
+    JNIEXPORT void JNICALL
+    Java_org_gearvrf_NativeScene_setParallelCulling(JNIEnv * env,
+            jobject obj, jlong jscene, jboolean flag);
+    JNIEXPORT void JNICALL
+    Java_org_gearvrf_NativeScene_setCoherentSorting(JNIEnv * env,
+            jobject obj, jlong jscene, jboolean flag);
 
     JNIEXPORT void JNICALL
     Java_org_gearvrf_NativeScene_resetStats(JNIEnv * env,
@@ -154,6 +163,13 @@ Java_org_gearvrf_NativeScene_setPickVisible(JNIEnv * env,
     scene->setPickVisible(static_cast<bool>(flag));
 }
 
+JNIEXPORT void JNICALL
+Java_org_gearvrf_NativeScene_setPickAccelerated(JNIEnv * env,
+        jobject obj, jlong jscene, jboolean flag) {
+    Scene* scene = reinterpret_cast<Scene*>(jscene);
+    scene->setPickAccelerated(static_cast<bool>(flag));
+}
+
 JNIEXPORT void JNICALL
 Java_org_gearvrf_NativeScene_setOcclusionQuery(JNIEnv * env,
         jobject obj, jlong jscene, jboolean flag) {
@@ -161,6 +177,20 @@ Java_org_gearvrf_NativeScene_setOcclusionQuery(JNIEnv * env,
     scene->set_occlusion_culling(static_cast<bool>(flag));
 }
 
+JNIEXPORT void JNICALL
+Java_org_gearvrf_NativeScene_setParallelCulling(JNIEnv * env,
+        jobject obj, jlong jscene, jboolean flag) {
+    Scene* scene = reinterpret_cast<Scene*>(jscene);
+    scene->set_parallel_culling(static_cast<bool>(flag));
+}
+
+JNIEXPORT void JNICALL
+Java_org_gearvrf_NativeScene_setCoherentSorting(JNIEnv * env,
+        jobject obj, jlong jscene, jboolean flag) {
+    Scene* scene = reinterpret_cast<Scene*>(jscene);
+    scene->set_coherent_sorting(static_cast<bool>(flag));
+}
+
 JNIEXPORT void JNICALL
 Java_org_gearvrf_NativeScene_resetStats(JNIEnv * env,
         jobject obj, jlong jscene) {
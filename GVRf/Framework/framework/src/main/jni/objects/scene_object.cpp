@@ -255,6 +255,10 @@ void SceneObject::removeChildObject(SceneObject* child) {
 
 void SceneObject::onTransformChanged() {
     setTransformDirty();
+    Collider* collider = static_cast<Collider*>(getComponent(Collider::getComponentType()));
+    if (collider) {
+        collider->onBoundsChanged();
+    }
     if (getChildrenCount() > 0)
     {
         std::lock_guard<std::mutex> lock(children_mutex_);
@@ -148,6 +148,14 @@ public:
 
     void dirtyHierarchicalBoundingVolume();
     BoundingVolume& getBoundingVolume();
+
+    /*
+     * Get the world bounds of this object's own mesh.
+     * Only valid after getBoundingVolume has been called.
+     */
+    const BoundingVolume& getMeshBoundingVolume() const {
+        return mesh_bounding_volume;
+    }
     void onTransformChanged();
     bool onAddChild(SceneObject* addme, SceneObject* root);
     bool onRemoveChild(SceneObject* removeme, SceneObject* root);
@@ -182,6 +182,85 @@ bool  ShaderData::setMat4(const char* name, const glm::mat4& m)
     return uniforms().setMat4(name, m);
 }
 
+/**
+ * Get the index of a uniform, which can be used instead of its name
+ * to set it. Materials with the same uniform descriptor use the
+ * same indices.
+ * @return 0-based index or -1 if the uniform does not exist
+ */
+int ShaderData::getUniformIndex(const char* name) const
+{
+    std::lock_guard<std::mutex> lock(mLock);
+    return uniforms().getIndex(name);
+}
+
+bool ShaderData::setIntVecAt(int index, const int* val, int n)
+{
+    std::lock_guard<std::mutex> lock(mLock);
+    const DataDescriptor::DataEntry* entry = uniforms().getEntry(index);
+    if ((entry == nullptr) || !entry->IsInt)
+    {
+        return false;
+    }
+    makeDirty(MAT_DATA);
+    return uniforms().setIntVecAt(index, val, n);
+}
+
+bool ShaderData::setFloatVecAt(int index, const float* val, int n)
+{
+    std::lock_guard<std::mutex> lock(mLock);
+    const DataDescriptor::DataEntry* entry = uniforms().getEntry(index);
+    if ((entry == nullptr) || entry->IsInt)
+    {
+        return false;
+    }
+    makeDirty(MAT_DATA);
+    return uniforms().setFloatVecAt(index, val, n);
+}
+
+/**
+ * Set several float uniforms at once, given their indices.
+ * The values are packed one uniform after the other: each
+ * uniform takes as many values as it holds.
+ * @return true if all were set, false if an index is invalid,
+ *         refers to an integer uniform or there are too few values;
+ *         none are set then.
+ */
+bool ShaderData::setFloatsAt(const int* indices, int numIndices, const float* vals, int numVals)
+{
+    std::lock_guard<std::mutex> lock(mLock);
+    UniformBlock& block = uniforms();
+    int offset = 0;
+
+    // Check them all first, so a bad one changes nothing
+    for (int i = 0; i < numIndices; ++i)
+    {
+        const DataDescriptor::DataEntry* entry = block.getEntry(indices[i]);
+        if ((entry == nullptr) || entry->IsInt)
+        {
+            return false;
+        }
+        offset += entry->Size / sizeof(float);
+        if (offset > numVals)
+        {
+            return false;
+        }
+    }
+    offset = 0;
+    for (int i = 0; i < numIndices; ++i)
+    {
+        int n = block.getEntry(indices[i])->Size / sizeof(float);
+        if (!block.setFloatVecAt(indices[i], vals + offset, n))
+        {
+            // Only when the block has no data yet, so on the first one
+            return false;
+        }
+        offset += n;
+    }
+    makeDirty(MAT_DATA);
+    return true;
+}
+
 void ShaderData::makeDirty(DIRTY_BITS bits)
 {
     int temp = mDirty;
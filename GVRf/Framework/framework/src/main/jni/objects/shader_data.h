@@ -69,6 +69,10 @@ public:
     bool    setVec3(const char* name, const glm::vec3& v);
     bool    setVec4(const char* name, const glm::vec4& v);
     bool    setMat4(const char* name, const glm::mat4& m);
+    int     getUniformIndex(const char* name) const;
+    bool    setIntVecAt(int index, const int* val, int n);
+    bool    setFloatVecAt(int index, const float* val, int n);
+    bool    setFloatsAt(const int* indices, int numIndices, const float* vals, int numVals);
     void    makeDirty(DIRTY_BITS bits);
     void    clearDirty();
     bool    isDirty(DIRTY_BITS bits);
@@ -110,6 +110,50 @@ Java_org_gearvrf_NativeShaderData_hasTexture(JNIEnv*, jobject, jlong, jstring);
 
 JNIEXPORT jstring JNICALL
 Java_org_gearvrf_NativeShaderData_makeShaderLayout(JNIEnv*, jobject, jlong shader_data);
+
+JNIEXPORT jint JNICALL
+Java_org_gearvrf_NativeShaderData_getUniformHandle(JNIEnv* env,
+                                                   jobject obj, jlong jshader_data, jstring key);
+
+JNIEXPORT jboolean JNICALL
+Java_org_gearvrf_NativeShaderData_setFloatAt(JNIEnv* env,
+                                             jobject obj, jlong jshader_data, jint handle,
+                                             jfloat value);
+
+JNIEXPORT jboolean JNICALL
+Java_org_gearvrf_NativeShaderData_setIntAt(JNIEnv* env,
+                                           jobject obj, jlong jshader_data, jint handle,
+                                           jint value);
+
+JNIEXPORT jboolean JNICALL
+Java_org_gearvrf_NativeShaderData_setVec2At(JNIEnv* env,
+                                            jobject obj, jlong jshader_data, jint handle,
+                                            jfloat x, jfloat y);
+
+JNIEXPORT jboolean JNICALL
+Java_org_gearvrf_NativeShaderData_setVec3At(JNIEnv* env,
+                                            jobject obj, jlong jshader_data, jint handle,
+                                            jfloat x, jfloat y, jfloat z);
+
+JNIEXPORT jboolean JNICALL
+Java_org_gearvrf_NativeShaderData_setVec4At(JNIEnv* env,
+                                            jobject obj, jlong jshader_data, jint handle,
+                                            jfloat x, jfloat y, jfloat z, jfloat w);
+
+JNIEXPORT jboolean JNICALL
+Java_org_gearvrf_NativeShaderData_setFloatVecAt(JNIEnv* env, jobject obj,
+                                                jlong jshader_data, jint handle, jfloatArray jvec,
+                                                jint size);
+
+JNIEXPORT jboolean JNICALL
+Java_org_gearvrf_NativeShaderData_setIntVecAt(JNIEnv* env, jobject obj,
+                                              jlong jshader_data, jint handle, jintArray jvec,
+                                              jint size);
+
+JNIEXPORT jboolean JNICALL
+Java_org_gearvrf_NativeShaderData_setUniforms(JNIEnv* env, jobject obj,
+                                              jlong jshader_data, jintArray jhandles,
+                                              jfloatArray jvalues);
 };
 JNIEXPORT void JNICALL
 Java_org_gearvrf_NativeShaderData_useGpuBuffer(JNIEnv* env,
@@ -345,5 +389,104 @@ Java_org_gearvrf_NativeShaderData_makeShaderLayout(JNIEnv* env, jobject, jlong j
     return env->NewStringUTF(layout.c_str());
 }
 
+JNIEXPORT jint JNICALL
+Java_org_gearvrf_NativeShaderData_getUniformHandle(JNIEnv* env, jobject obj,
+                                                   jlong jshader_data, jstring key)
+{
+    ShaderData* shader_data = reinterpret_cast<ShaderData*>(jshader_data);
+    const char* char_key = env->GetStringUTFChars(key, 0);
+    int index = shader_data->getUniformIndex(char_key);
+    env->ReleaseStringUTFChars(key, char_key);
+    return index;
+}
+
+JNIEXPORT jboolean JNICALL
+Java_org_gearvrf_NativeShaderData_setFloatAt(JNIEnv* env, jobject obj,
+                                             jlong jshader_data, jint handle, jfloat value)
+{
+    ShaderData* shader_data = reinterpret_cast<ShaderData*>(jshader_data);
+    return shader_data->setFloatVecAt(handle, &value, 1);
+}
+
+JNIEXPORT jboolean JNICALL
+Java_org_gearvrf_NativeShaderData_setIntAt(JNIEnv* env, jobject obj,
+                                           jlong jshader_data, jint handle, jint value)
+{
+    ShaderData* shader_data = reinterpret_cast<ShaderData*>(jshader_data);
+    int v = value;
+    return shader_data->setIntVecAt(handle, &v, 1);
+}
+
+JNIEXPORT jboolean JNICALL
+Java_org_gearvrf_NativeShaderData_setVec2At(JNIEnv* env, jobject obj,
+                                            jlong jshader_data, jint handle,
+                                            jfloat x, jfloat y)
+{
+    ShaderData* shader_data = reinterpret_cast<ShaderData*>(jshader_data);
+    float v[2] = { x, y };
+    return shader_data->setFloatVecAt(handle, v, 2);
+}
+
+JNIEXPORT jboolean JNICALL
+Java_org_gearvrf_NativeShaderData_setVec3At(JNIEnv* env, jobject obj,
+                                            jlong jshader_data, jint handle,
+                                            jfloat x, jfloat y, jfloat z)
+{
+    ShaderData* shader_data = reinterpret_cast<ShaderData*>(jshader_data);
+    float v[3] = { x, y, z };
+    return shader_data->setFloatVecAt(handle, v, 3);
+}
+
+JNIEXPORT jboolean JNICALL
+Java_org_gearvrf_NativeShaderData_setVec4At(JNIEnv* env, jobject obj,
+                                            jlong jshader_data, jint handle,
+                                            jfloat x, jfloat y, jfloat z, jfloat w)
+{
+    ShaderData* shader_data = reinterpret_cast<ShaderData*>(jshader_data);
+    float v[4] = { x, y, z, w };
+    return shader_data->setFloatVecAt(handle, v, 4);
+}
+
+JNIEXPORT jboolean JNICALL
+Java_org_gearvrf_NativeShaderData_setFloatVecAt(JNIEnv* env, jobject obj,
+                                                jlong jshader_data, jint handle, jfloatArray jvec,
+                                                jint size)
+{
+    ShaderData* shader_data = reinterpret_cast<ShaderData*>(jshader_data);
+    float* elems = env->GetFloatArrayElements(jvec, 0);
+    bool rc = shader_data->setFloatVecAt(handle, elems, size);
+    env->ReleaseFloatArrayElements(jvec, elems, JNI_ABORT);
+    return rc;
+}
+
+JNIEXPORT jboolean JNICALL
+Java_org_gearvrf_NativeShaderData_setIntVecAt(JNIEnv* env, jobject obj,
+                                              jlong jshader_data, jint handle, jintArray jvec,
+                                              jint size)
+{
+    ShaderData* shader_data = reinterpret_cast<ShaderData*>(jshader_data);
+    jint* elems = env->GetIntArrayElements(jvec, 0);
+    bool rc = shader_data->setIntVecAt(handle, reinterpret_cast<int*>(elems), size);
+    env->ReleaseIntArrayElements(jvec, elems, JNI_ABORT);
+    return rc;
+}
+
+JNIEXPORT jboolean JNICALL
+Java_org_gearvrf_NativeShaderData_setUniforms(JNIEnv* env, jobject obj,
+                                              jlong jshader_data, jintArray jhandles,
+                                              jfloatArray jvalues)
+{
+    ShaderData* shader_data = reinterpret_cast<ShaderData*>(jshader_data);
+    int numHandles = env->GetArrayLength(jhandles);
+    int numValues = env->GetArrayLength(jvalues);
+    jint* handles = env->GetIntArrayElements(jhandles, 0);
+    float* values = env->GetFloatArrayElements(jvalues, 0);
+    bool rc = shader_data->setFloatsAt(reinterpret_cast<int*>(handles), numHandles,
+                                       values, numValues);
+    env->ReleaseFloatArrayElements(jvalues, values, JNI_ABORT);
+    env->ReleaseIntArrayElements(jhandles, handles, JNI_ABORT);
+    return rc;
+}
+
 }
 
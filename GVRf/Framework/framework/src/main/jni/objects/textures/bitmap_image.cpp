@@ -112,6 +112,34 @@ void BitmapImage::update(JNIEnv *env, int width, int height, int imageSize,
     }
 }
 
+/*
+ * Compressed texture in a direct buffer, such as a memory-mapped file.
+ * The mipmap levels are uploaded straight from the buffer, which is
+ * kept until then.
+ */
+void BitmapImage::update(JNIEnv *env, int width, int height, jobject buffer,
+                         int levels, const int* dataOffsets, const int* levelSizes)
+{
+    std::lock_guard<std::mutex> lock(mUpdateLock);
+    env->GetJavaVM(&mJava);
+    clearData(env);
+    mWidth = width;
+    mHeight = height;
+    mLevels = levels;
+    mIsCompressed = true;
+    mImageSize = levelSizes[0];
+    setDataOffsets(dataOffsets, levels);
+    mLevelSizes.assign(levelSizes, levelSizes + levels);
+    set_transparency(hasAlpha(mFormat));
+    if (buffer != NULL)
+    {
+        mBitmap = env->NewGlobalRef(buffer);
+        mIsBuffer = true;
+        LOGV("Texture: BitmapImage::update(compressed buffer, %d levels)", levels);
+        signalUpdate();
+    }
+}
+
 void BitmapImage::clearData(JNIEnv* env)
 {
     if (mData != NULL)
@@ -124,6 +152,7 @@ void BitmapImage::clearData(JNIEnv* env)
         env->DeleteGlobalRef(mBitmap);
         mBitmap = NULL;
     }
+    mLevelSizes.clear();
     mIsCompressed = false;
 }
 
@@ -41,6 +41,8 @@ namespace gvr {
                     int format, int type, jobject bitmap);
         void update(JNIEnv *env, int width, int height, int imageSize,
                     jbyteArray bytes, int levels, const int* dataOffsets);
+        void update(JNIEnv *env, int width, int height, jobject buffer,
+                    int levels, const int* dataOffsets, const int* levelSizes);
 
         void set_transparency(bool hasTransparency) {
             mHasTransparency = hasTransparency;
@@ -53,6 +55,15 @@ namespace gvr {
     protected:
         void clearData(JNIEnv* env);
 
+        int getLevelSize(int level) const
+        {
+            if ((level >= 0) && (level < mLevelSizes.size()))
+            {
+                return mLevelSizes[level];
+            }
+            return mImageSize;
+        }
+
     private:
         BitmapImage(const BitmapImage& texture) = delete;
         BitmapImage(BitmapImage&& texture) = delete;
@@ -66,6 +77,7 @@ namespace gvr {
         jobject mBitmap;
         bool mIsBuffer;
         bool mHasTransparency;
+        std::vector<int> mLevelSizes;   // byte size of each compressed level in mBitmap
     };
 
 }
@@ -48,6 +48,12 @@ namespace gvr
                                                         jlong jtexture, jint width, int height, jint imageSize,
                                                         jbyteArray jdata, jint levels, jintArray offset);
 
+    JNIEXPORT void JNICALL
+    Java_org_gearvrf_NativeBitmapImage_updateCompressedBuffer(JNIEnv *env, jobject obj,
+                                                              jlong jtexture, jint width, jint height,
+                                                              jobject jbuffer, jint levels,
+                                                              jintArray joffsets, jintArray jsizes);
+
     JNIEXPORT void JNICALL
     Java_org_gearvrf_NativeBitmapImage_updateFromBitmap(JNIEnv *env, jobject obj,
                                                         jlong jtexture, jobject jbitmap, jboolean hasAlpha);
@@ -108,6 +114,21 @@ namespace gvr
         env->DeleteLocalRef(keep2);
     }
 
+    JNIEXPORT void JNICALL
+    Java_org_gearvrf_NativeBitmapImage_updateCompressedBuffer(JNIEnv *env, jobject obj,
+                                                              jlong jtexture, jint width, jint height,
+                                                              jobject jbuffer, jint levels,
+                                                              jintArray joffsets, jintArray jsizes)
+    {
+        LOGV("updateCompressedBuffer: buffer = %p, levels = %d", jbuffer, levels);
+        BitmapImage *texture = reinterpret_cast<BitmapImage *>(jtexture);
+        int* offsets = env->GetIntArrayElements(joffsets, 0);
+        int* sizes = env->GetIntArrayElements(jsizes, 0);
+        texture->update(env, width, height, jbuffer, levels, offsets, sizes);
+        env->ReleaseIntArrayElements(jsizes, sizes, JNI_ABORT);
+        env->ReleaseIntArrayElements(joffsets, offsets, JNI_ABORT);
+    }
+
     JNIEXPORT void JNICALL
     Java_org_gearvrf_NativeBitmapImage_setFileName(JNIEnv *env, jobject obj,
                                                    jlong jtexture, jstring jfile)
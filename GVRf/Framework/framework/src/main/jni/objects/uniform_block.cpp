@@ -130,6 +130,32 @@ namespace gvr
         return false;
     }
 
+    bool UniformBlock::setFloatVecAt(int index, const float *val, int n)
+    {
+        int bytesize = n * sizeof(float);
+        char *data = getEntryData(index, bytesize);
+        if (data != NULL)
+        {
+            memcpy(data, val, bytesize);
+            markDirty();
+            return true;
+        }
+        return false;
+    }
+
+    bool UniformBlock::setIntVecAt(int index, const int *val, int n)
+    {
+        int bytesize = n * sizeof(int);
+        char *data = getEntryData(index, bytesize);
+        if (data != NULL)
+        {
+            memcpy(data, val, bytesize);
+            markDirty();
+            return true;
+        }
+        return false;
+    }
+
     const glm::vec2* UniformBlock::getVec2(const char* name) const
     {
         int size = 2 * sizeof(float);
@@ -248,6 +274,23 @@ namespace gvr
         return data;
     }
 
+    /*
+     * Get the data of an entry from its index.
+     * @param index     0-based index of the entry
+     * @param bytesize  number of bytes to be written, 0 to skip the size check
+     * @return pointer to the entry data or NULL if the index or size is invalid
+     */
+    char* UniformBlock::getEntryData(int index, int bytesize)
+    {
+        if ((index < 0) || (static_cast<size_t>(index) >= mLayout.size()) || (mUniformData == NULL))
+            return NULL;
+        DataEntry& u = mLayout[index];
+        if (bytesize > u.Size)
+            return NULL;
+        u.IsSet = true;
+        return mUniformData + u.Offset;
+    }
+
     std::string UniformBlock::makeShaderLayout()
     {
         std::ostringstream stream;
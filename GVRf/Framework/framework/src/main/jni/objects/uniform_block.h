@@ -196,6 +196,18 @@ namespace gvr
          */
         virtual bool setMat4(const char *name, const glm::mat4 &val);
 
+        /**
+         * Set the value of an entry given its index
+         * (from DataDescriptor::getIndex) instead of its name.
+         * @param index 0-based index of entry to set
+         * @param val   values to copy
+         * @param n     number of values, no more than the entry holds
+         * @return true if set, false if the index or size is invalid
+         */
+        virtual bool setFloatVecAt(int index, const float *val, int n);
+
+        virtual bool setIntVecAt(int index, const int *val, int n);
+
         /**
          * Get the value of a 2D vector uniform.
          * If the named uniform is not a 2D vector this function
@@ -366,6 +378,8 @@ namespace gvr
          */
         char* getData(const char *name, int &bytesize);
 
+        char* getEntryData(int index, int bytesize);
+
         const char* getData(const char *name, int &bytesize) const;
 
         int mBindingPoint;           // shader binding point
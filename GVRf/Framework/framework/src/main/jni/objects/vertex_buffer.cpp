@@ -156,6 +156,95 @@ namespace gvr {
         return true;
     }
 
+    /**
+     * Update several float vertex attributes from memory data,
+     * interleaving them in a single pass over the vertices.
+     * @param numAttributes  number of attributes to update
+     * @param attributeNames names of attributes to update
+     * @param srcs           pointers to source arrays of float data
+     * @param srcSizes       total number of floats in each source array
+     * @param srcStrides     number of floats in a single entry of each source array,
+     *                       0 if the source array is closely packed.
+     * @return true if all attributes were updated, false on error
+     */
+    bool    VertexBuffer::setFloatVecs(int numAttributes, const char* const* attributeNames,
+                                       const float* const* srcs, const int* srcSizes, const int* srcStrides)
+    {
+        struct Source
+        {
+            DataEntry*      attr;
+            const float*    src;
+            int             srcStride;
+            int             attrStride;
+        };
+        std::lock_guard<std::mutex> lock(mLock);
+        std::vector<Source> sources(numAttributes);
+        int     nverts = mVertexCount;
+        float*  dest;
+        int     dstStride;
+
+        for (int a = 0; a < numAttributes; ++a)
+        {
+            const char* attributeName = attributeNames[a];
+            Source&     s = sources[a];
+
+            s.attr = find(attributeName);
+            s.src = srcs[a];
+            if ((s.attr == NULL) || s.attr->IsInt)
+            {
+                LOGE("VertexBuffer: ERROR float attribute %s not found in vertex buffer", attributeName);
+                return false;
+            }
+            if (s.src == NULL)
+            {
+                LOGE("VertexBuffer: cannot set attribute %s, source array not found", attributeName);
+                return false;
+            }
+            s.attrStride = s.attr->Size / sizeof(float);
+            s.srcStride = (srcStrides[a] == 0) ? s.attrStride : srcStrides[a];
+            if (s.attrStride > s.srcStride)
+            {
+                LOGE("VertexBuffer: cannot copy to vertex array %s, stride is %d should be >= %d", attributeName, s.srcStride, s.attrStride);
+                return false;
+            }
+            int n = srcSizes[a] / s.srcStride;      // # of vertices in input array
+            if (nverts == 0)
+            {
+                nverts = n;
+            }
+            else if (n < nverts)
+            {
+                LOGE("VertexBuffer: cannot copy to vertex array %s, not enough vertices in source", attributeName);
+                return false;
+            }
+        }
+        if ((numAttributes == 0) || !setVertexCount(nverts))
+        {
+            return false;
+        }
+        dest = reinterpret_cast<float*>(mVertexData);
+        dstStride = getTotalSize() / sizeof(float);
+
+        for (int i = 0; i < mVertexCount; ++i)
+        {
+            for (Source& s : sources)
+            {
+                float* d = dest + s.attr->Offset / sizeof(float);
+                for (int j = 0; j < s.attrStride; ++j)
+                {
+                    d[j] = s.src[j];
+                }
+                s.src += s.srcStride;
+            }
+            dest += dstStride;
+        }
+        for (Source& s : sources)
+        {
+            s.attr->IsSet = true;
+        }
+        markDirty();
+        return true;
+    }
 
     bool    VertexBuffer::getFloatVec(const char* attributeName, float* dest, int destSize, int destStride) const
     {
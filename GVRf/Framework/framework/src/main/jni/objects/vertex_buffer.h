@@ -93,6 +93,25 @@ namespace gvr {
          */
         bool    getFloatVec(const char* attributeName, float* dest, int destSize, int destStride) const;
 
+        /**
+         * Set all the values for several float vertex attributes.
+         * The vertices are written in one pass, each with all of the
+         * given attributes, instead of one pass per attribute.
+         * The attributes are validated before anything is copied:
+         * if one of them cannot be set, none of them is.
+         *
+         * @param numAttributes   number of attributes to set.
+         * @param attributeNames  names of the attributes.
+         * @param srcs            pointers to the source data, one per attribute.
+         * @param srcSizes        number of floats in each source array.
+         * @param srcStrides      number of floats to the next vertex in each
+         *                        source array, 0 if it is closely packed.
+         * @returns true if successfully set, false on error.
+         * @see setFloatVec
+         */
+        bool    setFloatVecs(int numAttributes, const char* const* attributeNames,
+                             const float* const* srcs, const int* srcSizes, const int* srcStrides);
+
         /**
          * Set all the values for an integer vertex attribute.
          * If the named entry is not an int vector in the descriptor
@@ -65,6 +65,11 @@ namespace gvr {
                                                     jlong jvbuf, jstring attribName,
                                                     jobject jfloatbuf, jint stride, jint ofs);
 
+    JNIEXPORT bool JNICALL
+    Java_org_gearvrf_NativeVertexBuffer_setFloatVecs(JNIEnv* env, jobject obj,
+                                                     jlong jvbuf, jobjectArray attribNames,
+                                                     jobjectArray jfloatbufs, jintArray jstrides);
+
     JNIEXPORT bool JNICALL
     Java_org_gearvrf_NativeVertexBuffer_isSet(JNIEnv* env, jobject obj,
                                               jlong jvbuf, jstring attribName);
@@ -218,6 +223,46 @@ Java_org_gearvrf_NativeVertexBuffer_setFloatVec(JNIEnv* env, jobject obj,
     return rc;
 }
 
+JNIEXPORT bool JNICALL
+Java_org_gearvrf_NativeVertexBuffer_setFloatVecs(JNIEnv* env, jobject obj,
+                                                 jlong jvbuf, jobjectArray attribNames,
+                                                 jobjectArray jfloatbufs, jintArray jstrides)
+{
+    VertexBuffer* vbuf = reinterpret_cast<VertexBuffer*>(jvbuf);
+    int n = static_cast<int>(env->GetArrayLength(attribNames));
+    std::vector<jstring> names(n);
+    std::vector<const char*> char_keys(n);
+    std::vector<const float*> srcs(n);
+    std::vector<int> sizes(n);
+    jint* strides = env->GetIntArrayElements(jstrides, 0);
+    bool rc = true;
+
+    for (int i = 0; i < n; ++i)
+    {
+        jobject jfloatbuf = env->GetObjectArrayElement(jfloatbufs, i);
+        names[i] = static_cast<jstring>(env->GetObjectArrayElement(attribNames, i));
+        char_keys[i] = env->GetStringUTFChars(names[i], 0);
+        srcs[i] = static_cast<const float*>(env->GetDirectBufferAddress(jfloatbuf));
+        sizes[i] = static_cast<int>(env->GetDirectBufferCapacity(jfloatbuf));
+        env->DeleteLocalRef(jfloatbuf);
+        if (srcs[i] == NULL)
+        {
+            rc = false;
+        }
+    }
+    if (rc)
+    {
+        rc = vbuf->setFloatVecs(n, char_keys.data(), srcs.data(), sizes.data(), strides);
+    }
+    for (int i = 0; i < n; ++i)
+    {
+        env->ReleaseStringUTFChars(names[i], char_keys[i]);
+        env->DeleteLocalRef(names[i]);
+    }
+    env->ReleaseIntArrayElements(jstrides, strides, JNI_ABORT);
+    return rc;
+}
+
 JNIEXPORT bool JNICALL
 Java_org_gearvrf_NativeVertexBuffer_setIntVec(JNIEnv* env, jobject obj,
                                               jlong jvbuf, jstring attribName,
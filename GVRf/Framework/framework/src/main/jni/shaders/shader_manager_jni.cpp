@@ -45,6 +45,10 @@ extern "C" {
     Java_org_gearvrf_NativeShaderManager_bindCalcMatrix(JNIEnv* env, jobject obj, jlong jshader_manager,
                                                         jint nativeShader, jclass javeShaderClass);
 
+    JNIEXPORT jboolean JNICALL
+    Java_org_gearvrf_NativeShaderManager_compileShader(JNIEnv* env, jobject obj, jlong jshader_manager,
+                                                       jint nativeShader, jboolean isMultiview);
+
     JNIEXPORT jstring JNICALL
     Java_org_gearvrf_NativeShaderManager_makeLayout(JNIEnv* env, jobject obj,
                                                    jstring descriptor, jstring blockName, jboolean useGPUBuffer);
@@ -114,6 +118,27 @@ Java_org_gearvrf_NativeShaderManager_bindCalcMatrix(JNIEnv* env, jobject obj, jl
     }
 }
 
+JNIEXPORT jboolean JNICALL
+Java_org_gearvrf_NativeShaderManager_compileShader(JNIEnv* env, jobject obj, jlong jshader_manager,
+                                                   jint nativeShader, jboolean isMultiview)
+{
+    ShaderManager* shader_manager = reinterpret_cast<ShaderManager*>(jshader_manager);
+    Shader* shader = shader_manager->getShader(nativeShader);
+    if (shader == nullptr)
+    {
+        return false;
+    }
+    try
+    {
+        return shader->useShader(isMultiview);
+    }
+    catch (const std::string& error)
+    {
+        LOGE("SHADER: cannot compile %s: %s", shader->signature(), error.c_str());
+        return false;
+    }
+}
+
 JNIEXPORT jstring JNICALL
 Java_org_gearvrf_NativeShaderManager_makeLayout(JNIEnv* env, jobject obj,
                                                 jstring jdescriptor, jstring jblockName, jboolean useGPUBuffer)
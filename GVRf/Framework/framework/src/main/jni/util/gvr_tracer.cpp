@@ -0,0 +1,79 @@
+/* Copyright 2016 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+#include "gvr_tracer.h"
+
+#include <unistd.h>
+#include <cstdio>
+#include "gvr_time.h"
+
+namespace gvr {
+
+namespace {
+
+const unsigned int TRACE_CAPACITY = 1 << 16; // power of two
+
+struct TraceEvent {
+    const char* name;
+    long long time;
+    int tid;
+    char phase;
+};
+
+TraceEvent trace_events[TRACE_CAPACITY];
+std::atomic<unsigned int> trace_next(0);
+
+}
+
+std::atomic<bool> Tracer::enabled_(false);
+
+void Tracer::record(char phase, const char* name) {
+    unsigned int index = trace_next.fetch_add(1, std::memory_order_relaxed);
+    TraceEvent& event = trace_events[index & (TRACE_CAPACITY - 1)];
+    event.name = name;
+    event.time = getNanoTime();
+    event.tid = gettid();
+    event.phase = phase;
+}
+
+std::string Tracer::exportEvents(int pid) {
+    unsigned int next = trace_next.load(std::memory_order_relaxed);
+    unsigned int count = next < TRACE_CAPACITY ? next : TRACE_CAPACITY;
+    std::string json;
+    char buffer[256];
+
+    json.reserve(count * 64);
+    for (unsigned int i = next - count; i != next; ++i) {
+        const TraceEvent& event = trace_events[i & (TRACE_CAPACITY - 1)];
+        if (event.name == nullptr) {
+            continue;
+        }
+        snprintf(buffer, sizeof(buffer),
+                "%s{\"name\":\"%s\",\"cat\":\"native\",\"ph\":\"%c\",\"ts\":%lld.%03lld,\"pid\":%d,\"tid\":%d}",
+                json.empty() ? "" : ",", event.name, event.phase,
+                event.time / 1000, event.time % 1000, pid, event.tid);
+        json += buffer;
+    }
+    return json;
+}
+
+void Tracer::clear() {
+    for (unsigned int i = 0; i < TRACE_CAPACITY; ++i) {
+        trace_events[i].name = nullptr;
+    }
+    trace_next.store(0, std::memory_order_relaxed);
+}
+
+}
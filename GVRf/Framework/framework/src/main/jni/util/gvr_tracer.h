@@ -0,0 +1,93 @@
+/* Copyright 2016 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/***************************************************************************
+ * Ring-buffer tracer of begin and end spans, exported as Chrome trace
+ * events.
+ ***************************************************************************/
+
+#ifndef GVR_TRACER_H_
+#define GVR_TRACER_H_
+
+#include <atomic>
+#include <string>
+
+namespace gvr {
+
+class Tracer {
+public:
+    /*
+     * Tracing is off by default; a disabled TRACE_SCOPE costs one relaxed
+     * atomic load.
+     */
+    static bool enabled() {
+        return enabled_.load(std::memory_order_relaxed);
+    }
+    static void setEnabled(bool enabled) {
+        enabled_.store(enabled, std::memory_order_relaxed);
+    }
+
+    /*
+     * The names must be string literals (or otherwise outlive the trace):
+     * only the pointer is recorded.
+     */
+    static void begin(const char* name) {
+        record('B', name);
+    }
+    static void end(const char* name) {
+        record('E', name);
+    }
+
+    /*
+     * Returns the recorded events as comma-separated Chrome trace event
+     * JSON objects, oldest first.
+     */
+    static std::string exportEvents(int pid);
+    static void clear();
+
+private:
+    static void record(char phase, const char* name);
+
+    static std::atomic<bool> enabled_;
+};
+
+/*
+ * Records a span for the rest of the enclosing scope.
+ */
+class TraceScope {
+public:
+    explicit TraceScope(const char* name) :
+            name_(Tracer::enabled() ? name : nullptr) {
+        if (name_ != nullptr) {
+            Tracer::begin(name_);
+        }
+    }
+    ~TraceScope() {
+        if (name_ != nullptr) {
+            Tracer::end(name_);
+        }
+    }
+
+private:
+    TraceScope(const TraceScope&);
+    TraceScope& operator=(const TraceScope&);
+
+    const char* name_;
+};
+
+#define TRACE_SCOPE(name) gvr::TraceScope gvr_trace_scope_(name)
+
+}
+#endif
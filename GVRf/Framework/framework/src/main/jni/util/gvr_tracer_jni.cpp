@@ -0,0 +1,59 @@
+/* Copyright 2016 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/***************************************************************************
+ * JNI
+ ***************************************************************************/
+
+#include "gvr_tracer.h"
+
+#include "util/gvr_jni.h"
+
+namespace gvr {
+
+extern "C" {
+JNIEXPORT void JNICALL
+Java_org_gearvrf_debug_NativeTracer_setEnabled(JNIEnv * env,
+        jobject obj, jboolean enabled);
+
+JNIEXPORT jstring JNICALL
+Java_org_gearvrf_debug_NativeTracer_exportEvents(JNIEnv * env,
+        jobject obj, jint pid);
+
+JNIEXPORT void JNICALL
+Java_org_gearvrf_debug_NativeTracer_clear(JNIEnv * env,
+        jobject obj);
+}
+;
+
+JNIEXPORT void JNICALL
+Java_org_gearvrf_debug_NativeTracer_setEnabled(JNIEnv * env,
+        jobject obj, jboolean enabled) {
+    Tracer::setEnabled(enabled);
+}
+
+JNIEXPORT jstring JNICALL
+Java_org_gearvrf_debug_NativeTracer_exportEvents(JNIEnv * env,
+        jobject obj, jint pid) {
+    std::string events = Tracer::exportEvents(pid);
+    return env->NewStringUTF(events.c_str());
+}
+
+JNIEXPORT void JNICALL
+Java_org_gearvrf_debug_NativeTracer_clear(JNIEnv * env,
+        jobject obj) {
+    Tracer::clear();
+}
+}
@@ -18,6 +18,8 @@
 #include "engine/renderer/renderer.h"
 #include "objects/textures/render_texture.h"
 #include "objects/components/render_target.h"
+#include "util/gvr_time.h"
+#include "util/gvr_tracer.h"
 //#include "objects/components/camera.h"
 
 namespace gvr {
@@ -56,12 +58,31 @@ extern "C" {
                 reinterpret_cast<RenderTexture *>(jpost_effect_render_texture_b);
 
 
+        TRACE_SCOPE("cullAndRender");
         renderTarget->cullFromCamera(scene, renderTarget->getCamera(),gRenderer,shader_manager);
+        long long start = getNanoTime();
         if(!gRenderer->isVulkanInstance())
             renderTarget->beginRendering(gRenderer);
         gRenderer->renderRenderTarget(scene, renderTarget,shader_manager,post_effect_render_texture_a,post_effect_render_texture_b);
         if(!gRenderer->isVulkanInstance())
             renderTarget->endRendering(gRenderer);
+        gRenderer->addPhaseTime(Renderer::DRAW_PHASE, getNanoTime() - start);
+    }
+
+    void Java_org_gearvrf_GVRViewManager_readRenderPhaseTimes(JNIEnv *env, jclass clazz,
+                                                             jlongArray jtimes)
+    {
+        long long times[Renderer::PHASE_COUNT];
+        jlong values[Renderer::PHASE_COUNT];
+
+        if (gRenderer == nullptr) {
+            return;
+        }
+        gRenderer->getPhaseTimes(times);
+        for (int i = 0; i < Renderer::PHASE_COUNT; ++i) {
+            values[i] = times[i];
+        }
+        env->SetLongArrayRegion(jtimes, 0, Renderer::PHASE_COUNT, values);
     }
 
     JNIEXPORT void JNICALL
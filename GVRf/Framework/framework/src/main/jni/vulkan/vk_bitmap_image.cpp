@@ -148,6 +148,26 @@ std::map<int, VkFormat> compressed_formats = {
         }
         mLevels = 0;
         jbyte *pixels = env->GetByteArrayElements(mData, 0);
+        updateFromPixels(pixels + getDataOffset(0));
+        env->ReleaseByteArrayElements(mData, pixels, 0);
+        clearData(env);
+    }
+
+    /*
+     * Compressed texture in a direct buffer, such as a memory-mapped file.
+     * Like the byte array path, only the first level is uploaded.
+     */
+    void VkBitmapImage::updateFromCompressedBuffer(JNIEnv *env, jobject buffer) {
+        char* data = static_cast<char*>(env->GetDirectBufferAddress(buffer));
+        if (data == NULL) {
+            LOGE("BitmapImage::updateFromCompressedBuffer buffer is not direct");
+            return;
+        }
+        mLevels = 0;
+        updateFromPixels(data + getDataOffset(0));
+    }
+
+    void VkBitmapImage::updateFromPixels(void* pixels) {
         std::vector<void *> texData;
         std::vector<VkBufferImageCopy> bufferCopyRegions;
         std::vector<ImageInfo> imageInfos;
@@ -171,7 +191,7 @@ std::map<int, VkFormat> compressed_formats = {
             imageInfo.mipLevel = 0;
             imageInfos.push_back(imageInfo);
             bufferCopyRegions.push_back(bufferCopyRegion);
-            texData.push_back(pixels + getDataOffset(0));
+            texData.push_back(pixels);
 
             if (mIsCompressed)
                 internal_format = compressed_formats[mFormat];
@@ -180,9 +200,6 @@ std::map<int, VkFormat> compressed_formats = {
 
             updateMipVkImage(mImageSize, texData, imageInfos, bufferCopyRegions, target,
                              internal_format, 1);
-
-        env->ReleaseByteArrayElements(mData, pixels, 0);
-        clearData(env);
     }
 
     void VkBitmapImage::updateFromBitmap(int texid) {
@@ -191,7 +208,9 @@ std::map<int, VkFormat> compressed_formats = {
             LOGE("BitmapImage::updateFromBitmap bitmap is null");
             return;
         }
-        if(mIsBuffer) {
+        if (mIsBuffer && mIsCompressed) {
+            updateFromCompressedBuffer(env, mBitmap);
+        } else if(mIsBuffer) {
             updateFromBuffer(env, getImageType(), mBitmap);
         } else {
             updateFromBitmap(env, getImageType(), mBitmap);
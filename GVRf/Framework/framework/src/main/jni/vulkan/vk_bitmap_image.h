@@ -41,6 +41,8 @@ namespace gvr {
 
     private:
         int updateFromBuffer(JNIEnv *env, VkImageViewType target, jobject bitmap);
+        void updateFromCompressedBuffer(JNIEnv *env, jobject buffer);
+        void updateFromPixels(void* pixels);
 
     };
 
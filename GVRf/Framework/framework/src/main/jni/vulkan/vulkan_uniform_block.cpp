@@ -12,6 +12,7 @@
  * See the License for the specific language governing permissions and
  * limitations under the License.
  */
+#include <algorithm>
 #include <engine/renderer/vulkan_renderer.h>
 #include "vulkan_headers.h"
 #include "util/gvr_gl.h"
@@ -216,6 +217,58 @@ namespace gvr {
         return false;
     }
 
+    bool VulkanUniformBlock::setFloatVecAt(int index, const float *val, int n) {
+        if ((index < 0) || (static_cast<size_t>(index) >= mLayout.size()))
+            return false;
+        const DataEntry& u = mLayout[index];
+
+        // For array of vec3 needs padding for every entry in UBO
+        if ((u.Type[u.Type.length() - 1] == '3') &&
+            (u.Count > 1))
+        {
+            float* dest = (float*) getEntryData(index, 0);
+            if (dest == NULL)
+                return false;
+            int count = std::min(n / 3, (int) u.Count);
+            for (int i = 0; i < count; i++)
+            {
+                *dest++ = *val++;
+                *dest++ = *val++;
+                *dest++ = *val++;
+                ++dest;
+            }
+            markDirty();
+            return true;
+        }
+        return UniformBlock::setFloatVecAt(index, val, n);
+    }
+
+    bool VulkanUniformBlock::setIntVecAt(int index, const int *val, int n) {
+        if ((index < 0) || (static_cast<size_t>(index) >= mLayout.size()))
+            return false;
+        const DataEntry& u = mLayout[index];
+
+        // For array of vec3 needs padding for every entry in UBO
+        if ((u.Type[u.Type.length() - 1] == '3') &&
+            (u.Count > 1))
+        {
+            int* dest = (int*) getEntryData(index, 0);
+            if (dest == NULL)
+                return false;
+            int count = std::min(n / 3, (int) u.Count);
+            for (int i = 0; i < count; i++)
+            {
+                *dest++ = *val++;
+                *dest++ = *val++;
+                *dest++ = *val++;
+                ++dest;
+            }
+            markDirty();
+            return true;
+        }
+        return UniformBlock::setIntVecAt(index, val, n);
+    }
+
     int VulkanUniformBlock::getPaddingSize(short &totaSize, int padSize){
         int mod = totaSize % padSize;
         int requiredSize = 0;
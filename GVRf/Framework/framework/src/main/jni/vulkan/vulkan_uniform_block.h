@@ -75,6 +75,8 @@ namespace gvr {
         char * getUniformData() { return mUniformData; }
         virtual bool setFloatVec(const char *name, const float *val, int n);
         virtual bool setIntVec(const char *name, const int *val, int n);
+        virtual bool setFloatVecAt(int index, const float *val, int n);
+        virtual bool setIntVecAt(int index, const int *val, int n);
     protected:
         void createBuffer(VulkanCore*);
         void updateBuffer(VulkanCore* vk);